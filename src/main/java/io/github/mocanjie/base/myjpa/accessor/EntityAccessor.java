@@ -0,0 +1,30 @@
+package io.github.mocanjie.base.myjpa.accessor;
+
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+/**
+ * 实体访问器：编译期为 {@code @MyTable} 实体生成的行映射器与参数绑定器
+ * 由 MyTableAnnotationProcessor 生成（类名为 {@code 实体类名_MyJpa}），
+ * 并登记到 {@code META-INF/services/io.github.mocanjie.base.myjpa.accessor.EntityAccessor}，
+ * 运行时由 {@link EntityAccessors} 加载，替代反射实现的 MyBeanPropertyRowMapper 与 BeanPropertySqlParameterSource
+ *
+ * @param <T> 实体类型
+ */
+public interface EntityAccessor<T> {
+
+    /**
+     * 对应的实体类
+     */
+    Class<T> entityClass();
+
+    /**
+     * 行映射器，可被多线程共享
+     */
+    RowMapper<T> rowMapper();
+
+    /**
+     * 以实体属性为命名参数的参数源，参数名为属性名
+     */
+    SqlParameterSource parameterSource(T entity);
+}
@@ -0,0 +1,107 @@
+package io.github.mocanjie.base.myjpa.accessor;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.BeanPropertySqlParameterSource;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 编译期生成的实体访问器注册表
+ * 首次使用时通过 {@link ServiceLoader} 读取生成的索引文件加载全部访问器；
+ * 实体没有生成访问器（未经 APT 编译、不满足生成条件）或关闭 {@link #enabled} 时回退到反射实现。
+ */
+public class EntityAccessors {
+
+    private static final Logger log = LoggerFactory.getLogger(EntityAccessors.class);
+
+    /** 是否使用生成的访问器，对应配置 myjpa.mapping.generated-accessor */
+    public static volatile boolean enabled = true;
+
+    private static final Map<Class<?>, EntityAccessor<?>> ACCESSORS = new ConcurrentHashMap<>();
+
+    private static volatile boolean loaded = false;
+
+    /**
+     * 手动注册访问器，已存在时覆盖
+     */
+    public static void register(EntityAccessor<?> accessor) {
+        ACCESSORS.put(accessor.entityClass(), accessor);
+    }
+
+    /**
+     * 实体的访问器，没有或未启用时返回 null
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> EntityAccessor<T> get(Class<T> clazz) {
+        if (!enabled) return null;
+        if (!loaded) load();
+        return (EntityAccessor<T>) ACCESSORS.get(clazz);
+    }
+
+    /**
+     * 生成的行映射器，没有时返回 null
+     */
+    public static <T> RowMapper<T> getRowMapper(Class<T> clazz) {
+        EntityAccessor<T> accessor = get(clazz);
+        return accessor != null ? accessor.rowMapper() : null;
+    }
+
+    /**
+     * 以对象属性为命名参数的参数源，优先使用生成的绑定器，否则为 BeanPropertySqlParameterSource
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> SqlParameterSource parameterSource(T bean) {
+        EntityAccessor<T> accessor = get((Class<T>) bean.getClass());
+        return accessor != null ? accessor.parameterSource(bean) : new BeanPropertySqlParameterSource(bean);
+    }
+
+    /**
+     * 批量参数源，替代 SqlParameterSourceUtils.createBatch
+     */
+    public static SqlParameterSource[] parameterSources(Collection<?> beans) {
+        SqlParameterSource[] sources = new SqlParameterSource[beans.size()];
+        int i = 0;
+        for (Object bean : beans) {
+            sources[i++] = parameterSource(bean);
+        }
+        return sources;
+    }
+
+    /**
+     * 清空注册表，下次使用时重新加载
+     */
+    public static void clear() {
+        ACCESSORS.clear();
+        loaded = false;
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static synchronized void load() {
+        if (loaded) return;
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        if (classLoader == null) classLoader = EntityAccessors.class.getClassLoader();
+        int count = 0;
+        Iterator<EntityAccessor> iterator = ServiceLoader.load(EntityAccessor.class, classLoader).iterator();
+        while (true) {
+            try {
+                if (!iterator.hasNext()) break;
+                EntityAccessor<?> accessor = iterator.next();
+                ACCESSORS.putIfAbsent(accessor.entityClass(), accessor);
+                count++;
+            } catch (ServiceConfigurationError e) {
+                // 实体类已删除但索引未重新生成等情况，跳过该条目
+                log.warn("加载生成的实体访问器失败，将使用反射映射: {}", e.getMessage());
+            }
+        }
+        if (count > 0) log.info("已加载{}个编译期生成的实体访问器", count);
+        loaded = true;
+    }
+}
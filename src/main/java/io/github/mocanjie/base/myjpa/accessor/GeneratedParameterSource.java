@@ -0,0 +1,60 @@
+package io.github.mocanjie.base.myjpa.accessor;
+
+import org.springframework.jdbc.core.StatementCreatorUtils;
+import org.springframework.jdbc.core.namedparam.AbstractSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.BeanPropertySqlParameterSource;
+import org.springframework.lang.Nullable;
+
+/**
+ * 生成的参数绑定器基类：实体字段对应的参数直接调用 getter 取值，SQL 类型按属性类型推断；
+ * 其余参数名（如没有对应字段的 getter）交给 BeanPropertySqlParameterSource，行为与其保持一致
+ *
+ * @param <T> 实体类型
+ */
+public abstract class GeneratedParameterSource<T> extends AbstractSqlParameterSource {
+
+    protected final T entity;
+
+    @Nullable
+    private BeanPropertySqlParameterSource fallback;
+
+    protected GeneratedParameterSource(T entity) {
+        this.entity = entity;
+    }
+
+    /**
+     * 参数对应的字段类型，不是实体字段时返回 null
+     */
+    @Nullable
+    protected abstract Class<?> propertyType(String paramName);
+
+    /**
+     * 非字段参数使用的反射参数源，按需创建
+     */
+    protected BeanPropertySqlParameterSource fallback() {
+        if (fallback == null) {
+            fallback = new BeanPropertySqlParameterSource(entity);
+        }
+        return fallback;
+    }
+
+    @Override
+    public boolean hasValue(String paramName) {
+        return propertyType(paramName) != null || fallback().hasValue(paramName);
+    }
+
+    @Override
+    public int getSqlType(String paramName) {
+        int sqlType = super.getSqlType(paramName);
+        if (sqlType != TYPE_UNKNOWN) {
+            return sqlType;
+        }
+        Class<?> propertyType = propertyType(paramName);
+        return propertyType != null ? StatementCreatorUtils.javaTypeToSqlParameterType(propertyType) : fallback().getSqlType(paramName);
+    }
+
+    @Override
+    public String[] getParameterNames() {
+        return fallback().getParameterNames();
+    }
+}
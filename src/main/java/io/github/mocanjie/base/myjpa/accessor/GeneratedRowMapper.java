@@ -0,0 +1,155 @@
+package io.github.mocanjie.base.myjpa.accessor;
+
+import io.github.mocanjie.base.myjpa.rowmapper.ReusableRowMapper;
+import org.springframework.beans.TypeMismatchException;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.lang.Nullable;
+import org.springframework.util.StringUtils;
+
+import java.beans.PropertyChangeEvent;
+import java.lang.ref.WeakReference;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 生成的行映射器基类
+ * 列与属性的对应关系每个结果集解析一次（按列标签签名跨执行缓存），逐行按属性序号调用生成的
+ * {@link #read} 方法，由其直接调用 setter 并使用与属性类型匹配的 JDBC getter
+ *
+ * @param <T> 实体类型
+ */
+public abstract class GeneratedRowMapper<T> implements ReusableRowMapper<T> {
+
+    /** 列计划缓存最大条目数，超出后整体清空重建 */
+    private static final int MAX_PLAN_CACHE_SIZE = 256;
+
+    /**
+     * 映射计划
+     *
+     * @param columns    列序号（从 1 开始）
+     * @param properties 对应的属性序号
+     */
+    private record ColumnPlan(int[] columns, int[] properties) {}
+
+    /** 当前线程正在读取的结果集及其计划 */
+    private record ActivePlan(WeakReference<ResultSet> resultSet, ColumnPlan plan) {}
+
+    private final Map<String, ColumnPlan> columnPlans = new ConcurrentHashMap<>();
+
+    private final ThreadLocal<ActivePlan> activePlan = new ThreadLocal<>();
+
+    /**
+     * 列名对应的属性序号，不映射时返回 -1
+     *
+     * @param column 小写且去掉空格的列名
+     */
+    protected abstract int propertyIndex(String column);
+
+    protected abstract T newInstance();
+
+    /**
+     * 读取一列写入序号为 property 的属性
+     */
+    protected abstract void read(T entity, int property, ResultSet rs, int column) throws SQLException;
+
+    @Override
+    public T mapRow(ResultSet rs, int rowNum) throws SQLException {
+        return mapRow(rs, rowNum, null);
+    }
+
+    @Override
+    public T mapRow(ResultSet rs, int rowNum, @Nullable T target) throws SQLException {
+        ColumnPlan plan = getColumnPlan(rs, rowNum);
+        T entity = (target != null ? target : newInstance());
+        int[] columns = plan.columns();
+        int[] properties = plan.properties();
+        for (int i = 0; i < columns.length; i++) {
+            read(entity, properties[i], rs, columns[i]);
+        }
+        return entity;
+    }
+
+    private ColumnPlan getColumnPlan(ResultSet rs, int rowNum) throws SQLException {
+        ActivePlan active = this.activePlan.get();
+        if (rowNum > 0 && active != null && active.resultSet().get() == rs) {
+            return active.plan();
+        }
+        ResultSetMetaData rsmd = rs.getMetaData();
+        int columnCount = rsmd.getColumnCount();
+        String[] labels = new String[columnCount];
+        StringBuilder signature = new StringBuilder(columnCount * 16);
+        for (int index = 1; index <= columnCount; index++) {
+            labels[index - 1] = JdbcUtils.lookupColumnName(rsmd, index);
+            signature.append(labels[index - 1]).append('\u0001');
+        }
+        ColumnPlan plan = columnPlans.get(signature.toString());
+        if (plan == null) {
+            int[] columns = new int[columnCount];
+            int[] properties = new int[columnCount];
+            int count = 0;
+            for (int index = 1; index <= columnCount; index++) {
+                int property = propertyIndex(StringUtils.delete(labels[index - 1], " ").toLowerCase(Locale.US));
+                if (property >= 0) {
+                    columns[count] = index;
+                    properties[count] = property;
+                    count++;
+                }
+            }
+            plan = new ColumnPlan(Arrays.copyOf(columns, count), Arrays.copyOf(properties, count));
+            if (columnPlans.size() >= MAX_PLAN_CACHE_SIZE) {
+                columnPlans.clear();
+            }
+            columnPlans.put(signature.toString(), plan);
+        }
+        this.activePlan.set(new ActivePlan(new WeakReference<>(rs), plan));
+        return plan;
+    }
+
+    /**
+     * 通用读取：与 MyBeanPropertyRowMapper 一致，值类型不符时经 ConversionService 转换
+     */
+    @Nullable
+    protected static Object readObject(Object entity, String property, ResultSet rs, int column, Class<?> type) throws SQLException {
+        return convert(entity, property, JdbcUtils.getResultSetValue(rs, column, type), type);
+    }
+
+    /**
+     * java.time 类型：优先使用 JDBC 4.2 的 getObject(int, Class)
+     */
+    @Nullable
+    protected static Object readTemporal(Object entity, String property, ResultSet rs, int column, Class<?> type) throws SQLException {
+        Object value;
+        try {
+            value = rs.getObject(column, type);
+        } catch (SQLFeatureNotSupportedException | AbstractMethodError e) {
+            value = JdbcUtils.getResultSetValue(rs, column, type);
+        }
+        return convert(entity, property, value, type);
+    }
+
+    /**
+     * 基本类型属性读到 null 时的异常，与 BeanWrapper 一致
+     */
+    protected static TypeMismatchException nullPrimitive(Object entity, String property, Class<?> type) {
+        return new TypeMismatchException(new PropertyChangeEvent(entity, property, null, null), type);
+    }
+
+    @Nullable
+    private static Object convert(Object entity, String property, @Nullable Object value, Class<?> type) {
+        if (value == null || type.isInstance(value)) {
+            return value;
+        }
+        try {
+            return DefaultConversionService.getSharedInstance().convert(value, type);
+        } catch (RuntimeException e) {
+            throw new TypeMismatchException(new PropertyChangeEvent(entity, property, null, value), type, e);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package io.github.mocanjie.base.myjpa.annotation;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * 一对多集合属性：连接查询的结果按父对象主键分组，带前缀的列映射为子对象加入该集合
+ * <p>只用于 {@code queryOneToManyListForSql} / {@code queryOneToManyStreamForSql}，其余查询忽略此注解；
+ * 字段类型为 List / Set / Collection，元素类型取泛型参数，只支持一层嵌套
+ *
+ * <pre>
+ * public class OrderVO extends Order {
+ *     &#64;MyOneToMany(prefix = "item_")
+ *     private List&lt;OrderItemVO&gt; items;
+ * }
+ *
+ * select o.*, i.id item_id, i.sku item_sku from t_order o left join t_order_item i on i.order_id = o.id
+ * </pre>
+ */
+@Retention(RUNTIME)
+@Target(FIELD)
+public @interface MyOneToMany {
+
+	/** 子对象列的前缀，去掉前缀后按属性名映射子对象 */
+	String prefix();
+
+	/** 子对象主键列（不含前缀），为 null 表示左连接无子行，多个集合时同一父对象内按它去重；结果中没有该列时每行加入一个子对象 */
+	String childKey() default "id";
+
+	/** 父对象主键列，默认取结果类型（或其父类）@MyTable 的主键列 */
+	String parentKey() default "";
+}
@@ -0,0 +1,16 @@
+package io.github.mocanjie.base.myjpa.annotation;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * 标记 SQL 常量（static String 字段）
+ * 开启 myjpa.warm-up.enabled 后，启动时会提前完成逻辑删除/租户条件改写并写入 SqlRewriteCache
+ */
+@Retention(RUNTIME)
+@Target(FIELD)
+public @interface MyQuery {
+}
@@ -1,6 +1,11 @@
 package io.github.mocanjie.base.myjpa.builder;
 
 import io.github.mocanjie.base.mycommon.pager.Pager;
+import io.github.mocanjie.base.myjpa.dialect.AbstractDialect;
+import io.github.mocanjie.base.myjpa.dialect.Dialect;
+import io.github.mocanjie.base.myjpa.dialect.DialectResolver;
+import io.github.mocanjie.base.myjpa.dialect.MySqlDialect;
+import io.github.mocanjie.base.myjpa.pager.KeysetPager;
 import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -9,18 +14,51 @@ import org.springframework.util.StringUtils;
 
 import javax.sql.DataSource;
 import java.sql.Connection;
+import java.util.List;
 
 public class SqlBuilder {
 
 	protected  Logger logger = LoggerFactory.getLogger(getClass());
 
-	public static int type = 1;
+	/**
+	 * 当前数据源的方言，启动时按注入的 {@link DataSource} 的数据库类型和版本选择
+	 * 方言为进程级全局状态，所有 SQL 生成共用同一方言：只支持单数据源，
+	 * 多个不同类型的数据源（或动态数据源路由）时只有启动时识别的那一个能得到正确的分页 / upsert SQL
+	 */
+	private static volatile Dialect dialect = new MySqlDialect();
+
+	/**
+	 * 数据库类型：1 mysql、2 oracle、3 sqlserver、4 kingbasees、5 postgresql，其他方言为 0
+	 * 随 {@link #setDialect} 同步，只供旧代码读取，修改它不影响 SQL 生成
+	 * @deprecated 使用 {@link #getDialect()}
+	 */
+	@Deprecated
+	public static volatile int type = 1;
+
+	/** 是否启用窗口函数分页（一条 SQL 同时返回分页数据与总数），由 myjpa.page.window-count 配置同步 */
+	public static volatile boolean windowCountEnabled = false;
+
+	/** 是否将分页排序与 LIMIT 直接追加到原查询最外层，由 myjpa.page.push-down 配置同步 */
+	public static volatile boolean pushDownEnabled = false;
+
+	/** 起始行不小于该值时使用延迟关联分页，0 表示关闭，由 myjpa.page.deferred-join-offset 配置同步 */
+	public static volatile int deferredJoinOffset = 0;
+
+	/** 窗口函数分页附带的总数列名 */
+	public static final String TOTAL_ROWS_COLUMN = "myjpa_total_rows";
+
+	/** keyset 分页续页键值的参数名前缀：:myjpaKeyset0、:myjpaKeyset1... */
+	public static final String KEYSET_PARAM_PREFIX = "myjpaKeyset";
 
 //	public static String db_schema;
 
 	@Autowired
 	private DataSource ds;
 
+	/** 集成方注册的自定义方言，优先于内置方言匹配 */
+	@Autowired(required = false)
+	private List<Dialect> dialects;
+
 	@PostConstruct
 	public void init(){
 		String typeName = null;
@@ -31,23 +69,7 @@ public class SqlBuilder {
 			typeName = CnvSmallChr(connection.getMetaData().getDatabaseProductName());
 			version = CnvSmallChr(connection.getMetaData().getDatabaseProductVersion());
 //			db_schema = connection.getCatalog();
-			if ("mysql".equalsIgnoreCase(typeName)) {
-				type = 1;
-		    }else if ("oracle".equalsIgnoreCase(typeName)) {
-		    	type = 2;
-		    }else if (("sqlserver".equalsIgnoreCase(typeName)) || (typeName.contains("microsoft"))) {
-		    	type = 3;
-		    }
-			else if (("kingbasees".equalsIgnoreCase(typeName))) {
-				type = 4;
-			}
-			else if (("postgresql".equalsIgnoreCase(typeName))) {
-				type = 5;
-			}
-			else{
-//		    	throw new Error("不支持数据库类型：" + typeName);
-				logger.info("没匹对正确的数据库版本，默认使用mysql模式");
-		    }
+			setDialect(DialectResolver.resolve(connection.getMetaData(), dialects));
 		}catch(Exception e){
 			logger.error("获取数据库类型异常",e);
 			throw new Error("myjpa组件加载失败");
@@ -58,7 +80,35 @@ public class SqlBuilder {
 				} catch (Exception ignore){}
 			}
 		}
-		logger.info("数据库类型: {}  版本信息:{}",typeName,version);
+		logger.info("数据库类型: {}  版本信息:{}  方言:{}",typeName,version,dialect.getName());
+	}
+
+	public static Dialect getDialect(){
+		return dialect;
+	}
+
+	/**
+	 * 切换方言，一般由启动时自动识别设置
+	 * 立即对整个进程生效（不区分数据源或线程），不能用于按数据源切换
+	 */
+	@SuppressWarnings("deprecation")
+	public static void setDialect(Dialect dialect){
+		SqlBuilder.dialect = dialect;
+		type = switch (dialect.getName()) {
+			case "mysql" -> 1;
+			case "oracle" -> 2;
+			case "sqlserver" -> 3;
+			case "kingbasees" -> 4;
+			case "postgresql" -> 5;
+			default -> 0;
+		};
+	}
+
+	/**
+	 * 是否使用窗口函数分页
+	 */
+	public static boolean useWindowCount(){
+		return windowCountEnabled && dialect.supportsWindowFunction();
 	}
 
 	private static boolean isBigChr(char chr)
@@ -78,104 +128,105 @@ public class SqlBuilder {
 	    return new String(chrArry);
 	  }
 
+	/**
+	 * 偏移分页 SQL；深翻页时优先使用延迟关联，开启下推时将排序与分页追加到原查询最外层，都不适用时回退为派生表包裹
+	 * <pre>
+	 * select id,name from user where status = 1 order by create_time desc limit 0,10
+	 * select user.* from user join ( select user.id from user where status = 1 order by create_time desc limit 100000,10 ) myjpa_k using(id) order by create_time desc
+	 * </pre>
+	 */
 	public static String buildPagerSql(String sql, Pager pager){
-		if(type==1 || type==4){
-			return  buildMysqlPagerSql(sql, pager);
+		if (deferredJoinOffset > 0 && pager.getStartRow() >= deferredJoinOffset) {
+			String deferredSql = dialect.buildDeferredJoinPagerSql(sql, pager);
+			if (deferredSql != null) return deferredSql;
 		}
-		if(type==2){
-			return  buildOraclePagerSql(sql, pager);
+		if (pushDownEnabled) {
+			String pushDownSql = dialect.buildPushDownPagerSql(sql, pager);
+			if (pushDownSql != null) return pushDownSql;
 		}
-		if(type==3){
-			return  buildSqlServerPagerSql(sql, pager);
-		}
-		if(type==5){
-			return  buildPgsqlPagerSql(sql, pager);
-		}
-		//默认
-		return buildMysqlPagerSql(sql, pager);
+		return dialect.buildPagerSql(sql, pager);
 	}
 
-
 	/**
-	 * sqlserver
+	 * 窗口函数分页：一条 SQL 同时返回分页数据与总数（{@link #TOTAL_ROWS_COLUMN} 列），仅 mysql 8 / kingbase / postgresql
+	 * <pre>
+	 * select _mysqltb_.*, count(*) over() as myjpa_total_rows from ( sql ) as _mysqltb_ order by ... limit 0,10
+	 * </pre>
+	 * 窗口函数在 LIMIT 之前计算，总数为过滤后的全部行数
 	 * @param sql
 	 * @param pager
 	 * @return
 	 */
-	private static String buildSqlServerPagerSql(String sql,Pager pager){
-		StringBuilder pagingSelect = new StringBuilder(300);
-	    sql = sql.replaceFirst("^\\s*[sS][eE][lL][eE][cC][tT]\\s+", "select top " + (pager.getStartRow() + pager.getPageSize()) + " ");
-	    pagingSelect.append(" select * from ( select row_number()over(order by __tc__)tempRowNumber,* from (select    __tc__=0, *  from ( ");
-	    pagingSelect.append(" select top 100 percent * from ( ");
-	    pagingSelect.append(sql);
-	    pagingSelect.append(" )  as _sqlservertb_  ");
-	    String sortColumn = pager.getSort();
-	    if(StringUtils.hasText(sortColumn) && StringUtils.hasText(pager.getOrder())){
-	    	pagingSelect.append(" order by " + camelCaseToUnderscore(sortColumn)  +" " + pager.getOrder());
-	    }
-	    pagingSelect.append(" ) t )tt )ttt where tempRowNumber > ").append(pager.getStartRow()).append(" and tempRowNumber <= ").append(pager.getStartRow() + pager.getPageSize());
-	    return pagingSelect.toString();
+	public static String buildWindowPagerSql(String sql, Pager pager){
+		return dialect.buildWindowPagerSql(sql, pager);
 	}
 
 	/**
-	 * mysql
-	 * @param sql
-	 * @param pager
+	 * keyset（seek）分页
+	 * 包裹原查询，按排序键定位上一页最后一行之后的数据，多取一行用于判断是否还有下一页
+	 * <pre>
+	 * select * from ( sql ) as _keysettb_ where (create_time, id) &lt; (:myjpaKeyset0, :myjpaKeyset1)
+	 *   order by create_time desc, id desc limit 21
+	 * </pre>
+	 * 排序方向一致且数据库支持行值比较（mysql / kingbase / postgresql）时使用行值比较，否则展开为 OR 条件
+	 * @param sql 已完成条件注入的查询 SQL
+	 * @param pager keyset 分页参数
 	 * @return
+	 * @throws IllegalArgumentException 排序列不是查询结果中的列
 	 */
-	private static String buildPgsqlPagerSql(String sql,Pager pager){
-		StringBuilder pagingSelect = new StringBuilder(300);
-		pagingSelect.append(" select * from ( ");
-		pagingSelect.append(sql);
-		pagingSelect.append(" ) as _pgsqltb_ ");
-		String sortColumn = pager.getSort();
-		if(StringUtils.hasText(sortColumn) && StringUtils.hasText(pager.getOrder())){
-			pagingSelect.append(" order by " + camelCaseToUnderscore(sortColumn) +" " + pager.getOrder());
+	public static String buildKeysetPagerSql(String sql, KeysetPager<?> pager){
+		pager.validate();
+		for (KeysetPager.SortKey key : pager.getSortKeys()) {
+			if (!AbstractDialect.isResultColumn(sql, key.column())) {
+				throw new IllegalArgumentException("keyset 分页排序列 " + key.column() + " 不是查询结果中的列");
+			}
 		}
-		pagingSelect.append(" OFFSET ").append(pager.getStartRow()).append(" LIMIT ").append(pager.getPageSize());
-		return pagingSelect.toString();
-	}
-
-	/**
-	 * mysql
-	 * @param sql
-	 * @param pager
-	 * @return
-	 */
-	private static String buildMysqlPagerSql(String sql,Pager pager){
-		StringBuilder pagingSelect = new StringBuilder(300);
-		pagingSelect.append(" select * from ( ");
-	    pagingSelect.append(sql);
-	    pagingSelect.append(" ) as _mysqltb_ ");
-	    String sortColumn = pager.getSort();
-	    if(StringUtils.hasText(sortColumn) && StringUtils.hasText(pager.getOrder())){
-	    	pagingSelect.append(" order by " + camelCaseToUnderscore(sortColumn) +" " + pager.getOrder());
-	    }
-	    pagingSelect.append(" limit ").append(pager.getStartRow()).append(",").append(pager.getPageSize());
-	    return pagingSelect.toString();
+		String where = pager.getLastKey() == null ? "" : " where " + buildKeysetCondition(pager.getSortKeys(), dialect.supportsRowValueComparison());
+		StringBuilder orderBy = new StringBuilder(" order by ");
+		for (int i = 0; i < pager.getSortKeys().size(); i++) {
+			KeysetPager.SortKey key = pager.getSortKeys().get(i);
+			if (i > 0) orderBy.append(", ");
+			orderBy.append(key.column()).append(key.desc() ? " desc" : " asc");
+		}
+		return dialect.buildKeysetSql(sql, where, orderBy.toString(), pager.getPageSize() + 1);
 	}
 
 	/**
-	 * oracle
-	 * @param sql
-	 * @param pager
-	 * @return
+	 * 生成“排在上一页最后一行之后”的条件
+	 * 行值比较：(a, b) &gt; (:k0, :k1)
+	 * 展开形式：(a &gt; :k0 or (a = :k0 and b &gt; :k1))，用于排序方向不一致或数据库不支持行值比较
 	 */
-	private static String buildOraclePagerSql(String sql,Pager pager){
-		StringBuilder pagingSelect = new StringBuilder(300);
-	    pagingSelect.append("select * from ( select row_.*, rownum rownum_userforpage from ( ");
-	    pagingSelect.append(" select * from ( ");
-	    pagingSelect.append(sql);
-	    pagingSelect.append(" )  as _oracletb_  ");
-	    String sortColumn = pager.getSort();
-	    if(StringUtils.hasText(sortColumn) && StringUtils.hasText(pager.getOrder())){
-	    	pagingSelect.append(" order by " + camelCaseToUnderscore(sortColumn)  +" " + pager.getOrder());
-	    }
-	    pagingSelect.append(" ) row_ where rownum <= ")
-	    .append(pager.getStartRow() + pager.getPageSize())
-	    .append(") where rownum_userforpage > ")
-	    .append(pager.getStartRow());
-	    return pagingSelect.toString();
+	private static String buildKeysetCondition(List<KeysetPager.SortKey> keys, boolean rowValueSupported){
+		boolean sameDirection = keys.stream().allMatch(k -> k.desc() == keys.get(0).desc());
+		if(keys.size() == 1 || (sameDirection && rowValueSupported)){
+			StringBuilder columns = new StringBuilder();
+			StringBuilder params = new StringBuilder();
+			for (int i = 0; i < keys.size(); i++) {
+				if (i > 0) {
+					columns.append(", ");
+					params.append(", ");
+				}
+				columns.append(keys.get(i).column());
+				params.append(":").append(KEYSET_PARAM_PREFIX).append(i);
+			}
+			String op = keys.get(0).desc() ? " < " : " > ";
+			return keys.size() == 1
+					? columns + op + params
+					: "(" + columns + ")" + op + "(" + params + ")";
+		}
+		StringBuilder condition = new StringBuilder("(");
+		for (int i = 0; i < keys.size(); i++) {
+			if (i > 0) condition.append(" or ");
+			condition.append("(");
+			for (int j = 0; j < i; j++) {
+				condition.append(keys.get(j).column()).append(" = :").append(KEYSET_PARAM_PREFIX).append(j).append(" and ");
+			}
+			KeysetPager.SortKey key = keys.get(i);
+			condition.append(key.column()).append(key.desc() ? " < :" : " > :").append(KEYSET_PARAM_PREFIX).append(i);
+			condition.append(")");
+		}
+		condition.append(")");
+		return condition.toString();
 	}
 
 	public static String camelCaseToUnderscore(String str){
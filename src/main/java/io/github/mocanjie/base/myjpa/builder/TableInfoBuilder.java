@@ -21,6 +21,9 @@ public class TableInfoBuilder implements BeanPostProcessor, Ordered {
 
     private static final Map<Class<?>, TableInfo> tableInfoMap = new HashMap<>();
 
+    /** init 时实际扫描的包路径 */
+    private static volatile List<String> scannedPackages = Collections.emptyList();
+
     @PostConstruct
     private void init() {
         log.info("初始化@MyTable信息...");
@@ -30,6 +33,7 @@ public class TableInfoBuilder implements BeanPostProcessor, Ordered {
         // 获取要扫描的包路径列表
         List<String> scanPackages = getScanPackages();
         log.info("准备扫描的包路径: {}", scanPackages);
+        scannedPackages = Collections.unmodifiableList(new ArrayList<>(scanPackages));
 
         // 使用Spring的类路径扫描器
         ClassPathScanningCandidateComponentProvider scanner =
@@ -185,6 +189,20 @@ public class TableInfoBuilder implements BeanPostProcessor, Ordered {
         return tableInfo;
     }
 
+    /**
+     * 获取所有已解析的表信息
+     */
+    public static Collection<TableInfo> getAllTableInfos() {
+        return Collections.unmodifiableCollection(tableInfoMap.values());
+    }
+
+    /**
+     * 获取 init 时扫描 @MyTable 使用的包路径
+     */
+    public static List<String> getScannedPackages() {
+        return scannedPackages;
+    }
+
 
     @Override
     public int getOrder() {
@@ -0,0 +1,220 @@
+package io.github.mocanjie.base.myjpa.cache;
+
+import io.github.mocanjie.base.myjpa.parser.SqlStatementParser;
+import net.sf.jsqlparser.statement.Statement;
+import net.sf.jsqlparser.util.TablesNamesFinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.SqlParameterValue;
+import org.springframework.jdbc.core.namedparam.NamedParameterUtils;
+import org.springframework.jdbc.core.namedparam.ParsedSql;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 分页 count 结果缓存
+ * 用户连续翻页时，同一查询条件的 count 结果在 TTL 内直接复用，第 2..N 页只执行分页查询
+ *
+ * <p>缓存 key 为（count SQL，按占位符顺序取出的参数值）。count SQL 是条件注入后的结果，
+ * 需要租户隔离时其中包含 {@code :myjpaTenantId}，租户 ID 随参数值一起进入 key，不同租户互不共享。
+ *
+ * <p>失效：
+ * <ul>
+ *   <li>每张表维护一个版本号，insertPO / batchInsertPO / updatePO / delPO / delByIds 写表时递增；
+ *       条目记录计数前各表的版本号，读取时任一表版本变化即视为失效（计数与写入并发时也不会留下旧值）</li>
+ *   <li>处于事务中的写操作在事务结束（提交或回滚）后再递增一次，避免事务期间读到的计数被其他线程缓存</li>
+ *   <li>超过 {@link #ttlMillis} 的条目失效，兜底覆盖未经过 myjpa 的写入</li>
+ * </ul>
+ * 无法解析出表名的 count SQL 不缓存。
+ */
+public class CountResultCache {
+
+    private static final Logger log = LoggerFactory.getLogger(CountResultCache.class);
+
+    /** 是否启用，由 myjpa.page.count-cache.enabled 配置同步，默认关闭 */
+    public static volatile boolean enabled = false;
+
+    /** 条目有效期（毫秒），由 myjpa.page.count-cache.ttl-ms 配置同步 */
+    public static volatile long ttlMillis = 30_000L;
+
+    /** 最大条目数，由 myjpa.page.count-cache.max-size 配置同步；写满时先清理过期条目，仍满则整体清空 */
+    public static volatile int maxSize = 1024;
+
+    /** count SQL 的静态信息：占位符解析结果与引用的表 */
+    private record SqlMeta(ParsedSql parsedSql, String[] tables) {}
+
+    private record Key(String countSql, List<Object> params) {}
+
+    private record Entry(Long count, long expireAt, String[] tables, long[] versions) {}
+
+    private static final Map<String, SqlMeta> META_CACHE = new ConcurrentHashMap<>();
+
+    private static final Map<Key, Entry> CACHE = new ConcurrentHashMap<>();
+
+    private static final Map<String, AtomicLong> TABLE_VERSIONS = new ConcurrentHashMap<>();
+
+    /** 无法解析时的占位，避免重复解析 */
+    private static final SqlMeta UNCACHEABLE = new SqlMeta(null, new String[0]);
+
+    private static final LongAdder HIT_COUNT = new LongAdder();
+    private static final LongAdder MISS_COUNT = new LongAdder();
+
+    /**
+     * 读取 count 结果，未命中时执行 loader 并缓存
+     *
+     * @param countSql count SQL（已完成条件注入）
+     * @param sps      参数源
+     * @param loader   实际执行 count 查询
+     * @return 总行数
+     */
+    public static Long get(String countSql, SqlParameterSource sps, Supplier<Long> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        if (META_CACHE.size() >= maxSize && !META_CACHE.containsKey(countSql)) {
+            META_CACHE.clear();
+        }
+        SqlMeta meta = META_CACHE.computeIfAbsent(countSql, CountResultCache::analyze);
+        if (meta == UNCACHEABLE) {
+            return loader.get();
+        }
+        Key key = new Key(countSql, paramValues(meta.parsedSql(), sps));
+        Entry entry = CACHE.get(key);
+        if (entry != null && entry.expireAt() > System.currentTimeMillis() && isCurrent(entry)) {
+            HIT_COUNT.increment();
+            return entry.count();
+        }
+        MISS_COUNT.increment();
+        // 先取版本号再计数：计数期间发生写入时，版本号已落后，条目下次读取即失效
+        long[] versions = versionsOf(meta.tables());
+        Long count = loader.get();
+        if (count != null) {
+            if (CACHE.size() >= maxSize) {
+                evict();
+            }
+            CACHE.put(key, new Entry(count, System.currentTimeMillis() + ttlMillis, meta.tables(), versions));
+        }
+        return count;
+    }
+
+    /**
+     * 表数据变化，使引用该表的 count 结果失效
+     * 处于事务中时，事务结束后再失效一次
+     *
+     * @param tableName 表名
+     */
+    public static void invalidateTable(String tableName) {
+        if (tableName == null) return;
+        String table = tableName.toLowerCase(Locale.ROOT);
+        bump(table);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    bump(table);
+                }
+            });
+        }
+    }
+
+    /**
+     * 清空缓存
+     */
+    public static void clear() {
+        CACHE.clear();
+        META_CACHE.clear();
+        HIT_COUNT.reset();
+        MISS_COUNT.reset();
+    }
+
+    public static int size() {
+        return CACHE.size();
+    }
+
+    public static long getHitCount() {
+        return HIT_COUNT.sum();
+    }
+
+    public static long getMissCount() {
+        return MISS_COUNT.sum();
+    }
+
+    private static void bump(String table) {
+        TABLE_VERSIONS.computeIfAbsent(table, k -> new AtomicLong()).incrementAndGet();
+    }
+
+    private static long[] versionsOf(String[] tables) {
+        long[] versions = new long[tables.length];
+        for (int i = 0; i < tables.length; i++) {
+            AtomicLong version = TABLE_VERSIONS.get(tables[i]);
+            versions[i] = version == null ? 0L : version.get();
+        }
+        return versions;
+    }
+
+    private static boolean isCurrent(Entry entry) {
+        return Arrays.equals(entry.versions(), versionsOf(entry.tables()));
+    }
+
+    private static void evict() {
+        long now = System.currentTimeMillis();
+        CACHE.values().removeIf(e -> e.expireAt() <= now || !isCurrent(e));
+        if (CACHE.size() >= maxSize) {
+            CACHE.clear();
+        }
+    }
+
+    private static SqlMeta analyze(String countSql) {
+        try {
+            Statement statement = SqlStatementParser.parse(countSql);
+            List<String> tables = new ArrayList<>();
+            for (String name : new TablesNamesFinder<Void>().getTables(statement)) {
+                tables.add(unquote(name.substring(name.lastIndexOf('.') + 1)).toLowerCase(Locale.ROOT));
+            }
+            if (tables.isEmpty()) {
+                return UNCACHEABLE;
+            }
+            return new SqlMeta(NamedParameterUtils.parseSqlStatement(countSql), tables.toArray(new String[0]));
+        } catch (Exception e) {
+            log.debug("count SQL 无法解析，不缓存计数结果: {}", e.getMessage());
+            return UNCACHEABLE;
+        }
+    }
+
+    private static List<Object> paramValues(ParsedSql parsedSql, SqlParameterSource sps) {
+        Object[] values = NamedParameterUtils.buildValueArray(parsedSql, sps, null);
+        List<Object> list = new ArrayList<>(values.length);
+        for (Object value : values) {
+            if (value instanceof SqlParameterValue spv) {
+                value = spv.getValue();
+            }
+            if (value instanceof Object[] array) {
+                value = Arrays.asList(array);
+            }
+            list.add(value);
+        }
+        return list;
+    }
+
+    private static String unquote(String name) {
+        if (name.length() >= 2) {
+            char first = name.charAt(0);
+            char last = name.charAt(name.length() - 1);
+            if ((first == '`' && last == '`') || (first == '"' && last == '"') || (first == '[' && last == ']')) {
+                return name.substring(1, name.length() - 1);
+            }
+        }
+        return name;
+    }
+}
@@ -0,0 +1,100 @@
+package io.github.mocanjie.base.myjpa.cache;
+
+import io.github.mocanjie.base.myjpa.rowmapper.MyBeanPropertyRowMapper;
+import io.github.mocanjie.base.myjpa.rowmapper.OneToManyMapping;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.SingleColumnRowMapper;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 行映射器缓存
+ * 映射元数据（TableInfo、@MyField、PropertyDescriptor）只取决于结果类型与 ConversionService，
+ * 按结果类型缓存映射器后整个应用生命周期只计算一次；映射器在 mapRow 期间只读，可被多线程共享。
+ *
+ * <p>映射器按类型存放在 {@link ClassValue} 中，随类一起回收，不会阻止热部署时旧类加载器的卸载。
+ * {@code @MyTable} 实体在 TableInfoBuilder 初始化前创建的映射器元数据不完整，不缓存。
+ *
+ * <p>返回的映射器为共享实例，调用方不要再修改其配置。
+ */
+public class RowMapperCache {
+
+    /** ConversionService 为 null 时的 key */
+    private static final Object NO_CONVERSION = new Object();
+
+    /** 结果类型 → （ConversionService → 映射器） */
+    private static final ClassValue<Map<Object, RowMapper<?>>> BEAN_MAPPERS = new ClassValue<>() {
+        @Override
+        protected Map<Object, RowMapper<?>> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>(2);
+        }
+    };
+
+    private static final ClassValue<RowMapper<?>> SINGLE_COLUMN_MAPPERS = new ClassValue<>() {
+        @Override
+        protected RowMapper<?> computeValue(Class<?> type) {
+            return new SingleColumnRowMapper<>(type);
+        }
+    };
+
+    /** 一对多映射元数据，解析失败时抛出异常，不缓存 */
+    private static final ClassValue<OneToManyMapping<?>> ONE_TO_MANY_MAPPINGS = new ClassValue<>() {
+        @Override
+        protected OneToManyMapping<?> computeValue(Class<?> type) {
+            return OneToManyMapping.forClass(type, DefaultConversionService.getSharedInstance());
+        }
+    };
+
+    /**
+     * 使用共享 {@link DefaultConversionService} 的实体映射器
+     */
+    public static <T> RowMapper<T> getBeanPropertyRowMapper(Class<T> clazz) {
+        return getBeanPropertyRowMapper(clazz, DefaultConversionService.getSharedInstance());
+    }
+
+    /**
+     * 实体映射器
+     *
+     * @param clazz             结果类型
+     * @param conversionService 绑定属性值使用的 ConversionService，可为 null
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> RowMapper<T> getBeanPropertyRowMapper(Class<T> clazz, ConversionService conversionService) {
+        Map<Object, RowMapper<?>> mappers = BEAN_MAPPERS.get(clazz);
+        Object key = conversionService != null ? conversionService : NO_CONVERSION;
+        RowMapper<?> mapper = mappers.get(key);
+        if (mapper != null) return (RowMapper<T>) mapper;
+        MyBeanPropertyRowMapper<T> created = MyBeanPropertyRowMapper.newInstance(clazz, conversionService);
+        if (!created.isMetadataComplete()) return created;
+        mapper = mappers.putIfAbsent(key, created);
+        return mapper != null ? (RowMapper<T>) mapper : created;
+    }
+
+    /**
+     * 单列映射器，用于基本类型、String、日期等简单类型结果
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> RowMapper<T> getSingleColumnRowMapper(Class<T> clazz) {
+        return (RowMapper<T>) SINGLE_COLUMN_MAPPERS.get(clazz);
+    }
+
+    /**
+     * 结果类型上 {@code @MyOneToMany} 字段的映射元数据
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> OneToManyMapping<T> getOneToManyMapping(Class<T> clazz) {
+        return (OneToManyMapping<T>) ONE_TO_MANY_MAPPINGS.get(clazz);
+    }
+
+    /**
+     * 移除某个类型的映射器，下次使用时重新计算
+     */
+    public static void evict(Class<?> clazz) {
+        BEAN_MAPPERS.remove(clazz);
+        SINGLE_COLUMN_MAPPERS.remove(clazz);
+        ONE_TO_MANY_MAPPINGS.remove(clazz);
+    }
+}
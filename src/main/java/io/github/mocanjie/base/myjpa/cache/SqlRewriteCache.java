@@ -0,0 +1,221 @@
+package io.github.mocanjie.base.myjpa.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * SQL 改写结果缓存
+ * 缓存 JSqlDynamicSqlParser 注入逻辑删除/租户条件后的 SQL，避免相同 SQL 反复解析
+ *
+ * <p>实现为分段 LRU：按 key 哈希分到固定数量的段，每段是一个按访问顺序排列的 {@link LinkedHashMap}，
+ * 超出段容量时淘汰最久未访问的条目。段内加锁，段间互不阻塞。
+ *
+ * <p>key 中包含 {@link TableCacheManager#getRegistryVersion()}，注册表变化后旧条目自然失效，
+ * 同时 TableCacheManager 会主动调用 {@link #invalidateAll()} 释放内存。
+ */
+public class SqlRewriteCache {
+
+    private static final Logger log = LoggerFactory.getLogger(SqlRewriteCache.class);
+
+    /** 分段数量（2 的幂） */
+    private static final int SEGMENT_COUNT = 16;
+
+    /** 默认最大条目数 */
+    public static final int DEFAULT_MAX_SIZE = 2048;
+
+    /** 是否启用改写缓存，由 MyJpaAutoConfiguration 根据 myjpa.sql-cache.enabled 配置同步 */
+    public static volatile boolean enabled = true;
+
+    private static volatile Segment[] segments = newSegments(DEFAULT_MAX_SIZE);
+
+    private static final LongAdder HIT_COUNT = new LongAdder();
+    private static final LongAdder MISS_COUNT = new LongAdder();
+    private static final LongAdder EVICTION_COUNT = new LongAdder();
+
+    /**
+     * 缓存 key
+     *
+     * @param sql             原始 SQL
+     * @param tenantInjection 是否同时注入租户条件（appendConditions 路径）
+     * @param tenantEnabled   租户全局开关
+     * @param tenantColumn    租户列名
+     * @param registryVersion TableCacheManager 注册表版本
+     */
+    public record Key(String sql, boolean tenantInjection, boolean tenantEnabled,
+                      String tenantColumn, long registryVersion) {}
+
+    /**
+     * 单个缓存段：按访问顺序排列的 LinkedHashMap，超过容量时淘汰最久未访问的条目
+     */
+    private static class Segment extends LinkedHashMap<Key, String> {
+        private final int capacity;
+
+        Segment(int capacity) {
+            super(Math.min(capacity, 64), 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, String> eldest) {
+            if (size() > capacity) {
+                EVICTION_COUNT.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+
+    private static Segment[] newSegments(int maxSize) {
+        int perSegment = Math.max(1, (maxSize + SEGMENT_COUNT - 1) / SEGMENT_COUNT);
+        Segment[] arr = new Segment[SEGMENT_COUNT];
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            arr[i] = new Segment(perSegment);
+        }
+        return arr;
+    }
+
+    private static Segment segmentFor(Segment[] arr, Key key) {
+        int h = key.hashCode();
+        h ^= (h >>> 16);
+        return arr[h & (SEGMENT_COUNT - 1)];
+    }
+
+    /**
+     * 设置最大缓存条目数（会清空现有缓存）
+     *
+     * @param maxSize 最大条目数，小于 1 时使用默认值
+     */
+    public static void setMaxSize(int maxSize) {
+        int size = maxSize < 1 ? DEFAULT_MAX_SIZE : maxSize;
+        segments = newSegments(size);
+        log.info("SQL改写缓存容量设置为 {}", size);
+    }
+
+    /**
+     * 查询缓存，未命中时调用 loader 计算并写入缓存
+     *
+     * <p>loader 在段锁之外执行，并发未命中时可能重复计算，但结果相同，后写入者覆盖即可。
+     *
+     * @param key    缓存 key
+     * @param loader 改写函数
+     * @return 改写后的 SQL
+     */
+    public static String get(Key key, Function<Key, String> loader) {
+        if (!enabled) {
+            return loader.apply(key);
+        }
+        Segment[] arr = segments;
+        Segment segment = segmentFor(arr, key);
+        String cached;
+        synchronized (segment) {
+            cached = segment.get(key);
+        }
+        if (cached != null) {
+            HIT_COUNT.increment();
+            return cached;
+        }
+        MISS_COUNT.increment();
+        String value = loader.apply(key);
+        if (value != null) {
+            synchronized (segment) {
+                segment.put(key, value);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * 直接写入缓存条目（从持久化文件恢复时使用），不影响命中统计
+     *
+     * @param key   缓存 key
+     * @param value 改写后的 SQL
+     */
+    public static void put(Key key, String value) {
+        if (!enabled || value == null) {
+            return;
+        }
+        Segment segment = segmentFor(segments, key);
+        synchronized (segment) {
+            segment.put(key, value);
+        }
+    }
+
+    /**
+     * 遍历当前缓存条目（逐段加锁复制后回调，回调在锁外执行）
+     *
+     * @param consumer 回调
+     */
+    public static void forEach(BiConsumer<Key, String> consumer) {
+        for (Segment segment : segments) {
+            List<Map.Entry<Key, String>> entries = new ArrayList<>();
+            synchronized (segment) {
+                segment.forEach((k, v) -> entries.add(Map.entry(k, v)));
+            }
+            entries.forEach(e -> consumer.accept(e.getKey(), e.getValue()));
+        }
+    }
+
+    /**
+     * 清空所有缓存条目（注册表变化时由 TableCacheManager 调用）
+     */
+    public static void invalidateAll() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    /**
+     * 当前缓存条目数
+     */
+    public static long size() {
+        long total = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                total += segment.size();
+            }
+        }
+        return total;
+    }
+
+    public static long getHitCount() {
+        return HIT_COUNT.sum();
+    }
+
+    public static long getMissCount() {
+        return MISS_COUNT.sum();
+    }
+
+    public static long getEvictionCount() {
+        return EVICTION_COUNT.sum();
+    }
+
+    /**
+     * 重置命中/未命中/淘汰计数
+     */
+    public static void resetStats() {
+        HIT_COUNT.reset();
+        MISS_COUNT.reset();
+        EVICTION_COUNT.reset();
+    }
+
+    /**
+     * 获取缓存统计信息
+     */
+    public static String getCacheStats() {
+        long hits = getHitCount();
+        long misses = getMissCount();
+        long total = hits + misses;
+        return String.format("SqlRewriteCache: size=%d, hits=%d, misses=%d, evictions=%d, hitRate=%.2f%%",
+                size(), hits, misses, getEvictionCount(), total == 0 ? 0.0 : hits * 100.0 / total);
+    }
+}
@@ -0,0 +1,213 @@
+package io.github.mocanjie.base.myjpa.cache;
+
+import io.github.mocanjie.base.myjpa.parser.JSqlDynamicSqlParser;
+import net.sf.jsqlparser.parser.CCJSqlParserUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SQL 改写缓存持久化
+ * 将 {@link SqlRewriteCache} 中的改写结果保存到本地文件，重启时通过内存映射一次性读回，
+ * 避免每次冷启动都重新解析相同的 SQL
+ *
+ * <p>文件头记录指纹：{@link TableCacheManager#getRegistryFingerprint()}、改写逻辑版本、本库与 JSqlParser 版本、
+ * 拼接式改写开关。加载时指纹不一致（实体、数据库结构、升级或配置变化）则整体丢弃并删除文件。
+ * 租户开关与租户列名已包含在每个条目的 key 中，无需计入指纹。
+ *
+ * <pre>
+ * int    MAGIC
+ * int    FORMAT_VERSION
+ * long   指纹
+ * int    条目数
+ * 条目:  byte flags(bit0=tenantInjection, bit1=tenantEnabled), str tenantColumn, str sql, str rewritten
+ * str:   int 字节长度（-1 表示 null）+ UTF-8 字节
+ * </pre>
+ */
+public class SqlRewriteCacheStore {
+
+    private static final Logger log = LoggerFactory.getLogger(SqlRewriteCacheStore.class);
+
+    private static final int MAGIC = 0x4D4A5243;
+
+    private static final int FORMAT_VERSION = 1;
+
+    /**
+     * 将当前注册表版本下的缓存条目写入文件（先写临时文件再原子替换）
+     *
+     * @param file 文件路径
+     * @return 写入的条目数，失败返回 -1
+     */
+    public static int save(Path file) {
+        long version = TableCacheManager.getRegistryVersion();
+        List<SqlRewriteCache.Key> keys = new ArrayList<>();
+        List<String> values = new ArrayList<>();
+        SqlRewriteCache.forEach((key, value) -> {
+            if (key.registryVersion() == version) {
+                keys.add(key);
+                values.add(value);
+            }
+        });
+
+        try {
+            Path dir = file.toAbsolutePath().getParent();
+            if (dir != null) {
+                Files.createDirectories(dir);
+            }
+            Path tmp = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeLong(fingerprint());
+                out.writeInt(keys.size());
+                for (int i = 0; i < keys.size(); i++) {
+                    SqlRewriteCache.Key key = keys.get(i);
+                    out.writeByte((key.tenantInjection() ? 1 : 0) | (key.tenantEnabled() ? 2 : 0));
+                    writeString(out, key.tenantColumn());
+                    writeString(out, key.sql());
+                    writeString(out, values.get(i));
+                }
+            }
+            try {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+            log.info("SQL改写缓存已保存到 {}，共{}条", file, keys.size());
+            return keys.size();
+        } catch (IOException e) {
+            log.warn("保存SQL改写缓存失败: {}", e.getMessage());
+            return -1;
+        }
+    }
+
+    /**
+     * 从文件加载缓存条目（内存映射读取），指纹不一致或文件损坏时丢弃并删除文件
+     *
+     * @param file 文件路径
+     * @return 加载的条目数，文件不存在或被丢弃返回 0
+     */
+    public static int load(Path file) {
+        if (!Files.isRegularFile(file)) {
+            return 0;
+        }
+        long start = System.currentTimeMillis();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+                return discard(file, "格式不匹配");
+            }
+            if (buffer.getLong() != fingerprint()) {
+                return discard(file, "指纹不一致");
+            }
+            int count = buffer.getInt();
+            long version = TableCacheManager.getRegistryVersion();
+            List<SqlRewriteCache.Key> keys = new ArrayList<>(Math.max(0, Math.min(count, 1 << 16)));
+            List<String> values = new ArrayList<>(keys.size());
+            for (int i = 0; i < count; i++) {
+                byte flags = buffer.get();
+                String tenantColumn = readString(buffer);
+                String sql = readString(buffer);
+                String rewritten = readString(buffer);
+                if (sql == null || rewritten == null) {
+                    return discard(file, "文件已损坏");
+                }
+                keys.add(new SqlRewriteCache.Key(sql, (flags & 1) != 0, (flags & 2) != 0, tenantColumn, version));
+                values.add(rewritten);
+            }
+            // 全部读取成功后再写入缓存，避免损坏文件留下部分条目
+            for (int i = 0; i < keys.size(); i++) {
+                SqlRewriteCache.put(keys.get(i), values.get(i));
+            }
+            log.info("从 {} 加载SQL改写缓存{}条，耗时{}ms", file, count, System.currentTimeMillis() - start);
+            return count;
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            return discard(file, "文件已损坏");
+        } catch (IOException e) {
+            log.warn("加载SQL改写缓存失败: {}", e.getMessage());
+            return 0;
+        }
+    }
+
+    private static int discard(Path file, String reason) {
+        log.info("丢弃SQL改写缓存文件 {}：{}", file, reason);
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("删除SQL改写缓存文件失败: {}", e.getMessage());
+        }
+        return 0;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(MappedByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        if (length > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 注册表指纹与改写环境（改写逻辑版本、本库与 JSqlParser 版本、拼接式改写开关）合并后的指纹
+     */
+    private static long fingerprint() {
+        String environment = TableCacheManager.getRegistryFingerprint()
+                + "|" + JSqlDynamicSqlParser.REWRITE_VERSION
+                + "|" + version(SqlRewriteCacheStore.class)
+                + "|" + version(CCJSqlParserUtil.class)
+                + "|" + JSqlDynamicSqlParser.spliceRewriteEnabled;
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(environment.getBytes(StandardCharsets.UTF_8));
+            return ByteBuffer.wrap(digest).getLong();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 类所在 jar 的版本：优先 MANIFEST 的 Implementation-Version，缺失时取 jar 路径（文件名含版本号）
+     */
+    private static String version(Class<?> type) {
+        String version = type.getPackage() != null ? type.getPackage().getImplementationVersion() : null;
+        if (version != null) {
+            return version;
+        }
+        CodeSource source = type.getProtectionDomain().getCodeSource();
+        return source != null && source.getLocation() != null ? source.getLocation().toString() : "unknown";
+    }
+}
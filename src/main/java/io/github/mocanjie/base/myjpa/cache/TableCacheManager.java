@@ -1,17 +1,28 @@
 package io.github.mocanjie.base.myjpa.cache;
 
+import io.github.mocanjie.base.myjpa.annotation.MyField;
 import io.github.mocanjie.base.myjpa.annotation.MyTable;
+import io.github.mocanjie.base.myjpa.utils.CommonUtils;
+import io.github.mocanjie.base.myjpa.utils.MyReflectionUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
 import org.springframework.core.type.filter.AnnotationTypeFilter;
 
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * MyTable注解信息缓存管理器
@@ -49,11 +60,29 @@ public class TableCacheManager {
      */
     private static final Map<String, PkInfo> TABLE_PK_INFO_CACHE = new ConcurrentHashMap<>();
 
+    /**
+     * 缓存表名到实体映射列的集合
+     * key: 表名(tableName)
+     * value: 实体持久化字段对应的列名（小写）
+     */
+    private static final Map<String, Set<String>> TABLE_COLUMNS_CACHE = new ConcurrentHashMap<>();
+
     /**
      * 缓存支持租户隔离的表名集合（数据库中实际存在租户字段的表）
      * 由 DatabaseSchemaValidator 在启动时扫描数据库后填充
      */
     private static final Set<String> TABLE_TENANT_CACHE = Collections.newSetFromMap(new ConcurrentHashMap<>());
+
+    /**
+     * 注册表版本号，删除信息/租户表发生变化时递增
+     * 作为 SqlRewriteCache 的 key 组成部分，保证缓存的改写结果与当前注册表一致
+     */
+    private static final AtomicLong REGISTRY_VERSION = new AtomicLong();
+
+    /**
+     * 已注册表名的匹配器（有效删除字段的表 + 租户表），注册表变化时整体重建替换
+     */
+    private static volatile TableNameMatcher TABLE_NAME_MATCHER = TableNameMatcher.EMPTY;
     
     /**
      * 删除条件信息
@@ -132,6 +161,7 @@ public class TableCacheManager {
         } catch (Exception e) {
             log.error("初始化@MyTable注解缓存时发生异常", e);
         }
+        onRegistryChanged();
     }
     
     /**
@@ -170,6 +200,7 @@ public class TableCacheManager {
                         CLASS_DELETE_INFO_CACHE.put(className, deleteInfo);
                         CLASS_TABLE_NAME_CACHE.put(className, tableName);
                         TABLE_PK_INFO_CACHE.put(tableName.toLowerCase(), pkInfo);
+                        TABLE_COLUMNS_CACHE.put(tableName.toLowerCase(), entityColumns(clazz, myTable));
 
                         log.info("缓存表删除信息: table={}, class={}, delColumn={}, delValue={}",
                                  tableName, className, myTable.delColumn(), myTable.delValue());
@@ -183,6 +214,25 @@ public class TableCacheManager {
         }
     }
     
+    /**
+     * 实体持久化字段对应的列名，映射规则与插入/更新 SQL 一致
+     */
+    private static Set<String> entityColumns(Class<?> clazz, MyTable myTable) {
+        Set<String> columns = new HashSet<>();
+        for (Field field : MyReflectionUtils.getFieldList(clazz)) {
+            MyField myField = field.getAnnotation(MyField.class);
+            if (myField != null && !myField.serialize()) continue;
+            String name = field.getName();
+            String column;
+            if (name.equals(myTable.pkField())) column = myTable.pkColumn();
+            else if (name.equals(myTable.delField())) column = myTable.delColumn();
+            else if (myField != null && !myField.value().isBlank()) column = myField.value().trim();
+            else column = CommonUtils.camelCaseToUnderscore(name);
+            columns.add(column.toLowerCase());
+        }
+        return Collections.unmodifiableSet(columns);
+    }
+
     /**
      * 根据表名获取删除条件信息
      * 
@@ -267,6 +317,17 @@ public class TableCacheManager {
         return TABLE_PK_INFO_CACHE.get(tableName.toLowerCase());
     }
     
+    /**
+     * 根据表名获取实体映射的列名集合
+     *
+     * @param tableName 表名
+     * @return 列名集合（小写），未注册的表返回空集合
+     */
+    public static Set<String> getColumnsByTableName(String tableName) {
+        if (tableName == null) return Collections.emptySet();
+        return TABLE_COLUMNS_CACHE.getOrDefault(tableName.toLowerCase(), Collections.emptySet());
+    }
+
     /**
      * 标记表的删除字段为无效（不存在于数据库中）
      * 
@@ -277,6 +338,7 @@ public class TableCacheManager {
         DeleteInfo deleteInfo = TABLE_DELETE_INFO_CACHE.get(tableName.toLowerCase());
         if (deleteInfo != null) {
             deleteInfo.setValid(false);
+            onRegistryChanged();
             log.info("标记表 '{}' 的删除字段 '{}' 为无效，将跳过删除条件拼接", tableName, deleteInfo.getDelColumn());
         }
     }
@@ -289,6 +351,7 @@ public class TableCacheManager {
     public static void registerTenantTable(String tableName) {
         if (tableName == null) return;
         TABLE_TENANT_CACHE.add(tableName.toLowerCase());
+        onRegistryChanged();
         log.info("注册租户隔离表: {}", tableName);
     }
 
@@ -311,9 +374,68 @@ public class TableCacheManager {
         CLASS_DELETE_INFO_CACHE.clear();
         CLASS_TABLE_NAME_CACHE.clear();
         TABLE_PK_INFO_CACHE.clear();
+        TABLE_COLUMNS_CACHE.clear();
         TABLE_TENANT_CACHE.clear();
+        onRegistryChanged();
         log.info("@MyTable注解缓存已清空");
     }
+
+    /**
+     * 获取注册表版本号
+     *
+     * @return 当前版本号，每次注册表变化后递增
+     */
+    public static long getRegistryVersion() {
+        return REGISTRY_VERSION.get();
+    }
+
+    /**
+     * 预扫描：判断 SQL 文本中是否可能引用了需要注入条件的表
+     * 返回 false 时 SQL 一定不需要改写，可跳过解析
+     *
+     * @param sql SQL 文本
+     * @return 可能引用已注册表时返回 true
+     */
+    public static boolean mayReferenceRegisteredTable(String sql) {
+        return TABLE_NAME_MATCHER.matches(sql);
+    }
+
+    /**
+     * 计算注册表内容指纹（删除字段信息 + 租户表，与注册顺序无关）
+     * 与进程内递增的 {@link #getRegistryVersion()} 不同，相同注册内容在不同进程中得到相同指纹，
+     * 用于判断持久化的改写结果是否仍然适用
+     *
+     * @return 64 位指纹
+     */
+    public static long getRegistryFingerprint() {
+        StringBuilder sb = new StringBuilder();
+        new TreeMap<>(TABLE_DELETE_INFO_CACHE).forEach((table, info) -> sb.append("D|").append(table)
+                .append('|').append(info.getDelColumn())
+                .append('|').append(info.getDelValue())
+                .append('|').append(info.isValid()).append('\n'));
+        new TreeSet<>(TABLE_TENANT_CACHE).forEach(table -> sb.append("T|").append(table).append('\n'));
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(sb.toString().getBytes(StandardCharsets.UTF_8));
+            return ByteBuffer.wrap(digest).getLong();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 注册表发生变化：重建表名匹配器，递增版本号并清空 SQL 改写缓存
+     */
+    private static void onRegistryChanged() {
+        Set<String> names = new HashSet<>(TABLE_TENANT_CACHE);
+        for (Map.Entry<String, DeleteInfo> entry : TABLE_DELETE_INFO_CACHE.entrySet()) {
+            if (entry.getValue().isValid()) {
+                names.add(entry.getKey());
+            }
+        }
+        TABLE_NAME_MATCHER = TableNameMatcher.of(names);
+        REGISTRY_VERSION.incrementAndGet();
+        SqlRewriteCache.invalidateAll();
+    }
     
     /**
      * 获取缓存统计信息
@@ -0,0 +1,200 @@
+package io.github.mocanjie.base.myjpa.cache;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.Set;
+
+/**
+ * 表名多模式匹配器（Aho-Corasick 自动机）
+ * 单次扫描 SQL 文本，判断其中是否出现任一已注册表名，用于在解析前快速排除与 @MyTable 无关的 SQL
+ *
+ * <p>匹配规则：
+ * <ul>
+ *   <li>忽略大小写</li>
+ *   <li>要求标识符边界：命中片段前后不能是字母、数字、{@code _} 或 {@code $}，
+ *       避免 {@code user} 误匹配 {@code user_log}</li>
+ * </ul>
+ * 匹配是保守的：出现在字符串常量或注释中的表名同样视为命中，由后续解析做精确判断。
+ *
+ * <p>实例不可变，可在多线程间共享；注册表变化时由 {@link TableCacheManager} 整体重建并替换。
+ */
+public final class TableNameMatcher {
+
+    /** 空匹配器：没有任何注册表名 */
+    public static final TableNameMatcher EMPTY = new TableNameMatcher(
+            new char[][]{new char[0]}, new int[][]{new int[0]}, new int[]{0}, new int[][]{new int[0]});
+
+    /** 每个状态的出边字符（升序） */
+    private final char[][] edgeChars;
+
+    /** 每个状态的出边目标状态，与 edgeChars 一一对应 */
+    private final int[][] edgeTargets;
+
+    /** 失败指针 */
+    private final int[] fail;
+
+    /** 到达该状态时命中的模式长度（已合并失败链上的输出） */
+    private final int[][] outputs;
+
+    private TableNameMatcher(char[][] edgeChars, int[][] edgeTargets, int[] fail, int[][] outputs) {
+        this.edgeChars = edgeChars;
+        this.edgeTargets = edgeTargets;
+        this.fail = fail;
+        this.outputs = outputs;
+    }
+
+    /**
+     * 根据表名集合构建匹配器
+     *
+     * @param tableNames 表名（忽略大小写，空白名称被忽略）
+     * @return 匹配器，集合为空时返回 {@link #EMPTY}
+     */
+    public static TableNameMatcher of(Collection<String> tableNames) {
+        Set<String> patterns = new LinkedHashSet<>();
+        if (tableNames != null) {
+            for (String name : tableNames) {
+                if (name != null && !name.isBlank()) {
+                    patterns.add(name.trim().toLowerCase(Locale.ROOT));
+                }
+            }
+        }
+        if (patterns.isEmpty()) {
+            return EMPTY;
+        }
+
+        // 1. 构建 trie
+        List<StringBuilder> chars = new ArrayList<>();
+        List<List<Integer>> targets = new ArrayList<>();
+        List<List<Integer>> outs = new ArrayList<>();
+        chars.add(new StringBuilder());
+        targets.add(new ArrayList<>());
+        outs.add(new ArrayList<>());
+        for (String pattern : patterns) {
+            int state = 0;
+            for (int i = 0; i < pattern.length(); i++) {
+                char c = pattern.charAt(i);
+                int idx = chars.get(state).indexOf(String.valueOf(c));
+                if (idx >= 0) {
+                    state = targets.get(state).get(idx);
+                } else {
+                    int next = chars.size();
+                    chars.add(new StringBuilder());
+                    targets.add(new ArrayList<>());
+                    outs.add(new ArrayList<>());
+                    chars.get(state).append(c);
+                    targets.get(state).add(next);
+                    state = next;
+                }
+            }
+            outs.get(state).add(pattern.length());
+        }
+
+        int n = chars.size();
+        char[][] edgeChars = new char[n][];
+        int[][] edgeTargets = new int[n][];
+        for (int s = 0; s < n; s++) {
+            char[] cs = chars.get(s).toString().toCharArray();
+            int[] ts = targets.get(s).stream().mapToInt(Integer::intValue).toArray();
+            sortEdges(cs, ts);
+            edgeChars[s] = cs;
+            edgeTargets[s] = ts;
+        }
+
+        // 2. BFS 计算失败指针并合并输出
+        int[] fail = new int[n];
+        int[][] outputs = new int[n][];
+        outputs[0] = new int[0];
+        Queue<Integer> queue = new ArrayDeque<>();
+        for (int t : edgeTargets[0]) {
+            fail[t] = 0;
+            queue.add(t);
+        }
+        while (!queue.isEmpty()) {
+            int s = queue.poll();
+            List<Integer> merged = new ArrayList<>(outs.get(s));
+            if (outputs[fail[s]] != null) {
+                for (int len : outputs[fail[s]]) merged.add(len);
+            }
+            outputs[s] = merged.stream().mapToInt(Integer::intValue).toArray();
+            for (int i = 0; i < edgeChars[s].length; i++) {
+                char c = edgeChars[s][i];
+                int t = edgeTargets[s][i];
+                int f = fail[s];
+                int next;
+                while ((next = step(edgeChars, edgeTargets, f, c)) < 0 && f != 0) {
+                    f = fail[f];
+                }
+                fail[t] = next >= 0 ? next : 0;
+                queue.add(t);
+            }
+        }
+        return new TableNameMatcher(edgeChars, edgeTargets, fail, outputs);
+    }
+
+    /**
+     * 判断文本中是否出现任一表名（满足标识符边界）
+     *
+     * @param text SQL 文本
+     * @return 出现返回 true
+     */
+    public boolean matches(CharSequence text) {
+        if (this == EMPTY || text == null) {
+            return false;
+        }
+        int state = 0;
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = Character.toLowerCase(text.charAt(i));
+            int next;
+            while ((next = step(edgeChars, edgeTargets, state, c)) < 0 && state != 0) {
+                state = fail[state];
+            }
+            state = Math.max(next, 0);
+            for (int len : outputs[state]) {
+                int start = i - len + 1;
+                if ((start == 0 || !isIdentifierChar(text.charAt(start - 1)))
+                        && (i + 1 == length || !isIdentifierChar(text.charAt(i + 1)))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 是否没有任何模式
+     */
+    public boolean isEmpty() {
+        return this == EMPTY;
+    }
+
+    private static int step(char[][] edgeChars, int[][] edgeTargets, int state, char c) {
+        int idx = Arrays.binarySearch(edgeChars[state], c);
+        return idx >= 0 ? edgeTargets[state][idx] : -1;
+    }
+
+    private static boolean isIdentifierChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '$';
+    }
+
+    private static void sortEdges(char[] cs, int[] ts) {
+        for (int i = 1; i < cs.length; i++) {
+            char kc = cs[i];
+            int kt = ts[i];
+            int j = i - 1;
+            while (j >= 0 && cs[j] > kc) {
+                cs[j + 1] = cs[j];
+                ts[j + 1] = ts[j];
+                j--;
+            }
+            cs[j + 1] = kc;
+            ts[j + 1] = kt;
+        }
+    }
+}
@@ -0,0 +1,303 @@
+package io.github.mocanjie.base.myjpa.columnar;
+
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 列式查询结果
+ * 每列一个基本类型数组，null 记录在位图中（对应位置的数组值为 0），字符串列按字典编码，
+ * 适合报表 / 指标查询只取少量数值列做汇总计算的场景，整个结果不创建行对象也不装箱
+ *
+ * <pre>
+ * ColumnarResult result = baseDao.queryColumnarForSql("select user_id, amount, status from t_order", param);
+ * long[] userIds = result.getLongs("user_id");
+ * double[] amounts = result.getDoubles("amount");
+ * ColumnarResult.StringColumn status = result.getStrings("status");
+ * for (int row = 0; row &lt; result.getRowCount(); row++) {
+ *     if (!result.getColumn("amount").isNull(row)) total += amounts[row];
+ * }
+ * </pre>
+ *
+ * <p>列类型按 JDBC 元数据确定：
+ * <ul>
+ *   <li>BIGINT、scale 为 0 且精度不超过 18 的 DECIMAL / NUMERIC → {@link LongColumn}</li>
+ *   <li>INTEGER / SMALLINT / TINYINT、BOOLEAN / BIT（1 / 0） → {@link IntColumn}</li>
+ *   <li>DOUBLE / FLOAT / REAL → {@link DoubleColumn}</li>
+ *   <li>CHAR / VARCHAR 等字符类型 → {@link StringColumn}</li>
+ *   <li>其余 DECIMAL / NUMERIC（带小数或精度未知） → {@link ObjectColumn}，值为 BigDecimal，不损失精度</li>
+ *   <li>其余类型（日期、二进制等） → {@link ObjectColumn}</li>
+ * </ul>
+ * 返回的数组即内部存储，不做拷贝，调用方不应修改
+ */
+public final class ColumnarResult {
+
+    public enum Type { LONG, INT, DOUBLE, STRING, OBJECT }
+
+    /**
+     * 一列数据
+     */
+    public abstract static sealed class Column permits LongColumn, IntColumn, DoubleColumn, StringColumn, ObjectColumn {
+
+        private final String name;
+
+        private final BitSet nulls;
+
+        Column(String name, BitSet nulls) {
+            this.name = name;
+            this.nulls = nulls;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public abstract Type getType();
+
+        public boolean isNull(int row) {
+            return nulls.get(row);
+        }
+
+        public int getNullCount() {
+            return nulls.cardinality();
+        }
+
+        /**
+         * null 位图，第 n 位为 1 表示第 n 行为 null
+         */
+        public BitSet getNulls() {
+            return (BitSet) nulls.clone();
+        }
+    }
+
+    public static final class LongColumn extends Column {
+
+        private final long[] values;
+
+        LongColumn(String name, BitSet nulls, long[] values) {
+            super(name, nulls);
+            this.values = values;
+        }
+
+        @Override
+        public Type getType() {
+            return Type.LONG;
+        }
+
+        public long[] values() {
+            return values;
+        }
+    }
+
+    public static final class IntColumn extends Column {
+
+        private final int[] values;
+
+        IntColumn(String name, BitSet nulls, int[] values) {
+            super(name, nulls);
+            this.values = values;
+        }
+
+        @Override
+        public Type getType() {
+            return Type.INT;
+        }
+
+        public int[] values() {
+            return values;
+        }
+    }
+
+    public static final class DoubleColumn extends Column {
+
+        private final double[] values;
+
+        DoubleColumn(String name, BitSet nulls, double[] values) {
+            super(name, nulls);
+            this.values = values;
+        }
+
+        @Override
+        public Type getType() {
+            return Type.DOUBLE;
+        }
+
+        public double[] values() {
+            return values;
+        }
+    }
+
+    /**
+     * 字典编码的字符串列：codes[row] 为 dictionary 下标，null 行为 -1
+     */
+    public static final class StringColumn extends Column {
+
+        private final int[] codes;
+
+        private final String[] dictionary;
+
+        StringColumn(String name, BitSet nulls, int[] codes, String[] dictionary) {
+            super(name, nulls);
+            this.codes = codes;
+            this.dictionary = dictionary;
+        }
+
+        @Override
+        public Type getType() {
+            return Type.STRING;
+        }
+
+        public int[] codes() {
+            return codes;
+        }
+
+        /**
+         * 去重后的取值，按首次出现的顺序排列
+         */
+        public String[] dictionary() {
+            return dictionary;
+        }
+
+        public String get(int row) {
+            int code = codes[row];
+            return code < 0 ? null : dictionary[code];
+        }
+    }
+
+    public static final class ObjectColumn extends Column {
+
+        private final Object[] values;
+
+        ObjectColumn(String name, BitSet nulls, Object[] values) {
+            super(name, nulls);
+            this.values = values;
+        }
+
+        @Override
+        public Type getType() {
+            return Type.OBJECT;
+        }
+
+        public Object get(int row) {
+            return values[row];
+        }
+
+        public Object[] values() {
+            return values;
+        }
+    }
+
+    private final int rowCount;
+
+    private final List<Column> columns;
+
+    /** 小写列名 → 列，重名时取第一个 */
+    private final Map<String, Column> columnsByName;
+
+    ColumnarResult(int rowCount, List<Column> columns) {
+        this.rowCount = rowCount;
+        this.columns = Collections.unmodifiableList(columns);
+        Map<String, Column> byName = new HashMap<>();
+        for (Column column : columns) {
+            byName.putIfAbsent(column.getName().toLowerCase(Locale.US), column);
+        }
+        this.columnsByName = byName;
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public List<Column> getColumns() {
+        return columns;
+    }
+
+    /**
+     * @param index 列序号，从 0 开始
+     */
+    public Column getColumn(int index) {
+        return columns.get(index);
+    }
+
+    /**
+     * 按列标签查找，不区分大小写
+     */
+    public Column getColumn(String name) {
+        Column column = columnsByName.get(name.toLowerCase(Locale.US));
+        if (column == null) {
+            throw new IllegalArgumentException("结果中不存在列: " + name + "，可用列: " + columnsByName.keySet());
+        }
+        return column;
+    }
+
+    /**
+     * long 列返回内部数组，int 列返回拓宽后的拷贝
+     */
+    public long[] getLongs(String name) {
+        Column column = getColumn(name);
+        if (column instanceof LongColumn c) {
+            return c.values();
+        }
+        if (column instanceof IntColumn c) {
+            long[] values = new long[rowCount];
+            for (int i = 0; i < rowCount; i++) values[i] = c.values()[i];
+            return values;
+        }
+        throw typeMismatch(column, Type.LONG);
+    }
+
+    public int[] getInts(String name) {
+        Column column = getColumn(name);
+        if (column instanceof IntColumn c) {
+            return c.values();
+        }
+        throw typeMismatch(column, Type.INT);
+    }
+
+    /**
+     * double 列返回内部数组，long / int 列与数值对象列（如 DECIMAL 的 BigDecimal）返回转换后的拷贝，
+     * 超过 double 有效位数的小数会损失精度
+     */
+    public double[] getDoubles(String name) {
+        Column column = getColumn(name);
+        if (column instanceof DoubleColumn c) {
+            return c.values();
+        }
+        double[] values = new double[rowCount];
+        if (column instanceof LongColumn c) {
+            for (int i = 0; i < rowCount; i++) values[i] = c.values()[i];
+            return values;
+        }
+        if (column instanceof IntColumn c) {
+            for (int i = 0; i < rowCount; i++) values[i] = c.values()[i];
+            return values;
+        }
+        if (column instanceof ObjectColumn c) {
+            for (int i = 0; i < rowCount; i++) {
+                Object value = c.values()[i];
+                if (value instanceof Number number) {
+                    values[i] = number.doubleValue();
+                } else if (value != null) {
+                    throw typeMismatch(column, Type.DOUBLE);
+                }
+            }
+            return values;
+        }
+        throw typeMismatch(column, Type.DOUBLE);
+    }
+
+    public StringColumn getStrings(String name) {
+        Column column = getColumn(name);
+        if (column instanceof StringColumn c) {
+            return c;
+        }
+        throw typeMismatch(column, Type.STRING);
+    }
+
+    private static IllegalArgumentException typeMismatch(Column column, Type expected) {
+        return new IllegalArgumentException("列 " + column.getName() + " 的类型为 " + column.getType() + "，不能按 " + expected + " 读取");
+    }
+}
@@ -0,0 +1,263 @@
+package io.github.mocanjie.base.myjpa.columnar;
+
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.support.JdbcUtils;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 把结果集按列读入 {@link ColumnarResult}
+ * 列类型在读取首行前按元数据确定一次，逐行只调用与类型匹配的 JDBC getter（getLong / getInt / getDouble / getString）并用 wasNull 记录 null，
+ * 数组容量按倍数扩展，读取完毕后截断为实际行数
+ */
+public class ColumnarResultExtractor implements ResultSetExtractor<ColumnarResult> {
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    /** long 可精确表示的十进制位数 */
+    private static final int MAX_LONG_PRECISION = 18;
+
+    @Override
+    public ColumnarResult extractData(ResultSet rs) throws SQLException {
+        ResultSetMetaData rsmd = rs.getMetaData();
+        int columnCount = rsmd.getColumnCount();
+        ColumnBuilder[] builders = new ColumnBuilder[columnCount];
+        for (int index = 1; index <= columnCount; index++) {
+            ColumnarResult.Type type = columnType(rsmd, index);
+            String name = JdbcUtils.lookupColumnName(rsmd, index);
+            builders[index - 1] = (type == ColumnarResult.Type.INT && isBoolean(rsmd.getColumnType(index)))
+                    ? new IntBuilder(name, true) : newBuilder(name, type);
+        }
+        int rowCount = 0;
+        int capacity = INITIAL_CAPACITY;
+        for (ColumnBuilder builder : builders) {
+            builder.resize(capacity);
+        }
+        while (rs.next()) {
+            if (rowCount == capacity) {
+                capacity = capacity << 1;
+                for (ColumnBuilder builder : builders) {
+                    builder.resize(capacity);
+                }
+            }
+            for (int i = 0; i < columnCount; i++) {
+                builders[i].read(rs, i + 1, rowCount);
+            }
+            rowCount++;
+        }
+        List<ColumnarResult.Column> columns = new ArrayList<>(columnCount);
+        for (ColumnBuilder builder : builders) {
+            columns.add(builder.build(rowCount));
+        }
+        return new ColumnarResult(rowCount, columns);
+    }
+
+    /**
+     * 按 JDBC 元数据确定列的存储类型，子类可覆盖以调整个别列
+     * 带小数或精度未知（如 Oracle 未声明精度的 NUMBER，精度为 0）的 DECIMAL / NUMERIC 按 BigDecimal 保留为对象列，
+     * 确认可接受精度损失时可覆盖为 {@link ColumnarResult.Type#DOUBLE}；
+     * 无符号整数（如 MySQL UNSIGNED）放宽一级：INTEGER / SMALLINT / TINYINT 按 long 存储，BIGINT 按对象保留
+     */
+    protected ColumnarResult.Type columnType(ResultSetMetaData rsmd, int index) throws SQLException {
+        return switch (rsmd.getColumnType(index)) {
+            case Types.BIGINT -> rsmd.isSigned(index) ? ColumnarResult.Type.LONG : ColumnarResult.Type.OBJECT;
+            case Types.INTEGER, Types.SMALLINT, Types.TINYINT -> rsmd.isSigned(index) ? ColumnarResult.Type.INT : ColumnarResult.Type.LONG;
+            case Types.BOOLEAN, Types.BIT -> ColumnarResult.Type.INT;
+            case Types.DOUBLE, Types.FLOAT, Types.REAL -> ColumnarResult.Type.DOUBLE;
+            case Types.DECIMAL, Types.NUMERIC -> {
+                int precision = rsmd.getPrecision(index);
+                yield (rsmd.getScale(index) == 0 && precision > 0 && precision <= MAX_LONG_PRECISION)
+                        ? ColumnarResult.Type.LONG : ColumnarResult.Type.OBJECT;
+            }
+            case Types.CHAR, Types.VARCHAR, Types.LONGVARCHAR, Types.NCHAR, Types.NVARCHAR, Types.LONGNVARCHAR -> ColumnarResult.Type.STRING;
+            default -> ColumnarResult.Type.OBJECT;
+        };
+    }
+
+    private static boolean isBoolean(int sqlType) {
+        return sqlType == Types.BOOLEAN || sqlType == Types.BIT;
+    }
+
+    private static ColumnBuilder newBuilder(String name, ColumnarResult.Type type) {
+        return switch (type) {
+            case LONG -> new LongBuilder(name);
+            case INT -> new IntBuilder(name, false);
+            case DOUBLE -> new DoubleBuilder(name);
+            case STRING -> new DictionaryBuilder(name);
+            case OBJECT -> new ObjectBuilder(name);
+        };
+    }
+
+    private abstract static class ColumnBuilder {
+
+        final String name;
+
+        final BitSet nulls = new BitSet();
+
+        ColumnBuilder(String name) {
+            this.name = name;
+        }
+
+        abstract void resize(int capacity);
+
+        abstract void read(ResultSet rs, int index, int row) throws SQLException;
+
+        abstract ColumnarResult.Column build(int rowCount);
+    }
+
+    private static final class LongBuilder extends ColumnBuilder {
+
+        long[] values = new long[0];
+
+        LongBuilder(String name) {
+            super(name);
+        }
+
+        @Override
+        void resize(int capacity) {
+            values = Arrays.copyOf(values, capacity);
+        }
+
+        @Override
+        void read(ResultSet rs, int index, int row) throws SQLException {
+            values[row] = rs.getLong(index);
+            if (values[row] == 0 && rs.wasNull()) nulls.set(row);
+        }
+
+        @Override
+        ColumnarResult.Column build(int rowCount) {
+            return new ColumnarResult.LongColumn(name, nulls, Arrays.copyOf(values, rowCount));
+        }
+    }
+
+    private static final class IntBuilder extends ColumnBuilder {
+
+        int[] values = new int[0];
+
+        /** BOOLEAN / BIT 列用 getBoolean 读取后存为 1 / 0 */
+        final boolean bool;
+
+        IntBuilder(String name, boolean bool) {
+            super(name);
+            this.bool = bool;
+        }
+
+        @Override
+        void resize(int capacity) {
+            values = Arrays.copyOf(values, capacity);
+        }
+
+        @Override
+        void read(ResultSet rs, int index, int row) throws SQLException {
+            values[row] = bool ? (rs.getBoolean(index) ? 1 : 0) : rs.getInt(index);
+            if (values[row] == 0 && rs.wasNull()) nulls.set(row);
+        }
+
+        @Override
+        ColumnarResult.Column build(int rowCount) {
+            return new ColumnarResult.IntColumn(name, nulls, Arrays.copyOf(values, rowCount));
+        }
+    }
+
+    private static final class DoubleBuilder extends ColumnBuilder {
+
+        double[] values = new double[0];
+
+        DoubleBuilder(String name) {
+            super(name);
+        }
+
+        @Override
+        void resize(int capacity) {
+            values = Arrays.copyOf(values, capacity);
+        }
+
+        @Override
+        void read(ResultSet rs, int index, int row) throws SQLException {
+            values[row] = rs.getDouble(index);
+            if (values[row] == 0 && rs.wasNull()) nulls.set(row);
+        }
+
+        @Override
+        ColumnarResult.Column build(int rowCount) {
+            return new ColumnarResult.DoubleColumn(name, nulls, Arrays.copyOf(values, rowCount));
+        }
+    }
+
+    /**
+     * 字典编码：相同取值只保留一份字符串
+     */
+    private static final class DictionaryBuilder extends ColumnBuilder {
+
+        int[] codes = new int[0];
+
+        final Map<String, Integer> codesByValue = new HashMap<>();
+
+        final List<String> dictionary = new ArrayList<>();
+
+        DictionaryBuilder(String name) {
+            super(name);
+        }
+
+        @Override
+        void resize(int capacity) {
+            codes = Arrays.copyOf(codes, capacity);
+        }
+
+        @Override
+        void read(ResultSet rs, int index, int row) throws SQLException {
+            String value = rs.getString(index);
+            if (value == null) {
+                codes[row] = -1;
+                nulls.set(row);
+                return;
+            }
+            Integer code = codesByValue.get(value);
+            if (code == null) {
+                code = dictionary.size();
+                codesByValue.put(value, code);
+                dictionary.add(value);
+            }
+            codes[row] = code;
+        }
+
+        @Override
+        ColumnarResult.Column build(int rowCount) {
+            return new ColumnarResult.StringColumn(name, nulls, Arrays.copyOf(codes, rowCount), dictionary.toArray(new String[0]));
+        }
+    }
+
+    private static final class ObjectBuilder extends ColumnBuilder {
+
+        Object[] values = new Object[0];
+
+        ObjectBuilder(String name) {
+            super(name);
+        }
+
+        @Override
+        void resize(int capacity) {
+            values = Arrays.copyOf(values, capacity);
+        }
+
+        @Override
+        void read(ResultSet rs, int index, int row) throws SQLException {
+            values[row] = JdbcUtils.getResultSetValue(rs, index);
+            if (values[row] == null) nulls.set(row);
+        }
+
+        @Override
+        ColumnarResult.Column build(int rowCount) {
+            return new ColumnarResult.ObjectColumn(name, nulls, Arrays.copyOf(values, rowCount));
+        }
+    }
+}
@@ -1,16 +1,27 @@
 package io.github.mocanjie.base.myjpa.configuration;
 
+import io.github.mocanjie.base.myjpa.accessor.EntityAccessors;
 import io.github.mocanjie.base.myjpa.builder.SqlBuilder;
 import io.github.mocanjie.base.myjpa.builder.TableInfoBuilder;
+import io.github.mocanjie.base.myjpa.cache.CountResultCache;
+import io.github.mocanjie.base.myjpa.cache.SqlRewriteCache;
+import io.github.mocanjie.base.myjpa.cache.SqlRewriteCacheStore;
 import io.github.mocanjie.base.myjpa.dao.IBaseDao;
+import io.github.mocanjie.base.myjpa.dao.impl.CountEstimator;
 import io.github.mocanjie.base.myjpa.dao.impl.BaseDaoImpl;
+import io.github.mocanjie.base.myjpa.parser.CountSqlBuilder;
 import io.github.mocanjie.base.myjpa.parser.JSqlDynamicSqlParser;
+import io.github.mocanjie.base.myjpa.parser.SqlRewriteWarmer;
+import io.github.mocanjie.base.myjpa.parser.SqlStatementParser;
 import io.github.mocanjie.base.myjpa.service.IBaseService;
 import io.github.mocanjie.base.myjpa.service.impl.BaseServiceImpl;
 import io.github.mocanjie.base.myjpa.validation.DatabaseSchemaValidator;
 import io.github.mocanjie.base.myjpa.validation.SchemaValidationRunner;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.commons.lang3.StringUtils;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
@@ -24,6 +35,7 @@ import org.springframework.core.annotation.Order;
 import org.springframework.jdbc.core.JdbcTemplate;
 
 import javax.sql.DataSource;
+import java.nio.file.Path;
 
 @Configuration
 @ConfigurationProperties(prefix ="myjpa.showsql")
@@ -44,6 +56,66 @@ public class MyJpaAutoConfiguration implements BeanPostProcessor, Ordered {
     @Value("${myjpa.tenant.column:tenant_id}")
     public String tenantColumn;
 
+    @Value("${myjpa.sql-cache.enabled:true}")
+    public boolean sqlCacheEnabled;
+
+    @Value("${myjpa.sql-cache.max-size:2048}")
+    public int sqlCacheMaxSize;
+
+    @Value("${myjpa.sql-cache.file:}")
+    public String sqlCacheFile;
+
+    @Value("${myjpa.sql-rewrite.splice:true}")
+    public boolean spliceRewrite;
+
+    @Value("${myjpa.sql-parser.timeout-ms:6000}")
+    public long sqlParserTimeoutMs;
+
+    @Value("${myjpa.sql-parser.inline-threshold:4096}")
+    public int sqlParserInlineThreshold;
+
+    @Value("${myjpa.sql-parser.virtual-threads:true}")
+    public boolean sqlParserVirtualThreads;
+
+    @Value("${myjpa.page.optimize-count:true}")
+    public boolean optimizeCount;
+
+    @Value("${myjpa.page.concurrent-count:false}")
+    public boolean concurrentCount;
+
+    @Value("${myjpa.page.window-count:false}")
+    public boolean windowCount;
+
+    @Value("${myjpa.page.push-down:false}")
+    public boolean pushDown;
+
+    @Value("${myjpa.page.deferred-join-offset:0}")
+    public int deferredJoinOffset;
+
+    @Value("${myjpa.page.estimate-threshold:100000}")
+    public long estimateThreshold;
+
+    @Value("${myjpa.page.count-cache.enabled:false}")
+    public boolean countCacheEnabled;
+
+    @Value("${myjpa.page.count-cache.ttl-ms:30000}")
+    public long countCacheTtlMs;
+
+    @Value("${myjpa.page.count-cache.max-size:1024}")
+    public int countCacheMaxSize;
+
+    @Value("${myjpa.warm-up.enabled:false}")
+    public boolean warmUpEnabled;
+
+    @Value("${myjpa.warm-up.parallelism:0}")
+    public int warmUpParallelism;
+
+    @Value("${myjpa.stream.fetch-size:1000}")
+    public int streamFetchSize;
+
+    @Value("${myjpa.mapping.generated-accessor:true}")
+    public boolean generatedAccessor;
+
     @Bean
     @Primary
     public IBaseService getBaseService(){
@@ -86,13 +158,70 @@ public class MyJpaAutoConfiguration implements BeanPostProcessor, Ordered {
     }
 
 
+    /**
+     * 启动时恢复/预热 SQL 改写缓存：所有单例（含 TableInfoBuilder 与数据库模式验证）初始化完成后执行，
+     * 此时删除字段有效性与租户表注册已确定，结果不会被随后的注册表变化清空
+     */
+    @Bean
+    public SmartInitializingSingleton getSqlRewriteCacheInitializer(){
+        return () -> {
+            if (StringUtils.isNotBlank(sqlCacheFile)) {
+                SqlRewriteCacheStore.load(Path.of(sqlCacheFile));
+            }
+            if (warmUpEnabled) {
+                SqlRewriteWarmer.warmUpRegistered(warmUpParallelism);
+            }
+        };
+    }
+
+    /**
+     * 应用关闭时持久化 SQL 改写缓存，供下次启动直接加载
+     */
+    @PreDestroy
+    void persistSqlRewriteCache(){
+        if (StringUtils.isNotBlank(sqlCacheFile) && SqlRewriteCache.enabled) {
+            SqlRewriteCacheStore.save(Path.of(sqlCacheFile));
+        }
+    }
+
+
     @PostConstruct
     void logInit(){
         // 将租户配置同步到解析器静态字段
         JSqlDynamicSqlParser.tenantEnabled = tenantEnabled;
         JSqlDynamicSqlParser.tenantColumn = tenantColumn;
+        JSqlDynamicSqlParser.spliceRewriteEnabled = spliceRewrite;
         // 同步 SQL 执行时间打印开关
         BaseDaoImpl.showSqlTime = showSqlTime;
+        // 同步 SQL 改写缓存配置
+        SqlRewriteCache.enabled = sqlCacheEnabled;
+        SqlRewriteCache.setMaxSize(sqlCacheMaxSize);
+        // 同步分页 count SQL 精简开关
+        CountSqlBuilder.enabled = optimizeCount;
+        // 同步分页 count 并发执行开关
+        BaseDaoImpl.concurrentCount = concurrentCount;
+        // 同步窗口函数分页开关（数据库不支持时自动回退为 count + 分页两次查询）
+        SqlBuilder.windowCountEnabled = windowCount;
+        // 同步排序与分页下推开关（不适合下推的查询仍使用派生表包裹）
+        SqlBuilder.pushDownEnabled = pushDown;
+        // 同步延迟关联分页起始行阈值（0 关闭）
+        SqlBuilder.deferredJoinOffset = deferredJoinOffset;
+        // 同步估算总数阈值（EstimatedCountPager）
+        CountEstimator.threshold = estimateThreshold;
+        // 同步分页 count 结果缓存配置
+        CountResultCache.enabled = countCacheEnabled;
+        CountResultCache.ttlMillis = countCacheTtlMs;
+        CountResultCache.maxSize = countCacheMaxSize;
+        // 同步 SQL 解析执行配置
+        SqlStatementParser.timeoutMillis = sqlParserTimeoutMs;
+        SqlStatementParser.inlineThreshold = sqlParserInlineThreshold;
+        if (!sqlParserVirtualThreads) {
+            SqlStatementParser.useVirtualThreads(false);
+        }
+        // 同步流式查询 fetch size
+        BaseDaoImpl.streamFetchSize = streamFetchSize;
+        // 同步编译期生成访问器开关（关闭后使用反射映射与 BeanPropertySqlParameterSource）
+        EntityAccessors.enabled = generatedAccessor;
 
         try {
             // 使用反射来兼容不同的日志实现
@@ -2,11 +2,14 @@ package io.github.mocanjie.base.myjpa.dao;
 
 import io.github.mocanjie.base.mycommon.pager.Pager;
 import io.github.mocanjie.base.myjpa.MyTableEntity;
+import io.github.mocanjie.base.myjpa.columnar.ColumnarResult;
 import org.springframework.lang.Nullable;
 
 import java.io.Serializable;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 
 public interface IBaseDao {
@@ -23,12 +26,65 @@ public interface IBaseDao {
 
 	<T> T querySingleForSql(String sql, Map<String, Object> param, Class<T> clazz);
 
+	/**
+	 * 流式查询：只进游标逐行映射，不在内存中汇总结果，逻辑删除与租户条件照常注入。
+	 * 返回的 Stream 占用连接与游标，必须用 try-with-resources 关闭；存在事务时须在事务内读取完毕
+	 */
+	<T> Stream<T> queryStreamForSql(String sql, Object param, Class<T> clazz);
+
+	<T> Stream<T> queryStreamForSql(String sql, Map<String, Object> param, Class<T> clazz);
+
+	/**
+	 * 流式查询：逐行回调，方法返回时游标已关闭；游标占用连接，回调内不得再发起查询
+	 */
+	<T> void queryForEachForSql(String sql, Object param, Class<T> clazz, Consumer<? super T> action);
+
+	<T> void queryForEachForSql(String sql, Map<String, Object> param, Class<T> clazz, Consumer<? super T> action);
+
+	/**
+	 * 复用实例的流式回调：结果对象在 instances 个实例间轮换，每行覆盖写入结果集中的映射列，减少逐行分配。
+	 * 回调只能在本次调用内读取参数，不得保存引用或放入集合（最多可同时持有最近 instances 行）；
+	 * 不在结果集中的属性保持原值，record、构造器绑定类型与单列简单类型每行仍新建对象
+	 */
+	<T> void queryForEachReusingForSql(String sql, Object param, Class<T> clazz, int instances, Consumer<? super T> action);
+
+	<T> void queryForEachReusingForSql(String sql, Map<String, Object> param, Class<T> clazz, int instances, Consumer<? super T> action);
+
+	/**
+	 * 列式查询：结果按列读入基本类型数组（null 位图、字符串字典编码），不创建行对象，逻辑删除与租户条件照常注入
+	 */
+	ColumnarResult queryColumnarForSql(String sql, Object param);
+
+	ColumnarResult queryColumnarForSql(String sql, Map<String, Object> param);
+
+	/**
+	 * 一对多查询：连接查询的多行按父对象主键合并，带 {@code @MyOneToMany} 前缀的列组装为子对象集合；
+	 * 行不要求有序，只在内存中保留父对象
+	 */
+	<T> List<T> queryOneToManyListForSql(String sql, Object param, Class<T> clazz);
+
+	<T> List<T> queryOneToManyListForSql(String sql, Map<String, Object> param, Class<T> clazz);
+
+	/**
+	 * 流式一对多查询：结果须按父主键排序，每个父对象组装完成后立即输出，不缓存整个结果；
+	 * 返回的 Stream 必须用 try-with-resources 关闭
+	 */
+	<T> Stream<T> queryOneToManyStreamForSql(String sql, Object param, Class<T> clazz);
+
+	<T> Stream<T> queryOneToManyStreamForSql(String sql, Map<String, Object> param, Class<T> clazz);
+
 	<PO extends MyTableEntity> Serializable insertPO(PO po, boolean autoCreateId);
 
 	<PO extends MyTableEntity> Serializable batchInsertPO(List<PO> pos, boolean autoCreateId);
 
 	<PO extends MyTableEntity> Serializable batchInsertPO(List<PO> pos, boolean autoCreateId, int batchSize);
 
+	/**
+	 * 按主键插入或更新（数据库原生 upsert），主键为空时自动生成；返回数据库报告的影响行数
+	 * @throws UnsupportedOperationException 当前方言不支持 upsert
+	 */
+	<PO extends MyTableEntity> int upsertPO(PO po);
+
 	<PO extends MyTableEntity> int updatePO(PO po);
 
 	<PO extends MyTableEntity> int updatePO(PO po, boolean ignoreNull);
@@ -3,14 +3,27 @@ package io.github.mocanjie.base.myjpa.dao.impl;
 import io.github.mocanjie.base.mycommon.exception.BusinessException;
 import io.github.mocanjie.base.mycommon.pager.Pager;
 import io.github.mocanjie.base.myjpa.MyTableEntity;
+import io.github.mocanjie.base.myjpa.accessor.EntityAccessors;
 import io.github.mocanjie.base.myjpa.builder.SqlBuilder;
 import io.github.mocanjie.base.myjpa.builder.TableInfoBuilder;
+import io.github.mocanjie.base.myjpa.cache.CountResultCache;
+import io.github.mocanjie.base.myjpa.cache.RowMapperCache;
 import io.github.mocanjie.base.myjpa.cache.TableCacheManager;
+import io.github.mocanjie.base.myjpa.columnar.ColumnarResult;
+import io.github.mocanjie.base.myjpa.columnar.ColumnarResultExtractor;
 import io.github.mocanjie.base.myjpa.dao.IBaseDao;
+import io.github.mocanjie.base.myjpa.dialect.Dialect;
 import io.github.mocanjie.base.myjpa.metadata.TableInfo;
+import io.github.mocanjie.base.myjpa.pager.EstimatedCountPager;
+import io.github.mocanjie.base.myjpa.pager.KeysetPager;
+import io.github.mocanjie.base.myjpa.pager.KeysetSqlParameterSource;
+import io.github.mocanjie.base.myjpa.parser.CountSqlBuilder;
 import io.github.mocanjie.base.myjpa.parser.JSqlDynamicSqlParser;
 import io.github.mocanjie.base.myjpa.parser.SqlParser;
-import io.github.mocanjie.base.myjpa.rowmapper.MyBeanPropertyRowMapper;
+import io.github.mocanjie.base.myjpa.rowmapper.OneToManyAssembler;
+import io.github.mocanjie.base.myjpa.rowmapper.ReusableRowMapper;
+import io.github.mocanjie.base.myjpa.rowmapper.ReusingRowMapper;
+import io.github.mocanjie.base.myjpa.rowmapper.TotalRowsRowMapper;
 import io.github.mocanjie.base.myjpa.tenant.TenantAwareSqlParameterSource;
 import io.github.mocanjie.base.myjpa.tenant.TenantContext;
 import io.github.mocanjie.base.myjpa.tenant.TenantIdProvider;
@@ -20,13 +33,15 @@ import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DuplicateKeyException;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.ResultSetExtractor;
 import org.springframework.jdbc.core.RowMapper;
-import org.springframework.jdbc.core.SingleColumnRowMapper;
 import org.springframework.jdbc.core.namedparam.*;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.io.Serializable;
 import java.lang.reflect.Field;
@@ -34,6 +49,14 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 @Component
 public class BaseDaoImpl implements IBaseDao {
@@ -43,6 +66,16 @@ public class BaseDaoImpl implements IBaseDao {
 	/** 是否打印 SQL 执行时间，由 MyJpaAutoConfiguration 根据 myjpa.show-sql-time 配置同步 */
 	public static volatile boolean showSqlTime = false;
 
+	/** 是否并发执行分页的 count 与数据查询（事务内自动串行），由 myjpa.page.concurrent-count 配置同步 */
+	public static volatile boolean concurrentCount = false;
+
+	/** 流式查询每批读取的行数，由 myjpa.stream.fetch-size 配置同步（MySQL 方言按行流式读取） */
+	public static volatile int streamFetchSize = 1000;
+
+	/** 分页 count 查询执行器：每个任务一个虚拟线程，并发度由连接池大小约束 */
+	private static final ExecutorService PAGE_COUNT_EXECUTOR = Executors.newThreadPerTaskExecutor(
+			Thread.ofVirtual().name("myjpa-page-count-", 0).factory());
+
 	private <T> T executeWithTiming(String sql, java.util.function.Supplier<T> operation) {
 		if (!showSqlTime) return operation.get();
 		long start = System.currentTimeMillis();
@@ -56,8 +89,18 @@ public class BaseDaoImpl implements IBaseDao {
 	}
 
 	private <T> RowMapper<T> getRowMapper(Class<T> clazz) {
-		if (isWrapClass(clazz)) return new SingleColumnRowMapper<>(clazz);
-		return new MyBeanPropertyRowMapper<>(clazz);
+		if (isWrapClass(clazz)) return RowMapperCache.getSingleColumnRowMapper(clazz);
+		// 优先使用编译期生成的映射器
+		RowMapper<T> generated = EntityAccessors.getRowMapper(clazz);
+		return generated != null ? generated : RowMapperCache.getBeanPropertyRowMapper(clazz);
+	}
+
+	/**
+	 * 复用实例的映射器：每次查询新建，在 instances 个实例间轮换；不支持写入已有实例的类型原样返回
+	 */
+	private <T> RowMapper<T> getReusingRowMapper(Class<T> clazz, int instances) {
+		RowMapper<T> rowMapper = getRowMapper(clazz);
+		return rowMapper instanceof ReusableRowMapper<T> reusable ? new ReusingRowMapper<>(reusable, instances) : rowMapper;
 	}
 
 	@Autowired
@@ -167,7 +210,7 @@ public class BaseDaoImpl implements IBaseDao {
 	public <T> List<T> queryListForSql(String sql, Object param, Class<T> clazz) {
 		SqlParameterSource sps = param == null
 				? new EmptySqlParameterSource()
-				: new BeanPropertySqlParameterSource(param);
+				: EntityAccessors.parameterSource(param);
 		var r = applyConditions(sql, sps);
 		return executeWithTiming(r.sql(), () -> namedParameterJdbcTemplate.query(r.sql(), r.sps(), getRowMapper(clazz)));
 	}
@@ -181,6 +224,131 @@ public class BaseDaoImpl implements IBaseDao {
 		return executeWithTiming(r.sql(), () -> namedParameterJdbcTemplate.query(r.sql(), r.sps(), getRowMapper(clazz)));
 	}
 
+	@Override
+	public <T> Stream<T> queryStreamForSql(String sql, Object param, Class<T> clazz) {
+		SqlParameterSource sps = param == null
+				? new EmptySqlParameterSource()
+				: EntityAccessors.parameterSource(param);
+		return queryStream(applyConditions(sql, sps), getRowMapper(clazz));
+	}
+
+	@Override
+	public <T> Stream<T> queryStreamForSql(String sql, Map<String, Object> param, Class<T> clazz) {
+		SqlParameterSource sps = (param == null || param.isEmpty())
+				? new EmptySqlParameterSource()
+				: new MapSqlParameterSource(param);
+		return queryStream(applyConditions(sql, sps), getRowMapper(clazz));
+	}
+
+	@Override
+	public <T> void queryForEachForSql(String sql, Object param, Class<T> clazz, Consumer<? super T> action) {
+		try (Stream<T> stream = queryStreamForSql(sql, param, clazz)) {
+			stream.forEach(action);
+		}
+	}
+
+	@Override
+	public <T> void queryForEachForSql(String sql, Map<String, Object> param, Class<T> clazz, Consumer<? super T> action) {
+		try (Stream<T> stream = queryStreamForSql(sql, param, clazz)) {
+			stream.forEach(action);
+		}
+	}
+
+	@Override
+	public <T> void queryForEachReusingForSql(String sql, Object param, Class<T> clazz, int instances, Consumer<? super T> action) {
+		SqlParameterSource sps = param == null
+				? new EmptySqlParameterSource()
+				: EntityAccessors.parameterSource(param);
+		RowMapper<T> rowMapper = getReusingRowMapper(clazz, instances);
+		try (Stream<T> stream = queryStream(applyConditions(sql, sps), rowMapper)) {
+			stream.forEach(action);
+		}
+	}
+
+	@Override
+	public <T> void queryForEachReusingForSql(String sql, Map<String, Object> param, Class<T> clazz, int instances, Consumer<? super T> action) {
+		SqlParameterSource sps = (param == null || param.isEmpty())
+				? new EmptySqlParameterSource()
+				: new MapSqlParameterSource(param);
+		RowMapper<T> rowMapper = getReusingRowMapper(clazz, instances);
+		try (Stream<T> stream = queryStream(applyConditions(sql, sps), rowMapper)) {
+			stream.forEach(action);
+		}
+	}
+
+	@Override
+	public ColumnarResult queryColumnarForSql(String sql, Object param) {
+		SqlParameterSource sps = param == null
+				? new EmptySqlParameterSource()
+				: EntityAccessors.parameterSource(param);
+		var r = applyConditions(sql, sps);
+		return executeWithTiming(r.sql(), () -> namedParameterJdbcTemplate.query(r.sql(), r.sps(), new ColumnarResultExtractor()));
+	}
+
+	@Override
+	public ColumnarResult queryColumnarForSql(String sql, Map<String, Object> param) {
+		SqlParameterSource sps = (param == null || param.isEmpty())
+				? new EmptySqlParameterSource()
+				: new MapSqlParameterSource(param);
+		var r = applyConditions(sql, sps);
+		return executeWithTiming(r.sql(), () -> namedParameterJdbcTemplate.query(r.sql(), r.sps(), new ColumnarResultExtractor()));
+	}
+
+	@Override
+	public <T> List<T> queryOneToManyListForSql(String sql, Object param, Class<T> clazz) {
+		SqlParameterSource sps = param == null
+				? new EmptySqlParameterSource()
+				: EntityAccessors.parameterSource(param);
+		var r = applyConditions(sql, sps);
+		OneToManyAssembler<T> assembler = RowMapperCache.getOneToManyMapping(clazz).newAssembler(getRowMapper(clazz));
+		return executeWithTiming(r.sql(), () -> namedParameterJdbcTemplate.query(r.sql(), r.sps(), (ResultSetExtractor<List<T>>) assembler));
+	}
+
+	@Override
+	public <T> List<T> queryOneToManyListForSql(String sql, Map<String, Object> param, Class<T> clazz) {
+		SqlParameterSource sps = (param == null || param.isEmpty())
+				? new EmptySqlParameterSource()
+				: new MapSqlParameterSource(param);
+		var r = applyConditions(sql, sps);
+		OneToManyAssembler<T> assembler = RowMapperCache.getOneToManyMapping(clazz).newAssembler(getRowMapper(clazz));
+		return executeWithTiming(r.sql(), () -> namedParameterJdbcTemplate.query(r.sql(), r.sps(), (ResultSetExtractor<List<T>>) assembler));
+	}
+
+	@Override
+	public <T> Stream<T> queryOneToManyStreamForSql(String sql, Object param, Class<T> clazz) {
+		SqlParameterSource sps = param == null
+				? new EmptySqlParameterSource()
+				: EntityAccessors.parameterSource(param);
+		return queryOneToManyStream(applyConditions(sql, sps), clazz);
+	}
+
+	@Override
+	public <T> Stream<T> queryOneToManyStreamForSql(String sql, Map<String, Object> param, Class<T> clazz) {
+		SqlParameterSource sps = (param == null || param.isEmpty())
+				? new EmptySqlParameterSource()
+				: new MapSqlParameterSource(param);
+		return queryOneToManyStream(applyConditions(sql, sps), clazz);
+	}
+
+	/**
+	 * 逐行交给组装器，父主键变化时输出上一个父对象，游标读完后输出最后一个
+	 */
+	private <T> Stream<T> queryOneToManyStream(ConditionResult r, Class<T> clazz) {
+		OneToManyAssembler<T> assembler = RowMapperCache.getOneToManyMapping(clazz).newAssembler(getRowMapper(clazz));
+		Stream<T> completed = queryStream(r, assembler).filter(Objects::nonNull);
+		return Stream.concat(completed, Stream.of(assembler).map(OneToManyAssembler::finish).filter(Objects::nonNull));
+	}
+
+	/**
+	 * 打开只进、只读游标；计时只包含执行到返回首批结果，不含逐行读取
+	 */
+	private <T> Stream<T> queryStream(ConditionResult r, RowMapper<T> rowMapper) {
+		Dialect dialect = SqlBuilder.getDialect();
+		PreparedStatementCreator psc = StreamingQuery.statementCreator(r.sql(), r.sps());
+		return executeWithTiming(r.sql(), () -> StreamingQuery.open(getJdbcTemplate(), r.sql(), psc, rowMapper,
+				dialect.streamFetchSize(streamFetchSize), dialect.streamRequiresTransaction()));
+	}
+
 	@Override
 	public <T> T querySingleForSql(String sql, Object param, Class<T> clazz) {
 		List<T> list = this.queryListForSql(sql, param, clazz);
@@ -197,22 +365,8 @@ public class BaseDaoImpl implements IBaseDao {
 	public <T> Pager<T> queryPageForSql(String sql, Object param, Pager<T> pager, Class<T> clazz) {
 		SqlParameterSource sps = param == null
 				? new EmptySqlParameterSource()
-				: new BeanPropertySqlParameterSource(param);
-		var r = applyConditions(sql, sps);
-		if (!pager.getIgnoreCount()) {
-			String countSql = "select count(*) from ( " + r.sql() + " ) mkt_page_count";
-			pager.setTotalRows(executeWithTiming(countSql, () -> namedParameterJdbcTemplate.queryForObject(countSql, r.sps(), new SingleColumnRowMapper<>(Long.class))));
-			if (pager.getTotalRows() > 0) {
-				String pageSql = SqlBuilder.buildPagerSql(r.sql(), pager);
-				pager.setPageData(executeWithTiming(pageSql, () -> namedParameterJdbcTemplate.query(pageSql, r.sps(), getRowMapper(clazz))));
-			} else {
-				pager.setPageData(new ArrayList<>());
-			}
-		} else {
-			String pageSql = SqlBuilder.buildPagerSql(r.sql(), pager);
-			pager.setPageData(executeWithTiming(pageSql, () -> namedParameterJdbcTemplate.query(pageSql, r.sps(), getRowMapper(clazz))));
-		}
-		return pager;
+				: EntityAccessors.parameterSource(param);
+		return queryPage(applyConditions(sql, sps), pager, clazz);
 	}
 
 	@Override
@@ -220,19 +374,131 @@ public class BaseDaoImpl implements IBaseDao {
 		SqlParameterSource sps = (param == null || param.isEmpty())
 				? new EmptySqlParameterSource()
 				: new MapSqlParameterSource(param);
-		var r = applyConditions(sql, sps);
+		return queryPage(applyConditions(sql, sps), pager, clazz);
+	}
+
+	private <T> Pager<T> queryPage(ConditionResult r, Pager<T> pager, Class<T> clazz) {
+		if (pager instanceof KeysetPager<T> keysetPager) {
+			return queryKeysetPage(r, keysetPager, clazz);
+		}
+		if (pager instanceof EstimatedCountPager<T> estimatedPager && !pager.getIgnoreCount()
+				&& useEstimatedCount(r, estimatedPager)) {
+			String pageSql = SqlBuilder.buildPagerSql(r.sql(), pager);
+			pager.setPageData(executeWithTiming(pageSql, () -> namedParameterJdbcTemplate.query(pageSql, r.sps(), getRowMapper(clazz))));
+			return pager;
+		}
+		if (!pager.getIgnoreCount() && SqlBuilder.useWindowCount() && !isWrapClass(clazz)) {
+			return queryWindowPage(r, pager, clazz);
+		}
+		String pageSql = SqlBuilder.buildPagerSql(r.sql(), pager);
+		Supplier<List<T>> pageQuery = () -> executeWithTiming(pageSql, () -> namedParameterJdbcTemplate.query(pageSql, r.sps(), getRowMapper(clazz)));
 		if (!pager.getIgnoreCount()) {
-			String countSql = "select count(*) from ( " + r.sql() + " ) mkt_page_count";
-			pager.setTotalRows(executeWithTiming(countSql, () -> namedParameterJdbcTemplate.queryForObject(countSql, r.sps(), new SingleColumnRowMapper<>(Long.class))));
+			String countSql = CountSqlBuilder.build(r.sql());
+			if (canQueryConcurrently()) {
+				pager.setPageData(queryConcurrently(pager, countSql, r.sps(), pageQuery));
+				return pager;
+			}
+			pager.setTotalRows(queryCount(countSql, r.sps()));
 			if (pager.getTotalRows() > 0) {
-				String pageSql = SqlBuilder.buildPagerSql(r.sql(), pager);
-				pager.setPageData(executeWithTiming(pageSql, () -> namedParameterJdbcTemplate.query(pageSql, r.sps(), getRowMapper(clazz))));
+				pager.setPageData(pageQuery.get());
 			} else {
 				pager.setPageData(new ArrayList<>());
 			}
 		} else {
-			String pageSql = SqlBuilder.buildPagerSql(r.sql(), pager);
-			pager.setPageData(executeWithTiming(pageSql, () -> namedParameterJdbcTemplate.query(pageSql, r.sps(), getRowMapper(clazz))));
+			pager.setPageData(pageQuery.get());
+		}
+		return pager;
+	}
+
+	/**
+	 * 估算总数：估算值不小于阈值时写入总数并标记为估算值，返回 true；否则标记为精确值，返回 false 由调用方精确计数
+	 */
+	private boolean useEstimatedCount(ConditionResult r, EstimatedCountPager<?> pager) {
+		pager.setTotalExact(true);
+		Long estimate = CountEstimator.estimate(namedParameterJdbcTemplate, r.sql(), r.sps());
+		long threshold = pager.getEstimateThreshold() != null ? pager.getEstimateThreshold() : CountEstimator.threshold;
+		if (estimate == null || estimate < threshold) {
+			return false;
+		}
+		pager.setTotalRows(estimate);
+		pager.setTotalExact(false);
+		return true;
+	}
+
+	/**
+	 * 窗口函数分页：一次查询同时取回分页数据和总数。
+	 * 结果为空且不是第一页（页码越界）时无法得知总数，再单独执行一次 count。
+	 */
+	private <T> Pager<T> queryWindowPage(ConditionResult r, Pager<T> pager, Class<T> clazz) {
+		String pageSql = SqlBuilder.buildWindowPagerSql(r.sql(), pager);
+		TotalRowsRowMapper<T> rowMapper = new TotalRowsRowMapper<>(getRowMapper(clazz), SqlBuilder.TOTAL_ROWS_COLUMN);
+		pager.setPageData(executeWithTiming(pageSql, () -> namedParameterJdbcTemplate.query(pageSql, r.sps(), rowMapper)));
+		if (rowMapper.getTotalRows() != null) {
+			pager.setTotalRows(rowMapper.getTotalRows());
+		} else if (pager.getStartRow() == 0) {
+			pager.setTotalRows(0L);
+		} else {
+			pager.setTotalRows(queryCount(CountSqlBuilder.build(r.sql()), r.sps()));
+		}
+		return pager;
+	}
+
+	/**
+	 * 执行 count 查询，开启 count 结果缓存时优先读取缓存
+	 */
+	private Long queryCount(String countSql, SqlParameterSource sps) {
+		return CountResultCache.get(countSql, sps, () -> executeWithTiming(countSql,
+				() -> namedParameterJdbcTemplate.queryForObject(countSql, sps, RowMapperCache.getSingleColumnRowMapper(Long.class))));
+	}
+
+	/**
+	 * 是否可以并发执行 count 与分页查询：已开启且当前不在实际的 Spring 事务中。
+	 * 事务内的查询必须使用事务绑定的同一连接，只能串行执行；
+	 * SUPPORTS 等无实际事务时仅有事务同步，虚拟线程上的 count 不会共享当前线程绑定的连接，可以并发。
+	 */
+	private boolean canQueryConcurrently() {
+		return concurrentCount && !TransactionSynchronizationManager.isActualTransactionActive();
+	}
+
+	/**
+	 * count 提交到虚拟线程执行，分页查询在当前线程执行，两条 SQL 各自从连接池获取连接，完成后写入总数
+	 *
+	 * @return 分页数据
+	 */
+	private <T> List<T> queryConcurrently(Pager<T> pager, String countSql, SqlParameterSource sps, Supplier<List<T>> pageQuery) {
+		Future<Long> total = PAGE_COUNT_EXECUTOR.submit(() -> queryCount(countSql, sps));
+		try {
+			List<T> rows = pageQuery.get();
+			pager.setTotalRows(total.get());
+			return rows;
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException re) throw re;
+			if (e.getCause() instanceof Error err) throw err;
+			throw new IllegalStateException(e.getCause());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("分页 count 查询被中断", e);
+		} finally {
+			total.cancel(true);
+		}
+	}
+
+	/**
+	 * keyset 分页：在已注入逻辑删除/租户条件的 SQL 外层追加排序键条件，续页键值作为命名参数绑定
+	 */
+	private <T> Pager<T> queryKeysetPage(ConditionResult r, KeysetPager<T> pager, Class<T> clazz) {
+		String pageSql = SqlBuilder.buildKeysetPagerSql(r.sql(), pager);
+		SqlParameterSource sps = pager.getLastKey() == null
+				? r.sps()
+				: new KeysetSqlParameterSource(r.sps(), SqlBuilder.KEYSET_PARAM_PREFIX, pager.getLastKey());
+		Supplier<List<T>> pageQuery = () -> executeWithTiming(pageSql, () -> namedParameterJdbcTemplate.query(pageSql, sps, getRowMapper(clazz)));
+		if (pager.getIgnoreCount()) {
+			pager.fill(pageQuery.get());
+		} else if (canQueryConcurrently()) {
+			pager.fill(queryConcurrently(pager, CountSqlBuilder.build(r.sql()), r.sps(), pageQuery));
+		} else {
+			pager.setTotalRows(queryCount(CountSqlBuilder.build(r.sql()), r.sps()));
+			pager.fill(pageQuery.get());
 		}
 		return pager;
 	}
@@ -253,7 +519,7 @@ public class BaseDaoImpl implements IBaseDao {
 			if (autoCreateId) tableInfo.setPkValue(po);
 
 			String sql = SqlParser.getInsertSql(tableInfo, po);
-			SqlParameterSource paramSource = new BeanPropertySqlParameterSource(po);
+			SqlParameterSource paramSource = EntityAccessors.parameterSource(po);
 
 			// 租户处理：SQL 未含租户列（ignoreNull=true 时字段为 null 被跳过）→ 追加列+参数
 			Object tenantId = getWriteTenantId(tableInfo.getTableName());
@@ -266,15 +532,18 @@ public class BaseDaoImpl implements IBaseDao {
 			final SqlParameterSource fPs = paramSource;
 			if (autoCreateId) {
 				executeWithTiming(fSql, () -> namedParameterJdbcTemplate.update(fSql, fPs));
+				CountResultCache.invalidateTable(tableInfo.getTableName());
 				return (Serializable) tableInfo.getPkValue(po);
 			} else {
 				Object pkValue = tableInfo.getPkValue(po);
 				if (pkValue != null) {
 					executeWithTiming(fSql, () -> namedParameterJdbcTemplate.update(fSql, fPs));
+					CountResultCache.invalidateTable(tableInfo.getTableName());
 					return (Serializable) pkValue;
 				}
 				KeyHolder holder = new GeneratedKeyHolder();
 				executeWithTiming(fSql, () -> namedParameterJdbcTemplate.update(fSql, fPs, holder));
+				CountResultCache.invalidateTable(tableInfo.getTableName());
 				long id = holder.getKey().longValue();
 				tableInfo.setPkValue(po, id);
 				return id;
@@ -289,6 +558,46 @@ public class BaseDaoImpl implements IBaseDao {
 		}
 	}
 
+	@Override
+	public <PO extends MyTableEntity> int upsertPO(PO po) {
+		Dialect dialect = SqlBuilder.getDialect();
+		if (!dialect.supportsUpsert()) {
+			throw new UnsupportedOperationException(dialect.getName() + " 方言不支持 upsert");
+		}
+		try {
+			TableInfo tableInfo = TableInfoBuilder.getTableInfo(po.getClass());
+			if (tableInfo.getPkValue(po) == null) tableInfo.setPkValue(po);
+
+			Map<String, String> columns = SqlParser.getInsertColumns(tableInfo, po, true);
+			SqlParameterSource paramSource = EntityAccessors.parameterSource(po);
+
+			// 租户处理：未含租户列时追加列+参数；租户列作为更新守卫，不会通过主键覆盖其他租户的数据
+			String guardColumn = null;
+			Object tenantId = getWriteTenantId(tableInfo.getTableName());
+			if (tenantId != null) {
+				guardColumn = JSqlDynamicSqlParser.tenantColumn;
+				if (columns.keySet().stream().noneMatch(JSqlDynamicSqlParser.tenantColumn::equalsIgnoreCase)) {
+					columns.put(JSqlDynamicSqlParser.tenantColumn, JSqlDynamicSqlParser.TENANT_PARAM_NAME);
+					paramSource = new TenantAwareSqlParameterSource(paramSource, JSqlDynamicSqlParser.TENANT_PARAM_NAME, tenantId);
+				}
+			}
+			String sql = dialect.buildUpsertSql(tableInfo.getTableName(),
+					new ArrayList<>(columns.keySet()), new ArrayList<>(columns.values()), tableInfo.getPkColumnName(), guardColumn);
+
+			final SqlParameterSource fPs = paramSource;
+			int rows = executeWithTiming(sql, () -> namedParameterJdbcTemplate.update(sql, fPs));
+			CountResultCache.invalidateTable(tableInfo.getTableName());
+			return rows;
+		} catch (Exception e) {
+			log.error("upsert异常", e);
+			if (e instanceof DuplicateKeyException) {
+				throw (DuplicateKeyException) e;
+			} else {
+				throw new BusinessException("系统错误,请联系管理员");
+			}
+		}
+	}
+
 	@Override
 	public <PO extends MyTableEntity> int updatePO(PO po) {
 		return updatePO(po, true);
@@ -307,9 +616,11 @@ public class BaseDaoImpl implements IBaseDao {
 	private <PO extends MyTableEntity> int updatePO(PO po, boolean ignoreNull, @Nullable String... forceUpdateFields) {
 		TableInfo tableInfo = TableInfoBuilder.getTableInfo(po.getClass());
 		String sql = SqlParser.getUpdateSql(tableInfo, po, ignoreNull, forceUpdateFields);
-		SqlParameterSource paramSource = new BeanPropertySqlParameterSource(po);
+		SqlParameterSource paramSource = EntityAccessors.parameterSource(po);
 		var r = applyWriteConditions(sql, paramSource, tableInfo.getTableName());
-		return executeWithTiming(r.sql(), () -> namedParameterJdbcTemplate.update(r.sql(), r.sps()));
+		int rows = executeWithTiming(r.sql(), () -> namedParameterJdbcTemplate.update(r.sql(), r.sps()));
+		CountResultCache.invalidateTable(tableInfo.getTableName());
+		return rows;
 	}
 
 	@Override
@@ -319,7 +630,9 @@ public class BaseDaoImpl implements IBaseDao {
 			String sql = SqlParser.getDelByIdSql(tableInfo);
 			MapSqlParameterSource sps = new MapSqlParameterSource(tableInfo.getPkFieldName(), tableInfo.getPkValue(po));
 			var r = applyWriteConditions(sql, sps, tableInfo.getTableName());
-			return executeWithTiming(r.sql(), () -> namedParameterJdbcTemplate.update(r.sql(), r.sps()));
+			int rows = executeWithTiming(r.sql(), () -> namedParameterJdbcTemplate.update(r.sql(), r.sps()));
+			CountResultCache.invalidateTable(tableInfo.getTableName());
+			return rows;
 		} catch (Exception e) {
 			throw new BusinessException("delPO error!");
 		}
@@ -353,7 +666,9 @@ public class BaseDaoImpl implements IBaseDao {
 			}
 			final String fSql = sql;
 			final SqlParameterSource[] fParams = params;
-			return executeWithTiming(fSql, () -> namedParameterJdbcTemplate.batchUpdate(fSql, fParams)).length;
+			int rows = executeWithTiming(fSql, () -> namedParameterJdbcTemplate.batchUpdate(fSql, fParams)).length;
+			CountResultCache.invalidateTable(tableInfo.getTableName());
+			return rows;
 		} catch (Exception e) {
 			throw new BusinessException("del error!");
 		}
@@ -362,6 +677,9 @@ public class BaseDaoImpl implements IBaseDao {
 	@Override
 	public <PO extends MyTableEntity> Serializable batchInsertPO(List<PO> pos, boolean autoCreateId) {
 		if (pos == null || pos.isEmpty()) return 0;
+		// 按方言的单条语句参数上限分批（+1 预留租户列），驱动把批量改写为多行 INSERT 时不会超限
+		int maxRows = SqlBuilder.getDialect().maxInsertRows(TableInfoBuilder.getTableInfo(pos.get(0).getClass()).getFieldList().size() + 1);
+		if (pos.size() > maxRows) return batchInsertPO(pos, autoCreateId, maxRows);
 		try {
 			TableInfo tableInfo = TableInfoBuilder.getTableInfo(pos.get(0).getClass());
 			if (autoCreateId) {
@@ -384,7 +702,7 @@ public class BaseDaoImpl implements IBaseDao {
 						tenantField.setAccessible(true);
 						for (PO po : pos) setTenantField(tenantField, po, tenantId);
 					}
-					params = SqlParameterSourceUtils.createBatch(pos);
+					params = EntityAccessors.parameterSources(pos);
 				} else {
 					// POJO 没有租户字段 → SQL 追加列，每个元素包装 TenantAwareSqlParameterSource
 					sql = JSqlDynamicSqlParser.appendTenantToInsertSql(sql);
@@ -392,17 +710,18 @@ public class BaseDaoImpl implements IBaseDao {
 					List<SqlParameterSource> spsList = new ArrayList<>(pos.size());
 					for (PO po : pos) {
 						spsList.add(new TenantAwareSqlParameterSource(
-								new BeanPropertySqlParameterSource(po), JSqlDynamicSqlParser.TENANT_PARAM_NAME, tid));
+								EntityAccessors.parameterSource(po), JSqlDynamicSqlParser.TENANT_PARAM_NAME, tid));
 					}
 					params = spsList.toArray(new SqlParameterSource[0]);
 				}
 			} else {
-				params = SqlParameterSourceUtils.createBatch(pos);
+				params = EntityAccessors.parameterSources(pos);
 			}
 
 			final String fSql = sql;
 			final SqlParameterSource[] fParams = params;
 			executeWithTiming(fSql, () -> namedParameterJdbcTemplate.batchUpdate(fSql, fParams));
+			CountResultCache.invalidateTable(tableInfo.getTableName());
 		} catch (Exception e) {
 			log.error("批量新增异常", e);
 			throw new BusinessException("系统错误,请联系管理员");
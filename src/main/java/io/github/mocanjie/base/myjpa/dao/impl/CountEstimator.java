@@ -0,0 +1,123 @@
+package io.github.mocanjie.base.myjpa.dao.impl;
+
+import io.github.mocanjie.base.myjpa.builder.SqlBuilder;
+import io.github.mocanjie.base.myjpa.parser.SqlStatementParser;
+import net.sf.jsqlparser.schema.Table;
+import net.sf.jsqlparser.statement.Statement;
+import net.sf.jsqlparser.statement.select.PlainSelect;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcOperations;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 分页总数估算
+ * 千万级大表的精确 count 代价过高，且列表页通常不需要精确总数，此时改用数据库自身的估算：
+ * <ul>
+ *   <li>无过滤条件的单表查询：读取表统计信息（PostgreSQL {@code pg_class.reltuples}，MySQL {@code information_schema.tables.table_rows}）</li>
+ *   <li>其他查询：执行计划的估算行数（PostgreSQL {@code EXPLAIN (FORMAT JSON)} 顶层节点的 Plan Rows，
+ *       MySQL {@code EXPLAIN} 最外层查询各表 rows × filtered% 的乘积）</li>
+ * </ul>
+ * 不支持的数据库或估算失败时返回 null，由调用方执行精确 count。
+ */
+public class CountEstimator {
+
+    private static final Logger log = LoggerFactory.getLogger(CountEstimator.class);
+
+    /** 估算值小于该阈值时执行精确 count，由 myjpa.page.estimate-threshold 配置同步 */
+    public static volatile long threshold = 100_000L;
+
+    private static final Pattern PG_PLAN_ROWS = Pattern.compile("\"Plan Rows\"\\s*:\\s*([0-9.eE+]+)");
+
+    /**
+     * 估算查询结果行数
+     *
+     * @param jdbc 执行器
+     * @param sql  已完成条件注入的查询 SQL
+     * @param sps  参数源
+     * @return 估算行数，不支持或失败时返回 null
+     */
+    public static Long estimate(NamedParameterJdbcOperations jdbc, String sql, SqlParameterSource sps) {
+        String dialect = SqlBuilder.getDialect().getName();
+        if (!"mysql".equals(dialect) && !"postgresql".equals(dialect)) {
+            return null;
+        }
+        try {
+            String table = unfilteredTable(sql);
+            if ("postgresql".equals(dialect)) {
+                return table != null ? pgsqlTableRows(jdbc, table) : pgsqlPlanRows(jdbc, sql, sps);
+            }
+            return table != null ? mysqlTableRows(jdbc, table) : mysqlPlanRows(jdbc, sql, sps);
+        } catch (Exception e) {
+            log.debug("估算总数失败，使用精确 count: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 无过滤条件的单表查询返回表名，否则返回 null
+     */
+    public static String unfilteredTable(String sql) {
+        try {
+            Statement statement = SqlStatementParser.parse(sql);
+            if (statement instanceof PlainSelect ps
+                    && ps.getFromItem() instanceof Table table
+                    && (ps.getJoins() == null || ps.getJoins().isEmpty())
+                    && ps.getWhere() == null && ps.getDistinct() == null && ps.getGroupBy() == null
+                    && ps.getHaving() == null && ps.getLimit() == null && ps.getOffset() == null
+                    && ps.getFetch() == null && ps.getWithItemsList() == null) {
+                return table.getFullyQualifiedName().replace("`", "").replace("\"", "");
+            }
+        } catch (Exception ignored) {
+            // 无法解析按有过滤条件处理
+        }
+        return null;
+    }
+
+    private static Long pgsqlTableRows(NamedParameterJdbcOperations jdbc, String table) {
+        Long rows = jdbc.queryForObject("select reltuples::bigint from pg_class where oid = to_regclass(:table)",
+                new MapSqlParameterSource("table", table), Long.class);
+        // 从未 ANALYZE 的表 reltuples 为 -1（PostgreSQL 14+）或 0
+        return rows == null || rows <= 0 ? null : rows;
+    }
+
+    private static Long pgsqlPlanRows(NamedParameterJdbcOperations jdbc, String sql, SqlParameterSource sps) {
+        String plan = jdbc.queryForObject("EXPLAIN (FORMAT JSON) " + sql, sps, String.class);
+        if (plan == null) return null;
+        Matcher matcher = PG_PLAN_ROWS.matcher(plan);
+        return matcher.find() ? (long) Double.parseDouble(matcher.group(1)) : null;
+    }
+
+    private static Long mysqlTableRows(NamedParameterJdbcOperations jdbc, String table) {
+        int dot = table.lastIndexOf('.');
+        MapSqlParameterSource params = new MapSqlParameterSource("table", table.substring(dot + 1));
+        String schemaCondition = "database()";
+        if (dot > 0) {
+            params.addValue("schema", table.substring(0, dot));
+            schemaCondition = ":schema";
+        }
+        return jdbc.queryForObject("select table_rows from information_schema.tables where table_schema = "
+                + schemaCondition + " and table_name = :table", params, Long.class);
+    }
+
+    private static Long mysqlPlanRows(NamedParameterJdbcOperations jdbc, String sql, SqlParameterSource sps) {
+        List<Map<String, Object>> plan = jdbc.queryForList("EXPLAIN " + sql, sps);
+        double rows = 1;
+        boolean found = false;
+        for (Map<String, Object> step : plan) {
+            if (!"1".equals(String.valueOf(step.get("id")))) continue;
+            Object stepRows = step.get("rows");
+            if (stepRows == null) continue;
+            double filtered = step.get("filtered") instanceof Number f ? f.doubleValue() : 100d;
+            rows *= ((Number) stepRows).doubleValue() * filtered / 100d;
+            found = true;
+        }
+        return found ? Math.round(rows) : null;
+    }
+}
@@ -0,0 +1,140 @@
+package io.github.mocanjie.base.myjpa.dao.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.UncategorizedSQLException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.PreparedStatementCreatorFactory;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.SqlParameter;
+import org.springframework.jdbc.core.namedparam.NamedParameterUtils;
+import org.springframework.jdbc.core.namedparam.ParsedSql;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 流式查询：只进、只读游标逐行映射，结果不在内存中汇总
+ * <ul>
+ *   <li>语句为只进、只读结果集（JDBC 默认），fetch size 由方言换算
+ *       （MySQL Connector/J 为 {@link Integer#MIN_VALUE} 时逐行流式读取）</li>
+ *   <li>方言要求事务内才使用游标时（PostgreSQL），在自动提交的连接上临时关闭自动提交，关闭流时回滚并恢复</li>
+ *   <li>存在 Spring 事务时使用事务连接，流必须在事务内读取并关闭；否则独占一个连接，关闭流时归还</li>
+ * </ul>
+ */
+final class StreamingQuery {
+
+    private static final Logger log = LoggerFactory.getLogger(StreamingQuery.class);
+
+    private StreamingQuery() {
+    }
+
+    /**
+     * 命名参数 SQL 的语句创建器，参数展开与 NamedParameterJdbcTemplate 一致；
+     * 未指定结果集类型时 JDBC 默认即 TYPE_FORWARD_ONLY / CONCUR_READ_ONLY
+     */
+    static PreparedStatementCreator statementCreator(String sql, SqlParameterSource sps) {
+        ParsedSql parsedSql = NamedParameterUtils.parseSqlStatement(sql);
+        String sqlToUse = NamedParameterUtils.substituteNamedParameters(parsedSql, sps);
+        List<SqlParameter> declaredParameters = NamedParameterUtils.buildSqlParameterList(parsedSql, sps);
+        Object[] params = NamedParameterUtils.buildValueArray(parsedSql, sps, null);
+        return new PreparedStatementCreatorFactory(sqlToUse, declaredParameters).newPreparedStatementCreator(params);
+    }
+
+    /**
+     * 打开流，调用方负责关闭
+     *
+     * @param fetchSize           语句 fetch size，0 表示使用驱动默认值
+     * @param requiresTransaction 驱动是否只在关闭自动提交时按 fetch size 读取
+     */
+    static <T> Stream<T> open(JdbcTemplate jdbcTemplate, String sql, PreparedStatementCreator psc, RowMapper<T> rowMapper,
+                              int fetchSize, boolean requiresTransaction) {
+        DataSource dataSource = jdbcTemplate.getDataSource();
+        // 没有事务时直接从数据源取连接：不绑定到线程，也不受方法返回时空事务同步的释放影响
+        boolean transactional = TransactionSynchronizationManager.isActualTransactionActive();
+        Connection con = null;
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        boolean restoreAutoCommit = false;
+        try {
+            con = transactional ? DataSourceUtils.getConnection(dataSource) : dataSource.getConnection();
+            if (requiresTransaction && con.getAutoCommit()) {
+                con.setAutoCommit(false);
+                restoreAutoCommit = true;
+            }
+            ps = psc.createPreparedStatement(con);
+            if (fetchSize != 0) {
+                ps.setFetchSize(fetchSize);
+            }
+            if (jdbcTemplate.getQueryTimeout() > 0) {
+                ps.setQueryTimeout(jdbcTemplate.getQueryTimeout());
+            }
+            rs = ps.executeQuery();
+        } catch (SQLException | RuntimeException e) {
+            close(dataSource, con, ps, rs, transactional, restoreAutoCommit);
+            throw e instanceof SQLException ex ? translate(jdbcTemplate, sql, ex) : (RuntimeException) e;
+        }
+
+        ResultSet resultSet = rs;
+        Spliterator<T> spliterator = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE, Spliterator.ORDERED) {
+            private int rowNum = 0;
+
+            @Override
+            public boolean tryAdvance(Consumer<? super T> action) {
+                try {
+                    if (!resultSet.next()) return false;
+                    action.accept(rowMapper.mapRow(resultSet, rowNum++));
+                    return true;
+                } catch (SQLException e) {
+                    throw translate(jdbcTemplate, sql, e);
+                }
+            }
+        };
+        Connection connection = con;
+        PreparedStatement statement = ps;
+        boolean restore = restoreAutoCommit;
+        return StreamSupport.stream(spliterator, false)
+                .onClose(() -> close(dataSource, connection, statement, resultSet, transactional, restore));
+    }
+
+    private static void close(DataSource dataSource, Connection con, PreparedStatement ps, ResultSet rs,
+                              boolean transactional, boolean restoreAutoCommit) {
+        JdbcUtils.closeResultSet(rs);
+        JdbcUtils.closeStatement(ps);
+        if (con == null) return;
+        if (restoreAutoCommit) {
+            try {
+                // 只读游标没有需要提交的修改
+                con.rollback();
+                con.setAutoCommit(true);
+            } catch (SQLException e) {
+                log.warn("流式查询结束后恢复自动提交失败: {}", e.getMessage());
+            }
+        }
+        if (transactional) {
+            DataSourceUtils.releaseConnection(con, dataSource);
+        } else {
+            JdbcUtils.closeConnection(con);
+        }
+    }
+
+    private static DataAccessException translate(JdbcTemplate jdbcTemplate, String sql, SQLException e) {
+        DataAccessException translated = jdbcTemplate.getExceptionTranslator().translate("StreamingQuery", sql, e);
+        return translated != null ? translated : new UncategorizedSQLException("StreamingQuery", sql, e);
+    }
+}
@@ -0,0 +1,333 @@
+package io.github.mocanjie.base.myjpa.dialect;
+
+import io.github.mocanjie.base.mycommon.pager.Pager;
+import io.github.mocanjie.base.myjpa.builder.SqlBuilder;
+import io.github.mocanjie.base.myjpa.cache.TableCacheManager;
+import io.github.mocanjie.base.myjpa.parser.SqlStatementParser;
+import net.sf.jsqlparser.schema.Column;
+import net.sf.jsqlparser.schema.Table;
+import net.sf.jsqlparser.statement.Statement;
+import net.sf.jsqlparser.statement.select.AllColumns;
+import net.sf.jsqlparser.statement.select.AllTableColumns;
+import net.sf.jsqlparser.statement.select.FromItem;
+import net.sf.jsqlparser.statement.select.PlainSelect;
+import net.sf.jsqlparser.statement.select.Select;
+import net.sf.jsqlparser.statement.select.SelectItem;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * 内置方言公共逻辑：排序子句、版本号解析，以及最外层查询结构分析（OFFSET ... FETCH 分页、排序与分页下推、延迟关联）
+ */
+public abstract class AbstractDialect implements Dialect {
+
+    /** 查询结构分析缓存最大条目数，超出后整体清空重建 */
+    private static final int MAX_CACHE_SIZE = 1024;
+
+    /** 允许直接写入 SQL 的排序列名 */
+    private static final Pattern SORT_COLUMN = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+
+    /**
+     * FROM / JOIN 中的表
+     *
+     * @param qualifier 引用该表的限定名：有别名为别名，否则为表名（保持原写法）
+     * @param table     表名（小写，不含引号）
+     * @param source    FROM 中的原写法，如 {@code user u}
+     */
+    protected record TableRef(String qualifier, String table, String source) {}
+
+    /**
+     * 最外层查询结构分析结果
+     *
+     * @param parsed    是否解析成功
+     * @param ordered   最外层带 ORDER BY、没有 LIMIT / OFFSET / FETCH / TOP，且 SQL 中没有注释、不以分号结尾，
+     *                  可直接在末尾追加分页子句
+     * @param unordered 去掉最外层 ORDER BY 后重新生成的 SQL（不含注释），没有可去掉的 ORDER BY 时为原 SQL
+     * @param orderBy   最外层 ORDER BY 子句（含关键字），没有可去掉的 ORDER BY 时为空串
+     * @param pushable  可直接在最外层追加 ORDER BY / 分页：单个 SELECT（非 UNION），没有分页与锁定子句，
+     *                  SQL 中没有注释且不以分号结尾
+     * @param grouped   带 DISTINCT / GROUP BY，只能按查询列排序
+     * @param selectAll 查询列只有 {@code *} 或 {@code t.*}
+     * @param outputs   查询列输出名（小写）→ 排序引用写法：有别名用别名，普通列用原列
+     * @param tables    FROM / JOIN 中的表，含子查询等非表项时为空
+     */
+    protected record SelectShape(boolean parsed, boolean ordered, String unordered, String orderBy, boolean pushable,
+                                 boolean grouped, boolean selectAll, Map<String, String> outputs, List<TableRef> tables) {
+
+        static SelectShape unparsed(String sql) {
+            return new SelectShape(false, false, sql, "", false, false, false, Map.of(), List.of());
+        }
+    }
+
+    private static final Map<String, SelectShape> SHAPE_CACHE = new ConcurrentHashMap<>();
+
+    @Override
+    public String toString() {
+        return getName();
+    }
+
+    /**
+     * pager 指定的排序子句，未指定时返回空串
+     */
+    protected static String sortClause(Pager pager) {
+        String sortColumn = pager.getSort();
+        if (StringUtils.hasText(sortColumn) && StringUtils.hasText(pager.getOrder())) {
+            return " order by " + SqlBuilder.camelCaseToUnderscore(sortColumn) + " " + pager.getOrder();
+        }
+        return "";
+    }
+
+    /**
+     * 包裹原查询并追加 pager 排序：{@code select * from ( sql ) as alias order by ...}，分页子句由调用方追加
+     *
+     * @param withTotal 是否附带 {@code count(*) over()} 总数列
+     */
+    protected static StringBuilder wrapSelect(String sql, Pager pager, String alias, boolean withTotal) {
+        StringBuilder pagingSelect = new StringBuilder(300);
+        pagingSelect.append(" select ");
+        if (withTotal) {
+            pagingSelect.append(alias).append(".*, count(*) over() as ").append(SqlBuilder.TOTAL_ROWS_COLUMN);
+        } else {
+            pagingSelect.append("*");
+        }
+        pagingSelect.append(" from ( ");
+        pagingSelect.append(enclosable(sql));
+        pagingSelect.append(" ) as ").append(alias).append(" ");
+        pagingSelect.append(sortClause(pager));
+        return pagingSelect;
+    }
+
+    /**
+     * 取版本信息中的主版本号，无法识别时返回 0
+     */
+    protected static int majorVersion(String productVersion) {
+        if (productVersion == null) return 0;
+        String digits = productVersion.trim().replaceFirst("^[^0-9]*", "").split("[^0-9]")[0];
+        try {
+            return digits.isEmpty() ? 0 : Integer.parseInt(digits);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * 分析最外层查询结构，结果按 SQL 文本缓存
+     */
+    protected static SelectShape analyzeSelect(String sql) {
+        SelectShape cached = SHAPE_CACHE.get(sql);
+        if (cached != null) return cached;
+        SelectShape shape = doAnalyzeSelect(sql);
+        if (SHAPE_CACHE.size() >= MAX_CACHE_SIZE) {
+            SHAPE_CACHE.clear();
+        }
+        SHAPE_CACHE.put(sql, shape);
+        return shape;
+    }
+
+    private static SelectShape doAnalyzeSelect(String sql) {
+        Statement statement;
+        try {
+            statement = SqlStatementParser.parse(sql);
+        } catch (Exception e) {
+            return SelectShape.unparsed(sql);
+        }
+        if (!(statement instanceof Select select)) {
+            return SelectShape.unparsed(sql);
+        }
+        List<?> orderBy = select.getOrderByElements();
+        boolean limited = select.getLimit() != null || select.getOffset() != null || select.getFetch() != null
+                || (select instanceof PlainSelect ps && ps.getTop() != null);
+        boolean pushable = false;
+        boolean grouped = false;
+        boolean selectAll = false;
+        Map<String, String> outputs = new HashMap<>();
+        List<TableRef> tables = new ArrayList<>();
+        if (select instanceof PlainSelect ps && !limited && ps.getForMode() == null && ps.getForUpdateTable() == null
+                && ps.getIntoTables() == null && !hasCommentOrTerminator(sql)) {
+            pushable = true;
+            grouped = ps.getDistinct() != null || ps.getGroupBy() != null;
+            selectAll = true;
+            for (SelectItem<?> item : ps.getSelectItems()) {
+                if (!(item.getExpression() instanceof AllColumns) && !(item.getExpression() instanceof AllTableColumns)) {
+                    selectAll = false;
+                }
+                if (item.getAlias() != null) {
+                    outputs.put(unquote(item.getAlias().getName()).toLowerCase(), item.getAlias().getName());
+                } else if (item.getExpression() instanceof Column column) {
+                    outputs.putIfAbsent(unquote(column.getColumnName()).toLowerCase(), column.getFullyQualifiedName());
+                }
+            }
+            List<FromItem> fromItems = new ArrayList<>();
+            fromItems.add(ps.getFromItem());
+            if (ps.getJoins() != null) {
+                ps.getJoins().forEach(join -> fromItems.add(join.getFromItem()));
+            }
+            for (FromItem fromItem : fromItems) {
+                if (!(fromItem instanceof Table table)) {
+                    tables.clear();
+                    break;
+                }
+                String qualifier = table.getAlias() != null ? table.getAlias().getName() : table.getName();
+                tables.add(new TableRef(qualifier, unquote(table.getName()).toLowerCase(), table.toString()));
+            }
+        }
+        String unordered = sql;
+        String orderByClause = "";
+        boolean removable = orderBy != null && !orderBy.isEmpty() && !limited;
+        // 末尾的注释或分号会吞掉追加的分页子句
+        boolean ordered = removable && !hasCommentOrTerminator(sql);
+        if (removable) {
+            orderByClause = " ORDER BY " + orderBy.stream().map(Object::toString).collect(Collectors.joining(", "));
+            select.setOrderByElements(null);
+            unordered = select.toString();
+        }
+        return new SelectShape(true, ordered, unordered, orderByClause, pushable, grouped, selectAll,
+                Map.copyOf(outputs), List.copyOf(tables));
+    }
+
+    /**
+     * 注释或结尾分号会让追加在末尾的子句失效
+     */
+    protected static boolean hasCommentOrTerminator(String sql) {
+        return sql.contains("--") || sql.contains("/*") || sql.contains("#") || sql.strip().endsWith(";");
+    }
+
+    /**
+     * 作为派生表包裹前的处理：去掉结尾分号，含行注释时换行，避免注释吞掉右括号
+     */
+    protected static String enclosable(String sql) {
+        String text = sql.strip();
+        while (text.endsWith(";")) {
+            text = text.substring(0, text.length() - 1).strip();
+        }
+        return text.contains("--") || text.contains("#") ? text + "\n" : text;
+    }
+
+    private static String unquote(String name) {
+        return name.replace("`", "").replace("\"", "").replace("[", "").replace("]", "");
+    }
+
+    /**
+     * 将排序与分页直接追加到原查询最外层
+     * 排序列必须能确定归属：查询列的输出名，或 FROM / JOIN 中恰好一张已注册实体表的列；
+     * 无法确定时返回 null，由调用方回退为包裹分页
+     *
+     * @param pagingClause 分页子句，如 {@code " limit 20,10"}
+     */
+    protected static String pushDown(String sql, Pager pager, String pagingClause) {
+        SelectShape shape = analyzeSelect(sql);
+        if (!shape.pushable()) return null;
+        if (!StringUtils.hasText(pager.getSort()) || !StringUtils.hasText(pager.getOrder())) {
+            return sql + pagingClause;
+        }
+        String order = pager.getOrder().trim().toLowerCase();
+        if (!"asc".equals(order) && !"desc".equals(order)) return null;
+        String column = resolveSortColumn(shape, SqlBuilder.camelCaseToUnderscore(pager.getSort().trim()));
+        if (column == null) return null;
+        return shape.unordered() + " order by " + column + " " + order + pagingClause;
+    }
+
+    /**
+     * 延迟关联分页：先在主键上完成排序与偏移，再按主键取整行
+     * <pre>
+     * select u.* from user u join ( select u.id from user u where ... order by ... limit 100000,10 ) myjpa_k using(id) order by ...
+     * </pre>
+     * 仅适用于单张已注册实体表的 {@code select *} 查询；不适用或排序列无法确认时返回 null
+     *
+     * @param pagingClause 分页子句，如 {@code " limit 20,10"}
+     */
+    protected static String deferredJoin(String sql, Pager pager, String pagingClause) {
+        SelectShape shape = analyzeSelect(sql);
+        if (!shape.pushable() || shape.grouped() || !shape.selectAll() || shape.tables().size() != 1) return null;
+        TableRef table = shape.tables().get(0);
+        TableCacheManager.PkInfo pkInfo = TableCacheManager.getPkInfoByTableName(table.table());
+        if (pkInfo == null) return null;
+        String orderBy = shape.orderBy();
+        if (StringUtils.hasText(pager.getSort()) && StringUtils.hasText(pager.getOrder())) {
+            String order = pager.getOrder().trim().toLowerCase();
+            if (!"asc".equals(order) && !"desc".equals(order)) return null;
+            String column = resolveSortColumn(shape, SqlBuilder.camelCaseToUnderscore(pager.getSort().trim()));
+            if (column == null) return null;
+            orderBy = " order by " + column + " " + order;
+        }
+        String keySql = keyOnlySelect(shape.unordered(), table.qualifier() + "." + pkInfo.getPkColumn());
+        if (keySql == null) return null;
+        // 关联结果不保证顺序，外层按相同排序重排；主键列经 using 合并，其余列只属于原表，排序引用不会歧义
+        return "select " + table.qualifier() + ".* from " + table.source() + " join ( " + keySql + orderBy + pagingClause
+                + " ) myjpa_k using(" + pkInfo.getPkColumn() + ")" + orderBy;
+    }
+
+    /**
+     * 将查询列替换为主键列
+     */
+    private static String keyOnlySelect(String sql, String keyColumn) {
+        try {
+            if (!(SqlStatementParser.parse(sql) instanceof PlainSelect ps)) return null;
+            List<SelectItem<?>> items = new ArrayList<>();
+            items.add(SelectItem.from(new Column(keyColumn)));
+            ps.setSelectItems(items);
+            return ps.toString();
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * 将 pager 的排序列解析为原查询中可引用的写法，无法确定或不是已知列时返回 null
+     */
+    protected static String resolveSortColumn(SelectShape shape, String column) {
+        if (!SORT_COLUMN.matcher(column).matches()) return null;
+        String key = column.toLowerCase();
+        String output = shape.outputs().get(key);
+        if (output != null) return output;
+        if (shape.grouped()) return null;
+        TableRef owner = null;
+        for (TableRef table : shape.tables()) {
+            if (TableCacheManager.getColumnsByTableName(table.table()).contains(key)) {
+                // 多张表都有同名列时无法确定归属
+                if (owner != null) return null;
+                owner = table;
+            }
+        }
+        if (owner == null) return null;
+        return shape.tables().size() == 1 ? column : owner.qualifier() + "." + column;
+    }
+
+    /**
+     * 包裹原查询后，外层能否按该列名引用结果列：须符合列名规则，且是查询列的输出名或 FROM / JOIN 中已注册实体表的列；
+     * 原查询无法分析（UNION、子查询、未注册的表等）时只校验列名规则
+     */
+    public static boolean isResultColumn(String sql, String column) {
+        if (column == null || !SORT_COLUMN.matcher(column).matches()) return false;
+        SelectShape shape = analyzeSelect(sql);
+        if (!shape.pushable() || shape.tables().isEmpty()) return true;
+        String key = column.toLowerCase();
+        if (shape.outputs().containsKey(key)) return true;
+        for (TableRef table : shape.tables()) {
+            Set<String> columns = TableCacheManager.getColumnsByTableName(table.table());
+            if (columns.isEmpty() || columns.contains(key)) return true;
+        }
+        return false;
+    }
+
+    protected static String joinColumns(List<String> columns) {
+        return String.join(",", columns);
+    }
+
+    protected static String joinParams(List<String> params) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < params.size(); i++) {
+            if (i > 0) sb.append(",");
+            sb.append(":").append(params.get(i));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,149 @@
+package io.github.mocanjie.base.myjpa.dialect;
+
+import io.github.mocanjie.base.mycommon.pager.Pager;
+
+import java.util.List;
+
+/**
+ * 数据库方言 SPI
+ * 负责生成与数据库相关的分页、upsert SQL，并给出单条语句的参数上限。
+ * 启动时由 {@link DialectResolver} 按数据源元数据选择；集成方实现此接口并注册为 Spring Bean 即可接入，
+ * 自定义方言优先于内置方言匹配
+ *
+ * <p>示例：
+ * <pre>{@code
+ * @Bean
+ * public Dialect tidbDialect() {
+ *     return new MySqlDialect(true) {
+ *         public boolean supports(String productName, int majorVersion, String productVersion) {
+ *             return productVersion.contains("tidb");
+ *         }
+ *     };
+ * }
+ * }</pre>
+ */
+public interface Dialect {
+
+    /**
+     * 方言名称，用于日志及按数据库区分的功能（如总数估算）
+     */
+    String getName();
+
+    /**
+     * 是否适用于该数据源
+     *
+     * @param productName    数据库产品名（小写）
+     * @param majorVersion   主版本号
+     * @param productVersion 产品版本信息（小写）
+     */
+    boolean supports(String productName, int majorVersion, String productVersion);
+
+    /**
+     * 偏移分页 SQL，按 pager 的 sort / order 排序
+     */
+    String buildPagerSql(String sql, Pager pager);
+
+    /**
+     * 下推分页 SQL：将排序与分页直接追加到原查询最外层，不再包裹派生表
+     * 原查询不适合下推（UNION、已有分页、排序列无法确认等）时返回 null，由调用方回退为 {@link #buildPagerSql}
+     */
+    default String buildPushDownPagerSql(String sql, Pager pager) {
+        return null;
+    }
+
+    /**
+     * 延迟关联分页 SQL：子查询只按主键完成排序与偏移，再关联原表取整行，减少深翻页时丢弃的整行读取
+     * 原查询不适合（非单表实体查询、未知主键等）时返回 null，由调用方回退
+     */
+    default String buildDeferredJoinPagerSql(String sql, Pager pager) {
+        return null;
+    }
+
+    /**
+     * keyset 分页 SQL：包裹原查询，追加定位条件与排序后取前 limit 行
+     *
+     * @param sql     已完成条件注入的查询 SQL
+     * @param where   定位条件（含 where 关键字），首页为空串
+     * @param orderBy 排序子句（含 order by 关键字）
+     * @param limit   取行数
+     */
+    String buildKeysetSql(String sql, String where, String orderBy, int limit);
+
+    /**
+     * 是否支持行值比较 {@code (a, b) < (?, ?)}
+     */
+    default boolean supportsRowValueComparison() {
+        return false;
+    }
+
+    /**
+     * 是否支持 {@code count(*) over()}
+     */
+    default boolean supportsWindowFunction() {
+        return false;
+    }
+
+    /**
+     * 窗口函数分页 SQL：分页数据附带总数列，仅 {@link #supportsWindowFunction()} 为 true 时调用
+     */
+    default String buildWindowPagerSql(String sql, Pager pager) {
+        throw new UnsupportedOperationException(getName() + " 方言不支持窗口函数分页");
+    }
+
+    /**
+     * 流式查询语句的 fetch size
+     *
+     * @param fetchSize 配置的每批行数
+     */
+    default int streamFetchSize(int fetchSize) {
+        return fetchSize;
+    }
+
+    /**
+     * 流式查询是否需要关闭自动提交：驱动只在事务内按 fetch size 使用游标、自动提交时一次读取全部结果时返回 true
+     */
+    default boolean streamRequiresTransaction() {
+        return false;
+    }
+
+    /**
+     * 是否支持单行 upsert，为 false 时 {@code upsertPO} 直接抛出 {@link UnsupportedOperationException}
+     */
+    default boolean supportsUpsert() {
+        return false;
+    }
+
+    /**
+     * 单行 upsert SQL：按主键存在则更新、不存在则插入，仅 {@link #supportsUpsert()} 为 true 时调用
+     *
+     * @param table       表名
+     * @param columns     列名
+     * @param params      与列一一对应的命名参数名（不含冒号）
+     * @param keyColumn   主键列
+     * @param guardColumn 更新守卫列（如租户列），非 null 时只有目标行该列与插入值相同才更新
+     */
+    default String buildUpsertSql(String table, List<String> columns, List<String> params, String keyColumn, String guardColumn) {
+        throw new UnsupportedOperationException(getName() + " 方言不支持 upsert");
+    }
+
+    /**
+     * 单条语句允许的绑定参数个数上限
+     */
+    default int maxBindParameters() {
+        return 65535;
+    }
+
+    /**
+     * 单条多行 INSERT 允许的最大行数
+     */
+    default int maxRowsPerInsert() {
+        return Integer.MAX_VALUE;
+    }
+
+    /**
+     * 每行 columnsPerRow 个参数时，单条多行 INSERT（或驱动改写后的批量插入）最多可容纳的行数
+     */
+    default int maxInsertRows(int columnsPerRow) {
+        return Math.max(1, Math.min(maxRowsPerInsert(), maxBindParameters() / Math.max(1, columnsPerRow)));
+    }
+}
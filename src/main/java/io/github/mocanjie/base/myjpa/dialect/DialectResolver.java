@@ -0,0 +1,140 @@
+package io.github.mocanjie.base.myjpa.dialect;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 按数据源元数据选择方言
+ * 先匹配集成方注册的 {@link Dialect} Bean，再按产品名与版本选择内置方言，都未匹配时使用 MySQL 方言
+ */
+public class DialectResolver {
+
+    private static final Logger log = LoggerFactory.getLogger(DialectResolver.class);
+
+    /** MariaDB 版本号：经 MySQL 驱动时形如 5.5.5-10.6.12-mariadb，取 -mariadb 前的版本 */
+    private static final Pattern MARIADB_VERSION = Pattern.compile("(\\d+)\\.(\\d+)(?:\\.\\d+)?-mariadb");
+
+    /** 版本号开头的主次版本 */
+    private static final Pattern LEADING_VERSION = Pattern.compile("^\\s*(\\d+)\\.(\\d+)");
+
+    /**
+     * 根据连接元数据选择方言
+     *
+     * @param metaData       连接元数据
+     * @param customDialects 集成方注册的方言，可为 null
+     */
+    public static Dialect resolve(DatabaseMetaData metaData, List<Dialect> customDialects) throws SQLException {
+        String productName = metaData.getDatabaseProductName().toLowerCase();
+        String productVersion = metaData.getDatabaseProductVersion().toLowerCase();
+        int majorVersion;
+        try {
+            majorVersion = metaData.getDatabaseMajorVersion();
+        } catch (SQLException | UnsupportedOperationException | AbstractMethodError e) {
+            majorVersion = AbstractDialect.majorVersion(productVersion);
+        }
+        if (customDialects != null) {
+            for (Dialect dialect : customDialects) {
+                if (dialect.supports(productName, majorVersion, productVersion)) {
+                    return dialect;
+                }
+            }
+        }
+        Dialect dialect = resolve(productName, majorVersion, productVersion);
+        if (dialect instanceof MySqlDialect mysql && dialect.getClass() == MySqlDialect.class && usesCursorFetch(metaData)) {
+            return new MySqlDialect(mysql.supportsWindowFunction(), true, mysql.isRowAlias());
+        }
+        return dialect;
+    }
+
+    /**
+     * 按产品名与版本选择内置方言
+     *
+     * @param productName    数据库产品名（小写）
+     * @param majorVersion   主版本号
+     * @param productVersion 产品版本信息（小写）
+     */
+    public static Dialect resolve(String productName, int majorVersion, String productVersion) {
+        if (new MySqlDialect().supports(productName, majorVersion, productVersion)) {
+            return new MySqlDialect(supportsMySqlWindowFunction(productName, majorVersion, productVersion), false,
+                    supportsMySqlRowAlias(productName, majorVersion, productVersion));
+        }
+        if (new OracleDialect().supports(productName, majorVersion, productVersion)) {
+            return new OracleDialect(majorVersion >= OracleDialect.OFFSET_FETCH_MAJOR_VERSION);
+        }
+        if (new SqlServerDialect().supports(productName, majorVersion, productVersion)) {
+            return new SqlServerDialect(majorVersion >= SqlServerDialect.OFFSET_FETCH_MAJOR_VERSION);
+        }
+        if (new KingbaseDialect().supports(productName, majorVersion, productVersion)) {
+            return new KingbaseDialect();
+        }
+        if (new PostgreSqlDialect().supports(productName, majorVersion, productVersion)) {
+            return new PostgreSqlDialect();
+        }
+        log.info("没匹对正确的数据库版本，默认使用mysql模式");
+        return new MySqlDialect();
+    }
+
+    /**
+     * Connector/J 连接 URL 中的 useCursorFetch=true
+     */
+    private static boolean usesCursorFetch(DatabaseMetaData metaData) {
+        try {
+            String url = metaData.getURL();
+            return url != null && url.toLowerCase().contains("usecursorfetch=true");
+        } catch (SQLException | UnsupportedOperationException e) {
+            return false;
+        }
+    }
+
+    /**
+     * MySQL 8.0.19 起 INSERT 支持行别名（VALUES() 引用插入值的写法随之废弃）；MariaDB 不支持
+     */
+    private static boolean supportsMySqlRowAlias(String productName, int majorVersion, String productVersion) {
+        if (productName.contains("mariadb") || productVersion == null || productVersion.contains("mariadb")) {
+            return false;
+        }
+        if (majorVersion != 8) {
+            return majorVersion > 8;
+        }
+        String[] parts = productVersion.trim().replaceFirst("^[^0-9]*", "").split("[^0-9]+");
+        try {
+            return parts.length >= 3 && (Integer.parseInt(parts[1]) > 0 || Integer.parseInt(parts[2]) >= 19);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * MySQL 8.0 起支持窗口函数；MariaDB 10.2 起支持，经 MySQL 驱动连接时版本号形如 5.5.5-10.6.12-mariadb
+     */
+    private static boolean supportsMySqlWindowFunction(String productName, int majorVersion, String productVersion) {
+        boolean mariaDbName = productName.contains("mariadb");
+        if (!mariaDbName && (productVersion == null || !productVersion.contains("mariadb"))) {
+            return majorVersion >= 8;
+        }
+        Matcher matcher = mariaDbVersion(productVersion, mariaDbName);
+        if (matcher == null) {
+            // 版本号无法解析时按主版本判断，10.x 无法确认次版本时保守关闭
+            return mariaDbName && majorVersion > 10;
+        }
+        int major = Integer.parseInt(matcher.group(1));
+        return major > 10 || (major == 10 && Integer.parseInt(matcher.group(2)) >= 2);
+    }
+
+    /**
+     * 解析 MariaDB 主次版本（group 1 / 2），产品名为 mariadb 时也接受不带 -mariadb 后缀的版本号，无法解析时返回 null
+     */
+    private static Matcher mariaDbVersion(String productVersion, boolean mariaDbName) {
+        if (productVersion == null) return null;
+        Matcher matcher = MARIADB_VERSION.matcher(productVersion);
+        if (matcher.find()) return matcher;
+        matcher = LEADING_VERSION.matcher(productVersion);
+        return mariaDbName && matcher.find() ? matcher : null;
+    }
+}
@@ -0,0 +1,47 @@
+package io.github.mocanjie.base.myjpa.dialect;
+
+import java.util.List;
+
+/**
+ * KingbaseES（人大金仓）方言
+ * 分页沿用 MySQL 写法（limit a,b），upsert 使用兼容 PostgreSQL 的 ON CONFLICT
+ */
+public class KingbaseDialect extends MySqlDialect {
+
+    public KingbaseDialect() {
+        super(true);
+    }
+
+    @Override
+    public String getName() {
+        return "kingbasees";
+    }
+
+    @Override
+    public boolean supports(String productName, int majorVersion, String productVersion) {
+        return productName.contains("kingbase");
+    }
+
+    @Override
+    public String buildUpsertSql(String table, List<String> columns, List<String> params, String keyColumn, String guardColumn) {
+        return PostgreSqlDialect.onConflictUpsert(table, columns, params, keyColumn, guardColumn);
+    }
+
+    @Override
+    public int maxBindParameters() {
+        return 32767;
+    }
+
+    /**
+     * 驱动源自 pgjdbc：不接受负数 fetch size，且只在关闭自动提交时使用游标
+     */
+    @Override
+    public int streamFetchSize(int fetchSize) {
+        return fetchSize;
+    }
+
+    @Override
+    public boolean streamRequiresTransaction() {
+        return true;
+    }
+}
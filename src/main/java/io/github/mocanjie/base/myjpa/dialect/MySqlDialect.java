@@ -0,0 +1,160 @@
+package io.github.mocanjie.base.myjpa.dialect;
+
+import io.github.mocanjie.base.mycommon.pager.Pager;
+
+import java.util.List;
+
+/**
+ * MySQL / MariaDB 方言
+ * <pre>
+ * 分页：select * from ( sql ) as _mysqltb_ order by ... limit 20,10
+ * upsert：INSERT INTO t(id,name) VALUES (:id,:name) AS myjpa_new ON DUPLICATE KEY UPDATE name=myjpa_new.name
+ *   MySQL 8.0.19 以下及 MariaDB 使用 ... ON DUPLICATE KEY UPDATE name=VALUES(name)
+ * </pre>
+ * 窗口函数需要 MySQL 8.0 及以上（MariaDB 10.2 起支持）
+ */
+public class MySqlDialect extends AbstractDialect {
+
+    private final boolean windowFunction;
+
+    /** 连接 URL 是否开启了 useCursorFetch=true（服务端游标，按 fetch size 分批读取） */
+    private final boolean cursorFetch;
+
+    /** upsert 是否使用行别名引用插入值（MySQL 8.0.19 起支持，VALUES() 写法已废弃） */
+    private final boolean rowAlias;
+
+    public MySqlDialect() {
+        this(false);
+    }
+
+    /**
+     * @param windowFunction 是否支持 count(*) over()
+     */
+    public MySqlDialect(boolean windowFunction) {
+        this(windowFunction, false);
+    }
+
+    /**
+     * @param windowFunction 是否支持 count(*) over()
+     * @param cursorFetch    连接 URL 是否开启了 useCursorFetch=true
+     */
+    public MySqlDialect(boolean windowFunction, boolean cursorFetch) {
+        this(windowFunction, cursorFetch, false);
+    }
+
+    /**
+     * @param windowFunction 是否支持 count(*) over()
+     * @param cursorFetch    连接 URL 是否开启了 useCursorFetch=true
+     * @param rowAlias       upsert 是否使用行别名（MySQL 8.0.19 及以上）
+     */
+    public MySqlDialect(boolean windowFunction, boolean cursorFetch, boolean rowAlias) {
+        this.windowFunction = windowFunction;
+        this.cursorFetch = cursorFetch;
+        this.rowAlias = rowAlias;
+    }
+
+    @Override
+    public String getName() {
+        return "mysql";
+    }
+
+    @Override
+    public boolean supports(String productName, int majorVersion, String productVersion) {
+        return "mysql".equals(productName) || productName.contains("mariadb");
+    }
+
+    @Override
+    public String buildPagerSql(String sql, Pager pager) {
+        return wrapSelect(sql, pager, "_mysqltb_", false)
+                .append(" limit ").append(pager.getStartRow()).append(",").append(pager.getPageSize()).toString();
+    }
+
+    @Override
+    public String buildPushDownPagerSql(String sql, Pager pager) {
+        return pushDown(sql, pager, " limit " + pager.getStartRow() + "," + pager.getPageSize());
+    }
+
+    @Override
+    public String buildDeferredJoinPagerSql(String sql, Pager pager) {
+        return deferredJoin(sql, pager, " limit " + pager.getStartRow() + "," + pager.getPageSize());
+    }
+
+    @Override
+    public boolean supportsWindowFunction() {
+        return windowFunction;
+    }
+
+    @Override
+    public String buildWindowPagerSql(String sql, Pager pager) {
+        return wrapSelect(sql, pager, "_mysqltb_", true)
+                .append(" limit ").append(pager.getStartRow()).append(",").append(pager.getPageSize()).toString();
+    }
+
+    @Override
+    public String buildKeysetSql(String sql, String where, String orderBy, int limit) {
+        return " select * from ( " + sql + " ) as _keysettb_ " + where + orderBy + " limit " + limit;
+    }
+
+    @Override
+    public boolean supportsRowValueComparison() {
+        return true;
+    }
+
+    @Override
+    public boolean supportsUpsert() {
+        return true;
+    }
+
+    @Override
+    public String buildUpsertSql(String table, List<String> columns, List<String> params, String keyColumn, String guardColumn) {
+        StringBuilder sql = new StringBuilder("INSERT INTO ").append(table)
+                .append("(").append(joinColumns(columns)).append(") VALUES (").append(joinParams(params)).append(")")
+                .append(rowAlias ? " AS myjpa_new" : "")
+                .append(" ON DUPLICATE KEY UPDATE ");
+        boolean first = true;
+        for (String column : columns) {
+            if (column.equalsIgnoreCase(keyColumn) || column.equalsIgnoreCase(guardColumn)) continue;
+            if (!first) sql.append(",");
+            first = false;
+            String value = insertedValue(column);
+            if (guardColumn != null) {
+                // 租户不一致时保持原值，避免通过主键覆盖其他租户的数据
+                value = "IF(" + guardColumn + "=" + insertedValue(guardColumn) + "," + value + "," + column + ")";
+            }
+            sql.append(column).append("=").append(value);
+        }
+        if (first) {
+            // 只有主键列：已存在时不做修改
+            sql.append(keyColumn).append("=").append(keyColumn);
+        }
+        return sql.toString();
+    }
+
+    /**
+     * ON DUPLICATE KEY UPDATE 中引用待插入的值
+     */
+    private String insertedValue(String column) {
+        return rowAlias ? "myjpa_new." + column : "VALUES(" + column + ")";
+    }
+
+    public boolean isRowAlias() {
+        return rowAlias;
+    }
+
+    /**
+     * Connector/J 默认一次读取全部结果，fetch size 为 Integer.MIN_VALUE 时逐行流式读取；
+     * 开启 useCursorFetch 时使用服务端游标，按配置的正数 fetch size 分批读取
+     */
+    @Override
+    public int streamFetchSize(int fetchSize) {
+        return cursorFetch && fetchSize > 0 ? fetchSize : Integer.MIN_VALUE;
+    }
+
+    /**
+     * max_allowed_packet 之外 MySQL 对预编译语句的占位符上限为 65535
+     */
+    @Override
+    public int maxBindParameters() {
+        return 65535;
+    }
+}
@@ -0,0 +1,128 @@
+package io.github.mocanjie.base.myjpa.dialect;
+
+import io.github.mocanjie.base.mycommon.pager.Pager;
+
+import java.util.List;
+
+/**
+ * Oracle 方言
+ * <pre>
+ * 12c 及以上：select * from ( sql ) myjpa_p order by ... offset 20 rows fetch next 10 rows only
+ * 更早版本：rownum 多层包裹
+ * upsert：MERGE INTO t myjpa_t USING (SELECT :id AS id, ... FROM dual) myjpa_s ON (...) ...
+ * </pre>
+ * pager 未指定排序而原查询带排序时，直接在原查询上追加分页
+ */
+public class OracleDialect extends AbstractDialect {
+
+    /** Oracle 12c 的主版本号，起支持 OFFSET ... FETCH */
+    public static final int OFFSET_FETCH_MAJOR_VERSION = 12;
+
+    private final boolean offsetFetch;
+
+    public OracleDialect() {
+        this(true);
+    }
+
+    /**
+     * @param offsetFetch 是否使用 OFFSET ... FETCH 分页（Oracle 12c+）
+     */
+    public OracleDialect(boolean offsetFetch) {
+        this.offsetFetch = offsetFetch;
+    }
+
+    @Override
+    public String getName() {
+        return "oracle";
+    }
+
+    @Override
+    public boolean supports(String productName, int majorVersion, String productVersion) {
+        return "oracle".equals(productName);
+    }
+
+    public boolean isOffsetFetch() {
+        return offsetFetch;
+    }
+
+    @Override
+    public String buildPagerSql(String sql, Pager pager) {
+        if (!offsetFetch) {
+            return buildRownumPagerSql(sql, pager);
+        }
+        String fetch = " offset " + pager.getStartRow() + " rows fetch next " + pager.getPageSize() + " rows only";
+        String sort = sortClause(pager);
+        if (sort.isEmpty() && analyzeSelect(sql).ordered()) {
+            // 原查询自带排序：直接追加分页
+            return sql + fetch;
+        }
+        return "select * from ( " + enclosable(sql) + " ) myjpa_p " + sort + fetch;
+    }
+
+    /**
+     * 12c 之前的分页：rownum 多层包裹
+     */
+    private static String buildRownumPagerSql(String sql, Pager pager) {
+        StringBuilder pagingSelect = new StringBuilder(300);
+        pagingSelect.append("select * from ( select row_.*, rownum rownum_userforpage from ( ");
+        pagingSelect.append(" select * from ( ");
+        pagingSelect.append(enclosable(sql));
+        pagingSelect.append(" ) myjpa_p ");
+        pagingSelect.append(sortClause(pager));
+        pagingSelect.append(" ) row_ where rownum <= ")
+        .append(pager.getStartRow() + pager.getPageSize())
+        .append(") where rownum_userforpage > ")
+        .append(pager.getStartRow());
+        return pagingSelect.toString();
+    }
+
+    @Override
+    public String buildKeysetSql(String sql, String where, String orderBy, int limit) {
+        if (offsetFetch) {
+            return "select * from ( " + sql + " ) myjpa_k " + where + orderBy + " fetch first " + limit + " rows only";
+        }
+        return "select * from ( select * from ( " + sql + " ) myjpa_k " + where + orderBy + " ) where rownum <= " + limit;
+    }
+
+    @Override
+    public boolean supportsUpsert() {
+        return true;
+    }
+
+    @Override
+    public String buildUpsertSql(String table, List<String> columns, List<String> params, String keyColumn, String guardColumn) {
+        StringBuilder source = new StringBuilder();
+        StringBuilder set = new StringBuilder();
+        StringBuilder values = new StringBuilder();
+        for (int i = 0; i < columns.size(); i++) {
+            String column = columns.get(i);
+            if (i > 0) {
+                source.append(", ");
+                values.append(",");
+            }
+            source.append(":").append(params.get(i)).append(" AS ").append(column);
+            values.append("myjpa_s.").append(column);
+            if (column.equalsIgnoreCase(keyColumn) || column.equalsIgnoreCase(guardColumn)) continue;
+            if (!set.isEmpty()) set.append(", ");
+            set.append("myjpa_t.").append(column).append(" = myjpa_s.").append(column);
+        }
+        StringBuilder sql = new StringBuilder("MERGE INTO ").append(table).append(" myjpa_t USING (SELECT ")
+                .append(source).append(" FROM dual) myjpa_s ON (myjpa_t.").append(keyColumn).append(" = myjpa_s.").append(keyColumn).append(")");
+        if (!set.isEmpty()) {
+            sql.append(" WHEN MATCHED THEN UPDATE SET ").append(set);
+            if (guardColumn != null) {
+                sql.append(" WHERE myjpa_t.").append(guardColumn).append(" = myjpa_s.").append(guardColumn);
+            }
+        }
+        sql.append(" WHEN NOT MATCHED THEN INSERT (").append(joinColumns(columns)).append(") VALUES (").append(values).append(")");
+        return sql.toString();
+    }
+
+    /**
+     * INSERT ALL 单条语句的行数保守上限
+     */
+    @Override
+    public int maxRowsPerInsert() {
+        return 1000;
+    }
+}
@@ -0,0 +1,111 @@
+package io.github.mocanjie.base.myjpa.dialect;
+
+import io.github.mocanjie.base.mycommon.pager.Pager;
+
+import java.util.List;
+
+/**
+ * PostgreSQL 方言
+ * <pre>
+ * 分页：select * from ( sql ) as _pgsqltb_ order by ... OFFSET 20 LIMIT 10
+ * upsert：INSERT INTO t(id,name) VALUES (:id,:name) ON CONFLICT (id) DO UPDATE SET name=EXCLUDED.name
+ * </pre>
+ */
+public class PostgreSqlDialect extends AbstractDialect {
+
+    @Override
+    public String getName() {
+        return "postgresql";
+    }
+
+    @Override
+    public boolean supports(String productName, int majorVersion, String productVersion) {
+        return "postgresql".equals(productName);
+    }
+
+    @Override
+    public String buildPagerSql(String sql, Pager pager) {
+        return wrapSelect(sql, pager, "_pgsqltb_", false)
+                .append(" OFFSET ").append(pager.getStartRow()).append(" LIMIT ").append(pager.getPageSize()).toString();
+    }
+
+    @Override
+    public String buildPushDownPagerSql(String sql, Pager pager) {
+        return pushDown(sql, pager, " OFFSET " + pager.getStartRow() + " LIMIT " + pager.getPageSize());
+    }
+
+    @Override
+    public String buildDeferredJoinPagerSql(String sql, Pager pager) {
+        return deferredJoin(sql, pager, " OFFSET " + pager.getStartRow() + " LIMIT " + pager.getPageSize());
+    }
+
+    @Override
+    public boolean supportsWindowFunction() {
+        return true;
+    }
+
+    @Override
+    public String buildWindowPagerSql(String sql, Pager pager) {
+        return wrapSelect(sql, pager, "_pgsqltb_", true)
+                .append(" OFFSET ").append(pager.getStartRow()).append(" LIMIT ").append(pager.getPageSize()).toString();
+    }
+
+    @Override
+    public String buildKeysetSql(String sql, String where, String orderBy, int limit) {
+        return " select * from ( " + sql + " ) as _keysettb_ " + where + orderBy + " LIMIT " + limit;
+    }
+
+    @Override
+    public boolean supportsRowValueComparison() {
+        return true;
+    }
+
+    @Override
+    public boolean supportsUpsert() {
+        return true;
+    }
+
+    @Override
+    public String buildUpsertSql(String table, List<String> columns, List<String> params, String keyColumn, String guardColumn) {
+        return onConflictUpsert(table, columns, params, keyColumn, guardColumn);
+    }
+
+    /**
+     * pgjdbc 只在关闭自动提交时按 fetch size 使用服务端游标
+     */
+    @Override
+    public boolean streamRequiresTransaction() {
+        return true;
+    }
+
+    /**
+     * JDBC 驱动以 16 位整数传递参数个数，保守取有符号上限
+     */
+    @Override
+    public int maxBindParameters() {
+        return 32767;
+    }
+
+    /**
+     * INSERT ... ON CONFLICT (pk) DO UPDATE，守卫列不一致时不更新
+     */
+    static String onConflictUpsert(String table, List<String> columns, List<String> params, String keyColumn, String guardColumn) {
+        StringBuilder sql = new StringBuilder("INSERT INTO ").append(table)
+                .append("(").append(joinColumns(columns)).append(") VALUES (").append(joinParams(params)).append(")")
+                .append(" ON CONFLICT (").append(keyColumn).append(")");
+        StringBuilder set = new StringBuilder();
+        for (String column : columns) {
+            if (column.equalsIgnoreCase(keyColumn) || column.equalsIgnoreCase(guardColumn)) continue;
+            if (!set.isEmpty()) set.append(",");
+            set.append(column).append("=EXCLUDED.").append(column);
+        }
+        if (set.isEmpty()) {
+            return sql.append(" DO NOTHING").toString();
+        }
+        sql.append(" DO UPDATE SET ").append(set);
+        if (guardColumn != null) {
+            sql.append(" WHERE ").append(table).append(".").append(guardColumn).append("=EXCLUDED.").append(guardColumn);
+        }
+        return sql.toString();
+    }
+}
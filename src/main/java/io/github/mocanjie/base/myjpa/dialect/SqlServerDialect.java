@@ -0,0 +1,145 @@
+package io.github.mocanjie.base.myjpa.dialect;
+
+import io.github.mocanjie.base.mycommon.pager.Pager;
+
+import java.util.List;
+
+/**
+ * SQL Server 方言
+ * <pre>
+ * 2012 及以上：select * from ( sql ) as _sqlservertb_ order by ... offset 20 rows fetch next 10 rows only
+ * 更早版本：row_number() 多层包裹
+ * upsert：MERGE INTO t WITH (HOLDLOCK) AS myjpa_t USING (SELECT :id AS id, ...) AS myjpa_s ON (...) ...;
+ * </pre>
+ * OFFSET ... FETCH 必须跟在 ORDER BY 之后，且派生表内不允许 ORDER BY：
+ * pager 未指定排序而原查询带排序时，直接在原查询上追加分页；指定排序时去掉原查询的排序后包裹；
+ * 都没有排序时使用 {@code order by (select null)}
+ */
+public class SqlServerDialect extends AbstractDialect {
+
+    /** SQL Server 2012 的主版本号，起支持 OFFSET ... FETCH */
+    public static final int OFFSET_FETCH_MAJOR_VERSION = 11;
+
+    private final boolean offsetFetch;
+
+    public SqlServerDialect() {
+        this(true);
+    }
+
+    /**
+     * @param offsetFetch 是否使用 OFFSET ... FETCH 分页（SQL Server 2012+）
+     */
+    public SqlServerDialect(boolean offsetFetch) {
+        this.offsetFetch = offsetFetch;
+    }
+
+    @Override
+    public String getName() {
+        return "sqlserver";
+    }
+
+    @Override
+    public boolean supports(String productName, int majorVersion, String productVersion) {
+        return productName.contains("sqlserver") || productName.contains("sql server") || productName.contains("microsoft");
+    }
+
+    public boolean isOffsetFetch() {
+        return offsetFetch;
+    }
+
+    @Override
+    public String buildPagerSql(String sql, Pager pager) {
+        if (!offsetFetch) {
+            return buildRowNumberPagerSql(sql, pager);
+        }
+        String fetch = " offset " + pager.getStartRow() + " rows fetch next " + pager.getPageSize() + " rows only";
+        boolean sorted = !sortClause(pager).isEmpty();
+        SelectShape info = analyzeSelect(sql);
+        if (!info.parsed() || (!sorted && !info.orderBy().isEmpty() && !info.ordered())) {
+            // 自带排序但末尾有注释或分号时无法追加分页，也不能去掉排序：用 top 保留派生表内的 ORDER BY
+            return buildRowNumberPagerSql(sql, pager);
+        }
+        if (!sorted && info.ordered()) {
+            // 原查询自带排序：直接追加分页
+            return sql + fetch;
+        }
+        StringBuilder pagingSelect = wrapSelect(info.unordered(), pager, "_sqlservertb_", false);
+        if (!sorted) {
+            pagingSelect.append(" order by (select null)");
+        }
+        return pagingSelect.append(fetch).toString();
+    }
+
+    /**
+     * 2012 之前的分页：row_number() 多层包裹
+     */
+    private static String buildRowNumberPagerSql(String sql, Pager pager) {
+        StringBuilder pagingSelect = new StringBuilder(300);
+        sql = enclosable(sql).replaceFirst("^\\s*[sS][eE][lL][eE][cC][tT]\\s+", "select top " + (pager.getStartRow() + pager.getPageSize()) + " ");
+        pagingSelect.append(" select * from ( select row_number()over(order by __tc__)tempRowNumber,* from (select    __tc__=0, *  from ( ");
+        pagingSelect.append(" select top 100 percent * from ( ");
+        pagingSelect.append(sql);
+        pagingSelect.append(" )  as _sqlservertb_  ");
+        pagingSelect.append(sortClause(pager));
+        pagingSelect.append(" ) t )tt )ttt where tempRowNumber > ").append(pager.getStartRow()).append(" and tempRowNumber <= ").append(pager.getStartRow() + pager.getPageSize());
+        return pagingSelect.toString();
+    }
+
+    @Override
+    public String buildKeysetSql(String sql, String where, String orderBy, int limit) {
+        // keyset 排序覆盖原查询排序，去掉派生表内不允许的 ORDER BY
+        String inner = offsetFetch ? analyzeSelect(sql).unordered() : sql;
+        return " select top " + limit + " * from ( " + inner + " ) as _keysettb_ " + where + orderBy;
+    }
+
+    @Override
+    public boolean supportsUpsert() {
+        return true;
+    }
+
+    @Override
+    public String buildUpsertSql(String table, List<String> columns, List<String> params, String keyColumn, String guardColumn) {
+        StringBuilder source = new StringBuilder();
+        StringBuilder set = new StringBuilder();
+        StringBuilder values = new StringBuilder();
+        for (int i = 0; i < columns.size(); i++) {
+            String column = columns.get(i);
+            if (i > 0) {
+                source.append(", ");
+                values.append(",");
+            }
+            source.append(":").append(params.get(i)).append(" AS ").append(column);
+            values.append("myjpa_s.").append(column);
+            if (column.equalsIgnoreCase(keyColumn) || column.equalsIgnoreCase(guardColumn)) continue;
+            if (!set.isEmpty()) set.append(", ");
+            set.append("myjpa_t.").append(column).append(" = myjpa_s.").append(column);
+        }
+        StringBuilder sql = new StringBuilder("MERGE INTO ").append(table).append(" WITH (HOLDLOCK) AS myjpa_t USING (SELECT ")
+                .append(source).append(") AS myjpa_s ON (myjpa_t.").append(keyColumn).append(" = myjpa_s.").append(keyColumn).append(")");
+        if (!set.isEmpty()) {
+            sql.append(" WHEN MATCHED");
+            if (guardColumn != null) {
+                sql.append(" AND myjpa_t.").append(guardColumn).append(" = myjpa_s.").append(guardColumn);
+            }
+            sql.append(" THEN UPDATE SET ").append(set);
+        }
+        sql.append(" WHEN NOT MATCHED THEN INSERT (").append(joinColumns(columns)).append(") VALUES (").append(values).append(");");
+        return sql.toString();
+    }
+
+    /**
+     * 单条语句最多 2100 个参数，驱动自身会占用少量
+     */
+    @Override
+    public int maxBindParameters() {
+        return 2000;
+    }
+
+    /**
+     * INSERT ... VALUES 行构造器最多 1000 行
+     */
+    @Override
+    public int maxRowsPerInsert() {
+        return 1000;
+    }
+}
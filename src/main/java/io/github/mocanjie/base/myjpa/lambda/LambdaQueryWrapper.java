@@ -3,9 +3,13 @@ package io.github.mocanjie.base.myjpa.lambda;
 import io.github.mocanjie.base.mycommon.pager.Pager;
 import io.github.mocanjie.base.myjpa.MyTableEntity;
 import io.github.mocanjie.base.myjpa.cache.TableCacheManager;
+import io.github.mocanjie.base.myjpa.columnar.ColumnarResult;
 import io.github.mocanjie.base.myjpa.dao.IBaseDao;
+import io.github.mocanjie.base.myjpa.pager.KeysetPager;
 
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Lambda 链式查询构造器
@@ -41,6 +45,7 @@ public class LambdaQueryWrapper<T extends MyTableEntity, R> {
     private int paramIndex = 0;
     private final List<String> selectColumns = new ArrayList<>();
     private final List<String> orderByClauses = new ArrayList<>();
+    private final List<KeysetPager.SortKey> sortKeys = new ArrayList<>();
 
     public LambdaQueryWrapper(Class<T> entityClazz, Class<R> resultClazz, IBaseDao baseDao) {
         this.entityClazz = entityClazz;
@@ -194,7 +199,9 @@ public class LambdaQueryWrapper<T extends MyTableEntity, R> {
     @SafeVarargs
     public final LambdaQueryWrapper<T, R> orderByAsc(SFunction<T, ?>... fns) {
         for (SFunction<T, ?> fn : fns) {
-            orderByClauses.add(col(fn) + " ASC");
+            String column = col(fn);
+            orderByClauses.add(column + " ASC");
+            sortKeys.add(new KeysetPager.SortKey(column, LambdaUtils.getFieldName(fn), false));
         }
         return this;
     }
@@ -202,7 +209,9 @@ public class LambdaQueryWrapper<T extends MyTableEntity, R> {
     @SafeVarargs
     public final LambdaQueryWrapper<T, R> orderByDesc(SFunction<T, ?>... fns) {
         for (SFunction<T, ?> fn : fns) {
-            orderByClauses.add(col(fn) + " DESC");
+            String column = col(fn);
+            orderByClauses.add(column + " DESC");
+            sortKeys.add(new KeysetPager.SortKey(column, LambdaUtils.getFieldName(fn), true));
         }
         return this;
     }
@@ -212,22 +221,26 @@ public class LambdaQueryWrapper<T extends MyTableEntity, R> {
     // =========================================================
 
     public String buildSql() {
+        return buildSql(selectColumns, true);
+    }
+
+    private String buildSql(List<String> columns, boolean withOrderBy) {
         String tableName = TableCacheManager.getTableNameByClass(entityClazz);
         if (tableName == null) {
             throw new IllegalStateException(
                     "未找到实体类 " + entityClazz.getName() + " 对应的表名，请检查 @MyTable 注解");
         }
         StringBuilder sb = new StringBuilder("SELECT ");
-        if (selectColumns.isEmpty()) {
+        if (columns.isEmpty()) {
             sb.append("*");
         } else {
-            sb.append(String.join(", ", selectColumns));
+            sb.append(String.join(", ", columns));
         }
         sb.append(" FROM ").append(tableName);
         if (!conditions.isEmpty()) {
             sb.append(" WHERE ").append(String.join(" AND ", conditions));
         }
-        if (!orderByClauses.isEmpty()) {
+        if (withOrderBy && !orderByClauses.isEmpty()) {
             sb.append(" ORDER BY ").append(String.join(", ", orderByClauses));
         }
         return sb.toString();
@@ -245,6 +258,34 @@ public class LambdaQueryWrapper<T extends MyTableEntity, R> {
         return baseDao.queryListForSql(buildSql(), params, resultClazz);
     }
 
+    /**
+     * 流式查询，结果不在内存中汇总；返回的 Stream 必须用 try-with-resources 关闭
+     */
+    public Stream<R> stream() {
+        return baseDao.queryStreamForSql(buildSql(), params, resultClazz);
+    }
+
+    /**
+     * 流式查询，逐行回调
+     */
+    public void forEach(Consumer<? super R> action) {
+        baseDao.queryForEachForSql(buildSql(), params, resultClazz, action);
+    }
+
+    /**
+     * 流式查询，逐行回调并复用结果对象（在 instances 个实例间轮换）；回调不得保存参数引用
+     */
+    public void forEachReusing(int instances, Consumer<? super R> action) {
+        baseDao.queryForEachReusingForSql(buildSql(), params, resultClazz, instances, action);
+    }
+
+    /**
+     * 列式查询，结果按列读入基本类型数组
+     */
+    public ColumnarResult columnar() {
+        return baseDao.queryColumnarForSql(buildSql(), params);
+    }
+
     public R one() {
         List<R> results = list();
         return results.isEmpty() ? null : results.get(0);
@@ -256,10 +297,45 @@ public class LambdaQueryWrapper<T extends MyTableEntity, R> {
         return result == null ? 0L : result;
     }
 
+    /**
+     * 分页查询；传入 {@link KeysetPager} 时使用 keyset 分页
+     */
     public Pager<R> page(Pager<R> pager) {
+        if (pager instanceof KeysetPager<R> keysetPager) {
+            return baseDao.queryPageForSql(buildKeysetSql(keysetPager), params, keysetPager, resultClazz);
+        }
         return baseDao.queryPageForSql(buildSql(), params, pager, resultClazz);
     }
 
+    /**
+     * 生成 keyset 分页的内层 SQL
+     * pager 未指定排序键时，按 orderByAsc / orderByDesc 的顺序补齐，并追加主键（与最后一个排序列同向）保证排序唯一；
+     * 排序由外层分页 SQL 负责，内层不再 ORDER BY；指定了 select 列时补上缺失的排序列
+     */
+    public String buildKeysetSql(KeysetPager<R> pager) {
+        if (pager.getSortKeys().isEmpty()) {
+            for (KeysetPager.SortKey key : sortKeys) {
+                pager.orderBy(key.column(), key.property(), key.desc());
+            }
+            TableCacheManager.PkInfo pkInfo = TableCacheManager.getPkInfoByTableName(
+                    TableCacheManager.getTableNameByClass(entityClazz));
+            if (pkInfo != null && pager.getSortKeys().stream().noneMatch(k -> k.column().equalsIgnoreCase(pkInfo.getPkColumn()))) {
+                boolean desc = !sortKeys.isEmpty() && sortKeys.get(sortKeys.size() - 1).desc();
+                pager.orderBy(pkInfo.getPkColumn(), pkInfo.getPkField(), desc);
+            }
+        }
+        List<String> columns = selectColumns;
+        if (!selectColumns.isEmpty()) {
+            columns = new ArrayList<>(selectColumns);
+            for (KeysetPager.SortKey key : pager.getSortKeys()) {
+                if (columns.stream().noneMatch(c -> c.equalsIgnoreCase(key.column()))) {
+                    columns.add(key.column());
+                }
+            }
+        }
+        return buildSql(columns, false);
+    }
+
     public boolean exists() {
         return count() > 0;
     }
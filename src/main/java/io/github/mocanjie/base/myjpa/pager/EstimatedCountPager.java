@@ -0,0 +1,48 @@
+package io.github.mocanjie.base.myjpa.pager;
+
+import io.github.mocanjie.base.mycommon.pager.Pager;
+
+/**
+ * 估算总数的分页参数
+ * 传给 {@code queryPageForSql} / {@code LambdaQueryWrapper.page} 时，总数优先取数据库统计信息或执行计划的估算行数，
+ * 估算值小于阈值时仍执行精确 count；通过 {@link #isTotalExact()} 区分总数是否精确
+ *
+ * <pre>
+ * EstimatedCountPager&lt;OrderVO&gt; pager = new EstimatedCountPager&lt;&gt;(1, 20);
+ * baseDao.queryPageForSql(sql, param, pager, OrderVO.class);
+ * pager.getTotalRows();   // 约 3,2xx,xxx
+ * pager.isTotalExact();   // false
+ * </pre>
+ *
+ * 仅 MySQL / PostgreSQL 支持估算，其他数据库始终精确计数。
+ */
+public class EstimatedCountPager<T> extends Pager<T> {
+
+    /** 估算阈值，null 时使用全局配置 myjpa.page.estimate-threshold */
+    private Long estimateThreshold;
+
+    private boolean totalExact = true;
+
+    public EstimatedCountPager(int page, int pageSize) {
+        super(page, pageSize);
+    }
+
+    public Long getEstimateThreshold() {
+        return estimateThreshold;
+    }
+
+    public void setEstimateThreshold(Long estimateThreshold) {
+        this.estimateThreshold = estimateThreshold;
+    }
+
+    /**
+     * 总数是否为精确值，false 表示来自统计信息或执行计划的估算
+     */
+    public boolean isTotalExact() {
+        return totalExact;
+    }
+
+    public void setTotalExact(boolean totalExact) {
+        this.totalExact = totalExact;
+    }
+}
@@ -0,0 +1,182 @@
+package io.github.mocanjie.base.myjpa.pager;
+
+import io.github.mocanjie.base.mycommon.pager.Pager;
+import io.github.mocanjie.base.myjpa.utils.CommonUtils;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * keyset（seek）分页参数
+ * 传给 {@code queryPageForSql} / {@code LambdaQueryWrapper.page} 时，不再使用 OFFSET 翻页，而是根据上一页最后一行的
+ * 排序键生成 {@code WHERE (sort_col, pk) > (:k0, :k1) ORDER BY sort_col, pk LIMIT n}，深翻页的耗时与页码无关
+ *
+ * <pre>
+ * KeysetPager&lt;UserVO&gt; pager = new KeysetPager&lt;UserVO&gt;(20).desc("create_time").desc("id");
+ * baseDao.queryPageForSql(sql, param, pager, UserVO.class);
+ * String token = pager.getNextToken();      // 返回给客户端，为 null 表示没有下一页
+ *
+ * // 下一页
+ * new KeysetPager&lt;UserVO&gt;(20).desc("create_time").desc("id").after(token);
+ * </pre>
+ *
+ * <p>约定：
+ * <ul>
+ *   <li>排序列必须是查询结果中的列名（分页 SQL 包裹原查询，只能引用结果列）：查询列的输出名，或 {@code select *} 时
+ *       已注册实体表的列；最后一个排序列应唯一（通常为主键）</li>
+ *   <li>排序列的值不能为 null</li>
+ *   <li>默认不查询总数（{@code ignoreCount=true}），需要总数时手动设置为 false</li>
+ * </ul>
+ */
+public class KeysetPager<T> extends Pager<T> {
+
+    /**
+     * 排序键
+     *
+     * @param column   结果列名
+     * @param property 结果对象中的属性名，用于从最后一行取值
+     * @param desc     是否降序
+     */
+    public record SortKey(String column, String property, boolean desc) {}
+
+    /** 允许直接写入 SQL 的排序列名 */
+    private static final Pattern SORT_COLUMN = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+
+    private final List<SortKey> sortKeys = new ArrayList<>();
+
+    /** 上一页最后一行的排序键值，null 表示第一页 */
+    private List<Object> lastKey;
+
+    /** 下一页令牌，null 表示没有下一页 */
+    private String nextToken;
+
+    private boolean hasNext;
+
+    public KeysetPager(int pageSize) {
+        super(1, pageSize);
+        setIgnoreCount(true);
+    }
+
+    public KeysetPager<T> asc(String column) {
+        return orderBy(column, CommonUtils.underscoreToCamelCase(column), false);
+    }
+
+    public KeysetPager<T> desc(String column) {
+        return orderBy(column, CommonUtils.underscoreToCamelCase(column), true);
+    }
+
+    /**
+     * 追加排序键
+     *
+     * @param column   结果列名
+     * @param property 结果对象中的属性名
+     * @param desc     是否降序
+     * @throws IllegalArgumentException 列名为空或不是合法的列名（排序列直接写入 SQL）
+     */
+    public KeysetPager<T> orderBy(String column, String property, boolean desc) {
+        if (!StringUtils.hasText(column)) {
+            throw new IllegalArgumentException("keyset 分页排序列不能为空");
+        }
+        if (!SORT_COLUMN.matcher(column.trim()).matches()) {
+            throw new IllegalArgumentException("keyset 分页排序列不合法: " + column);
+        }
+        sortKeys.add(new SortKey(column.trim(), property, desc));
+        return this;
+    }
+
+    /**
+     * 从上一页返回的令牌继续，令牌为空时表示第一页
+     */
+    public KeysetPager<T> after(String token) {
+        this.lastKey = StringUtils.hasText(token) ? KeysetToken.decode(token) : null;
+        return this;
+    }
+
+    /**
+     * 从给定的排序键值继续，顺序与排序键一致
+     */
+    public KeysetPager<T> after(Object... values) {
+        this.lastKey = values == null || values.length == 0 ? null : List.of(values);
+        return this;
+    }
+
+    public List<SortKey> getSortKeys() {
+        return Collections.unmodifiableList(sortKeys);
+    }
+
+    public List<Object> getLastKey() {
+        return lastKey;
+    }
+
+    public String getNextToken() {
+        return nextToken;
+    }
+
+    public boolean isHasNext() {
+        return hasNext;
+    }
+
+    /**
+     * 校验排序键与续页键值是否匹配
+     */
+    public void validate() {
+        if (sortKeys.isEmpty()) {
+            throw new IllegalStateException("keyset 分页需要至少一个排序列");
+        }
+        if (lastKey != null && lastKey.size() != sortKeys.size()) {
+            throw new IllegalArgumentException("keyset 分页令牌与排序列数量不一致：需要"
+                    + sortKeys.size() + "个，实际" + lastKey.size() + "个");
+        }
+    }
+
+    /**
+     * 写入查询结果：查询多取一行用于判断是否还有下一页，多出的一行被截掉，并由最后一行生成下一页令牌
+     *
+     * @param rows 查询结果（最多 pageSize + 1 行）
+     */
+    public void fill(List<T> rows) {
+        hasNext = rows.size() > getPageSize();
+        List<T> data = hasNext ? new ArrayList<>(rows.subList(0, getPageSize())) : rows;
+        setPageData(data);
+        nextToken = hasNext ? KeysetToken.encode(extractKey(data.get(data.size() - 1))) : null;
+    }
+
+    private List<Object> extractKey(Object row) {
+        List<Object> values = new ArrayList<>(sortKeys.size());
+        BeanWrapperImpl wrapper = row instanceof Map ? null : new BeanWrapperImpl(row);
+        for (SortKey key : sortKeys) {
+            Object value;
+            if (row instanceof Map<?, ?> map) {
+                value = getIgnoreCase(map, key.column());
+            } else if (sortKeys.size() == 1 && !wrapper.isReadableProperty(key.property())) {
+                // 单列结果（如 Long.class），行本身就是排序键
+                value = row;
+            } else {
+                value = wrapper.getPropertyValue(key.property());
+            }
+            if (value == null) {
+                throw new IllegalStateException("keyset 分页排序列 " + key.column() + " 的值为 null");
+            }
+            values.add(value);
+        }
+        return values;
+    }
+
+    private static Object getIgnoreCase(Map<?, ?> map, String column) {
+        Object value = map.get(column);
+        if (value != null) {
+            return value;
+        }
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            if (column.equalsIgnoreCase(String.valueOf(entry.getKey()))) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,69 @@
+package io.github.mocanjie.base.myjpa.pager;
+
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+import java.util.List;
+
+/**
+ * keyset 分页参数源包装类
+ *
+ * <p>在原有 {@link SqlParameterSource} 基础上追加续页键值参数（{@code :myjpaKeyset0}、{@code :myjpaKeyset1}...），
+ * 原有参数（包括租户参数）不受影响。
+ */
+public class KeysetSqlParameterSource implements SqlParameterSource {
+
+    private final SqlParameterSource delegate;
+    private final String paramPrefix;
+    private final List<Object> values;
+
+    public KeysetSqlParameterSource(SqlParameterSource delegate, String paramPrefix, List<Object> values) {
+        this.delegate = delegate;
+        this.paramPrefix = paramPrefix;
+        this.values = values;
+    }
+
+    private int indexOf(String paramName) {
+        if (!paramName.startsWith(paramPrefix)) {
+            return -1;
+        }
+        try {
+            int index = Integer.parseInt(paramName.substring(paramPrefix.length()));
+            return index >= 0 && index < values.size() ? index : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    @Override
+    public boolean hasValue(String paramName) {
+        if (indexOf(paramName) >= 0) {
+            return true;
+        }
+        return delegate.hasValue(paramName);
+    }
+
+    @Override
+    public Object getValue(String paramName) throws IllegalArgumentException {
+        int index = indexOf(paramName);
+        if (index >= 0) {
+            return values.get(index);
+        }
+        return delegate.getValue(paramName);
+    }
+
+    @Override
+    public int getSqlType(String paramName) {
+        if (indexOf(paramName) >= 0) {
+            return TYPE_UNKNOWN;
+        }
+        return delegate.getSqlType(paramName);
+    }
+
+    @Override
+    public String getTypeName(String paramName) {
+        if (indexOf(paramName) >= 0) {
+            return null;
+        }
+        return delegate.getTypeName(paramName);
+    }
+}
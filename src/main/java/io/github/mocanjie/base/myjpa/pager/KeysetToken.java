@@ -0,0 +1,160 @@
+package io.github.mocanjie.base.myjpa.pager;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * keyset 分页续页令牌编解码
+ * 把上一页最后一行的排序键值编码为 URL 安全的 Base64 字符串，供客户端原样回传
+ *
+ * <p>只支持常见的排序列类型（字符串、整数、小数、布尔、日期时间、UUID），按类型标记写入，
+ * 解码时还原为同一 Java 类型再绑定参数；不使用 Java 序列化，客户端篡改令牌最多得到一个解码错误。
+ *
+ * <pre>
+ * byte   FORMAT_VERSION
+ * byte   键个数
+ * 键:    byte 类型标记 + 值
+ * </pre>
+ */
+public class KeysetToken {
+
+    private static final int FORMAT_VERSION = 1;
+
+    private static final byte STRING = 1;
+    private static final byte LONG = 2;
+    private static final byte INTEGER = 3;
+    private static final byte DECIMAL = 4;
+    private static final byte DOUBLE = 5;
+    private static final byte BOOLEAN = 6;
+    private static final byte TIMESTAMP = 7;
+    private static final byte DATE = 8;
+    private static final byte LOCAL_DATE_TIME = 9;
+    private static final byte LOCAL_DATE = 10;
+    private static final byte UUID_VALUE = 11;
+
+    /**
+     * 编码排序键值
+     *
+     * @param values 排序键值（不能为 null）
+     * @return 令牌
+     */
+    public static String encode(List<?> values) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT_VERSION);
+            out.writeByte(values.size());
+            for (Object value : values) {
+                writeValue(out, value);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+    }
+
+    /**
+     * 解码令牌
+     *
+     * @param token 令牌
+     * @return 排序键值
+     * @throws IllegalArgumentException 令牌格式错误
+     */
+    public static List<Object> decode(String token) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(Base64.getUrlDecoder().decode(token)))) {
+            if (in.readByte() != FORMAT_VERSION) {
+                throw new IllegalArgumentException("无效的分页令牌: " + token);
+            }
+            int size = in.readUnsignedByte();
+            List<Object> values = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                values.add(readValue(in));
+            }
+            if (in.available() > 0) {
+                throw new IllegalArgumentException("无效的分页令牌: " + token);
+            }
+            return values;
+        } catch (IOException e) {
+            throw new IllegalArgumentException("无效的分页令牌: " + token, e);
+        }
+    }
+
+    private static void writeValue(DataOutputStream out, Object value) throws IOException {
+        if (value instanceof String s) {
+            out.writeByte(STRING);
+            out.writeUTF(s);
+        } else if (value instanceof Long l) {
+            out.writeByte(LONG);
+            out.writeLong(l);
+        } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            out.writeByte(INTEGER);
+            out.writeInt(((Number) value).intValue());
+        } else if (value instanceof BigDecimal d) {
+            out.writeByte(DECIMAL);
+            out.writeUTF(d.toString());
+        } else if (value instanceof Double || value instanceof Float) {
+            out.writeByte(DOUBLE);
+            out.writeDouble(((Number) value).doubleValue());
+        } else if (value instanceof Boolean b) {
+            out.writeByte(BOOLEAN);
+            out.writeBoolean(b);
+        } else if (value instanceof Timestamp t) {
+            out.writeByte(TIMESTAMP);
+            out.writeLong(t.getTime());
+            out.writeInt(t.getNanos());
+        } else if (value instanceof Date d) {
+            out.writeByte(DATE);
+            out.writeLong(d.getTime());
+        } else if (value instanceof LocalDateTime t) {
+            out.writeByte(LOCAL_DATE_TIME);
+            out.writeUTF(t.toString());
+        } else if (value instanceof LocalDate d) {
+            out.writeByte(LOCAL_DATE);
+            out.writeUTF(d.toString());
+        } else if (value instanceof UUID u) {
+            out.writeByte(UUID_VALUE);
+            out.writeLong(u.getMostSignificantBits());
+            out.writeLong(u.getLeastSignificantBits());
+        } else {
+            throw new IllegalArgumentException("keyset 分页不支持的排序列类型: "
+                    + (value == null ? "null" : value.getClass().getName()));
+        }
+    }
+
+    private static Object readValue(DataInputStream in) throws IOException {
+        byte type = in.readByte();
+        try {
+            return switch (type) {
+                case STRING -> in.readUTF();
+                case LONG -> in.readLong();
+                case INTEGER -> in.readInt();
+                case DECIMAL -> new BigDecimal(in.readUTF());
+                case DOUBLE -> in.readDouble();
+                case BOOLEAN -> in.readBoolean();
+                case TIMESTAMP -> {
+                    Timestamp t = new Timestamp(in.readLong());
+                    t.setNanos(in.readInt());
+                    yield t;
+                }
+                case DATE -> new Date(in.readLong());
+                case LOCAL_DATE_TIME -> LocalDateTime.parse(in.readUTF());
+                case LOCAL_DATE -> LocalDate.parse(in.readUTF());
+                case UUID_VALUE -> new UUID(in.readLong(), in.readLong());
+                default -> throw new IOException("未知类型标记 " + type);
+            };
+        } catch (RuntimeException e) {
+            throw new IOException(e);
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package io.github.mocanjie.base.myjpa.parser;
+
+import io.github.mocanjie.base.myjpa.cache.TableCacheManager;
+import net.sf.jsqlparser.expression.Expression;
+import net.sf.jsqlparser.expression.Function;
+import net.sf.jsqlparser.expression.LongValue;
+import net.sf.jsqlparser.expression.operators.conditional.AndExpression;
+import net.sf.jsqlparser.expression.operators.relational.EqualsTo;
+import net.sf.jsqlparser.schema.Column;
+import net.sf.jsqlparser.schema.Table;
+import net.sf.jsqlparser.statement.Statement;
+import net.sf.jsqlparser.statement.select.AllColumns;
+import net.sf.jsqlparser.statement.select.AllTableColumns;
+import net.sf.jsqlparser.statement.select.Join;
+import net.sf.jsqlparser.statement.select.ParenthesedSelect;
+import net.sf.jsqlparser.statement.select.PlainSelect;
+import net.sf.jsqlparser.statement.select.SelectItem;
+import net.sf.jsqlparser.util.TablesNamesFinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * 分页 count SQL 生成器
+ * 基于 AST 精简分页查询后再计数，替代直接包裹 {@code select count(*) from ( ... ) mkt_page_count}
+ *
+ * <p>精简规则（只做不改变行数的变换，无法证明时保持原样）：
+ * <ul>
+ *   <li>去掉最外层 ORDER BY</li>
+ *   <li>无 DISTINCT / GROUP BY / HAVING / QUALIFY，且查询列中没有聚合函数或集合返回函数时，查询列替换为常量</li>
+ *   <li>去掉不影响行数的 LEFT JOIN：右表为已注册实体，ON 中包含 {@code 右表.主键 = 左侧表达式}（最多匹配一行），
+ *       且语句其余部分没有引用右表（出现无表前缀的列时无法判断归属，保守保留）</li>
+ * </ul>
+ * 精简后若无 LIMIT/OFFSET，直接生成 {@code SELECT count(*) FROM ...}，否则仍包裹子查询计数。
+ *
+ * <pre>
+ * SELECT u.*, r.name FROM user u LEFT JOIN role r ON r.id = u.role_id WHERE u.age > 18 ORDER BY u.id
+ * → SELECT count(*) FROM user u WHERE u.age > 18
+ * </pre>
+ *
+ * <p>结果按 SQL 文本缓存，注册表（主键信息）变化后自动失效。
+ */
+public class CountSqlBuilder {
+
+    private static final Logger log = LoggerFactory.getLogger(CountSqlBuilder.class);
+
+    /** 是否启用 count SQL 精简，由 myjpa.page.optimize-count 配置同步 */
+    public static volatile boolean enabled = true;
+
+    /** 缓存最大条目数，超出后整体清空重建 */
+    public static final int MAX_CACHE_SIZE = 1024;
+
+    /** 未精简时的包裹别名 */
+    public static final String COUNT_ALIAS = "mkt_page_count";
+
+    /** 会改变行数的函数：聚合函数（无 GROUP BY 时把多行聚合为一行）与 PostgreSQL 集合返回函数 */
+    private static final Pattern ROW_CHANGING_FUNCTION = Pattern.compile(
+            "(?i)(?<![\\w$])(count|sum|avg|min|max|group_concat|string_agg|array_agg|json_agg|jsonb_agg"
+                    + "|json_arrayagg|json_objectagg|json_object_agg|jsonb_object_agg|listagg|bit_and|bit_or|bit_xor"
+                    + "|bool_and|bool_or|every|std|stddev\\w*|variance|var_\\w+|unnest|generate_series"
+                    + "|jsonb?_array_elements\\w*|jsonb?_each\\w*|jsonb?_object_keys|regexp_matches"
+                    + "|regexp_split_to_table|string_to_table)\\s*\\(");
+
+    private record CacheEntry(long registryVersion, String countSql) {}
+
+    private static final Map<String, CacheEntry> CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * 生成分页查询对应的 count SQL
+     *
+     * @param sql 已完成条件注入的分页查询 SQL
+     * @return count SQL
+     */
+    public static String build(String sql) {
+        if (!enabled) {
+            return wrap(sql);
+        }
+        long version = TableCacheManager.getRegistryVersion();
+        CacheEntry entry = CACHE.get(sql);
+        if (entry != null && entry.registryVersion() == version) {
+            return entry.countSql();
+        }
+        String countSql = optimize(sql);
+        if (CACHE.size() >= MAX_CACHE_SIZE) {
+            CACHE.clear();
+        }
+        CACHE.put(sql, new CacheEntry(version, countSql));
+        return countSql;
+    }
+
+    /**
+     * 清空缓存
+     */
+    public static void clearCache() {
+        CACHE.clear();
+    }
+
+    /**
+     * 原始包裹方式
+     */
+    public static String wrap(String sql) {
+        return "select count(*) from ( " + sql + " ) " + COUNT_ALIAS;
+    }
+
+    private static String optimize(String sql) {
+        try {
+            Statement statement = SqlStatementParser.parse(sql);
+            if (!(statement instanceof PlainSelect plainSelect)
+                    || (plainSelect.getWithItemsList() != null && !plainSelect.getWithItemsList().isEmpty())
+                    || plainSelect.getIntoTables() != null
+                    || plainSelect.getForMode() != null) {
+                return wrap(sql);
+            }
+
+            boolean limited = plainSelect.getLimit() != null || plainSelect.getOffset() != null
+                    || plainSelect.getFetch() != null || plainSelect.getTop() != null;
+            boolean grouped = plainSelect.getDistinct() != null || plainSelect.getGroupBy() != null
+                    || plainSelect.getHaving() != null || plainSelect.getQualify() != null;
+
+            // 1. ORDER BY 不影响行数；OFFSET / FETCH / TOP 需要保留（SQL Server 要求 OFFSET 必须带 ORDER BY）
+            if (plainSelect.getOffset() == null && plainSelect.getFetch() == null && plainSelect.getTop() == null) {
+                plainSelect.setOrderByElements(null);
+            }
+
+            // 2. 查询列替换为常量（之后的引用检查不再受查询列影响）
+            boolean constantProjection = !grouped && isRowPreserving(plainSelect.getSelectItems());
+            if (constantProjection) {
+                plainSelect.setSelectItems(new ArrayList<>(List.of(SelectItem.from(new LongValue(1)))));
+            }
+
+            // 3. 去掉不影响行数的 LEFT JOIN
+            removeRedundantLeftJoins(plainSelect);
+
+            if (constantProjection && !limited) {
+                Function count = new Function().withName("count").withParameters(new AllColumns());
+                plainSelect.setSelectItems(new ArrayList<>(List.of(SelectItem.from(count))));
+                return plainSelect.toString();
+            }
+            return wrap(plainSelect.toString());
+        } catch (Exception e) {
+            log.debug("count SQL 精简失败，使用包裹方式: {}", e.getMessage());
+            return wrap(sql);
+        }
+    }
+
+    private static boolean isRowPreserving(List<SelectItem<?>> selectItems) {
+        for (SelectItem<?> item : selectItems) {
+            Expression expression = item.getExpression();
+            if (expression instanceof AllColumns || expression instanceof ParenthesedSelect) {
+                // 标量子查询每行只产生一个值，不影响行数
+                continue;
+            }
+            if (ROW_CHANGING_FUNCTION.matcher(expression.toString()).find()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 从后往前尝试移除 LEFT JOIN：后面的 JOIN 移除后，只被它引用的前一个 JOIN 也可能随之移除
+     */
+    private static void removeRedundantLeftJoins(PlainSelect plainSelect) {
+        List<Join> joins = plainSelect.getJoins();
+        if (joins == null || joins.isEmpty()) {
+            return;
+        }
+        for (int i = joins.size() - 1; i >= 0; i--) {
+            Join join = joins.get(i);
+            if (!isPlainLeftJoin(join)) {
+                continue;
+            }
+            Table table = (Table) join.getFromItem();
+            TableCacheManager.PkInfo pkInfo = TableCacheManager.getPkInfoByTableName(unquote(table.getName()));
+            if (pkInfo == null) {
+                continue;
+            }
+            String ref = unquote(table.getAlias() != null ? table.getAlias().getName() : table.getName());
+            if (!matchesAtMostOneRow(join.getOnExpressions().iterator().next(), ref, pkInfo.getPkColumn())) {
+                continue;
+            }
+            joins.remove(i);
+            if (isReferenced(plainSelect, ref)) {
+                joins.add(i, join);
+            }
+        }
+    }
+
+    private static boolean isPlainLeftJoin(Join join) {
+        return join.isLeft() && !join.isNatural() && !join.isSemi() && !join.isApply()
+                && (join.getUsingColumns() == null || join.getUsingColumns().isEmpty())
+                && join.getOnExpressions() != null && join.getOnExpressions().size() == 1
+                && join.getFromItem() instanceof Table;
+    }
+
+    /**
+     * ON 条件中是否存在 {@code ref.pk = 不引用 ref 的表达式} 的合取项
+     */
+    private static boolean matchesAtMostOneRow(Expression on, String ref, String pkColumn) {
+        if (on instanceof AndExpression and) {
+            return matchesAtMostOneRow(and.getLeftExpression(), ref, pkColumn)
+                    || matchesAtMostOneRow(and.getRightExpression(), ref, pkColumn);
+        }
+        if (on instanceof EqualsTo equalsTo) {
+            return (isColumnOf(equalsTo.getLeftExpression(), ref, pkColumn)
+                    && !mentions(equalsTo.getRightExpression().toString(), ref))
+                    || (isColumnOf(equalsTo.getRightExpression(), ref, pkColumn)
+                    && !mentions(equalsTo.getLeftExpression().toString(), ref));
+        }
+        return false;
+    }
+
+    private static boolean isColumnOf(Expression expression, String ref, String columnName) {
+        return expression instanceof Column column
+                && column.getTable() != null
+                && ref.equalsIgnoreCase(unquote(column.getTable().getName()))
+                && columnName.equalsIgnoreCase(unquote(column.getColumnName()));
+    }
+
+    /**
+     * 移除 JOIN 后的语句是否仍可能引用 ref：存在 ref 前缀的列或 ref.*，或存在无法判断归属的无前缀列
+     */
+    private static boolean isReferenced(PlainSelect plainSelect, String ref) {
+        boolean[] referenced = {false};
+        TablesNamesFinder<Void> finder = new TablesNamesFinder<>() {
+            @Override
+            public <S> Void visit(Column column, S context) {
+                if (column.getTable() == null || column.getTable().getName() == null
+                        || ref.equalsIgnoreCase(unquote(column.getTable().getName()))) {
+                    referenced[0] = true;
+                }
+                return null;
+            }
+
+            @Override
+            public <S> Void visit(AllTableColumns allTableColumns, S context) {
+                if (ref.equalsIgnoreCase(unquote(allTableColumns.getTable().getName()))) {
+                    referenced[0] = true;
+                }
+                return null;
+            }
+        };
+        try {
+            finder.getTables((Statement) plainSelect);
+            if (plainSelect.getGroupBy() != null) {
+                for (Object expression : plainSelect.getGroupBy().getGroupByExpressionList()) {
+                    finder.getTables((Expression) expression);
+                }
+            }
+        } catch (Exception e) {
+            return true;
+        }
+        // 文本兜底：覆盖 AST 遍历不到的位置（窗口定义等）
+        return referenced[0] || mentions(plainSelect.toString(), ref);
+    }
+
+    private static boolean mentions(String text, String ref) {
+        return Pattern.compile("(?i)(?<![\\w$])[`\"\\[]?" + Pattern.quote(ref) + "[`\"\\]]?\\s*\\.").matcher(text).find();
+    }
+
+    private static String unquote(String name) {
+        if (name != null && name.length() >= 2) {
+            char first = name.charAt(0);
+            char last = name.charAt(name.length() - 1);
+            if ((first == '`' && last == '`') || (first == '"' && last == '"') || (first == '[' && last == ']')) {
+                return name.substring(1, name.length() - 1);
+            }
+        }
+        return name;
+    }
+}
@@ -1,15 +1,19 @@
 package io.github.mocanjie.base.myjpa.parser;
 
+import io.github.mocanjie.base.myjpa.cache.SqlRewriteCache;
 import io.github.mocanjie.base.myjpa.cache.TableCacheManager;
 import io.github.mocanjie.base.myjpa.tenant.TenantContext;
 import net.sf.jsqlparser.JSQLParserException;
 import net.sf.jsqlparser.expression.*;
 import net.sf.jsqlparser.expression.operators.conditional.AndExpression;
 import net.sf.jsqlparser.expression.operators.conditional.OrExpression;
+import net.sf.jsqlparser.expression.operators.conditional.XorExpression;
 import net.sf.jsqlparser.expression.operators.relational.EqualsTo;
 import net.sf.jsqlparser.expression.operators.relational.ExistsExpression;
 import net.sf.jsqlparser.expression.operators.relational.InExpression;
-import net.sf.jsqlparser.parser.CCJSqlParserUtil;
+import net.sf.jsqlparser.parser.ASTNodeAccess;
+import net.sf.jsqlparser.parser.SimpleNode;
+import net.sf.jsqlparser.parser.Token;
 import net.sf.jsqlparser.schema.Column;
 import net.sf.jsqlparser.schema.Table;
 import net.sf.jsqlparser.statement.Statement;
@@ -21,6 +25,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * 基于JSqlParser的动态SQL解析器
@@ -38,6 +43,12 @@ public class JSqlDynamicSqlParser {
     /** 租户字段的数据库列名，默认 tenant_id */
     public static volatile String tenantColumn = "tenant_id";
 
+    /** 是否使用拼接式改写（保留原始 SQL 文本），关闭时回退到 AST 重新序列化，由 myjpa.sql-rewrite.splice 配置同步 */
+    public static volatile boolean spliceRewriteEnabled = true;
+
+    /** 改写逻辑版本，改写结果的生成方式变化时递增，使持久化的改写缓存失效 */
+    public static final int REWRITE_VERSION = 1;
+
     /** 租户参数名（SQL 占位符名称），内部固定，不对外暴露 */
     public static final String TENANT_PARAM_NAME = "myjpaTenantId";
 
@@ -78,9 +89,16 @@ public class JSqlDynamicSqlParser {
         if (sql == null || sql.trim().isEmpty()) {
             return sql;
         }
+        if (!TableCacheManager.mayReferenceRegisteredTable(sql)) {
+            // 预扫描未命中任何已注册表，无需解析
+            return sql;
+        }
+        return SqlRewriteCache.get(cacheKey(sql, false), key -> rewriteDeleteCondition(key.sql()));
+    }
 
+    private static String rewriteDeleteCondition(String sql) {
         try {
-            Statement statement = CCJSqlParserUtil.parse(sql);
+            Statement statement = SqlStatementParser.parse(sql);
 
             if (!(statement instanceof Select)) {
                 // 非SELECT语句直接返回
@@ -88,6 +106,10 @@ public class JSqlDynamicSqlParser {
             }
 
             Select selectStatement = (Select) statement;
+            SqlRewritePlan plan = spliceRewriteEnabled ? buildRewritePlan(sql, selectStatement, true, false) : null;
+            if (plan != null) {
+                return plan.apply(sql);
+            }
             processSelectStatement(selectStatement);
 
             return selectStatement.toString();
@@ -101,6 +123,273 @@ public class JSqlDynamicSqlParser {
         }
     }
     
+    /**
+     * 构造改写缓存 key：改写结果取决于 SQL、是否注入租户、租户配置和 @MyTable 注册表版本
+     */
+    private static SqlRewriteCache.Key cacheKey(String sql, boolean tenantInjection) {
+        return new SqlRewriteCache.Key(sql, tenantInjection, tenantEnabled, tenantColumn,
+                TableCacheManager.getRegistryVersion());
+    }
+
+    // ===================== 拼接式改写计划 =====================
+
+    /** 插入 WHERE 子句时，遇到这些顶层关键字即停止（WHERE 必须位于它们之前） */
+    private static final Set<String> CLAUSE_KEYWORDS = Set.of(
+            "GROUP", "HAVING", "WINDOW", "QUALIFY", "ORDER", "LIMIT", "OFFSET", "FETCH", "FOR",
+            "CONNECT", "START", "UNION", "INTERSECT", "EXCEPT", "MINUS", "LOCK", "INTO", ";");
+
+    /**
+     * 基于已解析的 AST 生成拼接式改写计划。
+     *
+     * <p>计划只记录插入位置和条件片段，应用时不调用 {@code Select.toString()}，原始 SQL 文本保持不变。
+     * 条件的收集规则与 AST 改写路径一致（主表/INNER JOIN → WHERE，LEFT/RIGHT JOIN → ON，已存在则跳过）。
+     *
+     * @param sql        原始 SQL（AST 的来源）
+     * @param select     解析得到的 SELECT
+     * @param withDelete 是否注入逻辑删除条件
+     * @param withTenant 是否注入租户条件
+     * @return 改写计划；AST 缺少位置信息或结构无法安全拼接时返回 null，由调用方回退到 AST 改写
+     */
+    static SqlRewritePlan buildRewritePlan(String sql, Select select, boolean withDelete, boolean withTenant) {
+        SqlRewritePlan.Builder builder = SqlRewritePlan.builder();
+        if (!planSelect(sql, select, builder, withDelete, withTenant)) {
+            return null;
+        }
+        return builder.build();
+    }
+
+    private static boolean planSelect(String sql, Select select, SqlRewritePlan.Builder builder,
+                                      boolean withDelete, boolean withTenant) {
+        if (select instanceof PlainSelect ps) {
+            return planPlainSelect(sql, ps, builder, withDelete, withTenant);
+        } else if (select instanceof SetOperationList sol) {
+            for (Select s : sol.getSelects()) {
+                if (!planSelect(sql, s, builder, withDelete, withTenant)) return false;
+            }
+        } else if (select instanceof ParenthesedSelect ps) {
+            return planSelect(sql, ps.getSelect(), builder, withDelete, withTenant);
+        }
+        return true;
+    }
+
+    private static boolean planPlainSelect(String sql, PlainSelect plainSelect, SqlRewritePlan.Builder builder,
+                                           boolean withDelete, boolean withTenant) {
+        Expression existingWhere = plainSelect.getWhere();
+        List<TablePredicate> wherePredicates = new ArrayList<>();
+
+        // 主表
+        FromItem fromItem = plainSelect.getFromItem();
+        if (fromItem instanceof Table table) {
+            wherePredicates.addAll(collectPredicates(table, existingWhere, withDelete, withTenant));
+        } else if (fromItem instanceof ParenthesedSelect ps) {
+            if (!planSelect(sql, ps.getSelect(), builder, withDelete, withTenant)) return false;
+        }
+
+        // JOIN 表
+        if (plainSelect.getJoins() != null) {
+            for (Join join : plainSelect.getJoins()) {
+                if (join.getRightItem() instanceof Table table) {
+                    List<TablePredicate> predicates = collectPredicates(table, existingWhere, withDelete, withTenant);
+                    if (predicates.isEmpty()) continue;
+                    JoinType joinType = getJoinType(join);
+                    if (joinType == JoinType.LEFT_JOIN || joinType == JoinType.RIGHT_JOIN) {
+                        if (!planJoinOn(sql, join, predicates, builder)) return false;
+                    } else {
+                        wherePredicates.addAll(predicates);
+                    }
+                } else if (join.getRightItem() instanceof ParenthesedSelect ps) {
+                    if (!planSelect(sql, ps.getSelect(), builder, withDelete, withTenant)) return false;
+                }
+            }
+        }
+
+        // WHERE 条件
+        if (!wherePredicates.isEmpty()) {
+            if (existingWhere != null) {
+                int[] span = span(sql, existingWhere);
+                if (span == null) return false;
+                wrapIfNeeded(existingWhere, span, builder);
+                builder.insert(span[1], " AND " + joinPredicates(wherePredicates));
+            } else {
+                int offset = findWhereInsertOffset(sql, plainSelect);
+                if (offset < 0) return false;
+                builder.insert(offset, " WHERE " + joinPredicates(wherePredicates));
+            }
+        }
+
+        // 子查询
+        for (SelectItem<?> item : plainSelect.getSelectItems()) {
+            if (item.getExpression() != null
+                    && !planExpressionSubQueries(sql, item.getExpression(), builder, withDelete, withTenant)) {
+                return false;
+            }
+        }
+        return existingWhere == null
+                || planExpressionSubQueries(sql, existingWhere, builder, withDelete, withTenant);
+    }
+
+    private static boolean planExpressionSubQueries(String sql, Expression expression, SqlRewritePlan.Builder builder,
+                                                    boolean withDelete, boolean withTenant) {
+        if (expression instanceof ParenthesedSelect ps) {
+            return planSelect(sql, ps.getSelect(), builder, withDelete, withTenant);
+        } else if (expression instanceof NotExpression notExpr) {
+            return planExpressionSubQueries(sql, notExpr.getExpression(), builder, withDelete, withTenant);
+        } else if (expression instanceof InExpression inExpr) {
+            return inExpr.getRightExpression() == null
+                    || planExpressionSubQueries(sql, inExpr.getRightExpression(), builder, withDelete, withTenant);
+        } else if (expression instanceof ExistsExpression existsExpr) {
+            return planExpressionSubQueries(sql, existsExpr.getRightExpression(), builder, withDelete, withTenant);
+        } else if (expression instanceof BinaryExpression binExpr) {
+            return planExpressionSubQueries(sql, binExpr.getLeftExpression(), builder, withDelete, withTenant)
+                    && planExpressionSubQueries(sql, binExpr.getRightExpression(), builder, withDelete, withTenant);
+        }
+        return true;
+    }
+
+    /**
+     * 收集单个表需要注入的条件片段（逻辑删除 / 租户），已存在于 WHERE 中的条件跳过
+     */
+    private static List<TablePredicate> collectPredicates(Table table, Expression existingWhere,
+                                                          boolean withDelete, boolean withTenant) {
+        String tableName = table.getName();
+        String alias = table.getAlias() != null ? table.getAlias().getName() : null;
+        String tableRef = alias != null ? alias : tableName;
+        List<TablePredicate> predicates = new ArrayList<>(2);
+
+        if (withDelete) {
+            TableCacheManager.DeleteInfo deleteInfo = TableCacheManager.getDeleteInfoByTableName(tableName);
+            if (deleteInfo != null && deleteInfo.isValid()
+                    && !isDeleteConditionExists(existingWhere, deleteInfo.getDelColumn(), alias, tableName)) {
+                predicates.add(new TablePredicate(tableRef, deleteInfo.getDelColumn(),
+                        tableRef + "." + deleteInfo.getDelColumn() + " = " + deleteInfo.getUnDelValue()));
+            }
+        }
+        if (withTenant && tenantEnabled && TableCacheManager.hasTenantColumn(tableName)
+                && !isTenantConditionExists(existingWhere, tenantColumn, alias, tableName)) {
+            predicates.add(new TablePredicate(tableRef, tenantColumn,
+                    tableRef + "." + tenantColumn + " = :" + TENANT_PARAM_NAME));
+        }
+        return predicates;
+    }
+
+    /**
+     * LEFT/RIGHT JOIN：条件追加到 ON 表达式末尾，ON 中已引用的列跳过
+     */
+    private static boolean planJoinOn(String sql, Join join, List<TablePredicate> predicates,
+                                      SqlRewritePlan.Builder builder) {
+        Collection<Expression> onExpressions = join.getOnExpressions();
+        if (onExpressions == null || onExpressions.size() != 1) {
+            // USING / 无 ON / 多段 ON 无法安全拼接
+            return false;
+        }
+        Expression on = onExpressions.iterator().next();
+        String onText = on.toString();
+        List<TablePredicate> pending = new ArrayList<>(predicates.size());
+        for (TablePredicate p : predicates) {
+            if (!onText.contains(p.tableRef() + "." + p.column())) {
+                pending.add(p);
+            }
+        }
+        if (pending.isEmpty()) return true;
+        int[] span = span(sql, on);
+        if (span == null) return false;
+        wrapIfNeeded(on, span, builder);
+        builder.insert(span[1], " AND " + joinPredicates(pending));
+        return true;
+    }
+
+    /**
+     * 顶层为 OR / XOR 的表达式追加 AND 前需要加括号，避免改变原有语义
+     */
+    private static void wrapIfNeeded(Expression expression, int[] span, SqlRewritePlan.Builder builder) {
+        if (expression instanceof OrExpression || expression instanceof XorExpression) {
+            builder.insert(span[0], "(");
+            builder.insert(span[1], ")");
+        }
+    }
+
+    private static String joinPredicates(List<TablePredicate> predicates) {
+        StringBuilder sb = new StringBuilder();
+        for (TablePredicate p : predicates) {
+            if (sb.length() > 0) sb.append(" AND ");
+            sb.append(p.sql());
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 计算没有 WHERE 的 SELECT 中插入 WHERE 子句的位置：
+     * 从 FROM/JOIN 部分结束处向后扫描顶层 token，遇到 GROUP BY / ORDER BY / LIMIT 等子句关键字时插在其前，
+     * 否则插在该 SELECT 最后一个 token 之后。
+     *
+     * @return 原始 SQL 中的下标，无法确定时返回 -1
+     */
+    private static int findWhereInsertOffset(String sql, PlainSelect plainSelect) {
+        SimpleNode node = plainSelect.getASTNode();
+        int[] fromSpan = span(sql, plainSelect.getFromItem());
+        if (node == null || fromSpan == null) return -1;
+        int fromEnd = fromSpan[1];
+        if (plainSelect.getJoins() != null) {
+            for (Join join : plainSelect.getJoins()) {
+                int[] rightSpan = span(sql, join.getRightItem());
+                if (rightSpan == null) return -1;
+                fromEnd = Math.max(fromEnd, rightSpan[1]);
+                for (Expression on : join.getOnExpressions()) {
+                    int[] onSpan = span(sql, on);
+                    if (onSpan == null) return -1;
+                    fromEnd = Math.max(fromEnd, onSpan[1]);
+                }
+            }
+        }
+
+        Token last = node.jjtGetLastToken();
+        int insertAt = fromEnd;
+        int depth = 0;
+        for (Token t = node.jjtGetFirstToken(); t != null; t = t.next) {
+            if (t.absoluteBegin - 1 >= fromEnd) {
+                if (depth == 0 && CLAUSE_KEYWORDS.contains(t.image.toUpperCase())) {
+                    return insertAt;
+                }
+                if ("(".equals(t.image)) {
+                    depth++;
+                } else if (")".equals(t.image)) {
+                    if (--depth < 0) return insertAt;
+                }
+                insertAt = t.absoluteEnd - 1;
+            }
+            if (t == last) break;
+        }
+        return insertAt;
+    }
+
+    /**
+     * 取 AST 节点在原始 SQL 中的区间 [begin, end)，节点缺失或与原文不一致时返回 null
+     */
+    private static int[] span(String sql, Object element) {
+        if (!(element instanceof ASTNodeAccess access) || access.getASTNode() == null) {
+            return null;
+        }
+        Token first = access.getASTNode().jjtGetFirstToken();
+        Token last = access.getASTNode().jjtGetLastToken();
+        if (first == null || last == null) return null;
+        int begin = first.absoluteBegin - 1;
+        int end = last.absoluteEnd - 1;
+        if (begin < 0 || end > sql.length() || begin >= end
+                || !sql.regionMatches(true, begin, first.image, 0, first.image.length())) {
+            return null;
+        }
+        return new int[]{begin, end};
+    }
+
+    /**
+     * 待注入的单个条件片段
+     *
+     * @param tableRef 表引用（别名优先）
+     * @param column   条件列名
+     * @param sql      条件 SQL 片段，如 {@code u.delete_flag = 0}
+     */
+    private record TablePredicate(String tableRef, String column, String sql) {}
+
     // ===================== 多租户条件注入 =====================
 
     /**
@@ -124,13 +413,20 @@ public class JSqlDynamicSqlParser {
             log.debug("当前线程已标记跳过租户隔离，不注入租户条件");
             return sql;
         }
+        if (!TableCacheManager.mayReferenceRegisteredTable(sql)) {
+            return sql;
+        }
 
         try {
-            Statement statement = CCJSqlParserUtil.parse(sql);
+            Statement statement = SqlStatementParser.parse(sql);
             if (!(statement instanceof Select)) {
                 return sql;
             }
             Select selectStatement = (Select) statement;
+            SqlRewritePlan plan = spliceRewriteEnabled ? buildRewritePlan(sql, selectStatement, false, true) : null;
+            if (plan != null) {
+                return plan.apply(sql);
+            }
             processTenantSelect(selectStatement);
             return selectStatement.toString();
         } catch (JSQLParserException e) {
@@ -359,12 +655,23 @@ public class JSqlDynamicSqlParser {
         if (sql == null || sql.trim().isEmpty()) {
             return sql;
         }
+        if (!TableCacheManager.mayReferenceRegisteredTable(sql)) {
+            return sql;
+        }
+        return SqlRewriteCache.get(cacheKey(sql, true), key -> rewriteConditions(key.sql()));
+    }
+
+    private static String rewriteConditions(String sql) {
         try {
-            Statement statement = CCJSqlParserUtil.parse(sql);
+            Statement statement = SqlStatementParser.parse(sql);
             if (!(statement instanceof Select)) {
                 return sql;
             }
             Select selectStatement = (Select) statement;
+            SqlRewritePlan plan = spliceRewriteEnabled ? buildRewritePlan(sql, selectStatement, true, true) : null;
+            if (plan != null) {
+                return plan.apply(sql);
+            }
             processUnifiedSelect(selectStatement);
             return selectStatement.toString();
         } catch (JSQLParserException e) {
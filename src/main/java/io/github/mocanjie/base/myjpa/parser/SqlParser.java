@@ -9,7 +9,8 @@ import org.springframework.beans.BeanUtils;
 
 import java.beans.PropertyDescriptor;
 import java.util.Arrays;
-import java.util.LinkedList;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 public class SqlParser {
@@ -26,8 +27,22 @@ public class SqlParser {
     }
 
     public static String getInsertSql(TableInfo tableInfo,Object obj,boolean ignoreNull){
-        LinkedList<String> valueList = new LinkedList<>();
-        String columns = tableInfo.getFieldList().stream().filter(f -> {
+        Map<String, String> insertColumns = getInsertColumns(tableInfo, obj, ignoreNull);
+        String columns = String.join(",", insertColumns.keySet());
+        String values = insertColumns.values().stream().map(n->":"+n).collect(Collectors.joining(","));
+        return String.format(INSERT_SQL,tableInfo.getTableName(),columns,values);
+    }
+
+    /**
+     * 插入涉及的列及其命名参数名（字段名），按字段声明顺序
+     * @param tableInfo 表信息
+     * @param obj 实体
+     * @param ignoreNull 是否跳过值为空的字段
+     * @return 列名 → 参数名
+     */
+    public static LinkedHashMap<String, String> getInsertColumns(TableInfo tableInfo,Object obj,boolean ignoreNull){
+        LinkedHashMap<String, String> columns = new LinkedHashMap<>();
+        tableInfo.getFieldList().stream().filter(f -> {
             MyField annotation = f.getAnnotation(MyField.class);
             if(annotation!=null && !annotation.serialize()) return false;
             if(ignoreNull){
@@ -43,17 +58,17 @@ public class SqlParser {
             }else{
                 return true;
             }
-        }).map(f->{
+        }).forEach(f->{
             String fName = f.getName().trim();
-            valueList.add(fName);
-            if(fName.equals(tableInfo.getPkFieldName())) return tableInfo.getPkColumnName();
-            if(fName.equals(tableInfo.getDelFieldName())) return tableInfo.getDelColumnName();
+            String column;
             MyField annotation = f.getAnnotation(MyField.class);
-            if(annotation!=null && StringUtils.isNotBlank(annotation.value())) return annotation.value().trim();
-            return CommonUtils.camelCaseToUnderscore(String.format("%s",fName));
-        }).collect(Collectors.joining(","));
-        String values = valueList.stream().map(n->":"+n).collect(Collectors.joining(","));
-        return String.format(INSERT_SQL,tableInfo.getTableName(),columns,values);
+            if(fName.equals(tableInfo.getPkFieldName())) column = tableInfo.getPkColumnName();
+            else if(fName.equals(tableInfo.getDelFieldName())) column = tableInfo.getDelColumnName();
+            else if(annotation!=null && StringUtils.isNotBlank(annotation.value())) column = annotation.value().trim();
+            else column = CommonUtils.camelCaseToUnderscore(String.format("%s",fName));
+            columns.put(column, fName);
+        });
+        return columns;
     }
 
 
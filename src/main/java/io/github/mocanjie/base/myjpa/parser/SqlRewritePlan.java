@@ -0,0 +1,127 @@
+package io.github.mocanjie.base.myjpa.parser;
+
+import java.util.Arrays;
+
+/**
+ * SQL 改写计划
+ * 记录需要插入原始 SQL 的位置和片段（WHERE / JOIN ON 追加的条件），按位置拼接即可得到改写结果。
+ *
+ * <p>与 {@code Statement.toString()} 相比，拼接方式保留用户原始 SQL 文本（大小写、换行、注释位置不变），
+ * 输出稳定，不会因 JSqlParser 格式化规则变化导致驱动端预编译语句缓存失效。
+ *
+ * <pre>
+ * SELECT * FROM user u WHERE u.age > 18
+ *   offsets:   [38]
+ *   fragments: [" AND u.delete_flag = 0"]
+ * → SELECT * FROM user u WHERE u.age > 18 AND u.delete_flag = 0
+ * </pre>
+ */
+public final class SqlRewritePlan {
+
+    /** 不需要改写的计划 */
+    public static final SqlRewritePlan EMPTY = new SqlRewritePlan(new int[0], new String[0]);
+
+    /** 插入位置（原始 SQL 的字符下标，升序） */
+    private final int[] offsets;
+
+    /** 与 offsets 一一对应的插入片段 */
+    private final String[] fragments;
+
+    private SqlRewritePlan(int[] offsets, String[] fragments) {
+        this.offsets = offsets;
+        this.fragments = fragments;
+    }
+
+    /**
+     * 是否无需改写
+     */
+    public boolean isEmpty() {
+        return offsets.length == 0;
+    }
+
+    /**
+     * 插入点数量
+     */
+    public int size() {
+        return offsets.length;
+    }
+
+    /**
+     * 将计划应用到原始 SQL
+     *
+     * @param sql 生成本计划时使用的原始 SQL
+     * @return 改写后的 SQL
+     */
+    public String apply(String sql) {
+        if (offsets.length == 0) {
+            return sql;
+        }
+        int extra = 0;
+        for (String fragment : fragments) {
+            extra += fragment.length();
+        }
+        StringBuilder sb = new StringBuilder(sql.length() + extra);
+        int last = 0;
+        for (int i = 0; i < offsets.length; i++) {
+            sb.append(sql, last, offsets[i]).append(fragments[i]);
+            last = offsets[i];
+        }
+        sb.append(sql, last, sql.length());
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("SqlRewritePlan[");
+        for (int i = 0; i < offsets.length; i++) {
+            if (i > 0) sb.append(", ");
+            sb.append(offsets[i]).append(":'").append(fragments[i]).append('\'');
+        }
+        return sb.append(']').toString();
+    }
+
+    static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * 计划构建器：按添加顺序记录插入点，build 时按位置稳定排序（同一位置保持添加顺序）
+     */
+    static final class Builder {
+        private int[] offsets = new int[8];
+        private String[] fragments = new String[8];
+        private int size;
+
+        void insert(int offset, String fragment) {
+            if (size == offsets.length) {
+                offsets = Arrays.copyOf(offsets, size * 2);
+                fragments = Arrays.copyOf(fragments, size * 2);
+            }
+            offsets[size] = offset;
+            fragments[size] = fragment;
+            size++;
+        }
+
+        SqlRewritePlan build() {
+            if (size == 0) {
+                return EMPTY;
+            }
+            // 插入排序：插入点数量很少，且需保持同一位置的添加顺序
+            int[] o = Arrays.copyOf(offsets, size);
+            String[] f = Arrays.copyOf(fragments, size);
+            for (int i = 1; i < size; i++) {
+                int ko = o[i];
+                String kf = f[i];
+                int j = i - 1;
+                while (j >= 0 && o[j] > ko) {
+                    o[j + 1] = o[j];
+                    f[j + 1] = f[j];
+                    j--;
+                }
+                o[j + 1] = ko;
+                f[j + 1] = kf;
+            }
+            return new SqlRewritePlan(o, f);
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package io.github.mocanjie.base.myjpa.parser;
+
+import io.github.mocanjie.base.myjpa.annotation.MyQuery;
+import io.github.mocanjie.base.myjpa.builder.TableInfoBuilder;
+import io.github.mocanjie.base.myjpa.cache.SqlRewriteCache;
+import io.github.mocanjie.base.myjpa.cache.TableCacheManager;
+import io.github.mocanjie.base.myjpa.metadata.TableInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.io.Resource;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * SQL 改写预热
+ * 启动时收集已知 SQL，并行完成逻辑删除/租户条件改写并写入 {@link SqlRewriteCache}，
+ * 使发布后的首批请求不再承担解析开销
+ *
+ * <p>SQL 来源：
+ * <ul>
+ *   <li>扫描包内标注 {@link MyQuery} 的 static String 常量</li>
+ *   <li>每个 @MyTable 实体的 selectById SQL（{@link SqlParser#getSelectByIdSql}，其余 CRUD SQL 不经过条件改写）</li>
+ * </ul>
+ * 开启租户隔离时，每条 SQL 同时预热仅删除条件和删除+租户条件两种改写结果。
+ */
+public class SqlRewriteWarmer {
+
+    private static final Logger log = LoggerFactory.getLogger(SqlRewriteWarmer.class);
+
+    /** class 文件常量池中 @MyQuery 的类型描述符，用于在加载类之前快速过滤 */
+    private static final byte[] MY_QUERY_DESCRIPTOR =
+            ("L" + MyQuery.class.getName().replace('.', '/') + ";").getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * 预热结果
+     *
+     * @param statements    预热的 SQL 条数
+     * @param rewritten     改写后与原 SQL 不同（需要注入条件）的条数
+     * @param cached        写入改写缓存的条目数（未引用已注册表的 SQL 不进入缓存，开启租户时每条 SQL 两个条目）
+     * @param failed        预热过程中抛出异常的条数
+     * @param elapsedMillis 耗时（毫秒）
+     */
+    public record Result(int statements, int rewritten, int cached, int failed, long elapsedMillis) {}
+
+    /**
+     * 收集已注册的 SQL 并预热
+     *
+     * @param parallelism 并行度，小于 1 时使用 CPU 核数
+     * @return 预热结果
+     */
+    public static Result warmUpRegistered(int parallelism) {
+        Set<String> sqls = new LinkedHashSet<>();
+        sqls.addAll(collectAnnotatedSql(TableInfoBuilder.getScannedPackages().toArray(new String[0])));
+        sqls.addAll(collectCrudSql(TableInfoBuilder.getAllTableInfos()));
+        Result result = warmUp(sqls, parallelism);
+        log.info("SQL改写预热完成：共{}条，需改写{}条，缓存{}条，失败{}条，耗时{}ms",
+                result.statements(), result.rewritten(), result.cached(), result.failed(), result.elapsedMillis());
+        if (SqlRewriteCache.enabled && SqlRewriteCache.size() < result.cached()) {
+            log.warn("SQL改写缓存容量不足以容纳全部预热SQL，建议调大 myjpa.sql-cache.max-size");
+        }
+        return result;
+    }
+
+    /**
+     * 并行预热给定 SQL
+     *
+     * @param sqls        SQL 集合
+     * @param parallelism 并行度，小于 1 时使用 CPU 核数
+     * @return 预热结果
+     */
+    public static Result warmUp(Collection<String> sqls, int parallelism) {
+        long start = System.currentTimeMillis();
+        List<String> list = new ArrayList<>(sqls);
+        AtomicInteger rewritten = new AtomicInteger();
+        AtomicInteger cached = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        int threads = parallelism < 1 ? Runtime.getRuntime().availableProcessors() : parallelism;
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            pool.submit(() -> list.parallelStream().forEach(sql -> {
+                try {
+                    boolean changed = !sql.equals(JSqlDynamicSqlParser.appendDeleteCondition(sql));
+                    if (JSqlDynamicSqlParser.tenantEnabled) {
+                        changed |= !sql.equals(JSqlDynamicSqlParser.appendConditions(sql));
+                    }
+                    if (changed) {
+                        rewritten.incrementAndGet();
+                    }
+                    if (TableCacheManager.mayReferenceRegisteredTable(sql)) {
+                        cached.addAndGet(JSqlDynamicSqlParser.tenantEnabled ? 2 : 1);
+                    }
+                } catch (Exception e) {
+                    failed.incrementAndGet();
+                    log.debug("SQL预热失败: {}", sql, e);
+                }
+            })).get();
+        } catch (Exception e) {
+            log.warn("SQL改写预热中断: {}", e.getMessage());
+        } finally {
+            pool.shutdown();
+        }
+        return new Result(list.size(), rewritten.get(), cached.get(), failed.get(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 扫描包内标注 {@link MyQuery} 的 static String 常量
+     * 先按 class 字节内容过滤出引用了 @MyQuery 的类，只加载这些类，避免加载整个包
+     *
+     * @param basePackages 包路径
+     * @return SQL 集合（去重，保持扫描顺序）
+     */
+    public static Set<String> collectAnnotatedSql(String... basePackages) {
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false) {
+            @Override
+            protected boolean isCandidateComponent(AnnotatedBeanDefinition beanDefinition) {
+                return beanDefinition.getMetadata().isIndependent();
+            }
+        };
+        scanner.addIncludeFilter((reader, factory) -> referencesMyQuery(reader.getResource()));
+
+        Set<String> sqls = new LinkedHashSet<>();
+        ClassLoader classLoader = SqlRewriteWarmer.class.getClassLoader();
+        for (String basePackage : basePackages) {
+            for (BeanDefinition bd : scanner.findCandidateComponents(basePackage)) {
+                try {
+                    Class<?> clazz = Class.forName(bd.getBeanClassName(), false, classLoader);
+                    for (Field field : clazz.getDeclaredFields()) {
+                        if (!field.isAnnotationPresent(MyQuery.class)) continue;
+                        if (!Modifier.isStatic(field.getModifiers()) || field.getType() != String.class) {
+                            log.warn("@MyQuery 仅支持 static String 字段，忽略 {}.{}", clazz.getName(), field.getName());
+                            continue;
+                        }
+                        field.setAccessible(true);
+                        String sql = (String) field.get(null);
+                        if (sql != null && !sql.isBlank()) {
+                            sqls.add(sql);
+                        }
+                    }
+                } catch (Throwable e) {
+                    log.debug("读取 {} 中的 @MyQuery 常量失败: {}", bd.getBeanClassName(), e.getMessage());
+                }
+            }
+        }
+        return sqls;
+    }
+
+    /**
+     * 生成实体的 selectById SQL
+     *
+     * @param tableInfos 表信息
+     * @return SQL 集合
+     */
+    public static Set<String> collectCrudSql(Collection<TableInfo> tableInfos) {
+        Set<String> sqls = new LinkedHashSet<>();
+        for (TableInfo tableInfo : tableInfos) {
+            sqls.add(SqlParser.getSelectByIdSql(tableInfo));
+        }
+        return sqls;
+    }
+
+    private static boolean referencesMyQuery(Resource resource) {
+        try {
+            return indexOf(resource.getContentAsByteArray(), MY_QUERY_DESCRIPTOR) >= 0;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private static int indexOf(byte[] data, byte[] pattern) {
+        outer:
+        for (int i = 0; i <= data.length - pattern.length; i++) {
+            for (int j = 0; j < pattern.length; j++) {
+                if (data[i + j] != pattern[j]) continue outer;
+            }
+            return i;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,127 @@
+package io.github.mocanjie.base.myjpa.parser;
+
+import net.sf.jsqlparser.JSQLParserException;
+import net.sf.jsqlparser.parser.CCJSqlParser;
+import net.sf.jsqlparser.parser.CCJSqlParserUtil;
+import net.sf.jsqlparser.statement.Statement;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * SQL 语句解析入口
+ * 统一管理 JSqlParser 的解析执行方式，替代直接调用 {@code CCJSqlParserUtil.parse(String)}
+ *
+ * <p>JSqlParser 5.x 的 {@code CCJSqlParserUtil.parse(String)} 为实现超时控制，每次调用都会新建并关闭一个
+ * 单线程 executor，把解析任务提交过去再等待结果。高 QPS 下线程创建与切换的开销会直接体现在尾延迟上。
+ * 本类改为：
+ * <ul>
+ *   <li>SQL 长度小于 {@link #inlineThreshold} 时，在调用线程直接做简单解析（关闭复杂解析，耗时可控，无需切换线程）</li>
+ *   <li>简单解析失败需要复杂解析重试的，以及超过阈值的 SQL，提交到共享 executor（默认虚拟线程），
+ *       按 {@link #timeoutMillis} 控制超时</li>
+ * </ul>
+ * 整体保持 JSqlParser 的“先简单解析、失败后再复杂解析”策略。
+ */
+public class SqlStatementParser {
+
+    private static final Logger log = LoggerFactory.getLogger(SqlStatementParser.class);
+
+    /** 默认解析超时（毫秒），与 JSqlParser 默认值一致 */
+    public static final long DEFAULT_TIMEOUT_MILLIS = 6000L;
+
+    /** 默认内联解析阈值（SQL 字符数） */
+    public static final int DEFAULT_INLINE_THRESHOLD = 4096;
+
+    /** 解析超时（毫秒），仅对提交到 executor 的解析生效，由 myjpa.sql-parser.timeout-ms 配置同步 */
+    public static volatile long timeoutMillis = DEFAULT_TIMEOUT_MILLIS;
+
+    /** SQL 长度小于该值时在调用线程内联解析，0 表示始终使用 executor，由 myjpa.sql-parser.inline-threshold 配置同步 */
+    public static volatile int inlineThreshold = DEFAULT_INLINE_THRESHOLD;
+
+    private static volatile ExecutorService executor = newExecutor(true);
+
+    private static final LongAdder INLINE_COUNT = new LongAdder();
+    private static final LongAdder EXECUTOR_COUNT = new LongAdder();
+
+    /**
+     * 解析单条 SQL
+     *
+     * @param sql SQL 文本
+     * @return 语句对象，sql 为空时返回 null
+     * @throws JSQLParserException 语法错误或解析超时
+     */
+    public static Statement parse(String sql) throws JSQLParserException {
+        if (sql == null || sql.isEmpty()) {
+            return null;
+        }
+        if (sql.length() < inlineThreshold) {
+            try {
+                Statement statement = newParser(sql, false).Statement();
+                INLINE_COUNT.increment();
+                return statement;
+            } catch (Exception | StackOverflowError e) {
+                if (CCJSqlParserUtil.getNestingDepth(sql) > CCJSqlParserUtil.ALLOWED_NESTING_DEPTH) {
+                    throw new JSQLParserException(e);
+                }
+            }
+            // 复杂解析可能耗时很长（如括号不闭合），必须受超时保护，交给 executor 执行
+            EXECUTOR_COUNT.increment();
+            return CCJSqlParserUtil.parseStatement(newParser(sql, true).withTimeOut(timeoutMillis), executor);
+        }
+        EXECUTOR_COUNT.increment();
+        long timeout = timeoutMillis;
+        return CCJSqlParserUtil.parse(sql, executor, parser -> parser.withTimeOut(timeout));
+    }
+
+    private static CCJSqlParser newParser(String sql, boolean allowComplex) {
+        return CCJSqlParserUtil.newParser(sql).withAllowComplexParsing(allowComplex);
+    }
+
+    /**
+     * 切换共享 executor 的线程类型（旧 executor 在已提交任务完成后关闭）
+     *
+     * @param virtualThreads true 使用虚拟线程，false 使用守护平台线程池
+     */
+    public static synchronized void useVirtualThreads(boolean virtualThreads) {
+        ExecutorService old = executor;
+        executor = newExecutor(virtualThreads);
+        old.shutdown();
+        log.info("SQL解析executor切换为{}", virtualThreads ? "虚拟线程" : "平台线程池");
+    }
+
+    private static ExecutorService newExecutor(boolean virtualThreads) {
+        if (virtualThreads) {
+            return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("myjpa-sql-parser-", 0).factory());
+        }
+        AtomicInteger seq = new AtomicInteger();
+        ThreadFactory factory = r -> {
+            Thread t = new Thread(r, "myjpa-sql-parser-" + seq.getAndIncrement());
+            t.setDaemon(true);
+            return t;
+        };
+        return Executors.newCachedThreadPool(factory);
+    }
+
+    /** 调用线程内联解析次数 */
+    public static long getInlineCount() {
+        return INLINE_COUNT.sum();
+    }
+
+    /** 提交到 executor 解析的次数 */
+    public static long getExecutorCount() {
+        return EXECUTOR_COUNT.sum();
+    }
+
+    /**
+     * 重置解析计数
+     */
+    public static void resetStats() {
+        INLINE_COUNT.reset();
+        EXECUTOR_COUNT.reset();
+    }
+}
@@ -0,0 +1,351 @@
+package io.github.mocanjie.base.myjpa.processor;
+
+import io.github.mocanjie.base.myjpa.annotation.MyField;
+import io.github.mocanjie.base.myjpa.annotation.MyTable;
+
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * 为 {@code @MyTable} 实体生成访问器源码（{@code 实体类名_MyJpa}）：
+ * 直接调用 setter 的行映射器与直接调用 getter 的参数绑定器，并在最后一轮写出 ServiceLoader 索引。
+ *
+ * <p>列名规则与 MyBeanPropertyRowMapper 一致：主键字段对应 pkColumn，删除标记字段对应 delColumn，
+ * 其余字段取 {@code @MyField} 的值或字段名，同时登记小写形式与下划线形式。
+ *
+ * <p>实体不是 public 顶层类（或 public static 内部类）、没有 public 无参构造器、含泛型参数，
+ * 或任一字段缺少 public getter / setter 时不生成，运行时回退到反射映射。
+ */
+class EntityAccessorGenerator {
+
+    static final String ACCESSOR_FQN = "io.github.mocanjie.base.myjpa.accessor.EntityAccessor";
+
+    static final String SERVICE_FILE = "META-INF/services/" + ACCESSOR_FQN;
+
+    static final String SUFFIX = "_MyJpa";
+
+    /** 使用 JDBC 专用 getter 的类型 → getter 名称 */
+    private static final Map<String, String> GETTERS = Map.ofEntries(
+            Map.entry("int", "getInt"), Map.entry("java.lang.Integer", "getInt"),
+            Map.entry("long", "getLong"), Map.entry("java.lang.Long", "getLong"),
+            Map.entry("double", "getDouble"), Map.entry("java.lang.Double", "getDouble"),
+            Map.entry("float", "getFloat"), Map.entry("java.lang.Float", "getFloat"),
+            Map.entry("short", "getShort"), Map.entry("java.lang.Short", "getShort"),
+            Map.entry("byte", "getByte"), Map.entry("java.lang.Byte", "getByte"),
+            Map.entry("boolean", "getBoolean"), Map.entry("java.lang.Boolean", "getBoolean"),
+            Map.entry("java.lang.String", "getString"),
+            Map.entry("java.math.BigDecimal", "getBigDecimal"));
+
+    private static final Set<String> TEMPORALS = Set.of("java.time.LocalDateTime", "java.time.LocalDate",
+            "java.time.LocalTime", "java.time.OffsetDateTime");
+
+    /** 实体属性 */
+    private record Property(String name, String type, boolean primitive, String setter, String getter, List<String> keys) {}
+
+    private final ProcessingEnvironment env;
+
+    private final Set<String> generated = new TreeSet<>();
+
+    EntityAccessorGenerator(ProcessingEnvironment env) {
+        this.env = env;
+    }
+
+    /**
+     * 生成实体的访问器源码，不满足条件时输出 NOTE 并跳过
+     */
+    void generate(TypeElement entity) {
+        String accessorName = accessorName(entity);
+        String packageName = env.getElementUtils().getPackageOf(entity).getQualifiedName().toString();
+        String accessorFqn = packageName.isEmpty() ? accessorName : packageName + "." + accessorName;
+        if (generated.contains(accessorFqn)) return;
+
+        String reason = checkEntity(entity);
+        List<Property> properties = reason == null ? collectProperties(entity) : null;
+        if (properties == null) {
+            env.getMessager().printMessage(Diagnostic.Kind.NOTE, "[@MyTable 访问器] " + entity.getQualifiedName()
+                    + " 未生成访问器，运行时使用反射映射：" + (reason != null ? reason : "存在缺少 public getter / setter 的字段"), entity);
+            return;
+        }
+        try {
+            JavaFileObject file = env.getFiler().createSourceFile(accessorFqn, entity);
+            try (Writer writer = file.openWriter()) {
+                writer.write(render(packageName, accessorName, entity.getQualifiedName().toString(), properties));
+            }
+            generated.add(accessorFqn);
+        } catch (IOException e) {
+            env.getMessager().printMessage(Diagnostic.Kind.WARNING, "[@MyTable 访问器] 生成 " + accessorFqn + " 失败: " + e.getMessage(), entity);
+        }
+    }
+
+    /**
+     * 写出 ServiceLoader 索引，合并增量编译时已有的条目（对应类仍存在时保留）
+     */
+    void writeIndex() {
+        Set<String> entries = new TreeSet<>(generated);
+        Filer filer = env.getFiler();
+        Elements elements = env.getElementUtils();
+        try {
+            FileObject existing = filer.getResource(StandardLocation.CLASS_OUTPUT, "", SERVICE_FILE);
+            try (Reader reader = existing.openReader(true); BufferedReader lines = new BufferedReader(reader)) {
+                String line;
+                while ((line = lines.readLine()) != null) {
+                    line = line.trim();
+                    if (!line.isEmpty() && !line.startsWith("#") && elements.getTypeElement(line) != null) {
+                        entries.add(line);
+                    }
+                }
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            // 没有已有索引
+        }
+        if (entries.isEmpty()) return;
+        try {
+            FileObject file = filer.createResource(StandardLocation.CLASS_OUTPUT, "", SERVICE_FILE);
+            try (Writer writer = file.openWriter()) {
+                for (String entry : entries) {
+                    writer.write(entry);
+                    writer.write('\n');
+                }
+            }
+        } catch (IOException e) {
+            env.getMessager().printMessage(Diagnostic.Kind.WARNING, "[@MyTable 访问器] 写出索引 " + SERVICE_FILE + " 失败: " + e.getMessage());
+        }
+    }
+
+    private static String accessorName(TypeElement entity) {
+        StringBuilder name = new StringBuilder(entity.getSimpleName());
+        Element enclosing = entity.getEnclosingElement();
+        while (enclosing instanceof TypeElement outer) {
+            name.insert(0, outer.getSimpleName() + "_");
+            enclosing = outer.getEnclosingElement();
+        }
+        return name.append(SUFFIX).toString();
+    }
+
+    private String checkEntity(TypeElement entity) {
+        if (entity.getKind() != ElementKind.CLASS || entity.getModifiers().contains(Modifier.ABSTRACT)) return "不是具体类";
+        if (!entity.getTypeParameters().isEmpty()) return "含泛型参数";
+        for (Element e = entity; e instanceof TypeElement type; e = type.getEnclosingElement()) {
+            if (!type.getModifiers().contains(Modifier.PUBLIC)) return "不是 public 类";
+            if (type.getNestingKind() == NestingKind.MEMBER && !type.getModifiers().contains(Modifier.STATIC)) return "是非静态内部类";
+        }
+        boolean noArgConstructor = ElementFilter.constructorsIn(entity.getEnclosedElements()).stream()
+                .anyMatch(c -> c.getParameters().isEmpty() && c.getModifiers().contains(Modifier.PUBLIC));
+        return noArgConstructor ? null : "没有 public 无参构造器";
+    }
+
+    /**
+     * 与 MyReflectionUtils.getFieldList 一致：子类字段在前，父类中未被同名覆盖的字段追加在后
+     */
+    private List<Property> collectProperties(TypeElement entity) {
+        Types types = env.getTypeUtils();
+        DeclaredType entityType = (DeclaredType) entity.asType();
+        MyTable table = entity.getAnnotation(MyTable.class);
+        List<ExecutableElement> methods = ElementFilter.methodsIn(env.getElementUtils().getAllMembers(entity));
+
+        Map<String, VariableElement> fields = new LinkedHashMap<>();
+        for (TypeElement type = entity; type != null && !type.getQualifiedName().contentEquals("java.lang.Object"); ) {
+            for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+                Set<Modifier> modifiers = field.getModifiers();
+                if (modifiers.contains(Modifier.STATIC) || modifiers.contains(Modifier.TRANSIENT)) continue;
+                fields.putIfAbsent(field.getSimpleName().toString(), field);
+            }
+            TypeMirror superclass = type.getSuperclass();
+            type = superclass.getKind() == TypeKind.DECLARED ? (TypeElement) types.asElement(superclass) : null;
+        }
+
+        List<Property> properties = new ArrayList<>(fields.size());
+        for (VariableElement field : fields.values()) {
+            String name = field.getSimpleName().toString();
+            TypeMirror type = types.asMemberOf(entityType, field);
+            String typeName = typeName(type);
+            if (typeName == null) return null;
+            String capitalized = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+
+            String setter = null;
+            String getter = null;
+            for (ExecutableElement method : methods) {
+                Set<Modifier> modifiers = method.getModifiers();
+                if (!modifiers.contains(Modifier.PUBLIC) || modifiers.contains(Modifier.STATIC)) continue;
+                String methodName = method.getSimpleName().toString();
+                if (methodName.equals("set" + capitalized) && method.getParameters().size() == 1
+                        && types.isSameType(types.erasure(method.getParameters().get(0).asType()), types.erasure(type))) {
+                    setter = methodName;
+                } else if (method.getParameters().isEmpty()
+                        && (methodName.equals("get" + capitalized) || (type.getKind() == TypeKind.BOOLEAN && methodName.equals("is" + capitalized)))
+                        && types.isAssignable(types.erasure(method.getReturnType()), types.erasure(type))) {
+                    getter = methodName;
+                }
+            }
+            if (setter == null || getter == null) return null;
+
+            String column;
+            if (name.equals(table.pkField())) {
+                column = table.pkColumn();
+            } else if (name.equals(table.delField())) {
+                column = table.delColumn();
+            } else {
+                MyField myField = field.getAnnotation(MyField.class);
+                column = (myField != null && !myField.value().isBlank()) ? myField.value().trim() : name;
+            }
+            List<String> keys = new ArrayList<>(2);
+            keys.add(column.toLowerCase(Locale.US));
+            String underscore = underscoreName(column);
+            if (!keys.get(0).equals(underscore)) keys.add(underscore);
+            properties.add(new Property(name, typeName, type.getKind().isPrimitive(), setter, getter, keys));
+        }
+        return properties;
+    }
+
+    /**
+     * 源码中可直接引用的类型名（已擦除泛型参数），类型变量等无法引用时返回 null
+     */
+    private String typeName(TypeMirror type) {
+        if (type.getKind().isPrimitive()) return type.getKind().name().toLowerCase(Locale.US);
+        if (type instanceof ArrayType array) {
+            String component = typeName(array.getComponentType());
+            return component == null ? null : component + "[]";
+        }
+        if (type instanceof DeclaredType declared) {
+            return ((TypeElement) declared.asElement()).getQualifiedName().toString();
+        }
+        return null;
+    }
+
+    private static String underscoreName(String name) {
+        StringBuilder result = new StringBuilder();
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (Character.isUpperCase(c)) {
+                result.append('_').append(Character.toLowerCase(c));
+            } else {
+                result.append(c);
+            }
+        }
+        return result.toString();
+    }
+
+    private static String render(String packageName, String accessorName, String entity, List<Property> properties) {
+        // 多个属性得到相同列名时后登记的生效，与 HashMap.put 一致
+        Map<String, Integer> keyIndex = new LinkedHashMap<>();
+        for (int i = 0; i < properties.size(); i++) {
+            for (String key : properties.get(i).keys()) {
+                keyIndex.remove(key);
+                keyIndex.put(key, i);
+            }
+        }
+        Map<Integer, Set<String>> keysByProperty = new LinkedHashMap<>();
+        keyIndex.forEach((key, index) -> keysByProperty.computeIfAbsent(index, k -> new LinkedHashSet<>()).add(key));
+
+        StringBuilder s = new StringBuilder(4096);
+        if (!packageName.isEmpty()) s.append("package ").append(packageName).append(";\n\n");
+        s.append("import io.github.mocanjie.base.myjpa.accessor.EntityAccessor;\n")
+                .append("import io.github.mocanjie.base.myjpa.accessor.GeneratedParameterSource;\n")
+                .append("import io.github.mocanjie.base.myjpa.accessor.GeneratedRowMapper;\n")
+                .append("import org.springframework.jdbc.core.RowMapper;\n")
+                .append("import org.springframework.jdbc.core.namedparam.SqlParameterSource;\n\n")
+                .append("import java.sql.ResultSet;\n")
+                .append("import java.sql.SQLException;\n\n")
+                .append("/**\n * ").append(entity).append(" 的行映射器与参数绑定器，由 MyTableAnnotationProcessor 生成，请勿修改\n */\n")
+                .append("@javax.annotation.processing.Generated(\"io.github.mocanjie.base.myjpa.processor.MyTableAnnotationProcessor\")\n")
+                .append("@SuppressWarnings({\"unchecked\", \"rawtypes\"})\n")
+                .append("public final class ").append(accessorName).append(" implements EntityAccessor<").append(entity).append("> {\n\n")
+                .append("    private final Mapper mapper = new Mapper();\n\n")
+                .append("    @Override\n    public Class<").append(entity).append("> entityClass() {\n        return ").append(entity).append(".class;\n    }\n\n")
+                .append("    @Override\n    public RowMapper<").append(entity).append("> rowMapper() {\n        return mapper;\n    }\n\n")
+                .append("    @Override\n    public SqlParameterSource parameterSource(").append(entity).append(" entity) {\n        return new Params(entity);\n    }\n\n");
+
+        // 行映射器
+        s.append("    static final class Mapper extends GeneratedRowMapper<").append(entity).append("> {\n\n")
+                .append("        @Override\n        protected int propertyIndex(String column) {\n            return switch (column) {\n");
+        keysByProperty.forEach((index, keys) -> {
+            s.append("                case ");
+            int n = 0;
+            for (String key : keys) s.append(n++ > 0 ? ", " : "").append(literal(key));
+            s.append(" -> ").append(index).append(";\n");
+        });
+        s.append("                default -> -1;\n            };\n        }\n\n")
+                .append("        @Override\n        protected ").append(entity).append(" newInstance() {\n            return new ").append(entity).append("();\n        }\n\n")
+                .append("        @Override\n        protected void read(").append(entity)
+                .append(" entity, int property, ResultSet rs, int column) throws SQLException {\n            switch (property) {\n");
+        for (int i = 0; i < properties.size(); i++) {
+            s.append("                case ").append(i).append(" -> ").append(readStatement(properties.get(i))).append('\n');
+        }
+        s.append("                default -> throw new IllegalStateException(\"unknown property \" + property);\n")
+                .append("            }\n        }\n    }\n\n");
+
+        // 参数绑定器
+        s.append("    static final class Params extends GeneratedParameterSource<").append(entity).append("> {\n\n")
+                .append("        Params(").append(entity).append(" entity) {\n            super(entity);\n        }\n\n")
+                .append("        @Override\n        protected Class<?> propertyType(String paramName) {\n            return switch (paramName) {\n");
+        for (Property p : properties) {
+            s.append("                case ").append(literal(p.name())).append(" -> ").append(p.type()).append(".class;\n");
+        }
+        s.append("                default -> null;\n            };\n        }\n\n")
+                .append("        @Override\n        public Object getValue(String paramName) {\n            return switch (paramName) {\n");
+        for (Property p : properties) {
+            s.append("                case ").append(literal(p.name())).append(" -> entity.").append(p.getter()).append("();\n");
+        }
+        s.append("                default -> fallback().getValue(paramName);\n            };\n        }\n    }\n}\n");
+        return s.toString();
+    }
+
+    private static String readStatement(Property p) {
+        String set = "entity." + p.setter() + "(";
+        String getter = GETTERS.get(p.type());
+        if (getter != null && p.primitive()) {
+            String isNull = p.type().equals("boolean") ? "!v" : "v == 0";
+            return "{ " + p.type() + " v = rs." + getter + "(column); if (" + isNull + " && rs.wasNull()) throw nullPrimitive(entity, "
+                    + literal(p.name()) + ", " + p.type() + ".class); " + set + "v); }";
+        }
+        if (getter != null && (p.type().equals("java.lang.String") || p.type().equals("java.math.BigDecimal"))) {
+            return set + "rs." + getter + "(column));";
+        }
+        if (getter != null) {
+            String primitive = getter.substring(3).toLowerCase(Locale.US);
+            String isNull = primitive.equals("boolean") ? "!v" : "v == 0";
+            return "{ " + primitive + " v = rs." + getter + "(column); " + set + isNull + " && rs.wasNull() ? null : "
+                    + p.type() + ".valueOf(v)); }";
+        }
+        if (p.type().equals("char")) {
+            return "{ Object v = readObject(entity, " + literal(p.name()) + ", rs, column, Character.class); if (v == null) throw nullPrimitive(entity, "
+                    + literal(p.name()) + ", char.class); " + set + "(Character) v); }";
+        }
+        String reader = TEMPORALS.contains(p.type()) ? "readTemporal" : "readObject";
+        return set + "(" + p.type() + ") " + reader + "(entity, " + literal(p.name()) + ", rs, column, " + p.type() + ".class));";
+    }
+
+    private static String literal(String value) {
+        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+}
@@ -24,14 +24,23 @@ import java.util.Set;
  * 违反任一规则将产生 {@link Diagnostic.Kind#ERROR} 级别的编译错误，构建无法通过。
  *
  * <p>注意：抽象类和接口不受 Rule-2 约束，允许作为中间基类使用。
+ *
+ * <p>同时为符合规范的实体生成访问器 {@code 实体类名_MyJpa}（行映射器与参数绑定器，见 {@link EntityAccessorGenerator}），
+ * 可通过编译参数 {@code -Amyjpa.generateAccessors=false} 关闭。
  */
 @SupportedAnnotationTypes("*")
+@SupportedOptions(MyTableAnnotationProcessor.GENERATE_ACCESSORS_OPTION)
 public class MyTableAnnotationProcessor extends AbstractProcessor {
 
+    static final String GENERATE_ACCESSORS_OPTION = "myjpa.generateAccessors";
+
     private static final String MY_TABLE_ENTITY_FQN = "io.github.mocanjie.base.myjpa.MyTableEntity";
 
     private TypeMirror myTableEntityType;
 
+    /** 访问器生成器，运行时类型不在类路径上或已关闭时为 null */
+    private EntityAccessorGenerator accessorGenerator;
+
     @Override
     public synchronized void init(ProcessingEnvironment processingEnv) {
         super.init(processingEnv);
@@ -39,6 +48,10 @@ public class MyTableAnnotationProcessor extends AbstractProcessor {
         if (entityTypeElement != null) {
             myTableEntityType = entityTypeElement.asType();
         }
+        if (!"false".equalsIgnoreCase(processingEnv.getOptions().get(GENERATE_ACCESSORS_OPTION))
+                && processingEnv.getElementUtils().getTypeElement(EntityAccessorGenerator.ACCESSOR_FQN) != null) {
+            accessorGenerator = new EntityAccessorGenerator(processingEnv);
+        }
     }
 
     @Override
@@ -48,8 +61,12 @@ public class MyTableAnnotationProcessor extends AbstractProcessor {
 
     @Override
     public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
-        // 跳过最终合成轮次；MyTableEntity 未在类路径上时跳过（自身编译时的边界情况）
-        if (roundEnv.processingOver() || myTableEntityType == null) {
+        // 最终合成轮次只写出访问器索引；MyTableEntity 未在类路径上时跳过（自身编译时的边界情况）
+        if (roundEnv.processingOver()) {
+            if (accessorGenerator != null) accessorGenerator.writeIndex();
+            return false;
+        }
+        if (myTableEntityType == null) {
             return false;
         }
 
@@ -65,6 +82,8 @@ public class MyTableAnnotationProcessor extends AbstractProcessor {
                         "[@MyTable 规范] " + typeElement.getQualifiedName()
                                 + " 标注了 @MyTable 但未实现 MyTableEntity 接口",
                         element);
+            } else if (accessorGenerator != null) {
+                accessorGenerator.generate(typeElement);
             }
         }
 
@@ -0,0 +1,108 @@
+package io.github.mocanjie.base.myjpa.rowmapper;
+
+import org.springframework.beans.BeanInstantiationException;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.lang.Nullable;
+
+import java.beans.ConstructorProperties;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.RecordComponent;
+
+/**
+ * 构造器绑定：record 的规范构造器，或标注 {@link ConstructorProperties} 的 public 构造器
+ * 参数名与参数类型在映射器初始化时解析一次，实例化时通过展开参数数组的 MethodHandle 一次传入全部参数，
+ * 不再先调用无参构造器再逐个 setter 赋值，结果类型可以是不可变对象
+ */
+final class ConstructorBinding {
+
+    private final Class<?> type;
+
+    /** 签名为 (Object[])Object 的构造器句柄 */
+    private final MethodHandle constructor;
+
+    private final MappedProperty[] parameters;
+
+    /** 参数缺失时传入的值：基本类型为默认值，其余为 null */
+    private final Object[] defaults;
+
+    private ConstructorBinding(Class<?> type, Constructor<?> constructor, String[] names, @Nullable ConversionService conversionService) {
+        this.type = type;
+        int count = names.length;
+        this.parameters = new MappedProperty[count];
+        this.defaults = new Object[count];
+        for (int i = 0; i < count; i++) {
+            parameters[i] = MappedProperty.ofParameter(type, constructor, i, names[i], conversionService);
+            Class<?> parameterType = constructor.getParameterTypes()[i];
+            defaults[i] = parameterType.isPrimitive() ? Array.get(Array.newInstance(parameterType, 1), 0) : null;
+        }
+        try {
+            MethodHandle handle = MethodHandles.privateLookupIn(type, MethodHandles.lookup()).unreflectConstructor(constructor);
+            this.constructor = handle.asType(MethodType.genericMethodType(count)).asSpreader(Object[].class, count);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("无法访问 " + constructor, e);
+        }
+    }
+
+    /**
+     * 类型的构造器绑定，不是 record 且没有 {@link ConstructorProperties} 构造器时返回 null
+     */
+    @Nullable
+    static ConstructorBinding forClass(Class<?> type, @Nullable ConversionService conversionService) {
+        if (type.isInterface() || Modifier.isAbstract(type.getModifiers())) return null;
+        if (type.isRecord()) {
+            RecordComponent[] components = type.getRecordComponents();
+            Class<?>[] types = new Class<?>[components.length];
+            String[] names = new String[components.length];
+            for (int i = 0; i < components.length; i++) {
+                types[i] = components[i].getType();
+                names[i] = components[i].getName();
+            }
+            try {
+                return new ConstructorBinding(type, type.getDeclaredConstructor(types), names, conversionService);
+            } catch (NoSuchMethodException e) {
+                return null;
+            }
+        }
+        Constructor<?> selected = null;
+        for (Constructor<?> candidate : type.getConstructors()) {
+            ConstructorProperties properties = candidate.getAnnotation(ConstructorProperties.class);
+            if (properties != null && properties.value().length == candidate.getParameterCount()
+                    && (selected == null || candidate.getParameterCount() > selected.getParameterCount())) {
+                selected = candidate;
+            }
+        }
+        return selected != null
+                ? new ConstructorBinding(type, selected, selected.getAnnotation(ConstructorProperties.class).value(), conversionService)
+                : null;
+    }
+
+    MappedProperty[] getParameters() {
+        return parameters;
+    }
+
+    /**
+     * 参数缺失或允许 null 写入基本类型时使用的值
+     */
+    @Nullable
+    Object getDefault(int index) {
+        return defaults[index];
+    }
+
+    /**
+     * 以转换后的参数调用构造器
+     */
+    Object newInstance(Object[] args) {
+        try {
+            return (Object) constructor.invokeExact(args);
+        } catch (Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new BeanInstantiationException(type, "构造器抛出异常", e);
+        }
+    }
+}
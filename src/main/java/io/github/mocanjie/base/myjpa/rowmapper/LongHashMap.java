@@ -0,0 +1,74 @@
+package io.github.mocanjie.base.myjpa.rowmapper;
+
+/**
+ * long 键的开放寻址哈希表，键不装箱；值不能为 null（null 表示空槽）
+ * 非线程安全，仅供单次查询内部使用
+ */
+final class LongHashMap<V> {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private long[] keys = new long[INITIAL_CAPACITY];
+
+    private Object[] values = new Object[INITIAL_CAPACITY];
+
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    V get(long key) {
+        int mask = keys.length - 1;
+        for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+            Object value = values[slot];
+            if (value == null) return null;
+            if (keys[slot] == key) return (V) value;
+        }
+    }
+
+    void put(long key, V value) {
+        if ((size + 1) << 1 > keys.length) {
+            resize(keys.length << 1);
+        }
+        if (insert(keys, values, key, value)) {
+            size++;
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return 是否新增了键
+     */
+    private static boolean insert(long[] keys, Object[] values, long key, Object value) {
+        int mask = keys.length - 1;
+        for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+            if (values[slot] == null) {
+                keys[slot] = key;
+                values[slot] = value;
+                return true;
+            }
+            if (keys[slot] == key) {
+                values[slot] = value;
+                return false;
+            }
+        }
+    }
+
+    private void resize(int capacity) {
+        long[] newKeys = new long[capacity];
+        Object[] newValues = new Object[capacity];
+        for (int i = 0; i < keys.length; i++) {
+            if (values[i] != null) {
+                insert(newKeys, newValues, keys[i], values[i]);
+            }
+        }
+        keys = newKeys;
+        values = newValues;
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,420 @@
+package io.github.mocanjie.base.myjpa.rowmapper;
+
+import org.springframework.beans.NotWritablePropertyException;
+import org.springframework.beans.SimpleTypeConverter;
+import org.springframework.beans.TypeMismatchException;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.convert.ConversionException;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.TypeDescriptor;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
+
+import java.beans.PropertyChangeEvent;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.VarHandle;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.util.function.BiConsumer;
+import java.util.function.ObjDoubleConsumer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ObjLongConsumer;
+import java.util.function.UnaryOperator;
+
+/**
+ * 行映射的目标属性：预编译的写入器与按源值类型缓存的转换器
+ * <ul>
+ *   <li>有 setter 时通过 LambdaMetafactory 生成 {@code BiConsumer}，调用开销与直接调用 setter 相同；
+ *       无法生成时（如 JDK 内部类）退回 MethodHandle</li>
+ *   <li>实体字段没有 setter 时通过 VarHandle 直接写字段</li>
+ *   <li>JDBC 取出的值类型与属性类型不符时，按（源值类型，属性类型）解析一次转换器并缓存，
+ *       优先使用 ConversionService，不支持时使用 PropertyEditor</li>
+ *   <li>按属性类型选定列读取方式：int / long / double / boolean 以 {@code getInt} 等读取后直接写入基本类型，
+ *       不经过装箱；包装类型、String、BigDecimal、java.time 类型使用对应的专用 getter，其余类型交给
+ *       {@link JdbcUtils#getResultSetValue(ResultSet, int, Class)}</li>
+ * </ul>
+ * 实例在映射器初始化时创建，映射期间只读（转换器缓存为不可变快照），可被多线程共享
+ */
+public final class MappedProperty {
+
+    private static final UnaryOperator<Object> IDENTITY = value -> value;
+
+    /** 读取一列并写入属性，按属性类型在创建时选定 */
+    @FunctionalInterface
+    private interface ColumnReader {
+        void read(Object bean, ResultSet rs, int index) throws SQLException;
+    }
+
+    /** boolean 属性写入器 */
+    @FunctionalInterface
+    public interface ObjBooleanConsumer {
+        void accept(Object bean, boolean value);
+    }
+
+    /** 某个源值类型对应的转换器 */
+    private record Conversion(Class<?> sourceType, UnaryOperator<Object> converter) {}
+
+    private final Class<?> beanClass;
+    private final String name;
+    private final Class<?> type;
+    private final TypeDescriptor typeDescriptor;
+    @Nullable
+    private final BiConsumer<Object, Object> writer;
+    @Nullable
+    private final ConversionService conversionService;
+    private final ColumnReader reader;
+
+    /** 最近一次的转换器，JDBC 同一列返回的值类型固定，单条目即可命中 */
+    private volatile Conversion lastConversion;
+
+    /**
+     * @param primitiveWriter 基本类型属性的免装箱写入器（ObjIntConsumer / ObjLongConsumer / ObjDoubleConsumer /
+     *                        ObjBooleanConsumer），其他属性为 null
+     */
+    private MappedProperty(Class<?> beanClass, String name, Class<?> type, TypeDescriptor typeDescriptor,
+                           @Nullable BiConsumer<Object, Object> writer, @Nullable Object primitiveWriter,
+                           @Nullable ConversionService conversionService) {
+        this.beanClass = beanClass;
+        this.name = name;
+        this.type = type;
+        this.typeDescriptor = typeDescriptor;
+        this.writer = writer;
+        this.conversionService = conversionService;
+        this.reader = selectReader(primitiveWriter);
+    }
+
+    /**
+     * 按 setter 写入的属性
+     *
+     * @param setter 属性的写方法，为 null 时写入会抛出 {@link NotWritablePropertyException}
+     */
+    public static MappedProperty ofSetter(Class<?> beanClass, String name, Class<?> type, @Nullable Method setter,
+                                          @Nullable ConversionService conversionService) {
+        if (setter == null) {
+            return new MappedProperty(beanClass, name, type, TypeDescriptor.valueOf(type), null, null, conversionService);
+        }
+        MethodHandles.Lookup lookup = lookup(setter.getDeclaringClass());
+        MethodHandle handle;
+        try {
+            handle = lookup.unreflect(setter);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("无法访问 " + setter, e);
+        }
+        Class<?> paramType = setter.getParameterTypes()[0];
+        return new MappedProperty(beanClass, name, type, new TypeDescriptor(new MethodParameter(setter, 0)),
+                setterWriter(lookup, handle, setter), primitiveWriter(lookup, handle, setter.getDeclaringClass(), paramType),
+                conversionService);
+    }
+
+    /**
+     * 直接写字段的属性，final 字段不可写
+     */
+    public static MappedProperty ofField(Class<?> beanClass, Field field, @Nullable ConversionService conversionService) {
+        if (Modifier.isFinal(field.getModifiers())) {
+            return new MappedProperty(beanClass, field.getName(), field.getType(), new TypeDescriptor(field), null, null, conversionService);
+        }
+        MethodHandle handle;
+        try {
+            VarHandle varHandle = lookup(field.getDeclaringClass()).unreflectVarHandle(field);
+            handle = varHandle.toMethodHandle(VarHandle.AccessMode.SET);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("无法访问 " + field, e);
+        }
+        return new MappedProperty(beanClass, field.getName(), field.getType(), new TypeDescriptor(field),
+                handleWriter(handle.asType(MethodType.methodType(void.class, Object.class, Object.class))),
+                primitiveWriter(null, handle, field.getDeclaringClass(), field.getType()), conversionService);
+    }
+
+    /**
+     * 构造器参数：不可写，只用于把列值转换为参数类型
+     */
+    public static MappedProperty ofParameter(Class<?> beanClass, Constructor<?> constructor, int index, String name,
+                                             @Nullable ConversionService conversionService) {
+        return new MappedProperty(beanClass, name, constructor.getParameterTypes()[index],
+                new TypeDescriptor(new MethodParameter(constructor, index)), null, null, conversionService);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Class<?> getType() {
+        return type;
+    }
+
+    public boolean isWritable() {
+        return writer != null;
+    }
+
+    /**
+     * 转换为属性类型后写入
+     *
+     * @throws TypeMismatchException 值无法转换为属性类型，或 null 写入基本类型属性
+     */
+    public void write(Object bean, @Nullable Object value) {
+        if (writer == null) {
+            throw new NotWritablePropertyException(beanClass, name);
+        }
+        writer.accept(bean, convertValue(bean, value));
+    }
+
+    /**
+     * 转换为属性类型，不写入
+     *
+     * @param source 异常中记录的来源对象
+     * @throws TypeMismatchException 值无法转换为属性类型，或基本类型属性的值为 null
+     */
+    @Nullable
+    public Object convertValue(Object source, @Nullable Object value) {
+        if (value == null) {
+            if (type.isPrimitive()) {
+                throw new TypeMismatchException(new PropertyChangeEvent(source, name, null, null), type);
+            }
+            return null;
+        }
+        try {
+            return convert(value);
+        } catch (ConversionException e) {
+            // 与 BeanWrapper 一致，转换失败统一抛出 TypeMismatchException
+            throw new TypeMismatchException(new PropertyChangeEvent(source, name, null, value), type, e);
+        }
+    }
+
+    /**
+     * 读取一列并写入属性，读取方式按属性类型预先选定
+     *
+     * @throws TypeMismatchException 值无法转换为属性类型，或 null 写入基本类型属性（{@code getValue()} 为 null）
+     */
+    public void read(Object bean, ResultSet rs, int index) throws SQLException {
+        reader.read(bean, rs, index);
+    }
+
+    @SuppressWarnings("unchecked")
+    private ColumnReader selectReader(@Nullable Object primitiveWriter) {
+        if (writer == null) {
+            return (bean, rs, index) -> write(bean, null);
+        }
+        BiConsumer<Object, Object> w = writer;
+        if (primitiveWriter != null) {
+            // 基本类型：值为 0 / false 时才需要判断 wasNull，null 交给 write 按 TypeMismatchException 处理
+            if (type == int.class) {
+                ObjIntConsumer<Object> intWriter = (ObjIntConsumer<Object>) primitiveWriter;
+                return (bean, rs, index) -> {
+                    int value = rs.getInt(index);
+                    if (value == 0 && rs.wasNull()) write(bean, null);
+                    else intWriter.accept(bean, value);
+                };
+            }
+            if (type == long.class) {
+                ObjLongConsumer<Object> longWriter = (ObjLongConsumer<Object>) primitiveWriter;
+                return (bean, rs, index) -> {
+                    long value = rs.getLong(index);
+                    if (value == 0L && rs.wasNull()) write(bean, null);
+                    else longWriter.accept(bean, value);
+                };
+            }
+            if (type == double.class) {
+                ObjDoubleConsumer<Object> doubleWriter = (ObjDoubleConsumer<Object>) primitiveWriter;
+                return (bean, rs, index) -> {
+                    double value = rs.getDouble(index);
+                    if (value == 0d && rs.wasNull()) write(bean, null);
+                    else doubleWriter.accept(bean, value);
+                };
+            }
+            if (type == boolean.class) {
+                ObjBooleanConsumer booleanWriter = (ObjBooleanConsumer) primitiveWriter;
+                return (bean, rs, index) -> {
+                    boolean value = rs.getBoolean(index);
+                    if (!value && rs.wasNull()) write(bean, null);
+                    else booleanWriter.accept(bean, value);
+                };
+            }
+        }
+        if (type == Integer.class) {
+            return (bean, rs, index) -> {
+                int value = rs.getInt(index);
+                w.accept(bean, value == 0 && rs.wasNull() ? null : value);
+            };
+        }
+        if (type == Long.class) {
+            return (bean, rs, index) -> {
+                long value = rs.getLong(index);
+                w.accept(bean, value == 0L && rs.wasNull() ? null : value);
+            };
+        }
+        if (type == Double.class) {
+            return (bean, rs, index) -> {
+                double value = rs.getDouble(index);
+                w.accept(bean, value == 0d && rs.wasNull() ? null : value);
+            };
+        }
+        if (type == Boolean.class) {
+            return (bean, rs, index) -> {
+                boolean value = rs.getBoolean(index);
+                w.accept(bean, !value && rs.wasNull() ? null : value);
+            };
+        }
+        if (type == String.class) {
+            return (bean, rs, index) -> w.accept(bean, rs.getString(index));
+        }
+        if (type == BigDecimal.class) {
+            return (bean, rs, index) -> w.accept(bean, rs.getBigDecimal(index));
+        }
+        if (type == LocalDateTime.class || type == LocalDate.class || type == LocalTime.class || type == OffsetDateTime.class) {
+            return (bean, rs, index) -> {
+                Object value;
+                try {
+                    value = rs.getObject(index, type);
+                } catch (SQLFeatureNotSupportedException | AbstractMethodError e) {
+                    // 驱动不支持 JDBC 4.2 getObject(int, Class) 时按 Spring 的通用方式读取
+                    value = JdbcUtils.getResultSetValue(rs, index, type);
+                }
+                write(bean, value);
+            };
+        }
+        return (bean, rs, index) -> write(bean, JdbcUtils.getResultSetValue(rs, index, type));
+    }
+
+    /**
+     * 基本类型属性的免装箱写入器：setter 通过 LambdaMetafactory 生成，字段或生成失败时包装 MethodHandle；
+     * 只为 int / long / double / boolean 生成，其他类型返回 null
+     *
+     * @param lookup 目标类的 Lookup，为 null 时直接包装 handle
+     * @param handle 写入句柄，参数为（目标对象，属性值）
+     */
+    @Nullable
+    private static Object primitiveWriter(@Nullable MethodHandles.Lookup lookup, MethodHandle handle,
+                                          Class<?> declaringClass, Class<?> valueType) {
+        Class<?> writerType;
+        if (valueType == int.class) writerType = ObjIntConsumer.class;
+        else if (valueType == long.class) writerType = ObjLongConsumer.class;
+        else if (valueType == double.class) writerType = ObjDoubleConsumer.class;
+        else if (valueType == boolean.class) writerType = ObjBooleanConsumer.class;
+        else return null;
+        if (lookup != null) {
+            try {
+                CallSite site = LambdaMetafactory.metafactory(lookup, "accept", MethodType.methodType(writerType),
+                        MethodType.methodType(void.class, Object.class, valueType), handle,
+                        MethodType.methodType(void.class, declaringClass, valueType));
+                return site.getTarget().invoke();
+            } catch (Throwable ignore) {
+                // 退回 MethodHandle
+            }
+        }
+        MethodHandle exact = handle.asType(MethodType.methodType(void.class, Object.class, valueType));
+        if (valueType == int.class) {
+            return (ObjIntConsumer<Object>) (bean, value) -> {
+                try {
+                    exact.invokeExact(bean, value);
+                } catch (Throwable e) {
+                    throw rethrow(e);
+                }
+            };
+        }
+        if (valueType == long.class) {
+            return (ObjLongConsumer<Object>) (bean, value) -> {
+                try {
+                    exact.invokeExact(bean, value);
+                } catch (Throwable e) {
+                    throw rethrow(e);
+                }
+            };
+        }
+        if (valueType == double.class) {
+            return (ObjDoubleConsumer<Object>) (bean, value) -> {
+                try {
+                    exact.invokeExact(bean, value);
+                } catch (Throwable e) {
+                    throw rethrow(e);
+                }
+            };
+        }
+        return (ObjBooleanConsumer) (bean, value) -> {
+            try {
+                exact.invokeExact(bean, value);
+            } catch (Throwable e) {
+                throw rethrow(e);
+            }
+        };
+    }
+
+    private static RuntimeException rethrow(Throwable e) {
+        if (e instanceof RuntimeException re) return re;
+        if (e instanceof Error error) throw error;
+        return new IllegalStateException(e);
+    }
+
+    private Object convert(Object value) {
+        Class<?> sourceType = value.getClass();
+        Conversion conversion = lastConversion;
+        if (conversion == null || conversion.sourceType() != sourceType) {
+            conversion = new Conversion(sourceType, resolveConverter(sourceType));
+            lastConversion = conversion;
+        }
+        return conversion.converter().apply(value);
+    }
+
+    private UnaryOperator<Object> resolveConverter(Class<?> sourceType) {
+        if (ClassUtils.resolvePrimitiveIfNecessary(type).isAssignableFrom(sourceType)) {
+            return IDENTITY;
+        }
+        TypeDescriptor sourceDescriptor = TypeDescriptor.valueOf(sourceType);
+        ConversionService cs = conversionService;
+        if (cs != null && cs.canConvert(sourceDescriptor, typeDescriptor)) {
+            return value -> cs.convert(value, sourceDescriptor, typeDescriptor);
+        }
+        // ConversionService 不支持时与 BeanWrapper 一致，退回 PropertyEditor；SimpleTypeConverter 非线程安全，每次新建
+        return value -> {
+            SimpleTypeConverter typeConverter = new SimpleTypeConverter();
+            typeConverter.setConversionService(cs);
+            return typeConverter.convertIfNecessary(value, type, typeDescriptor);
+        };
+    }
+
+    private static MethodHandles.Lookup lookup(Class<?> declaringClass) {
+        try {
+            return MethodHandles.privateLookupIn(declaringClass, MethodHandles.lookup());
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("无法访问 " + declaringClass, e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static BiConsumer<Object, Object> setterWriter(MethodHandles.Lookup lookup, MethodHandle handle, Method setter) {
+        try {
+            Class<?> paramType = ClassUtils.resolvePrimitiveIfNecessary(setter.getParameterTypes()[0]);
+            // 链式 setter 的返回值由 LambdaMetafactory 丢弃；包装类型到基本类型参数的拆箱同样由其完成
+            CallSite site = LambdaMetafactory.metafactory(lookup, "accept", MethodType.methodType(BiConsumer.class),
+                    MethodType.methodType(void.class, Object.class, Object.class), handle,
+                    MethodType.methodType(void.class, setter.getDeclaringClass(), paramType));
+            return (BiConsumer<Object, Object>) site.getTarget().invokeExact();
+        } catch (Throwable e) {
+            return handleWriter(handle.asType(MethodType.methodType(void.class, Object.class, Object.class)));
+        }
+    }
+
+    private static BiConsumer<Object, Object> handleWriter(MethodHandle handle) {
+        return (bean, value) -> {
+            try {
+                handle.invokeExact(bean, value);
+            } catch (Throwable e) {
+                throw rethrow(e);
+            }
+        };
+    }
+}
@@ -1,6 +1,7 @@
 package io.github.mocanjie.base.myjpa.rowmapper;
 
 import io.github.mocanjie.base.myjpa.annotation.MyField;
+import io.github.mocanjie.base.myjpa.annotation.MyTable;
 import io.github.mocanjie.base.myjpa.builder.TableInfoBuilder;
 import io.github.mocanjie.base.myjpa.metadata.TableInfo;
 import org.apache.commons.logging.Log;
@@ -10,22 +11,26 @@ import org.springframework.core.convert.ConversionService;
 import org.springframework.core.convert.support.DefaultConversionService;
 import org.springframework.dao.DataRetrievalFailureException;
 import org.springframework.dao.InvalidDataAccessApiUsageException;
-import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.support.JdbcUtils;
 import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
 import org.springframework.util.StringUtils;
 
 import java.beans.PropertyDescriptor;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Array;
 import java.lang.reflect.Field;
+import java.lang.reflect.Method;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 
-public class MyBeanPropertyRowMapper<T> implements RowMapper<T> {
+public class MyBeanPropertyRowMapper<T> implements ReusableRowMapper<T> {
 
 
     protected final Log logger = LogFactory.getLog(getClass());
@@ -46,12 +51,56 @@ public class MyBeanPropertyRowMapper<T> implements RowMapper<T> {
 
     /** Map of the fields we provide mapping for. */
     @Nullable
-    private Map<String, PropertyDescriptor> mappedFields;
+    private Map<String, MappedProperty> mappedFields;
 
     /** Set of bean properties we provide mapping for. */
     @Nullable
     private Set<String> mappedProperties;
 
+    /** 列名前缀：非空时只映射以此开头的列（不区分大小写），去掉前缀后再匹配属性 */
+    @Nullable
+    private String columnPrefix;
+
+    /** 映射元数据是否完整：@MyTable 实体未取到 TableInfo 时为 false */
+    private boolean metadataComplete = true;
+
+    /** record / @ConstructorProperties 类型的构造器绑定，普通 JavaBean 为 null */
+    @Nullable
+    private ConstructorBinding constructorBinding;
+
+    /** 列名 → 构造器参数序号 */
+    private Map<String, Integer> constructorParameters = Collections.emptyMap();
+
+    /** 列计划缓存最大条目数，超出后整体清空重建 */
+    private static final int MAX_PLAN_CACHE_SIZE = 256;
+
+    /**
+     * 一种结果列组合的映射计划：第 i 个映射列的列序号与目标属性
+     *
+     * @param indexes         列序号（从 1 开始）
+     * @param columns         列名，用于异常信息
+     * @param properties      目标属性
+     * @param parameterIndexes 每个构造器参数对应的列序号，结果集中没有该列时为 0
+     * @param fullyPopulated  是否覆盖全部映射属性
+     */
+    private record ColumnPlan(int[] indexes, String[] columns, MappedProperty[] properties, int[] parameterIndexes,
+                              boolean fullyPopulated) {}
+
+    /** 当前线程正在读取的结果集及其计划，同一结果集的后续行直接复用 */
+    private record ActivePlan(WeakReference<ResultSet> resultSet, ColumnPlan plan) {}
+
+    /** 列标签签名 → 映射计划，跨多次执行复用 */
+    private volatile Map<String, ColumnPlan> columnPlans = new ConcurrentHashMap<>();
+
+    private final ThreadLocal<ActivePlan> activePlan = new ThreadLocal<>();
+
+    /** 子类未覆盖 getColumnValue 时使用 {@link MappedProperty} 按属性类型预选的读取方式 */
+    private final boolean specializedReaders = !overridesColumnValue(getClass());
+
+    /** 传给 {@link #constructMappedInstance} 的类型转换器，按需创建 */
+    @Nullable
+    private volatile TypeConverter typeConverter;
+
 
     /**
      * Create a new {@code BeanPropertyRowMapper} for bean-style configuration.
@@ -122,6 +171,19 @@ public class MyBeanPropertyRowMapper<T> implements RowMapper<T> {
         return this.checkFullyPopulated;
     }
 
+    /**
+     * 只映射以 columnPrefix 开头的列，去掉前缀后按属性名匹配，用于从连接查询的一行中映射关联对象
+     */
+    public void setColumnPrefix(@Nullable String columnPrefix) {
+        this.columnPrefix = (StringUtils.hasLength(columnPrefix) ? columnPrefix.toLowerCase(Locale.US) : null);
+        this.columnPlans = new ConcurrentHashMap<>();
+    }
+
+    @Nullable
+    public String getColumnPrefix() {
+        return this.columnPrefix;
+    }
+
     /**
      * Set whether we're defaulting Java primitives in the case of mapping a null value
      * from corresponding database fields.
@@ -149,6 +211,11 @@ public class MyBeanPropertyRowMapper<T> implements RowMapper<T> {
      */
     public void setConversionService(@Nullable ConversionService conversionService) {
         this.conversionService = conversionService;
+        this.typeConverter = null;
+        if (this.mappedClass != null) {
+            // 属性转换器绑定了 ConversionService，需要重新生成
+            initialize(this.mappedClass);
+        }
     }
 
     /**
@@ -170,6 +237,8 @@ public class MyBeanPropertyRowMapper<T> implements RowMapper<T> {
         this.mappedClass = mappedClass;
         this.mappedFields = new HashMap<>();
         this.mappedProperties = new HashSet<>();
+        this.metadataComplete = true;
+        this.columnPlans = new ConcurrentHashMap<>();
 
         try {
             TableInfo tableInfo = TableInfoBuilder.getTableInfo(mappedClass);
@@ -186,27 +255,69 @@ public class MyBeanPropertyRowMapper<T> implements RowMapper<T> {
                             annotation.value().trim():field.getName();
                 }
                 PropertyDescriptor pd = BeanUtils.getPropertyDescriptor(mappedClass, field.getName());
+                // 有 setter 时调用 setter，没有 setter 时直接写字段
+                MappedProperty property = (pd != null && pd.getWriteMethod() != null)
+                        ? MappedProperty.ofSetter(mappedClass, pd.getName(), pd.getPropertyType(), pd.getWriteMethod(), this.conversionService)
+                        : MappedProperty.ofField(mappedClass, field, this.conversionService);
                 String lowerCaseName = lowerCaseName(name);
-                this.mappedFields.put(lowerCaseName, pd);
+                this.mappedFields.put(lowerCaseName, property);
                 String underscoreName = underscoreName(name);
                 if (!lowerCaseName.equals(underscoreName)) {
-                    this.mappedFields.put(underscoreName, pd);
+                    this.mappedFields.put(underscoreName, property);
                 }
                 this.mappedProperties.add(field.getName());
             }
         }catch(Exception e){
+            // TableInfoBuilder 尚未初始化时实体按属性名映射，@MyField 与主键 / 删除列的映射缺失
+            this.metadataComplete = !mappedClass.isAnnotationPresent(MyTable.class);
             for (PropertyDescriptor pd : BeanUtils.getPropertyDescriptors(mappedClass)) {
                 if (pd.getWriteMethod() != null) {
+                    MappedProperty property = MappedProperty.ofSetter(mappedClass, pd.getName(), pd.getPropertyType(),
+                            pd.getWriteMethod(), this.conversionService);
                     String lowerCaseName = lowerCaseName(pd.getName());
-                    this.mappedFields.put(lowerCaseName, pd);
+                    this.mappedFields.put(lowerCaseName, property);
                     String underscoreName = underscoreName(pd.getName());
                     if (!lowerCaseName.equals(underscoreName)) {
-                        this.mappedFields.put(underscoreName, pd);
+                        this.mappedFields.put(underscoreName, property);
                     }
                     this.mappedProperties.add(pd.getName());
                 }
             }
         }
+        initConstructorBinding(mappedClass);
+    }
+
+    /**
+     * record 与 @ConstructorProperties 类型通过构造器一次传入参数：参数名按属性同样的规则登记列名，
+     * 同名属性不再通过 setter 赋值
+     */
+    private void initConstructorBinding(Class<T> mappedClass) {
+        this.constructorBinding = ConstructorBinding.forClass(mappedClass, this.conversionService);
+        this.constructorParameters = Collections.emptyMap();
+        if (this.constructorBinding == null) {
+            return;
+        }
+        Map<String, Integer> parameters = new HashMap<>();
+        MappedProperty[] params = this.constructorBinding.getParameters();
+        for (int i = 0; i < params.length; i++) {
+            String name = params[i].getName();
+            Field field = ReflectionUtils.findField(mappedClass, name);
+            MyField annotation = (field != null ? field.getAnnotation(MyField.class) : null);
+            String column = (annotation != null && StringUtils.hasText(annotation.value())) ? annotation.value().trim() : name;
+            parameters.putIfAbsent(lowerCaseName(column), i);
+            parameters.putIfAbsent(underscoreName(column), i);
+            this.mappedFields.remove(lowerCaseName(name));
+            this.mappedFields.remove(underscoreName(name));
+            this.mappedProperties.add(name);
+        }
+        this.constructorParameters = parameters;
+    }
+
+    /**
+     * 映射元数据是否完整，不完整的映射器不应被缓存复用
+     */
+    public boolean isMetadataComplete() {
+        return this.metadataComplete;
     }
 
     /**
@@ -219,6 +330,8 @@ public class MyBeanPropertyRowMapper<T> implements RowMapper<T> {
             this.mappedFields.remove(lowerCaseName(propertyName));
             this.mappedFields.remove(underscoreName(propertyName));
         }
+        this.constructorParameters.values().removeIf(i -> this.constructorBinding.getParameters()[i].getName().equals(propertyName));
+        this.columnPlans = new ConcurrentHashMap<>();
     }
 
     /**
@@ -261,90 +374,215 @@ public class MyBeanPropertyRowMapper<T> implements RowMapper<T> {
 
     /**
      * Extract the values for all columns in the current row.
-     * <p>Utilizes public setters and result set meta-data.
+     * <p>属性通过初始化时预编译的写入器赋值，不再为每行创建 BeanWrapper；
+     * 列与属性的对应关系每个结果集只解析一次（并按列标签签名跨执行缓存），逐行只遍历列序号数组。
      * @see java.sql.ResultSetMetaData
+     * @see MappedProperty
      */
     @Override
     public T mapRow(ResultSet rs, int rowNumber) throws SQLException {
-        BeanWrapperImpl bw = new BeanWrapperImpl();
-        initBeanWrapper(bw);
+        return mapRow(rs, rowNumber, null);
+    }
 
-        T mappedObject = constructMappedInstance(rs, bw);
-        bw.setBeanInstance(mappedObject);
+    /**
+     * 把当前行写入已有实例；通过构造器绑定的类型（record 等）无法复用，始终返回新实例。
+     * 复用时基本类型属性遇到 null 且允许默认值时写入默认值，避免残留上一行的值
+     */
+    @Override
+    public T mapRow(ResultSet rs, int rowNumber, @Nullable T target) throws SQLException {
+        ColumnPlan plan = getColumnPlan(rs, rowNumber);
+        if (isCheckFullyPopulated() && !plan.fullyPopulated()) {
+            throw new InvalidDataAccessApiUsageException("Given ResultSet does not contain all fields " +
+                    "necessary to populate object of " + this.mappedClass + ": " + this.mappedProperties);
+        }
 
-        ResultSetMetaData rsmd = rs.getMetaData();
-        int columnCount = rsmd.getColumnCount();
-        Set<String> populatedProperties = (isCheckFullyPopulated() ? new HashSet<>() : null);
+        boolean reused = (target != null && this.constructorBinding == null);
+        T mappedObject = (reused ? target : constructMappedInstance(rs, getTypeConverter()));
 
-        for (int index = 1; index <= columnCount; index++) {
-            String column = JdbcUtils.lookupColumnName(rsmd, index);
-            String field = lowerCaseName(StringUtils.delete(column, " "));
-            PropertyDescriptor pd = (this.mappedFields != null ? this.mappedFields.get(field) : null);
-            if (pd != null) {
+        int[] indexes = plan.indexes();
+        MappedProperty[] properties = plan.properties();
+        for (int i = 0; i < indexes.length; i++) {
+            MappedProperty property = properties[i];
+            try {
                 try {
-                    Object value = getColumnValue(rs, index, pd);
-                    if (rowNumber == 0 && logger.isDebugEnabled()) {
-                        logger.debug("Mapping column '" + column + "' to property '" + pd.getName() +
-                                "' of type '" + ClassUtils.getQualifiedName(pd.getPropertyType()) + "'");
+                    if (this.specializedReaders) {
+                        property.read(mappedObject, rs, indexes[i]);
                     }
-                    try {
-                        bw.setPropertyValue(pd.getName(), value);
+                    else {
+                        property.write(mappedObject, getColumnValue(rs, indexes[i], property.getType()));
                     }
-                    catch (TypeMismatchException ex) {
-                        if (value == null && this.primitivesDefaultedForNullValue) {
-                            if (logger.isDebugEnabled()) {
-                                logger.debug("Intercepted TypeMismatchException for row " + rowNumber +
-                                        " and column '" + column + "' with null value when setting property '" +
-                                        pd.getName() + "' of type '" +
-                                        ClassUtils.getQualifiedName(pd.getPropertyType()) +
-                                        "' on object: " + mappedObject, ex);
-                            }
+                }
+                catch (TypeMismatchException ex) {
+                    if (ex.getValue() == null && this.primitivesDefaultedForNullValue) {
+                        if (logger.isDebugEnabled()) {
+                            logger.debug("Intercepted TypeMismatchException for row " + rowNumber +
+                                    " and column '" + plan.columns()[i] + "' with null value when setting property '" +
+                                    property.getName() + "' of type '" +
+                                    ClassUtils.getQualifiedName(property.getType()) +
+                                    "' on object: " + mappedObject, ex);
                         }
-                        else {
-                            throw ex;
+                        if (reused) {
+                            property.write(mappedObject, Array.get(Array.newInstance(property.getType(), 1), 0));
                         }
                     }
-                    if (populatedProperties != null) {
-                        populatedProperties.add(pd.getName());
+                    else {
+                        throw ex;
                     }
                 }
-                catch (NotWritablePropertyException ex) {
-                    throw new DataRetrievalFailureException(
-                            "Unable to map column '" + column + "' to property '" + pd.getName() + "'", ex);
+            }
+            catch (NotWritablePropertyException ex) {
+                throw new DataRetrievalFailureException(
+                        "Unable to map column '" + plan.columns()[i] + "' to property '" + property.getName() + "'", ex);
+            }
+        }
+
+        return mappedObject;
+    }
+
+    /**
+     * 当前结果集的映射计划：同一结果集的后续行直接复用，新结果集按列标签签名查缓存，未命中时解析
+     */
+    private ColumnPlan getColumnPlan(ResultSet rs, int rowNumber) throws SQLException {
+        ActivePlan active = this.activePlan.get();
+        if (rowNumber > 0 && active != null && active.resultSet().get() == rs) {
+            return active.plan();
+        }
+        ResultSetMetaData rsmd = rs.getMetaData();
+        int columnCount = rsmd.getColumnCount();
+        String[] columns = new String[columnCount];
+        StringBuilder signature = new StringBuilder(columnCount * 16);
+        for (int index = 1; index <= columnCount; index++) {
+            columns[index - 1] = JdbcUtils.lookupColumnName(rsmd, index);
+            signature.append(columns[index - 1]).append('\u0001');
+        }
+        Map<String, ColumnPlan> plans = this.columnPlans;
+        ColumnPlan plan = plans.get(signature.toString());
+        if (plan == null) {
+            plan = buildColumnPlan(columns);
+            if (plans.size() >= MAX_PLAN_CACHE_SIZE) {
+                plans.clear();
+            }
+            plans.put(signature.toString(), plan);
+        }
+        this.activePlan.set(new ActivePlan(new WeakReference<>(rs), plan));
+        return plan;
+    }
+
+    private ColumnPlan buildColumnPlan(String[] columns) {
+        int[] indexes = new int[columns.length];
+        String[] mappedColumns = new String[columns.length];
+        MappedProperty[] properties = new MappedProperty[columns.length];
+        int[] parameterIndexes = new int[this.constructorBinding != null ? this.constructorBinding.getParameters().length : 0];
+        Set<String> populatedProperties = new HashSet<>();
+        int count = 0;
+        for (int index = 1; index <= columns.length; index++) {
+            String column = columns[index - 1];
+            String field = lowerCaseName(StringUtils.delete(column, " "));
+            if (this.columnPrefix != null) {
+                if (!field.startsWith(this.columnPrefix)) {
+                    continue;
                 }
+                field = field.substring(this.columnPrefix.length());
+            }
+            Integer parameter = this.constructorParameters.get(field);
+            MappedProperty property = (this.mappedFields != null ? this.mappedFields.get(field) : null);
+            if (parameter != null) {
+                if (parameterIndexes[parameter] == 0) {
+                    parameterIndexes[parameter] = index;
+                }
+                populatedProperties.add(this.constructorBinding.getParameters()[parameter].getName());
+            }
+            else if (property != null) {
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Mapping column '" + column + "' to property '" + property.getName() +
+                            "' of type '" + ClassUtils.getQualifiedName(property.getType()) + "'");
+                }
+                indexes[count] = index;
+                mappedColumns[count] = column;
+                properties[count] = property;
+                count++;
+                populatedProperties.add(property.getName());
             }
             else {
                 // No PropertyDescriptor found
-                if (rowNumber == 0 && logger.isDebugEnabled()) {
+                if (logger.isDebugEnabled()) {
                     logger.debug("No property found for column '" + column + "' mapped to field '" + field + "'");
                 }
             }
         }
+        return new ColumnPlan(Arrays.copyOf(indexes, count), Arrays.copyOf(mappedColumns, count),
+                Arrays.copyOf(properties, count), parameterIndexes, populatedProperties.equals(this.mappedProperties));
+    }
 
-        if (populatedProperties != null && !populatedProperties.equals(this.mappedProperties)) {
-            throw new InvalidDataAccessApiUsageException("Given ResultSet does not contain all fields " +
-                    "necessary to populate object of " + this.mappedClass + ": " + this.mappedProperties);
+    /**
+     * 子类是否覆盖了 getColumnValue，覆盖时逐列调用以保留其读取逻辑
+     */
+    private static boolean overridesColumnValue(Class<?> mapperClass) {
+        for (Class<?> c = mapperClass; c != MyBeanPropertyRowMapper.class && c != null; c = c.getSuperclass()) {
+            for (Method method : c.getDeclaredMethods()) {
+                if (method.getName().equals("getColumnValue")) return true;
+            }
         }
+        return false;
+    }
 
-        return mappedObject;
+    /**
+     * 构造实例时使用的类型转换器，按映射器创建一次
+     */
+    private TypeConverter getTypeConverter() {
+        TypeConverter tc = this.typeConverter;
+        if (tc == null) {
+            BeanWrapperImpl bw = new BeanWrapperImpl();
+            initBeanWrapper(bw);
+            tc = bw;
+            this.typeConverter = tc;
+        }
+        return tc;
     }
 
     /**
      * Construct an instance of the mapped class for the current row.
+     * <p>record 与 @ConstructorProperties 类型按映射计划读取构造器参数列，经缓存的 MethodHandle 一次传入全部参数；
+     * 其余类型调用无参构造器。
      * @param rs the ResultSet to map (pre-initialized for the current row)
      * @param tc a TypeConverter with this RowMapper's conversion service
      * @return a corresponding instance of the mapped class
      * @throws SQLException if an SQLException is encountered
      * @since 5.3
      */
+    @SuppressWarnings("unchecked")
     protected T constructMappedInstance(ResultSet rs, TypeConverter tc) throws SQLException  {
         Assert.state(this.mappedClass != null, "Mapped class was not specified");
-        return BeanUtils.instantiateClass(this.mappedClass);
+        ConstructorBinding binding = this.constructorBinding;
+        if (binding == null) {
+            return BeanUtils.instantiateClass(this.mappedClass);
+        }
+        // 参数列序号在当前结果集的映射计划中，mapRow 调用本方法前已解析
+        ActivePlan active = this.activePlan.get();
+        int[] parameterIndexes = (active != null ? active.plan().parameterIndexes() : new int[0]);
+        MappedProperty[] parameters = binding.getParameters();
+        Object[] args = new Object[parameters.length];
+        for (int i = 0; i < parameters.length; i++) {
+            int index = (i < parameterIndexes.length ? parameterIndexes[i] : 0);
+            if (index == 0) {
+                args[i] = binding.getDefault(i);
+                continue;
+            }
+            MappedProperty parameter = parameters[i];
+            Object value = getColumnValue(rs, index, parameter.getType());
+            if (value == null && parameter.getType().isPrimitive() && this.primitivesDefaultedForNullValue) {
+                args[i] = binding.getDefault(i);
+            }
+            else {
+                args[i] = parameter.convertValue(this.mappedClass, value);
+            }
+        }
+        return (T) binding.newInstance(args);
     }
 
     /**
-     * Initialize the given BeanWrapper to be used for row mapping.
-     * To be called for each row.
+     * Initialize the given BeanWrapper to be used as the {@link TypeConverter}
+     * passed to {@link #constructMappedInstance}. Called once per mapper.
      * <p>The default implementation applies the configured {@link ConversionService},
      * if any. Can be overridden in subclasses.
      * @param bw the BeanWrapper to initialize
@@ -376,6 +614,8 @@ public class MyBeanPropertyRowMapper<T> implements RowMapper<T> {
 
     /**
      * Retrieve a JDBC object value for the specified column.
+     * <p>未覆盖时映射使用 {@link MappedProperty} 按属性类型预选的读取方式，不经过此方法；
+     * 子类覆盖后逐列调用此方法。
      * <p>The default implementation calls
      * {@link JdbcUtils#getResultSetValue(java.sql.ResultSet, int, Class)}.
      * Subclasses may override this to check specific value types upfront,
@@ -0,0 +1,278 @@
+package io.github.mocanjie.base.myjpa.rowmapper;
+
+import org.springframework.core.CollectionFactory;
+import org.springframework.dao.DataRetrievalFailureException;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ReflectionUtils;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 一对多组装器：把连接查询的多行按父对象主键合并为一个父对象，带前缀的列映射为子对象加入集合
+ * 整数主键读为 long 并放入 {@link LongHashMap}，不装箱；每次查询新建，不可跨线程共享
+ *
+ * <p>两种用法：
+ * <ul>
+ *   <li>{@link #extractData}：一次读完结果集，按主键分组，行不要求有序，只缓存父对象</li>
+ *   <li>{@link #mapRow} + {@link #finish}：流式读取，要求同一父对象的行相邻（按父主键排序），主键变化时返回上一个
+ *       组装完成的父对象（其余行返回 null），结束时由 finish 返回最后一个；只保留当前父对象，内存占用与结果行数无关。
+ *       整数主键的变化方向前后不一致（既有升序又有降序）时抛出异常；其余类型的主键按约定处理，
+ *       行不相邻时同一主键会被组装为多个父对象</li>
+ * </ul>
+ * 存在多个集合属性时，连接产生的笛卡尔积按子对象主键去重
+ *
+ * @param <T> 父对象类型
+ */
+public final class OneToManyAssembler<T> implements RowMapper<T>, ResultSetExtractor<List<T>> {
+
+    /** 一个父对象及其集合 */
+    private static final class Group<T> {
+
+        final T parent;
+
+        final Collection<Object>[] collections;
+
+        /** 各集合已加入的子对象主键，只在多个集合时使用 */
+        @Nullable
+        final Set<Object>[] seen;
+
+        @SuppressWarnings("unchecked")
+        Group(T parent, int childCount) {
+            this.parent = parent;
+            this.collections = new Collection[childCount];
+            this.seen = (childCount > 1 ? new Set[childCount] : null);
+        }
+    }
+
+    private final OneToManyMapping<T> mapping;
+
+    private final RowMapper<T> parentMapper;
+
+    private final OneToManyMapping.Child[] children;
+
+    /** 以下在读取首行时按结果集元数据解析 */
+    private int parentKeyIndex;
+
+    private boolean integralKey;
+
+    private int[] childKeyIndexes;
+
+    /** 流式模式：当前父对象及其主键 */
+    @Nullable
+    private Group<T> current;
+
+    private long currentLongKey;
+
+    @Nullable
+    private Object currentKey;
+
+    /** 流式模式：整数主键的变化方向，1 为升序、-1 为降序、0 为尚未变化，用于发现未按父主键排序的结果 */
+    private int keyDirection;
+
+    OneToManyAssembler(OneToManyMapping<T> mapping, RowMapper<T> parentMapper) {
+        this.mapping = mapping;
+        this.parentMapper = parentMapper;
+        this.children = mapping.getChildren();
+    }
+
+    @Override
+    public List<T> extractData(ResultSet rs) throws SQLException {
+        List<T> results = new ArrayList<>();
+        LongHashMap<Group<T>> longGroups = new LongHashMap<>();
+        Map<Object, Group<T>> groups = new HashMap<>();
+        int rowNum = 0;
+        while (rs.next()) {
+            if (rowNum == 0) {
+                resolveColumns(rs);
+            }
+            Group<T> group;
+            if (this.integralKey) {
+                long key = readLongKey(rs);
+                group = longGroups.get(key);
+                if (group == null) {
+                    group = newGroup(rs, rowNum);
+                    longGroups.put(key, group);
+                    results.add(group.parent);
+                }
+            }
+            else {
+                Object key = readKey(rs);
+                group = groups.get(key);
+                if (group == null) {
+                    group = newGroup(rs, rowNum);
+                    groups.put(key, group);
+                    results.add(group.parent);
+                }
+            }
+            addChildren(group, rs, rowNum);
+            rowNum++;
+        }
+        return results;
+    }
+
+    /**
+     * 流式读取一行
+     *
+     * @return 主键变化时返回上一个组装完成的父对象，否则返回 null
+     */
+    @Override
+    @Nullable
+    public T mapRow(ResultSet rs, int rowNum) throws SQLException {
+        if (rowNum == 0) {
+            resolveColumns(rs);
+        }
+        T completed = null;
+        if (this.integralKey) {
+            long key = readLongKey(rs);
+            if (this.current == null || key != this.currentLongKey) {
+                if (this.current != null) {
+                    int direction = (key > this.currentLongKey ? 1 : -1);
+                    if (this.keyDirection != 0 && this.keyDirection != direction) {
+                        throw unordered(key);
+                    }
+                    this.keyDirection = direction;
+                    completed = this.current.parent;
+                }
+                this.current = newGroup(rs, rowNum);
+                this.currentLongKey = key;
+            }
+        }
+        else {
+            Object key = readKey(rs);
+            if (this.current == null || !key.equals(this.currentKey)) {
+                if (this.current != null) {
+                    completed = this.current.parent;
+                }
+                this.current = newGroup(rs, rowNum);
+                this.currentKey = key;
+            }
+        }
+        addChildren(this.current, rs, rowNum);
+        return completed;
+    }
+
+    /**
+     * 流式读取结束后返回最后一个父对象，没有任何行时返回 null
+     */
+    @Nullable
+    public T finish() {
+        Group<T> last = this.current;
+        this.current = null;
+        return last != null ? last.parent : null;
+    }
+
+    private void resolveColumns(ResultSet rs) throws SQLException {
+        ResultSetMetaData rsmd = rs.getMetaData();
+        int columnCount = rsmd.getColumnCount();
+        this.parentKeyIndex = 0;
+        this.childKeyIndexes = new int[this.children.length];
+        for (int index = 1; index <= columnCount; index++) {
+            String column = JdbcUtils.lookupColumnName(rsmd, index);
+            if (this.parentKeyIndex == 0 && column.equalsIgnoreCase(this.mapping.getParentKeyColumn())) {
+                this.parentKeyIndex = index;
+                this.integralKey = isIntegral(rsmd, index);
+            }
+            for (int c = 0; c < this.children.length; c++) {
+                if (this.childKeyIndexes[c] == 0 && column.equalsIgnoreCase(this.children[c].keyColumn())) {
+                    this.childKeyIndexes[c] = index;
+                }
+            }
+        }
+        if (this.parentKeyIndex == 0) {
+            throw new InvalidDataAccessApiUsageException("结果中没有父主键列 " + this.mapping.getParentKeyColumn()
+                    + "，无法组装 " + this.mapping.getMappedClass().getName());
+        }
+    }
+
+    private static boolean isIntegral(ResultSetMetaData rsmd, int index) throws SQLException {
+        return switch (rsmd.getColumnType(index)) {
+            case Types.BIGINT, Types.INTEGER, Types.SMALLINT, Types.TINYINT -> true;
+            case Types.DECIMAL, Types.NUMERIC -> rsmd.getScale(index) == 0 && rsmd.getPrecision(index) > 0 && rsmd.getPrecision(index) <= 18;
+            default -> false;
+        };
+    }
+
+    private long readLongKey(ResultSet rs) throws SQLException {
+        long key = rs.getLong(this.parentKeyIndex);
+        if (key == 0 && rs.wasNull()) {
+            throw nullKey();
+        }
+        return key;
+    }
+
+    private Object readKey(ResultSet rs) throws SQLException {
+        Object key = JdbcUtils.getResultSetValue(rs, this.parentKeyIndex);
+        if (key == null) {
+            throw nullKey();
+        }
+        return key;
+    }
+
+    private Group<T> newGroup(ResultSet rs, int rowNum) throws SQLException {
+        T parent = this.parentMapper.mapRow(rs, rowNum);
+        Group<T> group = new Group<>(parent, this.children.length);
+        for (int c = 0; c < this.children.length; c++) {
+            group.collections[c] = collectionOf(parent, this.children[c]);
+        }
+        return group;
+    }
+
+    /**
+     * 父对象已有集合时直接追加，否则按字段类型创建
+     */
+    @SuppressWarnings("unchecked")
+    private static Collection<Object> collectionOf(Object parent, OneToManyMapping.Child child) {
+        Collection<Object> collection = (Collection<Object>) ReflectionUtils.getField(child.field(), parent);
+        if (collection == null) {
+            collection = CollectionFactory.createCollection(child.field().getType(), 16);
+            ReflectionUtils.setField(child.field(), parent, collection);
+        }
+        return collection;
+    }
+
+    private void addChildren(Group<T> group, ResultSet rs, int rowNum) throws SQLException {
+        for (int c = 0; c < this.children.length; c++) {
+            int keyIndex = this.childKeyIndexes[c];
+            if (keyIndex > 0) {
+                Object childKey = JdbcUtils.getResultSetValue(rs, keyIndex);
+                if (childKey == null) {
+                    // 左连接没有子行
+                    continue;
+                }
+                if (group.seen != null) {
+                    if (group.seen[c] == null) {
+                        group.seen[c] = new HashSet<>();
+                    }
+                    if (!group.seen[c].add(childKey)) {
+                        continue;
+                    }
+                }
+            }
+            group.collections[c].add(this.children[c].mapper().mapRow(rs, rowNum));
+        }
+    }
+
+    private DataRetrievalFailureException nullKey() {
+        return new DataRetrievalFailureException("父主键列 " + this.mapping.getParentKeyColumn() + " 的值为 null，无法组装 "
+                + this.mapping.getMappedClass().getName());
+    }
+
+    private InvalidDataAccessApiUsageException unordered(Object key) {
+        return new InvalidDataAccessApiUsageException("流式一对多查询要求结果按父主键 " + this.mapping.getParentKeyColumn()
+                + " 排序，主键 " + key + " 处排序方向改变");
+    }
+}
@@ -0,0 +1,124 @@
+package io.github.mocanjie.base.myjpa.rowmapper;
+
+import io.github.mocanjie.base.myjpa.annotation.MyOneToMany;
+import io.github.mocanjie.base.myjpa.cache.TableCacheManager;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.StringUtils;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 一对多映射元数据：结果类型上的 {@link MyOneToMany} 字段、子对象映射器与父对象主键列
+ * 与结果类型一一对应，可被多线程共享；每次查询通过 {@link #newAssembler} 创建有状态的组装器
+ *
+ * @param <T> 父对象类型
+ */
+public final class OneToManyMapping<T> {
+
+    /**
+     * 一个集合属性
+     *
+     * @param field     集合字段
+     * @param mapper    子对象映射器，只映射带前缀的列
+     * @param keyColumn 子对象主键列（含前缀）
+     */
+    record Child(Field field, MyBeanPropertyRowMapper<?> mapper, String keyColumn) {}
+
+    private final Class<T> mappedClass;
+
+    private final String parentKeyColumn;
+
+    private final Child[] children;
+
+    private OneToManyMapping(Class<T> mappedClass, String parentKeyColumn, Child[] children) {
+        this.mappedClass = mappedClass;
+        this.parentKeyColumn = parentKeyColumn;
+        this.children = children;
+    }
+
+    /**
+     * 解析结果类型（含父类）上的 {@link MyOneToMany} 字段
+     *
+     * @throws InvalidDataAccessApiUsageException 没有集合字段、字段不可写或无法确定父对象主键列时
+     */
+    public static <T> OneToManyMapping<T> forClass(Class<T> mappedClass, @Nullable ConversionService conversionService) {
+        List<Child> children = new ArrayList<>();
+        String[] parentKey = {null};
+        ReflectionUtils.doWithFields(mappedClass, field -> {
+            MyOneToMany annotation = field.getAnnotation(MyOneToMany.class);
+            if (!Collection.class.isAssignableFrom(field.getType()) || Modifier.isFinal(field.getModifiers())) {
+                throw new InvalidDataAccessApiUsageException("@MyOneToMany 字段必须是非 final 的集合类型: " + field);
+            }
+            Class<?> elementType = ResolvableType.forField(field).asCollection().resolveGeneric(0);
+            if (elementType == null) {
+                throw new InvalidDataAccessApiUsageException("无法确定 @MyOneToMany 字段的元素类型: " + field);
+            }
+            if (!StringUtils.hasText(annotation.prefix())) {
+                throw new InvalidDataAccessApiUsageException("@MyOneToMany 必须指定列前缀: " + field);
+            }
+            if (StringUtils.hasText(annotation.parentKey())) {
+                if (parentKey[0] != null && !parentKey[0].equalsIgnoreCase(annotation.parentKey())) {
+                    throw new InvalidDataAccessApiUsageException("同一类型的 @MyOneToMany 父主键列不一致: " + mappedClass.getName());
+                }
+                parentKey[0] = annotation.parentKey().trim();
+            }
+            MyBeanPropertyRowMapper<?> mapper = MyBeanPropertyRowMapper.newInstance(elementType, conversionService);
+            mapper.setColumnPrefix(annotation.prefix());
+            ReflectionUtils.makeAccessible(field);
+            children.add(new Child(field, mapper, annotation.prefix() + annotation.childKey()));
+        }, field -> field.isAnnotationPresent(MyOneToMany.class));
+        if (children.isEmpty()) {
+            throw new InvalidDataAccessApiUsageException(mappedClass.getName() + " 没有 @MyOneToMany 字段");
+        }
+        String parentKeyColumn = (parentKey[0] != null ? parentKey[0] : tablePkColumn(mappedClass));
+        if (parentKeyColumn == null) {
+            throw new InvalidDataAccessApiUsageException("无法确定 " + mappedClass.getName()
+                    + " 的父主键列：结果类型及其父类都不是 @MyTable 实体时需指定 @MyOneToMany(parentKey)");
+        }
+        return new OneToManyMapping<>(mappedClass, parentKeyColumn, children.toArray(new Child[0]));
+    }
+
+    /**
+     * 结果类型或其最近的 @MyTable 父类的主键列
+     */
+    @Nullable
+    private static String tablePkColumn(Class<?> mappedClass) {
+        for (Class<?> c = mappedClass; c != null && c != Object.class; c = c.getSuperclass()) {
+            TableCacheManager.PkInfo pkInfo = TableCacheManager.getPkInfoByTableName(TableCacheManager.getTableNameByClass(c));
+            if (pkInfo != null) {
+                return pkInfo.getPkColumn();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 创建单次查询使用的组装器
+     *
+     * @param parentMapper 父对象映射器
+     */
+    public OneToManyAssembler<T> newAssembler(RowMapper<T> parentMapper) {
+        return new OneToManyAssembler<>(this, parentMapper);
+    }
+
+    public Class<T> getMappedClass() {
+        return mappedClass;
+    }
+
+    public String getParentKeyColumn() {
+        return parentKeyColumn;
+    }
+
+    Child[] getChildren() {
+        return children;
+    }
+}
@@ -0,0 +1,24 @@
+package io.github.mocanjie.base.myjpa.rowmapper;
+
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.lang.Nullable;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * 可把当前行写入已有实例的行映射器，供复用实例的流式回调使用
+ *
+ * @param <T> 结果类型
+ */
+public interface ReusableRowMapper<T> extends RowMapper<T> {
+
+    /**
+     * 把当前行写入 target：结果集中的映射列全部覆盖（null 值写入 null，基本类型允许 null 时写入默认值），
+     * 不在结果集中的属性保持原值；target 为 null 或类型无法复用（如 record）时返回新实例
+     *
+     * @param target 上一次返回的实例，可为 null
+     * @return 写入后的实例
+     */
+    T mapRow(ResultSet rs, int rowNum, @Nullable T target) throws SQLException;
+}
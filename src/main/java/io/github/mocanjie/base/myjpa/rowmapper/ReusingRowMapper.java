@@ -0,0 +1,39 @@
+package io.github.mocanjie.base.myjpa.rowmapper;
+
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * 复用实例的行映射器：在 instances 个实例间轮换写入，第 n 行与第 n + instances 行返回同一对象
+ * 每次查询新建，不可跨线程或跨查询共享；调用方最多只能同时持有最近 instances 行的结果
+ *
+ * @param <T> 结果类型
+ */
+public final class ReusingRowMapper<T> implements RowMapper<T> {
+
+    private final ReusableRowMapper<T> delegate;
+
+    private final Object[] ring;
+
+    private int next = 0;
+
+    public ReusingRowMapper(ReusableRowMapper<T> delegate, int instances) {
+        if (instances < 1) {
+            throw new IllegalArgumentException("复用实例数必须大于 0: " + instances);
+        }
+        this.delegate = delegate;
+        this.ring = new Object[instances];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T mapRow(ResultSet rs, int rowNum) throws SQLException {
+        int slot = next;
+        T mapped = delegate.mapRow(rs, rowNum, (T) ring[slot]);
+        ring[slot] = mapped;
+        next = (slot + 1 == ring.length) ? 0 : slot + 1;
+        return mapped;
+    }
+}
@@ -0,0 +1,40 @@
+package io.github.mocanjie.base.myjpa.rowmapper;
+
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * 窗口函数分页的行映射包装
+ * 分页 SQL 附带 {@code count(*) over() as myjpa_total_rows} 列时，从第一行读出总数，其余列交给原映射器；
+ * 结果对象中没有同名属性，该列不会被映射进去
+ *
+ * @param <T> 结果类型
+ */
+public class TotalRowsRowMapper<T> implements RowMapper<T> {
+
+    private final RowMapper<T> delegate;
+    private final String totalColumn;
+    private Long totalRows;
+
+    public TotalRowsRowMapper(RowMapper<T> delegate, String totalColumn) {
+        this.delegate = delegate;
+        this.totalColumn = totalColumn;
+    }
+
+    @Override
+    public T mapRow(ResultSet rs, int rowNum) throws SQLException {
+        if (totalRows == null) {
+            totalRows = rs.getLong(totalColumn);
+        }
+        return delegate.mapRow(rs, rowNum);
+    }
+
+    /**
+     * 总行数，结果集为空时返回 null（页码越界时无法从结果中得知总数）
+     */
+    public Long getTotalRows() {
+        return totalRows;
+    }
+}
@@ -2,11 +2,14 @@ package io.github.mocanjie.base.myjpa.service;
 
 import io.github.mocanjie.base.mycommon.pager.Pager;
 import io.github.mocanjie.base.myjpa.MyTableEntity;
+import io.github.mocanjie.base.myjpa.columnar.ColumnarResult;
 import org.springframework.lang.Nullable;
 
 import java.io.Serializable;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 
 public interface IBaseService {
@@ -23,6 +26,49 @@ public interface IBaseService {
 
 	<T> T querySingleForSql(String sql, Map<String, Object> param, Class<T> clazz);
 
+	/**
+	 * 流式查询：只进游标逐行映射，不在内存中汇总结果，逻辑删除与租户条件照常注入。
+	 * 返回的 Stream 占用连接与游标，必须用 try-with-resources 关闭；存在事务时须在事务内读取完毕
+	 */
+	<T> Stream<T> queryStreamForSql(String sql, Object param, Class<T> clazz);
+
+	<T> Stream<T> queryStreamForSql(String sql, Map<String, Object> param, Class<T> clazz);
+
+	/**
+	 * 流式查询：逐行回调，方法返回时游标已关闭
+	 */
+	<T> void queryForEachForSql(String sql, Object param, Class<T> clazz, Consumer<? super T> action);
+
+	<T> void queryForEachForSql(String sql, Map<String, Object> param, Class<T> clazz, Consumer<? super T> action);
+
+	/**
+	 * 复用实例的流式回调：结果对象在 instances 个实例间轮换覆盖写入，回调不得保存参数引用
+	 */
+	<T> void queryForEachReusingForSql(String sql, Object param, Class<T> clazz, int instances, Consumer<? super T> action);
+
+	<T> void queryForEachReusingForSql(String sql, Map<String, Object> param, Class<T> clazz, int instances, Consumer<? super T> action);
+
+	/**
+	 * 列式查询：结果按列读入基本类型数组，不创建行对象
+	 */
+	ColumnarResult queryColumnarForSql(String sql, Object param);
+
+	ColumnarResult queryColumnarForSql(String sql, Map<String, Object> param);
+
+	/**
+	 * 一对多查询：连接查询的多行按父对象主键合并为带子对象集合的父对象
+	 */
+	<T> List<T> queryOneToManyListForSql(String sql, Object param, Class<T> clazz);
+
+	<T> List<T> queryOneToManyListForSql(String sql, Map<String, Object> param, Class<T> clazz);
+
+	/**
+	 * 流式一对多查询：结果须按父主键排序，返回的 Stream 必须关闭
+	 */
+	<T> Stream<T> queryOneToManyStreamForSql(String sql, Object param, Class<T> clazz);
+
+	<T> Stream<T> queryOneToManyStreamForSql(String sql, Map<String, Object> param, Class<T> clazz);
+
 	<PO extends MyTableEntity> Serializable insertPO(PO po, boolean autoCreateId);
 
 	<PO extends MyTableEntity> Serializable insertPO(PO po);
@@ -35,6 +81,12 @@ public interface IBaseService {
 
 	<PO extends MyTableEntity> Serializable batchInsertPO(List<PO> pos, int batchSize);
 
+	/**
+	 * 按主键插入或更新（数据库原生 upsert），主键为空时自动生成；返回数据库报告的影响行数
+	 * @throws UnsupportedOperationException 当前方言不支持 upsert
+	 */
+	<PO extends MyTableEntity> int upsertPO(PO po);
+
 	<PO extends MyTableEntity> int updatePO(PO po);
 
 	<PO extends MyTableEntity> int updatePO(PO po, boolean ignoreNull);
@@ -3,6 +3,7 @@ package io.github.mocanjie.base.myjpa.service.impl;
 
 import io.github.mocanjie.base.mycommon.pager.Pager;
 import io.github.mocanjie.base.myjpa.MyTableEntity;
+import io.github.mocanjie.base.myjpa.columnar.ColumnarResult;
 import io.github.mocanjie.base.myjpa.dao.IBaseDao;
 import io.github.mocanjie.base.myjpa.lambda.LambdaQueryWrapper;
 import io.github.mocanjie.base.myjpa.service.IBaseService;
@@ -11,11 +12,14 @@ import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.io.Serializable;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 
 @Transactional(readOnly = true)
@@ -31,7 +35,11 @@ public class BaseServiceImpl implements IBaseService {
 	@Autowired
 	protected NamedParameterJdbcTemplate namedParameterJdbcTemplate;
 
+	/**
+	 * 不开启新事务：开启 count 并发时 count 与分页查询需各自从连接池获取连接，已有事务时仍加入并串行执行
+	 */
 	@Override
+	@Transactional(propagation = Propagation.SUPPORTS)
 	public <T> Pager<T> queryPageForSql(String sql, Object param, Pager<T> pager, Class<T> clazz) {
 		return baseDao.queryPageForSql(sql, param, pager,clazz);
 	}
@@ -47,6 +55,7 @@ public class BaseServiceImpl implements IBaseService {
 	}
 
 	@Override
+	@Transactional(propagation = Propagation.SUPPORTS)
 	public <T> Pager<T> queryPageForSql(String sql, Map<String, Object> param, Pager<T> pager, Class<T> clazz) {
 		return baseDao.queryPageForSql(sql, param, pager, clazz);
 	}
@@ -62,6 +71,77 @@ public class BaseServiceImpl implements IBaseService {
 		return baseDao.querySingleForSql(sql, param, clazz);
 	}
 
+	/**
+	 * 不开启新事务：流在方法返回后才被读取，只读事务提前结束会归还其连接
+	 */
+	@Override
+	@Transactional(propagation = Propagation.SUPPORTS)
+	public <T> Stream<T> queryStreamForSql(String sql, Object param, Class<T> clazz) {
+		return baseDao.queryStreamForSql(sql, param, clazz);
+	}
+
+	@Override
+	@Transactional(propagation = Propagation.SUPPORTS)
+	public <T> Stream<T> queryStreamForSql(String sql, Map<String, Object> param, Class<T> clazz) {
+		return baseDao.queryStreamForSql(sql, param, clazz);
+	}
+
+	@Override
+	@Transactional(propagation = Propagation.SUPPORTS)
+	public <T> void queryForEachForSql(String sql, Object param, Class<T> clazz, Consumer<? super T> action) {
+		baseDao.queryForEachForSql(sql, param, clazz, action);
+	}
+
+	@Override
+	@Transactional(propagation = Propagation.SUPPORTS)
+	public <T> void queryForEachForSql(String sql, Map<String, Object> param, Class<T> clazz, Consumer<? super T> action) {
+		baseDao.queryForEachForSql(sql, param, clazz, action);
+	}
+
+	@Override
+	@Transactional(propagation = Propagation.SUPPORTS)
+	public <T> void queryForEachReusingForSql(String sql, Object param, Class<T> clazz, int instances, Consumer<? super T> action) {
+		baseDao.queryForEachReusingForSql(sql, param, clazz, instances, action);
+	}
+
+	@Override
+	@Transactional(propagation = Propagation.SUPPORTS)
+	public <T> void queryForEachReusingForSql(String sql, Map<String, Object> param, Class<T> clazz, int instances, Consumer<? super T> action) {
+		baseDao.queryForEachReusingForSql(sql, param, clazz, instances, action);
+	}
+
+	@Override
+	public ColumnarResult queryColumnarForSql(String sql, Object param) {
+		return baseDao.queryColumnarForSql(sql, param);
+	}
+
+	@Override
+	public ColumnarResult queryColumnarForSql(String sql, Map<String, Object> param) {
+		return baseDao.queryColumnarForSql(sql, param);
+	}
+
+	@Override
+	public <T> List<T> queryOneToManyListForSql(String sql, Object param, Class<T> clazz) {
+		return baseDao.queryOneToManyListForSql(sql, param, clazz);
+	}
+
+	@Override
+	public <T> List<T> queryOneToManyListForSql(String sql, Map<String, Object> param, Class<T> clazz) {
+		return baseDao.queryOneToManyListForSql(sql, param, clazz);
+	}
+
+	@Override
+	@Transactional(propagation = Propagation.SUPPORTS)
+	public <T> Stream<T> queryOneToManyStreamForSql(String sql, Object param, Class<T> clazz) {
+		return baseDao.queryOneToManyStreamForSql(sql, param, clazz);
+	}
+
+	@Override
+	@Transactional(propagation = Propagation.SUPPORTS)
+	public <T> Stream<T> queryOneToManyStreamForSql(String sql, Map<String, Object> param, Class<T> clazz) {
+		return baseDao.queryOneToManyStreamForSql(sql, param, clazz);
+	}
+
 	@Transactional
 	public <PO extends MyTableEntity> Serializable insertPO(PO po, boolean autoCreateId) {
 		return baseDao.insertPO(po, autoCreateId);
@@ -72,6 +152,12 @@ public class BaseServiceImpl implements IBaseService {
 		return baseDao.updatePO(po);
 	}
 
+	@Override
+	@Transactional
+	public <PO extends MyTableEntity> int upsertPO(PO po) {
+		return baseDao.upsertPO(po);
+	}
+
 
 	@Override
 	public <PO extends MyTableEntity> PO queryById(String id, Class<PO> clazz) {
@@ -0,0 +1,98 @@
+package io.github.mocanjie.base.myjpa.test;
+
+import io.github.mocanjie.base.myjpa.rowmapper.MyBeanPropertyRowMapper;
+import org.junit.jupiter.api.*;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 列映射计划测试
+ *
+ * 覆盖范围：
+ *  - 同一结果集只读取一次元数据，后续行复用映射计划
+ *  - 不同列组合的结果集交替映射互不影响
+ *  - 未映射列被跳过，列名大小写与空格不影响映射
+ *  - checkFullyPopulated 按计划判断是否覆盖全部属性
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("列映射计划测试")
+class ColumnPlanTest {
+
+    public static class UserVO {
+        private Long id;
+        private String userName;
+
+        public Long getId() { return id; }
+        public void setId(Long id) { this.id = id; }
+        public String getUserName() { return userName; }
+        public void setUserName(String userName) { this.userName = userName; }
+    }
+
+    /** 按行返回数据的结果集，记录元数据读取次数 */
+    private static ResultSet resultSet(List<String> columns, List<Object[]> rows, AtomicInteger metaDataCalls) {
+        return FakeResultSet.of(columns, rows).countMetaData(metaDataCalls).resultSet();
+    }
+
+    /** 已定位在首行的结果集 */
+    private static ResultSet firstRow(List<String> columns, Object[] row, AtomicInteger metaDataCalls) throws Exception {
+        ResultSet rs = resultSet(columns, List.<Object[]>of(row), metaDataCalls);
+        rs.next();
+        return rs;
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("1. 同一结果集只读取一次元数据")
+    void test01_metaDataOnce() throws Exception {
+        MyBeanPropertyRowMapper<UserVO> mapper = new MyBeanPropertyRowMapper<>(UserVO.class);
+        List<Object[]> rows = List.of(new Object[]{1L, "a"}, new Object[]{2L, "b"}, new Object[]{3L, "c"});
+        AtomicInteger metaDataCalls = new AtomicInteger();
+        ResultSet rs = resultSet(List.of("ID", "USER_NAME"), rows, metaDataCalls);
+        for (int i = 0; rs.next(); i++) {
+            UserVO vo = mapper.mapRow(rs, i);
+            assertEquals(i + 1L, vo.getId());
+            assertEquals(rows.get(i)[1], vo.getUserName());
+        }
+        assertEquals(1, metaDataCalls.get());
+
+        ResultSet next = resultSet(List.of("ID", "USER_NAME"), rows, metaDataCalls);
+        next.next();
+        assertEquals(1L, mapper.mapRow(next, 0).getId());
+        assertEquals(2, metaDataCalls.get(), "新结果集重新读取列标签");
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("2. 不同列组合交替映射")
+    void test02_shapes() throws Exception {
+        MyBeanPropertyRowMapper<UserVO> mapper = new MyBeanPropertyRowMapper<>(UserVO.class);
+        AtomicInteger calls = new AtomicInteger();
+        ResultSet idOnly = firstRow(List.of("id"), new Object[]{7L}, calls);
+        ResultSet withName = firstRow(List.of("other", "user name", "id"), new Object[]{"x", "n", 8L}, calls);
+
+        UserVO first = mapper.mapRow(idOnly, 0);
+        assertEquals(7L, first.getId());
+        assertNull(first.getUserName());
+        UserVO second = mapper.mapRow(withName, 0);
+        assertEquals(8L, second.getId());
+        assertEquals("n", second.getUserName(), "列名中的空格被忽略");
+        assertEquals(7L, mapper.mapRow(idOnly, 0).getId());
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("3. checkFullyPopulated")
+    void test03_fullyPopulated() throws Exception {
+        MyBeanPropertyRowMapper<UserVO> mapper = new MyBeanPropertyRowMapper<>(UserVO.class, true);
+        AtomicInteger calls = new AtomicInteger();
+        ResultSet idOnly = firstRow(List.of("id"), new Object[]{1L}, calls);
+        assertThrows(InvalidDataAccessApiUsageException.class, () -> mapper.mapRow(idOnly, 0));
+        assertEquals("a", mapper.mapRow(firstRow(List.of("id", "user_name"), new Object[]{1L, "a"}, calls), 0)
+                .getUserName());
+    }
+}
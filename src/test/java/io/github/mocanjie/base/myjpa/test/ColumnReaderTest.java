@@ -0,0 +1,144 @@
+package io.github.mocanjie.base.myjpa.test;
+
+import io.github.mocanjie.base.myjpa.rowmapper.MappedProperty;
+import io.github.mocanjie.base.myjpa.rowmapper.MyBeanPropertyRowMapper;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.TypeMismatchException;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 按类型选定的列读取方式测试
+ *
+ * 覆盖范围：
+ *  - 基本类型与包装类型使用 getInt / getLong 等专用 getter，null 通过 wasNull 判断
+ *  - 无 setter 的基本类型字段免装箱写入
+ *  - java.time 类型使用 getObject(int, Class)，驱动不支持时回退
+ *  - 子类覆盖 getColumnValue 时仍逐列调用
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("按类型选定的列读取方式测试")
+class ColumnReaderTest {
+
+    public static class MetricVO {
+        private int hits;
+        private long total;
+        private double ratio;
+        private boolean active;
+        private Long userId;
+        private BigDecimal amount;
+        private LocalDateTime createTime;
+
+        public int getHits() { return hits; }
+        public void setHits(int hits) { this.hits = hits; }
+        public long getTotal() { return total; }
+        public void setTotal(long total) { this.total = total; }
+        public double getRatio() { return ratio; }
+        public void setRatio(double ratio) { this.ratio = ratio; }
+        public boolean isActive() { return active; }
+        public void setActive(boolean active) { this.active = active; }
+        public Long getUserId() { return userId; }
+        public void setUserId(Long userId) { this.userId = userId; }
+        public BigDecimal getAmount() { return amount; }
+        public void setAmount(BigDecimal amount) { this.amount = amount; }
+        public LocalDateTime getCreateTime() { return createTime; }
+        public void setCreateTime(LocalDateTime createTime) { this.createTime = createTime; }
+    }
+
+    public static class CounterVO {
+        private long count;
+
+        public long getCount() { return count; }
+    }
+
+    /** 记录调用的 getter，jdbc42 为 false 时 getObject 不接受 (int, Class) 形式 */
+    private static ResultSet resultSet(Map<String, Object> row, List<String> calls, boolean jdbc42) throws Exception {
+        FakeResultSet fake = FakeResultSet.rows(List.of(row)).reads(calls);
+        if (!jdbc42) fake.withoutTypedGetObject();
+        ResultSet rs = fake.resultSet();
+        rs.next();
+        return rs;
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("1. 专用 getter 与 wasNull")
+    void test01_specialized() throws Exception {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("hits", 3);
+        row.put("total", 40L);
+        row.put("ratio", 0.5d);
+        row.put("active", true);
+        row.put("user_id", null);
+        row.put("amount", new BigDecimal("1.20"));
+        row.put("create_time", Timestamp.valueOf("2024-05-06 07:08:09"));
+        List<String> calls = new ArrayList<>();
+        MetricVO vo = new MyBeanPropertyRowMapper<>(MetricVO.class).mapRow(resultSet(row, calls, true), 0);
+        assertEquals(3, vo.getHits());
+        assertEquals(40L, vo.getTotal());
+        assertEquals(0.5d, vo.getRatio());
+        assertTrue(vo.isActive());
+        assertNull(vo.getUserId(), "包装类型按 wasNull 写入 null");
+        assertEquals(new BigDecimal("1.20"), vo.getAmount());
+        assertEquals(LocalDateTime.of(2024, 5, 6, 7, 8, 9), vo.getCreateTime());
+        assertEquals(List.of("getInt", "getLong", "getDouble", "getBoolean", "getLong", "getBigDecimal", "getObject"), calls);
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("2. null 写入基本类型")
+    void test02_primitiveNull() throws Exception {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("hits", null);
+        assertThrows(TypeMismatchException.class,
+                () -> new MyBeanPropertyRowMapper<>(MetricVO.class).mapRow(resultSet(row, new ArrayList<>(), true), 0));
+
+        MyBeanPropertyRowMapper<MetricVO> mapper = new MyBeanPropertyRowMapper<>(MetricVO.class);
+        mapper.setPrimitivesDefaultedForNullValue(true);
+        assertEquals(0, mapper.mapRow(resultSet(row, new ArrayList<>(), true), 0).getHits());
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("3. 无 setter 的基本类型字段")
+    void test03_primitiveField() throws Exception {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("count", 12L);
+        List<String> calls = new ArrayList<>();
+        CounterVO vo = new CounterVO();
+        MappedProperty.ofField(CounterVO.class, CounterVO.class.getDeclaredField("count"), null)
+                .read(vo, resultSet(row, calls, true), 1);
+        assertEquals(12L, vo.getCount());
+        assertEquals(List.of("getLong"), calls);
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("4. java.time 回退与 getColumnValue 覆盖")
+    void test04_fallbackAndOverride() throws Exception {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("create_time", Timestamp.valueOf("2024-05-06 07:08:09"));
+        row.put("hits", 5);
+        MetricVO vo = new MyBeanPropertyRowMapper<>(MetricVO.class).mapRow(resultSet(row, new ArrayList<>(), false), 0);
+        assertEquals(LocalDateTime.of(2024, 5, 6, 7, 8, 9), vo.getCreateTime(), "驱动不支持 getObject(int, Class) 时回退");
+
+        MyBeanPropertyRowMapper<MetricVO> doubling = new MyBeanPropertyRowMapper<>(MetricVO.class) {
+            @Override
+            protected Object getColumnValue(ResultSet rs, int index, Class<?> paramType) throws SQLException {
+                Object value = super.getColumnValue(rs, index, paramType);
+                return value instanceof Integer i ? i * 2 : value;
+            }
+        };
+        assertEquals(10, doubling.mapRow(resultSet(row, new ArrayList<>(), true), 0).getHits());
+    }
+}
@@ -0,0 +1,171 @@
+package io.github.mocanjie.base.myjpa.test;
+
+import io.github.mocanjie.base.myjpa.builder.SqlBuilder;
+import io.github.mocanjie.base.myjpa.cache.TableCacheManager;
+import io.github.mocanjie.base.myjpa.columnar.ColumnarResult;
+import io.github.mocanjie.base.myjpa.columnar.ColumnarResultExtractor;
+import io.github.mocanjie.base.myjpa.dao.impl.BaseDaoImpl;
+import io.github.mocanjie.base.myjpa.dialect.MySqlDialect;
+import io.github.mocanjie.base.myjpa.lambda.LambdaQueryWrapper;
+import io.github.mocanjie.base.myjpa.test.entity.TestUser;
+import io.github.mocanjie.base.myjpa.test.FakeResultSet.Column;
+import org.junit.jupiter.api.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 列式查询结果测试
+ *
+ * 覆盖范围：
+ *  - 按 JDBC 类型选择 long / int / double / 字典 / 对象列，带小数或精度未知的 DECIMAL 保留 BigDecimal，专用 getter 与 null 位图
+ *  - 字符串列字典编码
+ *  - 超过初始容量的扩容、long / int / 数值对象列拓宽读取、类型不符与列名不存在
+ *  - BaseDaoImpl.queryColumnarForSql 经过条件注入、LambdaQueryWrapper.columnar()
+ *  - 无符号整数放宽为 long / 对象列
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("列式查询结果测试")
+class ColumnarResultTest {
+
+    /** 多行结果集替身，记录调用的 getter */
+    private static ResultSet resultSet(List<Column> columns, List<Object[]> rows, List<String> calls) {
+        return FakeResultSet.typed(columns, rows).reads(calls).resultSet();
+    }
+
+    @AfterAll
+    static void restore() {
+        SqlBuilder.setDialect(new MySqlDialect());
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("1. 按 JDBC 类型选择列存储")
+    void test01_types() throws Exception {
+        List<Column> columns = List.of(new Column("user_id", Types.BIGINT), new Column("qty", Types.INTEGER),
+                new Column("amount", Types.DECIMAL, 10, 2), new Column("total", Types.NUMERIC, 12, 0),
+                new Column("enabled", Types.BOOLEAN), new Column("day", Types.DATE), new Column("ratio", Types.NUMERIC, 0, -127));
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{1L, 2, new BigDecimal("1.50"), 100L, true, Date.valueOf("2024-05-06"), new BigDecimal("0.1234567890123456789")});
+        rows.add(new Object[]{null, null, null, null, false, null, null});
+        List<String> calls = new ArrayList<>();
+        ColumnarResult result = new ColumnarResultExtractor().extractData(resultSet(columns, rows, calls));
+
+        assertEquals(2, result.getRowCount());
+        assertEquals(List.of(ColumnarResult.Type.LONG, ColumnarResult.Type.INT, ColumnarResult.Type.OBJECT,
+                        ColumnarResult.Type.LONG, ColumnarResult.Type.INT, ColumnarResult.Type.OBJECT, ColumnarResult.Type.OBJECT),
+                result.getColumns().stream().map(ColumnarResult.Column::getType).toList());
+        assertArrayEquals(new long[]{1L, 0L}, result.getLongs("USER_ID"), "列名不区分大小写，null 行取 0");
+        assertArrayEquals(new int[]{2, 0}, result.getInts("qty"));
+        assertEquals(new BigDecimal("1.50"), ((ColumnarResult.ObjectColumn) result.getColumn("amount")).get(0), "带小数的 DECIMAL 保留 BigDecimal");
+        assertEquals(new BigDecimal("0.1234567890123456789"), ((ColumnarResult.ObjectColumn) result.getColumn("ratio")).get(0),
+                "精度未知的 NUMBER 不按 double 读取");
+        assertArrayEquals(new double[]{1.5d, 0d}, result.getDoubles("amount"), "数值对象列可显式转换为 double");
+        assertArrayEquals(new long[]{100L, 0L}, result.getLongs("total"), "整数 DECIMAL 按 long 存储");
+        assertArrayEquals(new int[]{1, 0}, result.getInts("enabled"));
+        assertEquals(Date.valueOf("2024-05-06"), ((ColumnarResult.ObjectColumn) result.getColumn("day")).get(0));
+
+        assertTrue(result.getColumn("user_id").isNull(1));
+        assertFalse(result.getColumn("enabled").isNull(1), "false 不是 null");
+        assertEquals(1, result.getColumn("amount").getNullCount());
+        assertEquals(List.of("getLong", "getInt", "getObject", "getLong", "getBoolean", "getObject"), calls.subList(0, 6),
+                "逐列使用专用 getter");
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("2. 字符串字典编码")
+    void test02_dictionary() throws Exception {
+        List<Object[]> rows = new ArrayList<>();
+        for (String status : new String[]{"PAID", "NEW", "PAID", null, "NEW"}) {
+            rows.add(new Object[]{status});
+        }
+        ColumnarResult result = new ColumnarResultExtractor()
+                .extractData(resultSet(List.of(new Column("status", Types.VARCHAR)), rows, new ArrayList<>()));
+        ColumnarResult.StringColumn status = result.getStrings("status");
+        assertArrayEquals(new String[]{"PAID", "NEW"}, status.dictionary());
+        assertArrayEquals(new int[]{0, 1, 0, -1, 1}, status.codes());
+        assertNull(status.get(3));
+        assertEquals("NEW", status.get(4));
+        assertTrue(status.isNull(3));
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("3. 扩容、拓宽读取与错误")
+    void test03_growthAndErrors() throws Exception {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            rows.add(new Object[]{i, (long) i * 10});
+        }
+        ColumnarResult result = new ColumnarResultExtractor().extractData(resultSet(
+                List.of(new Column("n", Types.INTEGER), new Column("m", Types.BIGINT)), rows, new ArrayList<>()));
+        assertEquals(1000, result.getRowCount());
+        assertEquals(1000, result.getInts("n").length, "数组截断为实际行数");
+        assertEquals(999, result.getInts("n")[999]);
+        assertEquals(999L, result.getLongs("n")[999], "int 列拓宽为 long");
+        assertEquals(9990d, result.getDoubles("m")[999], "long 列转换为 double");
+        assertSame(result.getLongs("m"), result.getLongs("m"), "同类型读取返回内部数组");
+
+        assertThrows(IllegalArgumentException.class, () -> result.getInts("m"));
+        assertThrows(IllegalArgumentException.class, () -> result.getStrings("n"));
+        ColumnarResult dates = new ColumnarResultExtractor().extractData(resultSet(List.of(new Column("day", Types.DATE)),
+                List.<Object[]>of(new Object[]{Date.valueOf("2024-05-06")}), new ArrayList<>()));
+        assertThrows(IllegalArgumentException.class, () -> dates.getDoubles("day"), "非数值对象列不能转换为 double");
+        assertThrows(IllegalArgumentException.class, () -> result.getColumn("nope"));
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("4. BaseDaoImpl 与 LambdaQueryWrapper 列式查询")
+    void test04_dao() {
+        TableCacheManager.clearCache();
+        TableCacheManager.initCache("io.github.mocanjie.base.myjpa.test.entity");
+        SqlBuilder.setDialect(new MySqlDialect());
+        StreamingQueryTest.RecordingDataSource db = new StreamingQueryTest.RecordingDataSource();
+        db.rows.add(new Object[]{1L, "a"});
+        db.rows.add(new Object[]{2L, "b"});
+        NamedParameterJdbcTemplate template = new NamedParameterJdbcTemplate(new JdbcTemplate(db.dataSource()));
+        BaseDaoImpl dao = new BaseDaoImpl() {
+            {
+                namedParameterJdbcTemplate = template;
+            }
+        };
+
+        ColumnarResult result = dao.queryColumnarForSql("select id, username from user where username like :name", Map.of("name", "%"));
+        assertTrue(db.preparedSql.contains("delete_flag"), "经过逻辑删除条件注入：" + db.preparedSql);
+        assertEquals(2, result.getRowCount());
+        assertEquals(List.of("id", "username"), result.getColumns().stream().map(ColumnarResult.Column::getName).toList());
+
+        ColumnarResult lambda = new LambdaQueryWrapper<>(TestUser.class, TestUser.class, dao).columnar();
+        assertEquals(2, lambda.getRowCount());
+    }
+    @Test
+    @Order(5)
+    @DisplayName("5. 无符号整数放宽存储")
+    void test05_unsigned() throws Exception {
+        List<Column> columns = List.of(new Column("id", Types.BIGINT, 20, 0, false), new Column("qty", Types.INTEGER, 10, 0, false),
+                new Column("level", Types.TINYINT, 3, 0, false), new Column("age", Types.SMALLINT, 5, 0));
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{new BigInteger("18446744073709551615"), 4294967295L, 255, 30});
+        ColumnarResult result = new ColumnarResultExtractor().extractData(resultSet(columns, rows, new ArrayList<>()));
+
+        assertEquals(List.of(ColumnarResult.Type.OBJECT, ColumnarResult.Type.LONG, ColumnarResult.Type.LONG, ColumnarResult.Type.INT),
+                result.getColumns().stream().map(ColumnarResult.Column::getType).toList());
+        assertEquals(new BigInteger("18446744073709551615"), ((ColumnarResult.ObjectColumn) result.getColumn("id")).get(0),
+                "无符号 BIGINT 超出 long 范围，按对象保留");
+        assertArrayEquals(new long[]{4294967295L}, result.getLongs("qty"), "无符号 INTEGER 超出 int 范围");
+        assertArrayEquals(new long[]{255L}, result.getLongs("level"));
+        assertArrayEquals(new int[]{30}, result.getInts("age"), "有符号整数仍按 int 存储");
+    }
+}
@@ -0,0 +1,134 @@
+package io.github.mocanjie.base.myjpa.test;
+
+import io.github.mocanjie.base.myjpa.annotation.MyField;
+import io.github.mocanjie.base.myjpa.cache.RowMapperCache;
+import io.github.mocanjie.base.myjpa.rowmapper.MyBeanPropertyRowMapper;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.BeanInstantiationException;
+import org.springframework.beans.TypeMismatchException;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.beans.ConstructorProperties;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * record 与构造器映射测试
+ *
+ * 覆盖范围：
+ *  - record 通过规范构造器一次传入全部参数，列名按下划线 / 小写规则匹配，@MyField 指定列名
+ *  - @ConstructorProperties 构造器与 setter 属性混合映射，缺失列传入默认值
+ *  - 参数类型转换、null 传入基本类型参数
+ *  - 构造器异常包装为 BeanInstantiationException，checkFullyPopulated 覆盖构造器参数
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("record 与构造器映射测试")
+class ConstructorMappingTest {
+
+    public enum Status { ENABLED, DISABLED }
+
+    public record OrderView(Long id, String userName, int quantity, BigDecimal amount, Status status,
+                            @MyField("nick") String nickName) {}
+
+    public record Positive(int value) {
+        public Positive {
+            if (value < 0) throw new IllegalArgumentException("value < 0");
+        }
+    }
+
+    public static class UserDTO {
+        private final Long id;
+        private final String userName;
+        private final long score;
+        private String remark;
+
+        @ConstructorProperties({"id", "userName", "score"})
+        public UserDTO(Long id, String userName, long score) {
+            this.id = id;
+            this.userName = userName;
+            this.score = score;
+        }
+
+        public Long getId() { return id; }
+        public String getUserName() { return userName; }
+        public long getScore() { return score; }
+        public String getRemark() { return remark; }
+        public void setRemark(String remark) { this.remark = remark; }
+    }
+
+    private static ResultSet resultSet(Map<String, Object> row) {
+        return FakeResultSet.row(row);
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("1. record 规范构造器映射")
+    void test01_record() throws Exception {
+        RowMapper<OrderView> mapper = RowMapperCache.getBeanPropertyRowMapper(OrderView.class);
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("ID", 1L);
+        row.put("user_name", "tom");
+        row.put("quantity", 3);
+        row.put("amount", new BigDecimal("9.90"));
+        row.put("status", "DISABLED");
+        row.put("nick", "t");
+        row.put("unknown", "x");
+        assertEquals(new OrderView(1L, "tom", 3, new BigDecimal("9.90"), Status.DISABLED, "t"), mapper.mapRow(resultSet(row), 0));
+        assertSame(mapper, RowMapperCache.getBeanPropertyRowMapper(OrderView.class), "record 映射器同样缓存复用");
+
+        Map<String, Object> partial = new LinkedHashMap<>();
+        partial.put("user_name", "amy");
+        assertEquals(new OrderView(null, "amy", 0, null, null, null), mapper.mapRow(resultSet(partial), 0),
+                "缺失列传入默认值");
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("2. @ConstructorProperties 构造器与 setter 混合")
+    void test02_constructorProperties() throws Exception {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("id", 5);
+        row.put("user_name", "bob");
+        row.put("score", 80L);
+        row.put("remark", "r");
+        UserDTO dto = new MyBeanPropertyRowMapper<>(UserDTO.class).mapRow(resultSet(row), 0);
+        assertEquals(5L, dto.getId());
+        assertEquals("bob", dto.getUserName());
+        assertEquals(80L, dto.getScore());
+        assertEquals("r", dto.getRemark(), "非构造器参数的属性仍通过 setter 赋值");
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("3. null 传入基本类型参数")
+    void test03_primitiveNull() {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("quantity", null);
+        assertThrows(TypeMismatchException.class,
+                () -> new MyBeanPropertyRowMapper<>(OrderView.class).mapRow(resultSet(row), 0));
+
+        MyBeanPropertyRowMapper<OrderView> mapper = new MyBeanPropertyRowMapper<>(OrderView.class);
+        mapper.setPrimitivesDefaultedForNullValue(true);
+        assertDoesNotThrow(() -> assertEquals(0, mapper.mapRow(resultSet(row), 0).quantity()));
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("4. 构造器异常与 checkFullyPopulated")
+    void test04_exceptions() {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("value", -1);
+        assertThrows(BeanInstantiationException.class,
+                () -> new MyBeanPropertyRowMapper<>(Positive.class).mapRow(resultSet(row), 0));
+
+        MyBeanPropertyRowMapper<OrderView> strict = new MyBeanPropertyRowMapper<>(OrderView.class, true);
+        Map<String, Object> partial = new LinkedHashMap<>();
+        partial.put("id", 1L);
+        assertThrows(InvalidDataAccessApiUsageException.class, () -> strict.mapRow(resultSet(partial), 0));
+    }
+}
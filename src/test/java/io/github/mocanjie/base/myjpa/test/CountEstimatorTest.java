@@ -0,0 +1,154 @@
+package io.github.mocanjie.base.myjpa.test;
+
+import io.github.mocanjie.base.myjpa.builder.SqlBuilder;
+import io.github.mocanjie.base.myjpa.cache.TableCacheManager;
+import io.github.mocanjie.base.myjpa.dao.impl.BaseDaoImpl;
+import io.github.mocanjie.base.myjpa.dao.impl.CountEstimator;
+import io.github.mocanjie.base.myjpa.dialect.MySqlDialect;
+import io.github.mocanjie.base.myjpa.dialect.OracleDialect;
+import io.github.mocanjie.base.myjpa.dialect.PostgreSqlDialect;
+import io.github.mocanjie.base.myjpa.pager.EstimatedCountPager;
+import io.github.mocanjie.base.myjpa.test.entity.TestUser;
+import org.junit.jupiter.api.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.EmptySqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 分页总数估算测试
+ * 用返回预置统计信息 / 执行计划的 NamedParameterJdbcTemplate 替身代替数据库
+ *
+ * 覆盖范围：
+ *  - 无过滤单表识别
+ *  - PostgreSQL reltuples / EXPLAIN JSON，MySQL table_rows / EXPLAIN 行数乘积
+ *  - 估算值低于阈值时精确 count，不支持的数据库不估算
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("分页总数估算测试")
+class CountEstimatorTest {
+
+    static class FakeTemplate extends NamedParameterJdbcTemplate {
+        final List<String> sqls = new ArrayList<>();
+        Long tableRows = 5_000_000L;
+        String pgPlan = "[{\"Plan\": {\"Node Type\": \"Seq Scan\", \"Plan Rows\": 1234567, \"Plans\": [{\"Plan Rows\": 9}]}}]";
+        List<Map<String, Object>> mysqlPlan = List.of(
+                Map.of("id", 1L, "rows", 200_000L, "filtered", 50.0),
+                Map.of("id", 1L, "rows", 1L, "filtered", 100.0),
+                Map.of("id", 2L, "rows", 999L, "filtered", 100.0));
+
+        FakeTemplate() {
+            super(new JdbcTemplate());
+        }
+
+        @Override
+        public <T> T queryForObject(String sql, SqlParameterSource paramSource, Class<T> requiredType) {
+            sqls.add(sql);
+            Object result = sql.startsWith("EXPLAIN") ? pgPlan : tableRows;
+            return requiredType.cast(result);
+        }
+
+        @Override
+        public List<Map<String, Object>> queryForList(String sql, SqlParameterSource paramSource) {
+            sqls.add(sql);
+            return mysqlPlan;
+        }
+
+        @Override
+        public <T> T queryForObject(String sql, SqlParameterSource paramSource, RowMapper<T> rowMapper) {
+            sqls.add(sql);
+            @SuppressWarnings("unchecked")
+            T result = (T) Long.valueOf(7L);
+            return result;
+        }
+
+        @Override
+        public <T> List<T> query(String sql, SqlParameterSource paramSource, RowMapper<T> rowMapper) {
+            sqls.add(sql);
+            return List.of();
+        }
+    }
+
+    private FakeTemplate template;
+
+    @BeforeEach
+    void setup() {
+        SqlBuilder.setDialect(new PostgreSqlDialect());
+        CountEstimator.threshold = 100_000L;
+        TableCacheManager.clearCache();
+        TableCacheManager.initCache("io.github.mocanjie.base.myjpa.test.entity");
+        template = new FakeTemplate();
+    }
+
+    @AfterAll
+    static void teardown() {
+        SqlBuilder.setDialect(new MySqlDialect());
+        CountEstimator.threshold = 100_000L;
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("1. 识别无过滤条件的单表查询")
+    void test01_unfilteredTable() {
+        assertEquals("audit_log", CountEstimator.unfilteredTable("SELECT id, msg FROM audit_log ORDER BY id"));
+        assertEquals("public.audit_log", CountEstimator.unfilteredTable("SELECT * FROM \"public\".audit_log"));
+        assertNull(CountEstimator.unfilteredTable("SELECT * FROM audit_log WHERE id > 1"));
+        assertNull(CountEstimator.unfilteredTable("SELECT * FROM a JOIN b ON a.id = b.id"));
+        assertNull(CountEstimator.unfilteredTable("SELECT DISTINCT msg FROM audit_log"));
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("2. PostgreSQL：reltuples 与 EXPLAIN 顶层 Plan Rows")
+    void test02_pgsql() {
+        assertEquals(5_000_000L, CountEstimator.estimate(template, "SELECT * FROM audit_log", new EmptySqlParameterSource()));
+        assertTrue(template.sqls.get(0).contains("pg_class"));
+
+        assertEquals(1_234_567L, CountEstimator.estimate(template, "SELECT * FROM audit_log WHERE level = 1", new EmptySqlParameterSource()));
+        assertEquals("EXPLAIN (FORMAT JSON) SELECT * FROM audit_log WHERE level = 1", template.sqls.get(1));
+
+        template.tableRows = -1L;
+        assertNull(CountEstimator.estimate(template, "SELECT * FROM audit_log", new EmptySqlParameterSource()), "未 ANALYZE 不估算");
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("3. MySQL：table_rows 与 EXPLAIN 最外层行数乘积")
+    void test03_mysql() {
+        SqlBuilder.setDialect(new MySqlDialect());
+        assertEquals(5_000_000L, CountEstimator.estimate(template, "SELECT * FROM shop.audit_log", new EmptySqlParameterSource()));
+        assertTrue(template.sqls.get(0).contains("information_schema.tables where table_schema = :schema"));
+        assertEquals(100_000L, CountEstimator.estimate(template, "SELECT * FROM a JOIN b ON a.id = b.a_id", new EmptySqlParameterSource()));
+
+        SqlBuilder.setDialect(new OracleDialect());
+        assertNull(CountEstimator.estimate(template, "SELECT * FROM audit_log", new EmptySqlParameterSource()));
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("4. 分页：估算值达到阈值使用估算总数，否则精确 count")
+    void test04_pager() {
+        BaseDaoImpl dao = new BaseDaoImpl() {
+            {
+                namedParameterJdbcTemplate = template;
+            }
+        };
+        EstimatedCountPager<TestUser> pager = new EstimatedCountPager<>(1, 10);
+        dao.queryPageForSql("SELECT * FROM user WHERE age > 1", Map.of(), pager, TestUser.class);
+        assertEquals(1_234_567L, pager.getTotalRows());
+        assertFalse(pager.isTotalExact());
+        assertTrue(template.sqls.stream().noneMatch(sql -> sql.toLowerCase().startsWith("select count(*)")));
+
+        pager.setEstimateThreshold(10_000_000L);
+        dao.queryPageForSql("SELECT * FROM user WHERE age > 1", Map.of(), pager, TestUser.class);
+        assertEquals(7L, pager.getTotalRows());
+        assertTrue(pager.isTotalExact());
+    }
+}
@@ -0,0 +1,138 @@
+package io.github.mocanjie.base.myjpa.test;
+
+import io.github.mocanjie.base.myjpa.cache.CountResultCache;
+import io.github.mocanjie.base.myjpa.parser.JSqlDynamicSqlParser;
+import io.github.mocanjie.base.myjpa.tenant.TenantAwareSqlParameterSource;
+import org.junit.jupiter.api.*;
+import org.springframework.jdbc.core.namedparam.EmptySqlParameterSource;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 分页 count 结果缓存测试
+ *
+ * 覆盖范围：
+ *  - 相同 SQL + 参数命中缓存，参数或租户不同不共享
+ *  - 写表后按表失效，其他表不受影响
+ *  - TTL 过期、关闭开关、无法解析的 SQL 不缓存
+ *  - 事务中的写操作在事务结束后再次失效
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("分页 count 结果缓存测试")
+class CountResultCacheTest {
+
+    private static final String COUNT_SQL = "SELECT count(*) FROM user u WHERE u.age > :age AND u.delete_flag = 0";
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @BeforeEach
+    void setup() {
+        CountResultCache.enabled = true;
+        CountResultCache.ttlMillis = 30_000L;
+        CountResultCache.maxSize = 1024;
+        CountResultCache.clear();
+        loads.set(0);
+    }
+
+    @AfterAll
+    static void teardown() {
+        CountResultCache.enabled = false;
+        CountResultCache.ttlMillis = 30_000L;
+        CountResultCache.clear();
+    }
+
+    private Long count(String sql, Object age) {
+        return CountResultCache.get(sql, new MapSqlParameterSource("age", age), () -> (long) loads.incrementAndGet());
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("1. 相同 SQL 与参数命中缓存，参数不同分别计数")
+    void test01_hit() {
+        assertEquals(1L, count(COUNT_SQL, 18));
+        assertEquals(1L, count(COUNT_SQL, 18));
+        assertEquals(2L, count(COUNT_SQL, 20));
+        assertEquals(2, loads.get());
+        assertEquals(1, CountResultCache.getHitCount());
+        assertEquals(2, CountResultCache.getMissCount());
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("2. 租户 ID 不同不共享计数")
+    void test02_tenant() {
+        String sql = "SELECT count(*) FROM user WHERE tenant_id = :" + JSqlDynamicSqlParser.TENANT_PARAM_NAME;
+        CountResultCache.get(sql, new TenantAwareSqlParameterSource(new EmptySqlParameterSource(),
+                JSqlDynamicSqlParser.TENANT_PARAM_NAME, 1L), () -> (long) loads.incrementAndGet());
+        CountResultCache.get(sql, new TenantAwareSqlParameterSource(new EmptySqlParameterSource(),
+                JSqlDynamicSqlParser.TENANT_PARAM_NAME, 2L), () -> (long) loads.incrementAndGet());
+        CountResultCache.get(sql, new TenantAwareSqlParameterSource(new EmptySqlParameterSource(),
+                JSqlDynamicSqlParser.TENANT_PARAM_NAME, 1L), () -> (long) loads.incrementAndGet());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("3. 写表后按表失效，其他表不受影响")
+    void test03_invalidate() {
+        String joinSql = "SELECT count(*) FROM user u JOIN role r ON r.id = u.role_id WHERE u.age > :age";
+        count(COUNT_SQL, 18);
+        count(joinSql, 18);
+        CountResultCache.invalidateTable("ROLE");
+        count(COUNT_SQL, 18);
+        assertEquals(2, loads.get(), "只引用 user 的计数不受 role 写入影响");
+        count(joinSql, 18);
+        assertEquals(3, loads.get(), "引用 role 的计数失效");
+
+        CountResultCache.invalidateTable("user");
+        count(COUNT_SQL, 18);
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("4. TTL 过期、关闭开关、无法解析的 SQL 不使用缓存")
+    void test04_bypass() {
+        CountResultCache.ttlMillis = -1;
+        count(COUNT_SQL, 18);
+        count(COUNT_SQL, 18);
+        assertEquals(2, loads.get());
+
+        CountResultCache.ttlMillis = 30_000L;
+        count("SELECT count(*) FROM user WHERE", 18);
+        count("SELECT count(*) FROM user WHERE", 18);
+        assertEquals(4, loads.get());
+
+        CountResultCache.enabled = false;
+        count(COUNT_SQL, 18);
+        count(COUNT_SQL, 18);
+        assertEquals(6, loads.get());
+        assertEquals(0, CountResultCache.getHitCount());
+    }
+
+    @Test
+    @Order(5)
+    @DisplayName("5. 事务中的写操作在事务结束后再次失效")
+    void test05_transaction() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            CountResultCache.invalidateTable("user");
+            // 事务未提交期间被缓存的计数
+            count(COUNT_SQL, 18);
+            count(COUNT_SQL, 18);
+            assertEquals(1, loads.get());
+            TransactionSynchronizationUtils.invokeAfterCompletion(
+                    TransactionSynchronizationManager.getSynchronizations(), TransactionSynchronization.STATUS_COMMITTED);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        count(COUNT_SQL, 18);
+        assertEquals(2, loads.get());
+    }
+}
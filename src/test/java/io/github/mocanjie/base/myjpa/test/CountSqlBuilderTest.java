@@ -0,0 +1,127 @@
+package io.github.mocanjie.base.myjpa.test;
+
+import io.github.mocanjie.base.myjpa.cache.TableCacheManager;
+import io.github.mocanjie.base.myjpa.parser.CountSqlBuilder;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 分页 count SQL 生成测试
+ *
+ * 覆盖范围：
+ *  - 去 ORDER BY、查询列替换为 count(*)
+ *  - 按主键关联且未被引用的 LEFT JOIN 被移除，其余 JOIN 保留
+ *  - DISTINCT / GROUP BY / 聚合 / LIMIT / UNION 等保持包裹计数
+ *  - 无法解析时回退包裹方式，关闭开关时使用原始包裹方式
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("分页 count SQL 生成测试")
+class CountSqlBuilderTest {
+
+    @BeforeEach
+    void setup() {
+        CountSqlBuilder.enabled = true;
+        CountSqlBuilder.clearCache();
+        TableCacheManager.clearCache();
+        TableCacheManager.initCache("io.github.mocanjie.base.myjpa.test.entity");
+    }
+
+    @AfterAll
+    static void teardown() {
+        CountSqlBuilder.enabled = true;
+        CountSqlBuilder.clearCache();
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("1. 去 ORDER BY 并直接计数")
+    void test01_stripOrderBy() {
+        assertEquals("SELECT count(*) FROM user u WHERE u.age > :age AND u.delete_flag = 0",
+                CountSqlBuilder.build("SELECT u.id, u.username AS name, (SELECT max(r.id) FROM role r) AS m "
+                        + "FROM user u WHERE u.age > :age AND u.delete_flag = 0 ORDER BY u.id DESC"));
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("2. 移除按主键关联且未被引用的 LEFT JOIN")
+    void test02_removeLeftJoin() {
+        assertEquals("SELECT count(*) FROM user u WHERE u.age > 18",
+                CountSqlBuilder.build("SELECT u.*, r.name FROM user u "
+                        + "LEFT JOIN role r ON r.id = u.role_id AND r.is_deleted = 0 WHERE u.age > 18 ORDER BY r.name"));
+
+        // 链式 LEFT JOIN：后一个移除后前一个也可移除
+        assertEquals("SELECT count(*) FROM user u",
+                CountSqlBuilder.build("SELECT * FROM user u LEFT JOIN role r ON u.role_id = r.id "
+                        + "LEFT JOIN user p ON p.id = r.owner_id"));
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("3. 可能影响行数的 JOIN 保留")
+    void test03_keepJoins() {
+        // 非主键关联：可能匹配多行
+        assertEquals("SELECT count(*) FROM user u LEFT JOIN role r ON r.user_id = u.id",
+                CountSqlBuilder.build("SELECT u.id FROM user u LEFT JOIN role r ON r.user_id = u.id"));
+        // WHERE 引用了右表
+        assertEquals("SELECT count(*) FROM user u LEFT JOIN role r ON r.id = u.role_id WHERE r.name IS NULL",
+                CountSqlBuilder.build("SELECT u.id FROM user u LEFT JOIN role r ON r.id = u.role_id WHERE r.name IS NULL"));
+        // 无前缀列无法判断归属
+        assertEquals("SELECT count(*) FROM user u LEFT JOIN role r ON r.id = u.role_id WHERE name = 'a'",
+                CountSqlBuilder.build("SELECT u.id FROM user u LEFT JOIN role r ON r.id = u.role_id WHERE name = 'a'"));
+        // 子查询中引用了右表
+        assertEquals("SELECT count(*) FROM user u LEFT JOIN role r ON r.id = u.role_id "
+                        + "WHERE EXISTS (SELECT 1 FROM role x WHERE x.id = r.id)",
+                CountSqlBuilder.build("SELECT u.id FROM user u LEFT JOIN role r ON r.id = u.role_id "
+                        + "WHERE EXISTS (SELECT 1 FROM role x WHERE x.id = r.id)"));
+        // INNER JOIN 与未注册表
+        assertEquals("SELECT count(*) FROM user u JOIN role r ON r.id = u.role_id LEFT JOIN dept d ON d.id = u.dept_id",
+                CountSqlBuilder.build("SELECT u.id FROM user u JOIN role r ON r.id = u.role_id LEFT JOIN dept d ON d.id = u.dept_id"));
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("4. 聚合/去重/分组/限制行数时包裹计数")
+    void test04_wrapped() {
+        assertEquals("select count(*) from ( SELECT DISTINCT u.age FROM user u ) mkt_page_count",
+                CountSqlBuilder.build("SELECT DISTINCT u.age FROM user u ORDER BY u.age"));
+        assertEquals("select count(*) from ( SELECT u.age, count(*) FROM user u GROUP BY u.age ) mkt_page_count",
+                CountSqlBuilder.build("SELECT u.age, count(*) FROM user u GROUP BY u.age ORDER BY 2"));
+        assertEquals("select count(*) from ( SELECT sum(u.age) FROM user u ) mkt_page_count",
+                CountSqlBuilder.build("SELECT sum(u.age) FROM user u"));
+        assertEquals("select count(*) from ( SELECT 1 FROM user u LIMIT 10 ) mkt_page_count",
+                CountSqlBuilder.build("SELECT * FROM user u ORDER BY id LIMIT 10"));
+        assertEquals("select count(*) from ( SELECT 1 FROM user u ORDER BY id OFFSET 10 ROWS FETCH NEXT 10 ROWS ONLY ) mkt_page_count",
+                CountSqlBuilder.build("SELECT * FROM user u ORDER BY id OFFSET 10 ROWS FETCH NEXT 10 ROWS ONLY"),
+                "OFFSET / FETCH 需要保留 ORDER BY");
+        assertEquals("select count(*) from ( SELECT TOP 10 1 FROM user u ORDER BY id ) mkt_page_count",
+                CountSqlBuilder.build("SELECT TOP 10 * FROM user u ORDER BY id"), "TOP 取哪些行由 ORDER BY 决定");
+        String union = "SELECT id FROM user UNION SELECT id FROM role ORDER BY id";
+        assertEquals(CountSqlBuilder.wrap(union), CountSqlBuilder.build(union));
+    }
+
+    @Test
+    @Order(5)
+    @DisplayName("5. 无法解析或关闭时使用包裹方式")
+    void test05_fallback() {
+        String invalid = "SELECT * FROM user WHERE";
+        assertEquals(CountSqlBuilder.wrap(invalid), CountSqlBuilder.build(invalid));
+
+        CountSqlBuilder.enabled = false;
+        String sql = "SELECT * FROM user ORDER BY id";
+        assertEquals("select count(*) from ( SELECT * FROM user ORDER BY id ) mkt_page_count", CountSqlBuilder.build(sql));
+    }
+
+    @Test
+    @Order(6)
+    @DisplayName("6. 注册表变化后缓存失效")
+    void test06_cacheInvalidation() {
+        String sql = "SELECT u.id FROM user u LEFT JOIN role r ON r.id = u.role_id";
+        assertEquals("SELECT count(*) FROM user u", CountSqlBuilder.build(sql));
+        assertSame(CountSqlBuilder.build(sql), CountSqlBuilder.build(sql));
+
+        TableCacheManager.clearCache();
+        assertEquals("SELECT count(*) FROM user u LEFT JOIN role r ON r.id = u.role_id", CountSqlBuilder.build(sql),
+                "role 未注册时无法确认主键，JOIN 保留");
+    }
+}
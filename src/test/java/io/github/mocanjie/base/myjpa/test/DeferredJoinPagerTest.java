@@ -0,0 +1,101 @@
+package io.github.mocanjie.base.myjpa.test;
+
+import io.github.mocanjie.base.mycommon.pager.Pager;
+import io.github.mocanjie.base.myjpa.builder.SqlBuilder;
+import io.github.mocanjie.base.myjpa.cache.TableCacheManager;
+import io.github.mocanjie.base.myjpa.dialect.MySqlDialect;
+import io.github.mocanjie.base.myjpa.dialect.PostgreSqlDialect;
+import io.github.mocanjie.base.myjpa.dialect.SqlServerDialect;
+import io.github.mocanjie.base.myjpa.test.entity.TestUser;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 延迟关联分页测试
+ *
+ * 覆盖范围：
+ *  - 起始行达到阈值时改写为主键子查询关联原表，外层按相同排序重排
+ *  - pager 排序替换原查询排序，排序列按实体列校验
+ *  - 表别名、PostgreSQL 分页子句
+ *  - 多表、指定查询列、分组、未注册表、非法排序等情况回退
+ *  - 未达阈值或未开启时保持原有分页 SQL
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("延迟关联分页测试")
+class DeferredJoinPagerTest {
+
+    @BeforeEach
+    void setup() {
+        SqlBuilder.setDialect(new MySqlDialect());
+        SqlBuilder.deferredJoinOffset = 1000;
+        TableCacheManager.clearCache();
+        TableCacheManager.initCache("io.github.mocanjie.base.myjpa.test.entity");
+    }
+
+    @AfterAll
+    static void teardown() {
+        SqlBuilder.setDialect(new MySqlDialect());
+        SqlBuilder.deferredJoinOffset = 0;
+    }
+
+    private static Pager<TestUser> deepPager(String sort, String order) {
+        Pager<TestUser> pager = new Pager<>(1001, 10);
+        pager.setSort(sort);
+        pager.setOrder(order);
+        return pager;
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("1. 深翻页改写为主键子查询关联原表")
+    void test01_deferredJoin() {
+        assertEquals("select user.* from user join ( SELECT user.id FROM user WHERE delete_flag = 0 ORDER BY username limit 10000,10 )"
+                        + " myjpa_k using(id) ORDER BY username",
+                SqlBuilder.buildPagerSql("SELECT * FROM user WHERE delete_flag = 0 ORDER BY username", deepPager(null, null)));
+        assertEquals("select user.* from user join ( SELECT user.id FROM user limit 10000,10 ) myjpa_k using(id)",
+                SqlBuilder.buildPagerSql("SELECT * FROM user", deepPager(null, null)), "无排序时不追加外层排序");
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("2. pager 排序替换原查询排序，保留表别名")
+    void test02_sortAndAlias() {
+        assertEquals("select u.* from user u join ( SELECT u.id FROM user u WHERE u.delete_flag = :flag order by username desc"
+                        + " limit 10000,10 ) myjpa_k using(id) order by username desc",
+                SqlBuilder.buildPagerSql("SELECT u.* FROM user u WHERE u.delete_flag = :flag ORDER BY u.id", deepPager("username", "desc")));
+
+        SqlBuilder.setDialect(new PostgreSqlDialect());
+        assertEquals("select user.* from user join ( SELECT user.id FROM user order by id asc OFFSET 10000 LIMIT 10 ) myjpa_k using(id)"
+                        + " order by id asc",
+                SqlBuilder.buildPagerSql("SELECT * FROM user", deepPager("id", "asc")));
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("3. 不适用的查询回退为原有分页")
+    void test03_fallback() {
+        assertFalse(SqlBuilder.buildPagerSql("SELECT * FROM user u JOIN role r ON u.id = r.id", deepPager(null, null)).contains("myjpa_k"), "多表");
+        assertFalse(SqlBuilder.buildPagerSql("SELECT id, username FROM user", deepPager(null, null)).contains("myjpa_k"), "指定查询列");
+        assertFalse(SqlBuilder.buildPagerSql("SELECT DISTINCT * FROM user", deepPager(null, null)).contains("myjpa_k"), "分组");
+        assertFalse(SqlBuilder.buildPagerSql("SELECT * FROM audit_log", deepPager(null, null)).contains("myjpa_k"), "未注册表");
+        assertFalse(SqlBuilder.buildPagerSql("SELECT * FROM user", deepPager("nickname", "desc")).contains("myjpa_k"), "非实体列");
+        assertFalse(SqlBuilder.buildPagerSql("SELECT * FROM user", deepPager("id", "desc,1")).contains("myjpa_k"), "非法排序方向");
+        assertFalse(SqlBuilder.buildPagerSql("SELECT * FROM user LIMIT 5", deepPager(null, null)).contains("myjpa_k"), "已有分页");
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("4. 未达阈值、未开启或方言不支持时保持原有分页 SQL")
+    void test04_threshold() {
+        String wrapped = " select * from ( SELECT * FROM user ) as _mysqltb_  limit 10,10";
+        assertEquals(wrapped, SqlBuilder.buildPagerSql("SELECT * FROM user", new Pager<TestUser>(2, 10)));
+
+        SqlBuilder.deferredJoinOffset = 0;
+        assertFalse(SqlBuilder.buildPagerSql("SELECT * FROM user", deepPager(null, null)).contains("myjpa_k"));
+
+        SqlBuilder.deferredJoinOffset = 1000;
+        SqlBuilder.setDialect(new SqlServerDialect(true));
+        assertTrue(SqlBuilder.buildPagerSql("SELECT * FROM user", deepPager(null, null)).contains("_sqlservertb_"));
+    }
+}
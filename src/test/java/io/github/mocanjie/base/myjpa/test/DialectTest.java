@@ -0,0 +1,225 @@
+package io.github.mocanjie.base.myjpa.test;
+
+import io.github.mocanjie.base.mycommon.pager.Pager;
+import io.github.mocanjie.base.myjpa.builder.SqlBuilder;
+import io.github.mocanjie.base.myjpa.cache.TableCacheManager;
+import io.github.mocanjie.base.myjpa.dao.impl.BaseDaoImpl;
+import io.github.mocanjie.base.myjpa.dialect.Dialect;
+import io.github.mocanjie.base.myjpa.dialect.DialectResolver;
+import io.github.mocanjie.base.myjpa.dialect.KingbaseDialect;
+import io.github.mocanjie.base.myjpa.dialect.MySqlDialect;
+import io.github.mocanjie.base.myjpa.dialect.OracleDialect;
+import io.github.mocanjie.base.myjpa.dialect.PostgreSqlDialect;
+import io.github.mocanjie.base.myjpa.dialect.SqlServerDialect;
+import io.github.mocanjie.base.myjpa.metadata.TableInfo;
+import io.github.mocanjie.base.myjpa.pager.KeysetPager;
+import io.github.mocanjie.base.myjpa.parser.SqlParser;
+import io.github.mocanjie.base.myjpa.test.entity.TestUser;
+import io.github.mocanjie.base.myjpa.utils.MyReflectionUtils;
+import org.junit.jupiter.api.*;
+
+import java.lang.reflect.Proxy;
+import java.sql.DatabaseMetaData;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 数据库方言测试
+ *
+ * 覆盖范围：
+ *  - 按产品名与版本选择方言，自定义方言优先
+ *  - SQL Server 2012+ / Oracle 12c+ 的 OFFSET ... FETCH 分页，旧版本保持 row_number / rownum
+ *  - 各方言的 upsert SQL 与租户守卫，MySQL 8.0.19+ 行别名，不支持 upsert 的方言直接报错
+ *  - 多行插入参数上限，upsert 复用插入列的计算
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("数据库方言测试")
+class DialectTest {
+
+    private static DatabaseMetaData metaData(String productName, int majorVersion, String productVersion) {
+        return (DatabaseMetaData) Proxy.newProxyInstance(DialectTest.class.getClassLoader(),
+                new Class<?>[]{DatabaseMetaData.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "getDatabaseProductName" -> productName;
+                    case "getDatabaseProductVersion" -> productVersion;
+                    case "getDatabaseMajorVersion" -> majorVersion;
+                    default -> null;
+                });
+    }
+
+    private static final List<String> COLUMNS = List.of("id", "username");
+
+    @BeforeEach
+    void setup() {
+        SqlBuilder.setDialect(new MySqlDialect());
+        TableCacheManager.clearCache();
+        TableCacheManager.initCache("io.github.mocanjie.base.myjpa.test.entity");
+    }
+
+    @AfterAll
+    static void teardown() {
+        SqlBuilder.setDialect(new MySqlDialect());
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("1. 按产品名与版本选择方言，自定义方言优先")
+    void test01_resolve() throws Exception {
+        assertInstanceOf(MySqlDialect.class, DialectResolver.resolve(metaData("MySQL", 8, "8.0.33"), null));
+        assertInstanceOf(PostgreSqlDialect.class, DialectResolver.resolve(metaData("PostgreSQL", 16, "16.1"), null));
+        assertInstanceOf(KingbaseDialect.class, DialectResolver.resolve(metaData("KingbaseES", 8, "V008R006"), null));
+        assertTrue(((SqlServerDialect) DialectResolver.resolve(metaData("Microsoft SQL Server", 16, "16.00.1000"), null)).isOffsetFetch());
+        assertFalse(((SqlServerDialect) DialectResolver.resolve(metaData("Microsoft SQL Server", 10, "10.50.1600"), null)).isOffsetFetch());
+        assertTrue(((OracleDialect) DialectResolver.resolve(metaData("Oracle", 19, "Oracle Database 19c"), null)).isOffsetFetch());
+        assertFalse(((OracleDialect) DialectResolver.resolve(metaData("Oracle", 11, "Oracle Database 11g"), null)).isOffsetFetch());
+        assertEquals("mysql", DialectResolver.resolve(metaData("H2", 2, "2.2.224"), null).getName(), "未识别时使用 MySQL 方言");
+
+        Dialect cockroach = new PostgreSqlDialect() {
+            @Override
+            public boolean supports(String productName, int majorVersion, String productVersion) {
+                return productVersion.contains("cockroachdb");
+            }
+        };
+        assertSame(cockroach, DialectResolver.resolve(metaData("PostgreSQL", 13, "13.0 CockroachDB CCL v23.1"), List.of(cockroach)));
+        assertNotSame(cockroach, DialectResolver.resolve(metaData("PostgreSQL", 16, "16.1"), List.of(cockroach)));
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("2. SQL Server OFFSET ... FETCH 分页")
+    void test02_sqlServer() {
+        SqlBuilder.setDialect(new SqlServerDialect(true));
+        Pager<TestUser> pager = new Pager<>(2, 10);
+        assertEquals("SELECT * FROM user ORDER BY id offset 10 rows fetch next 10 rows only",
+                SqlBuilder.buildPagerSql("SELECT * FROM user ORDER BY id", pager), "原查询自带排序时直接追加分页");
+        assertEquals(" select * from ( SELECT * FROM user ) as _sqlservertb_  order by (select null) offset 10 rows fetch next 10 rows only",
+                SqlBuilder.buildPagerSql("SELECT * FROM user", pager));
+
+        pager.setSort("createTime");
+        pager.setOrder("desc");
+        assertEquals(" select * from ( SELECT * FROM user ) as _sqlservertb_  order by create_time desc offset 10 rows fetch next 10 rows only",
+                SqlBuilder.buildPagerSql("SELECT * FROM user ORDER BY id", pager), "指定排序时去掉派生表内的排序");
+
+        SqlBuilder.setDialect(new SqlServerDialect(false));
+        assertTrue(SqlBuilder.buildPagerSql("SELECT * FROM user", pager).contains("row_number()over(order by __tc__)"));
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("3. Oracle OFFSET ... FETCH 分页与 keyset")
+    @SuppressWarnings("deprecation")
+    void test03_oracle() {
+        SqlBuilder.setDialect(new OracleDialect(true));
+        assertEquals(2, SqlBuilder.type, "已废弃的 type 随方言同步");
+        Pager<TestUser> pager = new Pager<>(1, 10);
+        assertEquals("select * from ( SELECT * FROM user ) myjpa_p  offset 0 rows fetch next 10 rows only",
+                SqlBuilder.buildPagerSql("SELECT * FROM user", pager));
+        assertEquals("SELECT * FROM user ORDER BY id offset 0 rows fetch next 10 rows only",
+                SqlBuilder.buildPagerSql("SELECT * FROM user ORDER BY id", pager));
+        assertEquals("select * from ( SELECT * FROM user ) myjpa_k  order by id asc fetch first 11 rows only",
+                SqlBuilder.buildKeysetPagerSql("SELECT * FROM user", new KeysetPager<TestUser>(10).asc("id")));
+
+        SqlBuilder.setDialect(new OracleDialect(false));
+        assertTrue(SqlBuilder.buildPagerSql("SELECT * FROM user", pager).contains("rownum_userforpage"));
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("4. 各方言 upsert SQL 与租户守卫")
+    void test04_upsert() {
+        assertEquals("INSERT INTO user(id,username) VALUES (:id,:username) ON DUPLICATE KEY UPDATE username=VALUES(username)",
+                new MySqlDialect().buildUpsertSql("user", COLUMNS, COLUMNS, "id", null));
+        assertEquals("INSERT INTO user(id,username,tenant_id) VALUES (:id,:username,:myjpaTenantId) ON DUPLICATE KEY UPDATE"
+                        + " username=IF(tenant_id=VALUES(tenant_id),VALUES(username),username)",
+                new MySqlDialect().buildUpsertSql("user", List.of("id", "username", "tenant_id"),
+                        List.of("id", "username", "myjpaTenantId"), "id", "tenant_id"));
+        assertEquals("INSERT INTO user(id,username) VALUES (:id,:username) ON CONFLICT (id) DO UPDATE SET username=EXCLUDED.username",
+                new PostgreSqlDialect().buildUpsertSql("user", COLUMNS, COLUMNS, "id", null));
+        assertEquals("INSERT INTO user(id,tenant_id) VALUES (:id,:t) ON CONFLICT (id) DO NOTHING",
+                new KingbaseDialect().buildUpsertSql("user", List.of("id", "tenant_id"), List.of("id", "t"), "id", "tenant_id"));
+        assertEquals("MERGE INTO user WITH (HOLDLOCK) AS myjpa_t USING (SELECT :id AS id, :username AS username) AS myjpa_s"
+                        + " ON (myjpa_t.id = myjpa_s.id) WHEN MATCHED THEN UPDATE SET myjpa_t.username = myjpa_s.username"
+                        + " WHEN NOT MATCHED THEN INSERT (id,username) VALUES (myjpa_s.id,myjpa_s.username);",
+                new SqlServerDialect().buildUpsertSql("user", COLUMNS, COLUMNS, "id", null));
+        assertEquals("MERGE INTO user myjpa_t USING (SELECT :id AS id, :username AS username FROM dual) myjpa_s"
+                        + " ON (myjpa_t.id = myjpa_s.id) WHEN MATCHED THEN UPDATE SET myjpa_t.username = myjpa_s.username"
+                        + " WHEN NOT MATCHED THEN INSERT (id,username) VALUES (myjpa_s.id,myjpa_s.username)",
+                new OracleDialect().buildUpsertSql("user", COLUMNS, COLUMNS, "id", null));
+
+        assertEquals("INSERT INTO user(id,username,tenant_id) VALUES (:id,:username,:myjpaTenantId) AS myjpa_new"
+                        + " ON DUPLICATE KEY UPDATE username=IF(tenant_id=myjpa_new.tenant_id,myjpa_new.username,username)",
+                new MySqlDialect(true, false, true).buildUpsertSql("user", List.of("id", "username", "tenant_id"),
+                        List.of("id", "username", "myjpaTenantId"), "id", "tenant_id"), "MySQL 8.0.19+ 使用行别名");
+        assertTrue(((MySqlDialect) DialectResolver.resolve("mysql", 8, "8.0.35")).isRowAlias());
+        assertFalse(((MySqlDialect) DialectResolver.resolve("mysql", 8, "8.0.18")).isRowAlias());
+        assertFalse(((MySqlDialect) DialectResolver.resolve("mariadb", 10, "10.6.12-mariadb")).isRowAlias());
+
+        SqlBuilder.setDialect(new OracleDialect() {
+            @Override
+            public boolean supportsUpsert() {
+                return false;
+            }
+        });
+        UnsupportedOperationException e = assertThrows(UnsupportedOperationException.class,
+                () -> new BaseDaoImpl().upsertPO(new TestUser()));
+        assertTrue(e.getMessage().contains("不支持 upsert"), "不支持时直接告知调用方：" + e.getMessage());
+    }
+
+    @Test
+    @Order(5)
+    @DisplayName("5. 多行插入参数上限与 upsert 插入列")
+    void test05_insertColumns() {
+        assertEquals(200, new SqlServerDialect().maxInsertRows(10));
+        assertEquals(1000, new SqlServerDialect().maxInsertRows(1));
+        assertEquals(3276, new PostgreSqlDialect().maxInsertRows(10));
+
+        TableInfo tableInfo = new TableInfo()
+                .setTableName("user")
+                .setClazz(TestUser.class)
+                .setPkFieldName("id")
+                .setPkColumnName("id")
+                .setFieldList(MyReflectionUtils.getFieldList(TestUser.class))
+                .setDelColumnName("delete_flag")
+                .setDelFieldName("deleteFlag");
+        TestUser user = new TestUser();
+        user.setId(5L);
+        user.setUsername("a");
+        Map<String, String> columns = SqlParser.getInsertColumns(tableInfo, user, true);
+        assertEquals(Map.of("id", "id", "username", "username"), columns);
+        assertEquals("INSERT INTO user(id,username) VALUES (:id,:username)", SqlParser.getInsertSql(tableInfo, user));
+        assertEquals("INSERT INTO user(id,username) VALUES (:id,:username) ON CONFLICT (id) DO UPDATE SET username=EXCLUDED.username",
+                new PostgreSqlDialect().buildUpsertSql("user", new ArrayList<>(columns.keySet()),
+                        new ArrayList<>(columns.values()), tableInfo.getPkColumnName(), null));
+        assertEquals(List.of("id", "username", "delete_flag"), List.copyOf(SqlParser.getInsertColumns(tableInfo, user, false).keySet()));
+    }
+
+    @Test
+    @Order(6)
+    @DisplayName("6. 自带排序且末尾有注释或分号时不直接追加分页")
+    void test06_trailingCommentOrTerminator() {
+        Pager<TestUser> pager = new Pager<>(2, 10);
+        List<String> sqls = List.of("SELECT * FROM user ORDER BY id -- 按主键",
+                "SELECT * FROM user ORDER BY id /* 按主键 */",
+                "SELECT * FROM user ORDER BY id;");
+        for (String sql : sqls) {
+            SqlBuilder.setDialect(new OracleDialect(true));
+            String oracle = SqlBuilder.buildPagerSql(sql, pager);
+            assertTrue(oracle.startsWith("select * from ( SELECT * FROM user ORDER BY id"), oracle);
+            assertTrue(oracle.endsWith(" ) myjpa_p  offset 10 rows fetch next 10 rows only"), oracle);
+            assertFalse(oracle.contains(";"), oracle);
+
+            SqlBuilder.setDialect(new SqlServerDialect(true));
+            String sqlServer = SqlBuilder.buildPagerSql(sql, pager);
+            assertTrue(sqlServer.contains("select top 20 * FROM user ORDER BY id"), sqlServer);
+            assertTrue(sqlServer.contains("\n )  as _sqlservertb_") || !sql.contains("--"), "行注释后换行再闭合派生表：" + sqlServer);
+            assertFalse(sqlServer.contains(";"), sqlServer);
+        }
+
+        pager.setSort("createTime");
+        pager.setOrder("desc");
+        assertEquals(" select * from ( SELECT * FROM user ) as _sqlservertb_  order by create_time desc offset 10 rows fetch next 10 rows only",
+                SqlBuilder.buildPagerSql("SELECT * FROM user ORDER BY id -- 按主键", pager), "指定排序时用去掉排序与注释的 SQL 包裹");
+    }
+}
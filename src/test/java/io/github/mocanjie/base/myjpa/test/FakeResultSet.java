@@ -0,0 +1,196 @@
+package io.github.mocanjie.base.myjpa.test;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * 测试用结果集替身：按列定义与行数据代理 {@link ResultSet} / {@link ResultSetMetaData}
+ * <ul>
+ *   <li>按下标或列标签（忽略大小写）取值，数值 getter 遇 null 返回 0，{@code wasNull} 反映最近一次读取的值</li>
+ *   <li>{@code getObject(int, Class)} 将 Timestamp 转为 LocalDateTime，可模拟不支持该方法的旧驱动</li>
+ *   <li>未处理的方法返回 null 或基本类型默认值</li>
+ * </ul>
+ */
+final class FakeResultSet {
+
+    /**
+     * 列定义，未指定类型时为 {@link Types#OTHER}，默认有符号
+     */
+    record Column(String name, int sqlType, int precision, int scale, boolean signed) {
+
+        Column(String name, int sqlType, int precision, int scale) {
+            this(name, sqlType, precision, scale, true);
+        }
+
+        Column(String name, int sqlType) {
+            this(name, sqlType, 0, 0);
+        }
+
+        Column(String name) {
+            this(name, Types.OTHER);
+        }
+    }
+
+    private final List<Column> columns;
+
+    private final List<Object[]> rows;
+
+    private int cursor;
+
+    private Object last;
+
+    private boolean typedGetObject = true;
+
+    private List<String> reads;
+
+    private Consumer<String> events;
+
+    private AtomicInteger metaDataCalls;
+
+    private FakeResultSet(List<Column> columns, List<Object[]> rows, int cursor) {
+        this.columns = columns;
+        this.rows = rows;
+        this.cursor = cursor;
+    }
+
+    /** 多行结果集，需先调用 next */
+    static FakeResultSet typed(List<Column> columns, List<Object[]> rows) {
+        return new FakeResultSet(columns, rows, -1);
+    }
+
+    /** 多行结果集，需先调用 next */
+    static FakeResultSet of(List<String> columns, List<Object[]> rows) {
+        return typed(columns.stream().map(Column::new).toList(), rows);
+    }
+
+    /** 多行结果集，列名取第一行的键，需先调用 next */
+    static FakeResultSet rows(List<Map<String, Object>> rows) {
+        List<String> columns = new ArrayList<>(rows.get(0).keySet());
+        return of(columns, rows.stream().map(row -> columns.stream().map(row::get).toArray()).toList());
+    }
+
+    /** 单行结果集，已定位在该行 */
+    static ResultSet row(Map<String, Object> row) {
+        FakeResultSet fake = rows(List.of(row));
+        fake.cursor = 0;
+        return fake.resultSet();
+    }
+
+    /** 记录读取列值调用的 getter 名 */
+    FakeResultSet reads(List<String> reads) {
+        this.reads = reads;
+        return this;
+    }
+
+    /** 通知 next / close 调用 */
+    FakeResultSet events(Consumer<String> events) {
+        this.events = events;
+        return this;
+    }
+
+    /** 累计 getMetaData 调用次数 */
+    FakeResultSet countMetaData(AtomicInteger metaDataCalls) {
+        this.metaDataCalls = metaDataCalls;
+        return this;
+    }
+
+    /** 模拟 JDBC 4.2 之前的驱动：getObject(int, Class) 抛出 SQLFeatureNotSupportedException */
+    FakeResultSet withoutTypedGetObject() {
+        this.typedGetObject = false;
+        return this;
+    }
+
+    ResultSet resultSet() {
+        ResultSetMetaData metaData = proxy(ResultSetMetaData.class, (method, args) -> switch (method.getName()) {
+            case "getColumnCount" -> columns.size();
+            case "getColumnLabel", "getColumnName" -> column(args).name();
+            case "getColumnType" -> column(args).sqlType();
+            case "getPrecision" -> column(args).precision();
+            case "getScale" -> column(args).scale();
+            case "isSigned" -> column(args).signed();
+            default -> null;
+        });
+        return proxy(ResultSet.class, (method, args) -> switch (method.getName()) {
+            case "getMetaData" -> {
+                if (metaDataCalls != null) metaDataCalls.incrementAndGet();
+                yield metaData;
+            }
+            case "next" -> {
+                if (events != null) events.accept("next");
+                yield ++cursor < rows.size();
+            }
+            case "close" -> {
+                if (events != null) events.accept("close");
+                yield null;
+            }
+            case "wasNull" -> last == null;
+            default -> method.getName().startsWith("get") && args != null ? read(method.getName(), args) : null;
+        });
+    }
+
+    private Column column(Object[] args) {
+        return columns.get((int) args[0] - 1);
+    }
+
+    private Object read(String getter, Object[] args) throws SQLFeatureNotSupportedException {
+        Object value = rows.get(cursor)[index(args[0])];
+        last = value;
+        if (reads != null) reads.add(getter);
+        return switch (getter) {
+            case "getInt" -> value == null ? 0 : ((Number) value).intValue();
+            case "getLong" -> value == null ? 0L : ((Number) value).longValue();
+            case "getDouble" -> value == null ? 0d : ((Number) value).doubleValue();
+            case "getFloat" -> value == null ? 0f : ((Number) value).floatValue();
+            case "getShort" -> value == null ? (short) 0 : ((Number) value).shortValue();
+            case "getByte" -> value == null ? (byte) 0 : ((Number) value).byteValue();
+            case "getBoolean" -> value != null && (Boolean) value;
+            case "getString" -> value == null ? null : value.toString();
+            case "getObject" -> {
+                if (args.length == 2) {
+                    if (!typedGetObject) throw new SQLFeatureNotSupportedException();
+                    if (value instanceof Timestamp ts && args[1] == LocalDateTime.class) yield ts.toLocalDateTime();
+                }
+                yield value;
+            }
+            default -> value;
+        };
+    }
+
+    private int index(Object columnIndexOrLabel) {
+        if (columnIndexOrLabel instanceof Integer index) return index - 1;
+        for (int i = 0; i < columns.size(); i++) {
+            if (columns.get(i).name().equalsIgnoreCase((String) columnIndexOrLabel)) return i;
+        }
+        throw new IllegalArgumentException("没有列 " + columnIndexOrLabel);
+    }
+
+    @FunctionalInterface
+    interface Handler {
+        Object handle(Method method, Object[] args) throws Throwable;
+    }
+
+    /** 代理未处理的基本类型返回值取默认值 */
+    @SuppressWarnings("unchecked")
+    static <T> T proxy(Class<T> type, Handler handler) {
+        return (T) Proxy.newProxyInstance(FakeResultSet.class.getClassLoader(), new Class<?>[]{type}, (p, method, args) -> {
+            Object result = handler.handle(method, args);
+            Class<?> r = method.getReturnType();
+            if (result == null && r.isPrimitive() && r != void.class) {
+                return r == boolean.class ? (Object) false : r == long.class ? (Object) 0L : r == double.class ? (Object) 0d
+                        : r == float.class ? (Object) 0f : r == short.class ? (Object) (short) 0 : r == byte.class ? (Object) (byte) 0 : (Object) 0;
+            }
+            return result;
+        });
+    }
+}
@@ -0,0 +1,242 @@
+package io.github.mocanjie.base.myjpa.test;
+
+import io.github.mocanjie.base.myjpa.accessor.EntityAccessor;
+import io.github.mocanjie.base.myjpa.accessor.EntityAccessors;
+import io.github.mocanjie.base.myjpa.annotation.MyTable;
+import io.github.mocanjie.base.myjpa.processor.MyTableAnnotationProcessor;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.TypeMismatchException;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.BeanPropertySqlParameterSource;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 编译期生成的实体访问器测试
+ *
+ * 覆盖范围：
+ *  - APT 为符合条件的 @MyTable 实体生成访问器并写出 ServiceLoader 索引，缺少 setter 的实体跳过
+ *  - 生成的行映射器：主键 / 删除列 / @MyField 列名、专用 getter、null 写入基本类型
+ *  - 生成的参数绑定器：getter 取值、SQL 类型推断、非字段 getter 回退
+ *  - EntityAccessors 注册表查找、开关与非实体参数回退
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("编译期生成的实体访问器测试")
+class GeneratedAccessorTest {
+
+    private static final String ACCOUNT = """
+            package demo;
+
+            import io.github.mocanjie.base.myjpa.MyTableEntity;
+            import io.github.mocanjie.base.myjpa.annotation.MyField;
+            import io.github.mocanjie.base.myjpa.annotation.MyTable;
+            import java.math.BigDecimal;
+            import java.time.LocalDateTime;
+
+            @MyTable(value = "account", pkColumn = "account_id")
+            public class Account implements MyTableEntity {
+                private Long id;
+                @MyField("acct_name")
+                private String name;
+                private int age;
+                private Boolean enabled;
+                private BigDecimal balance;
+                private LocalDateTime createTime;
+                private Integer deleteFlag;
+                private static int counter;
+
+                public Long getId() { return id; }
+                public void setId(Long id) { this.id = id; }
+                public String getName() { return name; }
+                public Account setName(String name) { this.name = name; return this; }
+                public int getAge() { return age; }
+                public void setAge(int age) { this.age = age; }
+                public Boolean getEnabled() { return enabled; }
+                public void setEnabled(Boolean enabled) { this.enabled = enabled; }
+                public BigDecimal getBalance() { return balance; }
+                public void setBalance(BigDecimal balance) { this.balance = balance; }
+                public LocalDateTime getCreateTime() { return createTime; }
+                public void setCreateTime(LocalDateTime createTime) { this.createTime = createTime; }
+                public Integer getDeleteFlag() { return deleteFlag; }
+                public void setDeleteFlag(Integer deleteFlag) { this.deleteFlag = deleteFlag; }
+                public String getDisplay() { return name + "(" + age + ")"; }
+            }
+            """;
+
+    private static final String READ_ONLY = """
+            package demo;
+
+            import io.github.mocanjie.base.myjpa.MyTableEntity;
+            import io.github.mocanjie.base.myjpa.annotation.MyTable;
+
+            @MyTable("read_only")
+            public class ReadOnly implements MyTableEntity {
+                private Long id;
+
+                public Long getId() { return id; }
+            }
+            """;
+
+    @TempDir
+    static Path dir;
+
+    private static URLClassLoader loader;
+
+    private static String diagnostics;
+
+    @BeforeAll
+    static void compile() throws Exception {
+        Path src = Files.createDirectories(dir.resolve("src/demo"));
+        Path out = Files.createDirectories(dir.resolve("out"));
+        Files.writeString(src.resolve("Account.java"), ACCOUNT);
+        Files.writeString(src.resolve("ReadOnly.java"), READ_ONLY);
+
+        // 编译生成代码需要的最小类路径：本项目与 Spring 相关模块
+        String classpath = Stream.of(MyTable.class, RowMapper.class, BeanWrapper.class, ConversionService.class, DataAccessException.class)
+                .map(c -> c.getProtectionDomain().getCodeSource().getLocation().getPath())
+                .distinct().collect(Collectors.joining(File.pathSeparator));
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        StringWriter output = new StringWriter();
+        try (StandardJavaFileManager files = compiler.getStandardFileManager(null, null, null)) {
+            JavaCompiler.CompilationTask task = compiler.getTask(output, files, null,
+                    List.of("-classpath", classpath, "-d", out.toString(), "-s", out.toString()),
+                    null, files.getJavaFileObjects(src.resolve("Account.java").toFile(), src.resolve("ReadOnly.java").toFile()));
+            task.setProcessors(List.of(new MyTableAnnotationProcessor()));
+            assertTrue(task.call(), output::toString);
+            diagnostics = output.toString();
+        }
+        loader = new URLClassLoader(new java.net.URL[]{out.toUri().toURL()}, GeneratedAccessorTest.class.getClassLoader());
+    }
+
+    @AfterAll
+    static void restore() throws Exception {
+        EntityAccessors.enabled = true;
+        EntityAccessors.clear();
+        loader.close();
+    }
+
+    private static ResultSet resultSet(Map<String, Object> row) {
+        return FakeResultSet.row(row);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static EntityAccessor<Object> accessor() {
+        for (EntityAccessor<?> accessor : ServiceLoader.load(EntityAccessor.class, loader)) {
+            if (accessor.entityClass().getName().equals("demo.Account")) return (EntityAccessor<Object>) accessor;
+        }
+        throw new AssertionError("未加载到 demo.Account 的访问器");
+    }
+
+    private static Object get(Object bean, String getter) throws Exception {
+        return bean.getClass().getMethod(getter).invoke(bean);
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("1. 生成访问器与索引，缺少 setter 的实体跳过")
+    void test01_generate() throws Exception {
+        Path out = dir.resolve("out");
+        assertTrue(Files.exists(out.resolve("demo/Account_MyJpa.java")));
+        assertTrue(Files.exists(out.resolve("demo/Account_MyJpa.class")));
+        assertFalse(Files.exists(out.resolve("demo/ReadOnly_MyJpa.java")));
+        assertTrue(diagnostics.contains("demo.ReadOnly"), diagnostics);
+        assertEquals(List.of("demo.Account_MyJpa"),
+                Files.readAllLines(out.resolve("META-INF/services/" + EntityAccessor.class.getName())));
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("2. 生成的行映射器")
+    void test02_rowMapper() throws Exception {
+        RowMapper<Object> mapper = accessor().rowMapper();
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("ACCOUNT_ID", 7L);
+        row.put("acct_name", "tom");
+        row.put("AGE", 30);
+        row.put("enabled", null);
+        row.put("balance", new BigDecimal("1.50"));
+        row.put("create_time", Timestamp.valueOf("2024-05-06 07:08:09"));
+        row.put("delete_flag", 0);
+        row.put("unknown", "x");
+        Object account = mapper.mapRow(resultSet(row), 0);
+        assertEquals(7L, get(account, "getId"), "主键字段映射 pkColumn");
+        assertEquals("tom", get(account, "getName"), "@MyField 列名");
+        assertEquals(30, get(account, "getAge"));
+        assertNull(get(account, "getEnabled"), "包装类型按 wasNull 写入 null");
+        assertEquals(new BigDecimal("1.50"), get(account, "getBalance"));
+        assertEquals(LocalDateTime.of(2024, 5, 6, 7, 8, 9), get(account, "getCreateTime"));
+        assertEquals(0, get(account, "getDeleteFlag"), "删除标记字段映射 delColumn");
+
+        Map<String, Object> nullAge = new LinkedHashMap<>();
+        nullAge.put("age", null);
+        assertThrows(TypeMismatchException.class, () -> mapper.mapRow(resultSet(nullAge), 0));
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("3. 生成的参数绑定器")
+    void test03_parameterSource() throws Exception {
+        EntityAccessor<Object> accessor = accessor();
+        Object account = accessor.entityClass().getConstructor().newInstance();
+        account.getClass().getMethod("setName", String.class).invoke(account, "amy");
+        account.getClass().getMethod("setAge", int.class).invoke(account, 20);
+        account.getClass().getMethod("setBalance", BigDecimal.class).invoke(account, new BigDecimal("2"));
+
+        SqlParameterSource params = accessor.parameterSource(account);
+        assertEquals("amy", params.getValue("name"));
+        assertEquals(20, params.getValue("age"));
+        assertEquals(Types.DECIMAL, params.getSqlType("balance"));
+        assertEquals(Types.TIMESTAMP, params.getSqlType("createTime"));
+        assertTrue(params.hasValue("deleteFlag"));
+        assertNull(params.getValue("deleteFlag"));
+        assertFalse(params.hasValue("nope"));
+        assertTrue(params.hasValue("display"), "非字段 getter 回退到 BeanPropertySqlParameterSource");
+        assertEquals("amy(20)", params.getValue("display"));
+        assertThrows(IllegalArgumentException.class, () -> params.getValue("nope"));
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("4. 注册表查找、开关与回退")
+    void test04_registry() throws Exception {
+        EntityAccessor<Object> accessor = accessor();
+        EntityAccessors.register(accessor);
+        Class<Object> entityClass = accessor.entityClass();
+        assertSame(accessor.rowMapper(), EntityAccessors.getRowMapper(entityClass));
+        Object account = entityClass.getConstructor().newInstance();
+        assertFalse(EntityAccessors.parameterSource(account) instanceof BeanPropertySqlParameterSource);
+        assertTrue(EntityAccessors.parameterSource(new ColumnPlanTest.UserVO()) instanceof BeanPropertySqlParameterSource,
+                "没有生成访问器的类型回退到反射");
+        assertEquals(2, EntityAccessors.parameterSources(List.of(account, account)).length);
+
+        EntityAccessors.enabled = false;
+        assertNull(EntityAccessors.getRowMapper(entityClass));
+        assertTrue(EntityAccessors.parameterSource(account) instanceof BeanPropertySqlParameterSource);
+        EntityAccessors.enabled = true;
+    }
+}
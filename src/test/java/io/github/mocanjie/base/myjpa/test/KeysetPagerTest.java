@@ -0,0 +1,170 @@
+package io.github.mocanjie.base.myjpa.test;
+
+import io.github.mocanjie.base.myjpa.builder.SqlBuilder;
+import io.github.mocanjie.base.myjpa.cache.TableCacheManager;
+import io.github.mocanjie.base.myjpa.dialect.MySqlDialect;
+import io.github.mocanjie.base.myjpa.dialect.OracleDialect;
+import io.github.mocanjie.base.myjpa.dialect.PostgreSqlDialect;
+import io.github.mocanjie.base.myjpa.dialect.SqlServerDialect;
+import io.github.mocanjie.base.myjpa.lambda.LambdaQueryWrapper;
+import io.github.mocanjie.base.myjpa.pager.KeysetPager;
+import io.github.mocanjie.base.myjpa.pager.KeysetSqlParameterSource;
+import io.github.mocanjie.base.myjpa.pager.KeysetToken;
+import io.github.mocanjie.base.myjpa.parser.JSqlDynamicSqlParser;
+import io.github.mocanjie.base.myjpa.tenant.TenantAwareSqlParameterSource;
+import io.github.mocanjie.base.myjpa.test.entity.TestUser;
+import org.junit.jupiter.api.*;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * keyset（seek）分页测试
+ *
+ * 覆盖范围：
+ *  - 各数据库方言的分页 SQL（行值比较 / OR 展开 / 第一页无条件）
+ *  - 续页令牌编解码与非法令牌、非法排序列
+ *  - 多取一行判断下一页并生成令牌
+ *  - LambdaQueryWrapper 自动补齐主键排序，与逻辑删除、租户参数共同使用
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("keyset 分页测试")
+class KeysetPagerTest {
+
+    @BeforeEach
+    void setup() {
+        SqlBuilder.setDialect(new MySqlDialect());
+        TableCacheManager.clearCache();
+        TableCacheManager.initCache("io.github.mocanjie.base.myjpa.test.entity");
+    }
+
+    @AfterAll
+    static void teardown() {
+        SqlBuilder.setDialect(new MySqlDialect());
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("1. MySQL 行值比较与第一页")
+    void test01_mysql() {
+        KeysetPager<TestUser> first = new KeysetPager<TestUser>(20).desc("create_time").desc("id");
+        assertEquals(" select * from ( SELECT id, create_time FROM user ) as _keysettb_  order by create_time desc, id desc limit 21",
+                SqlBuilder.buildKeysetPagerSql("SELECT id, create_time FROM user", first));
+
+        KeysetPager<TestUser> next = new KeysetPager<TestUser>(20).desc("create_time").desc("id").after("2024-01-01", 5L);
+        assertEquals(" select * from ( SELECT id, create_time FROM user ) as _keysettb_  where (create_time, id) < (:myjpaKeyset0, :myjpaKeyset1)"
+                        + " order by create_time desc, id desc limit 21",
+                SqlBuilder.buildKeysetPagerSql("SELECT id, create_time FROM user", next));
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("2. 排序方向不一致或不支持行值比较时展开为 OR 条件")
+    void test02_expanded() {
+        SqlBuilder.setDialect(new PostgreSqlDialect());
+        KeysetPager<TestUser> mixed = new KeysetPager<TestUser>(10).desc("age").asc("id").after(18, 7L);
+        assertEquals(" select * from ( SELECT id, age FROM user ) as _keysettb_  where ((age < :myjpaKeyset0)"
+                        + " or (age = :myjpaKeyset0 and id > :myjpaKeyset1)) order by age desc, id asc LIMIT 11",
+                SqlBuilder.buildKeysetPagerSql("SELECT id, age FROM user", mixed));
+
+        SqlBuilder.setDialect(new SqlServerDialect(false));
+        KeysetPager<TestUser> sqlServer = new KeysetPager<TestUser>(10).asc("age").asc("id").after(18, 7L);
+        assertEquals(" select top 11 * from ( SELECT id, age FROM user ) as _keysettb_  where ((age > :myjpaKeyset0)"
+                        + " or (age = :myjpaKeyset0 and id > :myjpaKeyset1)) order by age asc, id asc",
+                SqlBuilder.buildKeysetPagerSql("SELECT id, age FROM user", sqlServer));
+
+        SqlBuilder.setDialect(new OracleDialect(false));
+        KeysetPager<TestUser> oracle = new KeysetPager<TestUser>(10).asc("id").after(7L);
+        assertEquals("select * from ( select * from ( SELECT * FROM user ) myjpa_k  where id > :myjpaKeyset0"
+                        + " order by id asc ) where rownum <= 11",
+                SqlBuilder.buildKeysetPagerSql("SELECT * FROM user", oracle));
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("3. 令牌编解码保持类型，非法令牌抛出异常")
+    void test03_token() {
+        Timestamp ts = Timestamp.valueOf("2024-05-01 10:00:00.123456789");
+        List<Object> values = List.of("张三", 5L, 3, new BigDecimal("1.50"), true, ts, LocalDateTime.of(2024, 1, 2, 3, 4));
+        assertEquals(values, KeysetToken.decode(KeysetToken.encode(values)));
+
+        assertThrows(IllegalArgumentException.class, () -> KeysetToken.decode("not-a-token"));
+        assertThrows(IllegalArgumentException.class, () -> KeysetToken.encode(List.of(new Object())));
+
+        KeysetPager<TestUser> pager = new KeysetPager<TestUser>(10).asc("id").after(KeysetToken.encode(List.of(1L, 2L)));
+        assertThrows(IllegalArgumentException.class, () -> SqlBuilder.buildKeysetPagerSql("SELECT * FROM user", pager));
+        assertThrows(IllegalStateException.class,
+                () -> SqlBuilder.buildKeysetPagerSql("SELECT * FROM user", new KeysetPager<TestUser>(10)));
+        assertThrows(IllegalArgumentException.class, () -> new KeysetPager<TestUser>(10).asc("id desc, (select 1)"),
+                "排序列直接写入 SQL，只允许列名");
+        assertThrows(IllegalArgumentException.class,
+                () -> SqlBuilder.buildKeysetPagerSql("SELECT * FROM user", new KeysetPager<TestUser>(10).asc("age")),
+                "不是查询列输出名，也不是实体表的列");
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("4. 多取一行判断下一页，并由最后一行生成令牌")
+    void test04_fill() {
+        KeysetPager<TestUser> pager = new KeysetPager<TestUser>(2).asc("username").asc("id");
+        List<TestUser> rows = new ArrayList<>();
+        for (long i = 1; i <= 3; i++) {
+            TestUser u = new TestUser();
+            u.setId(i);
+            u.setUsername("u" + i);
+            rows.add(u);
+        }
+        pager.fill(rows);
+        assertTrue(pager.isHasNext());
+        assertEquals(2, pager.getPageData().size());
+        assertEquals(List.of("u2", 2L), KeysetToken.decode(pager.getNextToken()));
+        assertTrue(pager.getIgnoreCount());
+
+        pager.fill(rows.subList(0, 1));
+        assertFalse(pager.isHasNext());
+        assertNull(pager.getNextToken());
+
+        // Map 结果按列名取值
+        KeysetPager<Map<String, Object>> mapPager = new KeysetPager<Map<String, Object>>(1).asc("ID");
+        mapPager.fill(List.of(Map.of("id", 9L), Map.of("id", 10L)));
+        assertEquals(List.of(9L), KeysetToken.decode(mapPager.getNextToken()));
+    }
+
+    @Test
+    @Order(5)
+    @DisplayName("5. LambdaQueryWrapper 补齐主键排序，与逻辑删除、租户参数共同使用")
+    void test05_lambda() {
+        LambdaQueryWrapper<TestUser, TestUser> q = new LambdaQueryWrapper<>(TestUser.class, TestUser.class, null);
+        q.select(TestUser::getUsername).eq(TestUser::getUsername, "张三").orderByDesc(TestUser::getUsername);
+        KeysetPager<TestUser> pager = new KeysetPager<>(10);
+        String inner = q.buildKeysetSql(pager);
+        assertEquals("SELECT username, id FROM user WHERE username = :lwp0", inner);
+        assertEquals(List.of(new KeysetPager.SortKey("username", "username", true), new KeysetPager.SortKey("id", "id", true)),
+                pager.getSortKeys());
+
+        pager.after("李四", 3L);
+        String pageSql = SqlBuilder.buildKeysetPagerSql(JSqlDynamicSqlParser.appendDeleteCondition(inner), pager);
+        assertTrue(pageSql.contains("delete_flag = 0"), pageSql);
+        assertTrue(pageSql.contains("where (username, id) < (:myjpaKeyset0, :myjpaKeyset1) order by username desc, id desc limit 11"), pageSql);
+
+        SqlParameterSource sps = new KeysetSqlParameterSource(
+                new TenantAwareSqlParameterSource(new MapSqlParameterSource(q.getParams()), JSqlDynamicSqlParser.TENANT_PARAM_NAME, 100L),
+                SqlBuilder.KEYSET_PARAM_PREFIX, pager.getLastKey());
+        assertEquals("张三", sps.getValue("lwp0"));
+        assertEquals(100L, sps.getValue(JSqlDynamicSqlParser.TENANT_PARAM_NAME));
+        assertEquals("李四", sps.getValue("myjpaKeyset0"));
+        assertEquals(3L, sps.getValue("myjpaKeyset1"));
+        assertFalse(sps.hasValue("myjpaKeyset2"));
+
+        // 普通 buildSql 不受影响
+        assertEquals("SELECT username FROM user WHERE username = :lwp0 ORDER BY username DESC", q.buildSql());
+    }
+}
@@ -2,6 +2,7 @@ package io.github.mocanjie.base.myjpa.test;
 
 import io.github.mocanjie.base.myjpa.builder.SqlBuilder;
 import io.github.mocanjie.base.myjpa.cache.TableCacheManager;
+import io.github.mocanjie.base.myjpa.dialect.MySqlDialect;
 import io.github.mocanjie.base.myjpa.lambda.LambdaQueryWrapper;
 import io.github.mocanjie.base.myjpa.test.entity.TestUser;
 import org.junit.jupiter.api.*;
@@ -22,7 +23,7 @@ class LambdaQueryWrapperTest {
 
     @BeforeAll
     static void setup() {
-        SqlBuilder.type = 1;
+        SqlBuilder.setDialect(new MySqlDialect());
         TableCacheManager.initCache("io.github.mocanjie.base.myjpa.test.entity");
     }
 
@@ -0,0 +1,144 @@
+package io.github.mocanjie.base.myjpa.test;
+
+import io.github.mocanjie.base.myjpa.rowmapper.MappedProperty;
+import io.github.mocanjie.base.myjpa.rowmapper.MyBeanPropertyRowMapper;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.NotWritablePropertyException;
+import org.springframework.beans.TypeMismatchException;
+import org.springframework.core.convert.support.DefaultConversionService;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 预编译属性写入器测试
+ *
+ * 覆盖范围：
+ *  - setter 写入（含链式 setter、基本类型参数、继承的 setter）
+ *  - 无 setter 字段通过 VarHandle 写入，final 字段不可写
+ *  - 值类型不符时经 ConversionService 转换，null 写入基本类型抛出 TypeMismatchException
+ *  - 行映射器不再依赖 BeanWrapper，映射结果与原实现一致
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("预编译属性写入器测试")
+class MappedPropertyTest {
+
+    public enum Status { ENABLED, DISABLED }
+
+    public static class BaseVO {
+        private Long id;
+
+        public Long getId() { return id; }
+        public void setId(Long id) { this.id = id; }
+    }
+
+    public static class OrderVO extends BaseVO {
+        private int quantity;
+        private BigDecimal amount;
+        private LocalDateTime createTime;
+        private Status status;
+        private String remark;
+        private final String code = "c";
+
+        public int getQuantity() { return quantity; }
+        public void setQuantity(int quantity) { this.quantity = quantity; }
+        public BigDecimal getAmount() { return amount; }
+        public OrderVO setAmount(BigDecimal amount) { this.amount = amount; return this; }
+        public LocalDateTime getCreateTime() { return createTime; }
+        public void setCreateTime(LocalDateTime createTime) { this.createTime = createTime; }
+        public Status getStatus() { return status; }
+        public void setStatus(Status status) { this.status = status; }
+        public String getRemark() { return remark; }
+        public String getCode() { return code; }
+    }
+
+    private static ResultSet resultSet(Map<String, Object> row) {
+        return FakeResultSet.row(row);
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("1. setter 写入：链式、基本类型、继承")
+    void test01_setter() throws Exception {
+        OrderVO vo = new OrderVO();
+        MappedProperty.ofSetter(OrderVO.class, "amount", BigDecimal.class,
+                OrderVO.class.getMethod("setAmount", BigDecimal.class), null).write(vo, new BigDecimal("1.5"));
+        MappedProperty.ofSetter(OrderVO.class, "quantity", int.class,
+                OrderVO.class.getMethod("setQuantity", int.class), null).write(vo, 3);
+        MappedProperty.ofSetter(OrderVO.class, "id", Long.class,
+                BaseVO.class.getMethod("setId", Long.class), null).write(vo, 7L);
+        assertEquals(new BigDecimal("1.5"), vo.getAmount());
+        assertEquals(3, vo.getQuantity());
+        assertEquals(7L, vo.getId());
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("2. 无 setter 字段通过 VarHandle 写入，final 字段不可写")
+    void test02_field() throws Exception {
+        OrderVO vo = new OrderVO();
+        MappedProperty remark = MappedProperty.ofField(OrderVO.class, OrderVO.class.getDeclaredField("remark"), null);
+        assertTrue(remark.isWritable());
+        remark.write(vo, "r");
+        assertEquals("r", vo.getRemark());
+
+        MappedProperty code = MappedProperty.ofField(OrderVO.class, OrderVO.class.getDeclaredField("code"), null);
+        assertFalse(code.isWritable());
+        assertThrows(NotWritablePropertyException.class, () -> code.write(vo, "x"));
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("3. 类型转换与 null 写入基本类型")
+    void test03_conversion() throws Exception {
+        OrderVO vo = new OrderVO();
+        DefaultConversionService cs = new DefaultConversionService();
+        MappedProperty id = MappedProperty.ofSetter(OrderVO.class, "id", Long.class, BaseVO.class.getMethod("setId", Long.class), cs);
+        id.write(vo, 5);
+        assertEquals(5L, vo.getId(), "Integer 转 Long");
+        id.write(vo, new BigDecimal("6"));
+        assertEquals(6L, vo.getId(), "源值类型变化时重新解析转换器");
+
+        MappedProperty status = MappedProperty.ofSetter(OrderVO.class, "status", Status.class,
+                OrderVO.class.getMethod("setStatus", Status.class), cs);
+        status.write(vo, "DISABLED");
+        assertEquals(Status.DISABLED, vo.getStatus());
+
+        MappedProperty quantity = MappedProperty.ofSetter(OrderVO.class, "quantity", int.class,
+                OrderVO.class.getMethod("setQuantity", int.class), cs);
+        assertThrows(TypeMismatchException.class, () -> quantity.write(vo, null));
+        assertThrows(TypeMismatchException.class, () -> quantity.write(vo, "abc"));
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("4. 行映射器映射结果")
+    void test04_mapRow() throws Exception {
+        Timestamp now = Timestamp.valueOf("2024-01-02 03:04:05");
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("id", 1L);
+        row.put("quantity", 2);
+        row.put("amount", new BigDecimal("9.90"));
+        row.put("create_time", now);
+        row.put("status", "ENABLED");
+        row.put("unknown_column", "x");
+        OrderVO vo = new MyBeanPropertyRowMapper<>(OrderVO.class).mapRow(resultSet(row), 0);
+        assertEquals(1L, vo.getId());
+        assertEquals(2, vo.getQuantity());
+        assertEquals(new BigDecimal("9.90"), vo.getAmount());
+        assertEquals(now.toLocalDateTime(), vo.getCreateTime());
+        assertEquals(Status.ENABLED, vo.getStatus());
+
+        MyBeanPropertyRowMapper<OrderVO> mapper = new MyBeanPropertyRowMapper<>(OrderVO.class);
+        mapper.setPrimitivesDefaultedForNullValue(true);
+        Map<String, Object> nullRow = new LinkedHashMap<>();
+        nullRow.put("quantity", null);
+        assertEquals(0, mapper.mapRow(resultSet(nullRow), 0).getQuantity(), "允许 null 时保持基本类型默认值");
+    }
+}
@@ -3,6 +3,7 @@ package io.github.mocanjie.base.myjpa.test;
 import io.github.mocanjie.base.mycommon.pager.Pager;
 import io.github.mocanjie.base.myjpa.builder.SqlBuilder;
 import io.github.mocanjie.base.myjpa.cache.TableCacheManager;
+import io.github.mocanjie.base.myjpa.dialect.MySqlDialect;
 import io.github.mocanjie.base.myjpa.parser.JSqlDynamicSqlParser;
 import org.junit.jupiter.api.*;
 
@@ -22,7 +23,7 @@ class MySQL8CompatibilityTest {
 
     @BeforeAll
     static void setup() {
-        SqlBuilder.type = 1; // MySQL 模式
+        SqlBuilder.setDialect(new MySqlDialect()); // MySQL 模式
         TableCacheManager.initCache("io.github.mocanjie.base.myjpa.test.entity");
         assertNotNull(TableCacheManager.getDeleteInfoByTableName("user"),
                 "TestUser (@MyTable value=user) 应被成功缓存");
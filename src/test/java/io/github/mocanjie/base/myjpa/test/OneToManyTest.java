@@ -0,0 +1,215 @@
+package io.github.mocanjie.base.myjpa.test;
+
+import io.github.mocanjie.base.myjpa.annotation.MyOneToMany;
+import io.github.mocanjie.base.myjpa.builder.SqlBuilder;
+import io.github.mocanjie.base.myjpa.cache.RowMapperCache;
+import io.github.mocanjie.base.myjpa.cache.TableCacheManager;
+import io.github.mocanjie.base.myjpa.dao.impl.BaseDaoImpl;
+import io.github.mocanjie.base.myjpa.dialect.MySqlDialect;
+import io.github.mocanjie.base.myjpa.rowmapper.OneToManyAssembler;
+import io.github.mocanjie.base.myjpa.test.entity.TestUser;
+import io.github.mocanjie.base.myjpa.test.FakeResultSet.Column;
+import org.junit.jupiter.api.*;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.sql.ResultSet;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 一对多组装测试
+ *
+ * 覆盖范围：
+ *  - 按 @MyTable 主键分组（行无序），左连接无子行时集合为空，整数主键走 long 键哈希表
+ *  - 多个集合的笛卡尔积按子对象主键去重
+ *  - 流式组装：主键变化时输出、finish 输出最后一个、整数主键排序方向改变时报错；@MyOneToMany(parentKey) 字符串主键
+ *  - BaseDaoImpl.queryOneToManyListForSql / queryOneToManyStreamForSql 经过条件注入
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("一对多组装测试")
+class OneToManyTest {
+
+    public static class RoleVO {
+        private Long id;
+        private String name;
+
+        public Long getId() { return id; }
+        public void setId(Long id) { this.id = id; }
+        public String getName() { return name; }
+        public void setName(String name) { this.name = name; }
+    }
+
+    public static class TagVO {
+        private String name;
+
+        public String getName() { return name; }
+        public void setName(String name) { this.name = name; }
+    }
+
+    public static class UserVO extends TestUser {
+        @MyOneToMany(prefix = "role_")
+        private List<RoleVO> roles;
+
+        public List<RoleVO> getRoles() { return roles; }
+    }
+
+    public static class UserDetailVO extends TestUser {
+        @MyOneToMany(prefix = "role_")
+        private List<RoleVO> roles;
+
+        @MyOneToMany(prefix = "tag_", childKey = "name")
+        private List<TagVO> tags;
+
+        public List<RoleVO> getRoles() { return roles; }
+        public List<TagVO> getTags() { return tags; }
+    }
+
+    public static class DeptVO {
+        private String deptCode;
+
+        @MyOneToMany(prefix = "emp_", parentKey = "dept_code")
+        private List<RoleVO> members;
+
+        public String getDeptCode() { return deptCode; }
+        public void setDeptCode(String deptCode) { this.deptCode = deptCode; }
+        public List<RoleVO> getMembers() { return members; }
+    }
+
+    private static final List<Column> USER_ROLE = List.of(new Column("id", Types.BIGINT), new Column("username", Types.VARCHAR),
+            new Column("role_id", Types.BIGINT), new Column("role_name", Types.VARCHAR));
+
+    /** 多行结果集替身 */
+    private static ResultSet resultSet(List<Column> columns, List<Object[]> rows) {
+        return FakeResultSet.typed(columns, rows).resultSet();
+    }
+
+    private static <T> OneToManyAssembler<T> assembler(Class<T> clazz) {
+        return RowMapperCache.getOneToManyMapping(clazz).newAssembler(RowMapperCache.getBeanPropertyRowMapper(clazz));
+    }
+
+    @BeforeEach
+    void setup() {
+        TableCacheManager.clearCache();
+        TableCacheManager.initCache("io.github.mocanjie.base.myjpa.test.entity");
+        SqlBuilder.setDialect(new MySqlDialect());
+    }
+
+    @AfterAll
+    static void restore() {
+        SqlBuilder.setDialect(new MySqlDialect());
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("1. 按 @MyTable 主键分组，行无序")
+    void test01_list() throws Exception {
+        assertEquals("id", RowMapperCache.getOneToManyMapping(UserVO.class).getParentKeyColumn(), "父主键取自 @MyTable 父类");
+        List<Object[]> rows = List.of(
+                new Object[]{1L, "a", 10L, "admin"},
+                new Object[]{2L, "b", null, null},
+                new Object[]{1L, "a", 11L, "dev"});
+        List<UserVO> users = assembler(UserVO.class).extractData(resultSet(USER_ROLE, rows));
+        assertEquals(List.of(1L, 2L), users.stream().map(UserVO::getId).toList(), "按首次出现的顺序");
+        assertEquals("a", users.get(0).getUsername());
+        assertEquals(List.of("admin", "dev"), users.get(0).getRoles().stream().map(RoleVO::getName).toList());
+        assertEquals(List.of(10L, 11L), users.get(0).getRoles().stream().map(RoleVO::getId).toList(), "去掉前缀后映射子对象");
+        assertTrue(users.get(1).getRoles().isEmpty(), "左连接无子行时集合为空");
+
+        assertThrows(InvalidDataAccessApiUsageException.class, () -> RowMapperCache.getOneToManyMapping(RoleVO.class),
+                "没有 @MyOneToMany 字段");
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("2. 多个集合按子对象主键去重")
+    void test02_multipleCollections() throws Exception {
+        List<Column> columns = new ArrayList<>(USER_ROLE);
+        columns.add(new Column("tag_name", Types.VARCHAR));
+        List<Object[]> rows = List.of(
+                new Object[]{1L, "a", 10L, "admin", "x"},
+                new Object[]{1L, "a", 10L, "admin", "y"},
+                new Object[]{1L, "a", 11L, "dev", "x"},
+                new Object[]{1L, "a", 11L, "dev", "y"});
+        List<UserDetailVO> users = assembler(UserDetailVO.class).extractData(resultSet(columns, rows));
+        assertEquals(1, users.size());
+        assertEquals(List.of(10L, 11L), users.get(0).getRoles().stream().map(RoleVO::getId).toList());
+        assertEquals(List.of("x", "y"), users.get(0).getTags().stream().map(TagVO::getName).toList());
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("3. 流式组装与排序校验")
+    void test03_streaming() throws Exception {
+        List<Object[]> rows = List.of(
+                new Object[]{"D1", 1L, "tom"},
+                new Object[]{"D1", 2L, "amy"},
+                new Object[]{"D2", 3L, "bob"});
+        List<Column> columns = List.of(new Column("dept_code", Types.VARCHAR), new Column("emp_id", Types.BIGINT),
+                new Column("emp_name", Types.VARCHAR));
+        ResultSet rs = resultSet(columns, rows);
+        OneToManyAssembler<DeptVO> assembler = assembler(DeptVO.class);
+        List<DeptVO> emitted = new ArrayList<>();
+        for (int i = 0; rs.next(); i++) {
+            DeptVO completed = assembler.mapRow(rs, i);
+            if (i < 2) assertNull(completed, "同一父对象的行不输出");
+            if (completed != null) emitted.add(completed);
+        }
+        assertEquals(1, emitted.size(), "主键变化时输出上一个");
+        assertEquals(List.of("tom", "amy"), emitted.get(0).getMembers().stream().map(RoleVO::getName).toList());
+        DeptVO last = assembler.finish();
+        assertEquals("D2", last.getDeptCode());
+        assertNull(assembler.finish());
+
+        List<Object[]> descending = List.of(new Object[]{2L, "b", 11L, "dev"}, new Object[]{1L, "a", 10L, "admin"},
+                new Object[]{1L, "a", 12L, "ops"});
+        ResultSet descendingRs = resultSet(USER_ROLE, descending);
+        OneToManyAssembler<UserVO> descendingUsers = assembler(UserVO.class);
+        for (int i = 0; descendingRs.next(); i++) descendingUsers.mapRow(descendingRs, i);
+        assertEquals(2, descendingUsers.finish().getRoles().size(), "按父主键降序同样可以流式组装");
+
+        List<Object[]> unordered = List.of(new Object[]{1L, "a", 10L, "admin"}, new Object[]{2L, "b", 11L, "dev"},
+                new Object[]{1L, "a", 12L, "ops"});
+        ResultSet unorderedRs = resultSet(USER_ROLE, unordered);
+        OneToManyAssembler<UserVO> users = assembler(UserVO.class);
+        assertThrows(InvalidDataAccessApiUsageException.class, () -> {
+            for (int i = 0; unorderedRs.next(); i++) users.mapRow(unorderedRs, i);
+        }, "同一主键的行不相邻");
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("4. BaseDaoImpl 一对多查询")
+    void test04_dao() {
+        StreamingQueryTest.RecordingDataSource db = new StreamingQueryTest.RecordingDataSource();
+        db.columns.addAll(List.of("role_id", "role_name"));
+        db.rows.add(new Object[]{1L, "a", 10L, "admin"});
+        db.rows.add(new Object[]{1L, "a", 11L, "dev"});
+        db.rows.add(new Object[]{2L, "b", 12L, "ops"});
+        NamedParameterJdbcTemplate template = new NamedParameterJdbcTemplate(new JdbcTemplate(db.dataSource()));
+        BaseDaoImpl dao = new BaseDaoImpl() {
+            {
+                namedParameterJdbcTemplate = template;
+            }
+        };
+        String sql = "select u.id, u.username, r.id role_id, r.name role_name from user u left join role r on r.user_id = u.id order by u.id";
+
+        List<UserVO> users = dao.queryOneToManyListForSql(sql, (Object) null, UserVO.class);
+        assertTrue(db.preparedSql.contains("delete_flag"), "经过逻辑删除条件注入：" + db.preparedSql);
+        assertEquals(2, users.size());
+        assertEquals(2, users.get(0).getRoles().size());
+
+        db.calls.clear();
+        try (Stream<UserVO> stream = dao.queryOneToManyStreamForSql(sql, (Object) null, UserVO.class)) {
+            List<UserVO> streamed = stream.toList();
+            assertEquals(List.of(1L, 2L), streamed.stream().map(UserVO::getId).toList());
+            assertEquals(List.of("ops"), streamed.get(1).getRoles().stream().map(RoleVO::getName).toList());
+        }
+        assertTrue(db.calls.contains("connection.close"));
+    }
+}
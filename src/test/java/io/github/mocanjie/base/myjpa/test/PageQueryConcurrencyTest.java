@@ -0,0 +1,219 @@
+package io.github.mocanjie.base.myjpa.test;
+
+import io.github.mocanjie.base.mycommon.pager.Pager;
+import io.github.mocanjie.base.myjpa.builder.SqlBuilder;
+import io.github.mocanjie.base.myjpa.cache.TableCacheManager;
+import io.github.mocanjie.base.myjpa.dao.impl.BaseDaoImpl;
+import io.github.mocanjie.base.myjpa.dialect.MySqlDialect;
+import io.github.mocanjie.base.myjpa.service.IBaseService;
+import io.github.mocanjie.base.myjpa.service.impl.BaseServiceImpl;
+import org.junit.jupiter.api.*;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.dao.DataRetrievalFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.AnnotationTransactionAttributeSource;
+import org.springframework.transaction.interceptor.TransactionInterceptor;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 分页 count 与数据查询并发执行测试
+ * 用记录调用线程的 NamedParameterJdbcTemplate 替身代替数据库
+ *
+ * 覆盖范围：
+ *  - 开启后 count 在虚拟线程上与分页查询同时执行
+ *  - Spring 事务内自动串行，仅有事务同步（SUPPORTS）时仍并发
+ *  - count 异常原样抛出
+ *  - 关闭时保持串行，总数为 0 时不执行分页查询
+ *  - 经事务代理调用 BaseServiceImpl 时同样并发，外层事务内串行
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("分页 count 并发执行测试")
+class PageQueryConcurrencyTest {
+
+    /** 记录每条 SQL 的执行线程；count 可等待分页查询开始，用于证明两者同时进行 */
+    static class RecordingTemplate extends NamedParameterJdbcTemplate {
+        final List<String> calls = new CopyOnWriteArrayList<>();
+        final CountDownLatch pageStarted = new CountDownLatch(1);
+        volatile boolean countWaitsForPage;
+        volatile long total = 3L;
+        volatile RuntimeException countFailure;
+
+        RecordingTemplate() {
+            super(new JdbcTemplate());
+        }
+
+        @Override
+        public <T> T queryForObject(String sql, SqlParameterSource paramSource, RowMapper<T> rowMapper) {
+            calls.add("count@" + (Thread.currentThread().isVirtual() ? "virtual" : "caller"));
+            if (countFailure != null) throw countFailure;
+            if (countWaitsForPage) {
+                try {
+                    assertTrue(pageStarted.await(5, TimeUnit.SECONDS), "count 未与分页查询并发执行");
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+            @SuppressWarnings("unchecked")
+            T result = (T) Long.valueOf(total);
+            return result;
+        }
+
+        @Override
+        public <T> List<T> query(String sql, SqlParameterSource paramSource, RowMapper<T> rowMapper) {
+            calls.add("page@" + (Thread.currentThread().isVirtual() ? "virtual" : "caller"));
+            pageStarted.countDown();
+            return List.of();
+        }
+    }
+
+    /** 不连接数据库的事务管理器，事务开始时记录只读标记 */
+    static class NoopTransactionManager extends AbstractPlatformTransactionManager {
+        final List<Boolean> begun = new CopyOnWriteArrayList<>();
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object[1];
+        }
+
+        @Override
+        protected boolean isExistingTransaction(Object transaction) {
+            return TransactionSynchronizationManager.isActualTransactionActive();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+            begun.add(definition.isReadOnly());
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+
+    private RecordingTemplate template;
+    private BaseDaoImpl dao;
+
+    @BeforeEach
+    void setup() {
+        SqlBuilder.setDialect(new MySqlDialect());
+        BaseDaoImpl.concurrentCount = true;
+        TableCacheManager.clearCache();
+        TableCacheManager.initCache("io.github.mocanjie.base.myjpa.test.entity");
+        template = new RecordingTemplate();
+        dao = new BaseDaoImpl() {
+            {
+                namedParameterJdbcTemplate = template;
+            }
+        };
+    }
+
+    @AfterAll
+    static void teardown() {
+        BaseDaoImpl.concurrentCount = false;
+    }
+
+    private Pager<Map> page() {
+        return dao.queryPageForSql("SELECT * FROM user WHERE age > :age", Map.of("age", 18), new Pager<>(1, 10), Map.class);
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("1. count 在虚拟线程上与分页查询并发执行")
+    void test01_concurrent() {
+        template.countWaitsForPage = true;
+        Pager<Map> pager = page();
+        assertEquals(3L, pager.getTotalRows());
+        assertNotNull(pager.getPageData());
+        assertTrue(template.calls.containsAll(List.of("count@virtual", "page@caller")), template.calls.toString());
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("2. 事务内串行执行，仅有事务同步时并发")
+    void test02_serialInTransaction() {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            page();
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+        assertEquals(List.of("count@caller", "page@caller"), template.calls);
+
+        template.calls.clear();
+        try {
+            page();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertTrue(template.calls.containsAll(List.of("count@virtual", "page@caller")), template.calls.toString());
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("3. count 异常原样抛出")
+    void test03_failure() {
+        template.countFailure = new DataRetrievalFailureException("boom");
+        assertThrows(DataRetrievalFailureException.class, this::page);
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("4. 关闭时串行，总数为 0 不执行分页查询")
+    void test04_disabled() {
+        BaseDaoImpl.concurrentCount = false;
+        template.total = 0L;
+        Pager<Map> pager = page();
+        assertEquals(0L, pager.getTotalRows());
+        assertTrue(pager.getPageData().isEmpty());
+        assertEquals(List.of("count@caller"), template.calls);
+    }
+
+    @Test
+    @Order(5)
+    @DisplayName("5. 经事务代理调用服务分页时并发，外层事务内串行")
+    void test05_throughServiceProxy() {
+        NoopTransactionManager transactionManager = new NoopTransactionManager();
+        BaseServiceImpl target = new BaseServiceImpl() {
+            {
+                baseDao = dao;
+            }
+        };
+        ProxyFactory proxyFactory = new ProxyFactory(target);
+        proxyFactory.addInterface(IBaseService.class);
+        proxyFactory.addAdvice(new TransactionInterceptor(transactionManager, new AnnotationTransactionAttributeSource()));
+        IBaseService service = (IBaseService) proxyFactory.getProxy();
+
+        template.countWaitsForPage = true;
+        Pager<Map> pager = service.queryPageForSql("SELECT * FROM user WHERE age > :age", Map.of("age", 18), new Pager<>(1, 10), Map.class);
+        assertEquals(3L, pager.getTotalRows());
+        assertTrue(template.calls.containsAll(List.of("count@virtual", "page@caller")), template.calls.toString());
+        assertTrue(transactionManager.begun.isEmpty(), "分页查询不应开启只读事务");
+
+        template.countWaitsForPage = false;
+        template.calls.clear();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> service.queryPageForSql(
+                "SELECT * FROM user WHERE age > :age", Map.of("age", 18), new Pager<>(1, 10), Map.class));
+        assertEquals(List.of("count@caller", "page@caller"), template.calls);
+        assertEquals(List.of(false), transactionManager.begun);
+    }
+}
@@ -0,0 +1,127 @@
+package io.github.mocanjie.base.myjpa.test;
+
+import io.github.mocanjie.base.mycommon.pager.Pager;
+import io.github.mocanjie.base.myjpa.builder.SqlBuilder;
+import io.github.mocanjie.base.myjpa.cache.TableCacheManager;
+import io.github.mocanjie.base.myjpa.dialect.MySqlDialect;
+import io.github.mocanjie.base.myjpa.dialect.PostgreSqlDialect;
+import io.github.mocanjie.base.myjpa.dialect.SqlServerDialect;
+import io.github.mocanjie.base.myjpa.test.entity.TestUser;
+import org.junit.jupiter.api.*;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 排序与分页下推测试
+ *
+ * 覆盖范围：
+ *  - 实体列注册表
+ *  - 单表 / 多表查询直接追加排序与分页，替换原查询的排序
+ *  - 排序列按查询列或实体列校验，无法确认时回退为派生表包裹
+ *  - UNION、已有分页、注释等不适合下推的查询回退为派生表包裹
+ *  - 未开启或方言不支持时保持原有分页 SQL
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("排序与分页下推测试")
+class PagerPushDownTest {
+
+    private static final String WRAPPED = " select * from ( SELECT * FROM user ) as _mysqltb_  order by username desc limit 10,10";
+
+    @BeforeEach
+    void setup() {
+        SqlBuilder.setDialect(new MySqlDialect());
+        SqlBuilder.pushDownEnabled = true;
+        TableCacheManager.clearCache();
+        TableCacheManager.initCache("io.github.mocanjie.base.myjpa.test.entity");
+    }
+
+    @AfterAll
+    static void teardown() {
+        SqlBuilder.setDialect(new MySqlDialect());
+        SqlBuilder.pushDownEnabled = false;
+    }
+
+    private static Pager<TestUser> pager(String sort, String order) {
+        Pager<TestUser> pager = new Pager<>(2, 10);
+        pager.setSort(sort);
+        pager.setOrder(order);
+        return pager;
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("1. 实体列注册表")
+    void test01_columns() {
+        assertEquals(Set.of("id", "username", "delete_flag"), TableCacheManager.getColumnsByTableName("user"));
+        assertEquals(Set.of("id", "role_name", "is_deleted"), TableCacheManager.getColumnsByTableName("ROLE"));
+        assertTrue(TableCacheManager.getColumnsByTableName("not_exists").isEmpty());
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("2. 单表查询直接追加排序与分页")
+    void test02_singleTable() {
+        assertEquals("SELECT * FROM user WHERE delete_flag = 0 limit 10,10",
+                SqlBuilder.buildPagerSql("SELECT * FROM user WHERE delete_flag = 0", new Pager<TestUser>(2, 10)));
+        assertEquals("SELECT * FROM user WHERE delete_flag = 0 order by username desc limit 10,10",
+                SqlBuilder.buildPagerSql("SELECT * FROM user WHERE delete_flag = 0", pager("username", "desc")));
+        assertEquals("SELECT * FROM user order by delete_flag asc limit 10,10",
+                SqlBuilder.buildPagerSql("SELECT * FROM user ORDER BY id", pager("deleteFlag", "asc")), "pager 排序替换原查询排序");
+        assertEquals("SELECT id, username AS name FROM user order by name desc limit 10,10",
+                SqlBuilder.buildPagerSql("SELECT id, username AS name FROM user", pager("name", "desc")), "按查询列别名排序");
+
+        SqlBuilder.setDialect(new PostgreSqlDialect());
+        assertEquals("SELECT * FROM user order by username desc OFFSET 10 LIMIT 10",
+                SqlBuilder.buildPagerSql("SELECT * FROM user", pager("username", "desc")));
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("3. 多表查询按列归属加限定名")
+    void test03_join() {
+        String sql = "SELECT u.username, r.role_name FROM user u JOIN role r ON u.id = r.id";
+        assertEquals(sql + " order by r.role_name asc limit 10,10", SqlBuilder.buildPagerSql(sql, pager("roleName", "asc")));
+        assertEquals(sql + " order by u.delete_flag desc limit 10,10", SqlBuilder.buildPagerSql(sql, pager("deleteFlag", "desc")));
+        assertTrue(SqlBuilder.buildPagerSql(sql, pager("id", "desc")).contains("_mysqltb_"), "多张表都有该列时无法确定归属");
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("4. 排序列无法确认时回退为派生表包裹")
+    void test04_unknownSort() {
+        assertTrue(SqlBuilder.buildPagerSql("SELECT * FROM user", pager("nickname", "desc")).contains("_mysqltb_"), "非实体列");
+        assertTrue(SqlBuilder.buildPagerSql("SELECT * FROM user", pager("username", "desc;drop")).contains("_mysqltb_"), "非法排序方向");
+        assertTrue(SqlBuilder.buildPagerSql("SELECT * FROM (SELECT * FROM user) t", pager("username", "desc")).contains("_mysqltb_"), "FROM 子查询");
+        assertTrue(SqlBuilder.buildPagerSql("SELECT username, count(*) AS c FROM user GROUP BY username", pager("id", "desc"))
+                .contains("_mysqltb_"), "分组查询只能按查询列排序");
+        assertEquals("SELECT username, count(*) AS c FROM user GROUP BY username order by c desc limit 10,10",
+                SqlBuilder.buildPagerSql("SELECT username, count(*) AS c FROM user GROUP BY username", pager("c", "desc")));
+    }
+
+    @Test
+    @Order(5)
+    @DisplayName("5. 不适合下推的查询回退为派生表包裹")
+    void test05_fallback() {
+        Pager<TestUser> pager = pager("username", "desc");
+        assertEquals(WRAPPED.replace("SELECT * FROM user", "SELECT * FROM user UNION SELECT * FROM user"),
+                SqlBuilder.buildPagerSql("SELECT * FROM user UNION SELECT * FROM user", pager));
+        assertEquals(WRAPPED.replace("SELECT * FROM user", "SELECT * FROM user LIMIT 100"),
+                SqlBuilder.buildPagerSql("SELECT * FROM user LIMIT 100", pager));
+        assertTrue(SqlBuilder.buildPagerSql("SELECT * FROM user -- comment", pager).contains("_mysqltb_"));
+        assertTrue(SqlBuilder.buildPagerSql("SELECT * FROM user FOR UPDATE", pager).contains("_mysqltb_"));
+    }
+
+    @Test
+    @Order(6)
+    @DisplayName("6. 未开启或方言不支持时保持原有分页 SQL")
+    void test06_disabled() {
+        SqlBuilder.pushDownEnabled = false;
+        assertEquals(WRAPPED, SqlBuilder.buildPagerSql("SELECT * FROM user", pager("username", "desc")));
+
+        SqlBuilder.pushDownEnabled = true;
+        SqlBuilder.setDialect(new SqlServerDialect(true));
+        assertTrue(SqlBuilder.buildPagerSql("SELECT * FROM user", pager("username", "desc")).contains("_sqlservertb_"));
+    }
+}
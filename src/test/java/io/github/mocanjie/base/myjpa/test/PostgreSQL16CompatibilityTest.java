@@ -3,6 +3,7 @@ package io.github.mocanjie.base.myjpa.test;
 import io.github.mocanjie.base.mycommon.pager.Pager;
 import io.github.mocanjie.base.myjpa.builder.SqlBuilder;
 import io.github.mocanjie.base.myjpa.cache.TableCacheManager;
+import io.github.mocanjie.base.myjpa.dialect.PostgreSqlDialect;
 import io.github.mocanjie.base.myjpa.parser.JSqlDynamicSqlParser;
 import org.junit.jupiter.api.*;
 
@@ -22,7 +23,7 @@ class PostgreSQL16CompatibilityTest {
 
     @BeforeAll
     static void setup() {
-        SqlBuilder.type = 5; // PostgreSQL 模式
+        SqlBuilder.setDialect(new PostgreSqlDialect()); // PostgreSQL 模式
         TableCacheManager.initCache("io.github.mocanjie.base.myjpa.test.entity");
         assertNotNull(TableCacheManager.getDeleteInfoByTableName("user"),
                 "TestUser (@MyTable value=user) 应被成功缓存");
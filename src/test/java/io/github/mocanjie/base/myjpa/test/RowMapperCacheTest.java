@@ -0,0 +1,97 @@
+package io.github.mocanjie.base.myjpa.test;
+
+import io.github.mocanjie.base.myjpa.cache.RowMapperCache;
+import io.github.mocanjie.base.myjpa.cache.TableCacheManager;
+import io.github.mocanjie.base.myjpa.test.entity.TestUser;
+import org.junit.jupiter.api.*;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 行映射器缓存测试
+ *
+ * 覆盖范围：
+ *  - 同一结果类型复用同一映射器，不同 ConversionService 各自缓存
+ *  - 单列映射器按类型缓存
+ *  - 元数据不完整的 @MyTable 实体映射器不缓存
+ *  - 共享映射器映射结果正确，evict 后重新创建
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("行映射器缓存测试")
+class RowMapperCacheTest {
+
+    public static class UserVO {
+        private Long id;
+        private String userName;
+
+        public Long getId() { return id; }
+        public void setId(Long id) { this.id = id; }
+        public String getUserName() { return userName; }
+        public void setUserName(String userName) { this.userName = userName; }
+    }
+
+    private static ResultSet resultSet(Map<String, Object> row) {
+        return FakeResultSet.row(row);
+    }
+
+    @BeforeEach
+    void setup() {
+        TableCacheManager.clearCache();
+        TableCacheManager.initCache("io.github.mocanjie.base.myjpa.test.entity");
+        RowMapperCache.evict(UserVO.class);
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("1. 同一结果类型复用同一映射器")
+    void test01_reuse() {
+        RowMapper<UserVO> mapper = RowMapperCache.getBeanPropertyRowMapper(UserVO.class);
+        assertSame(mapper, RowMapperCache.getBeanPropertyRowMapper(UserVO.class));
+        assertSame(mapper, RowMapperCache.getBeanPropertyRowMapper(UserVO.class, DefaultConversionService.getSharedInstance()));
+
+        RowMapper<UserVO> custom = RowMapperCache.getBeanPropertyRowMapper(UserVO.class, new DefaultConversionService());
+        assertNotSame(mapper, custom, "不同 ConversionService 各自缓存");
+        assertNotSame(mapper, RowMapperCache.getBeanPropertyRowMapper(UserVO.class, null));
+        assertSame(RowMapperCache.getBeanPropertyRowMapper(UserVO.class, null), RowMapperCache.getBeanPropertyRowMapper(UserVO.class, null));
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("2. 单列映射器按类型缓存")
+    void test02_singleColumn() {
+        assertSame(RowMapperCache.getSingleColumnRowMapper(Long.class), RowMapperCache.getSingleColumnRowMapper(Long.class));
+        assertNotSame(RowMapperCache.getSingleColumnRowMapper(Long.class), RowMapperCache.getSingleColumnRowMapper(String.class));
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("3. 元数据不完整的 @MyTable 实体映射器不缓存")
+    void test03_incompleteEntity() {
+        // 单元测试中 TableInfoBuilder 未初始化，实体映射器只能按属性名映射
+        assertNotSame(RowMapperCache.getBeanPropertyRowMapper(TestUser.class), RowMapperCache.getBeanPropertyRowMapper(TestUser.class));
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("4. 共享映射器映射结果正确，evict 后重新创建")
+    void test04_mapAndEvict() throws Exception {
+        RowMapper<UserVO> mapper = RowMapperCache.getBeanPropertyRowMapper(UserVO.class);
+        for (long i = 1; i <= 2; i++) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("id", i);
+            row.put("user_name", "u" + i);
+            UserVO vo = mapper.mapRow(resultSet(row), (int) i - 1);
+            assertEquals(i, vo.getId());
+            assertEquals("u" + i, vo.getUserName());
+        }
+
+        RowMapperCache.evict(UserVO.class);
+        assertNotSame(mapper, RowMapperCache.getBeanPropertyRowMapper(UserVO.class));
+    }
+}
@@ -0,0 +1,140 @@
+package io.github.mocanjie.base.myjpa.test;
+
+import io.github.mocanjie.base.myjpa.builder.SqlBuilder;
+import io.github.mocanjie.base.myjpa.cache.TableCacheManager;
+import io.github.mocanjie.base.myjpa.dao.impl.BaseDaoImpl;
+import io.github.mocanjie.base.myjpa.dialect.MySqlDialect;
+import io.github.mocanjie.base.myjpa.lambda.LambdaQueryWrapper;
+import io.github.mocanjie.base.myjpa.rowmapper.MyBeanPropertyRowMapper;
+import io.github.mocanjie.base.myjpa.rowmapper.ReusingRowMapper;
+import io.github.mocanjie.base.myjpa.test.entity.TestUser;
+import org.junit.jupiter.api.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 复用实例的流式映射测试
+ *
+ * 覆盖范围：
+ *  - ReusingRowMapper 单实例复用，每行覆盖映射列（含 null）
+ *  - 基本类型 null 写入默认值不残留上一行，多个实例环形轮换
+ *  - record 无法复用时每行新建
+ *  - BaseDaoImpl.queryForEachReusingForSql / LambdaQueryWrapper.forEachReusing
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("复用实例的流式映射测试")
+class RowReuseTest {
+
+    public record Point(int x, int y) {}
+
+    /** 多行结果集替身，列名取第一行的键 */
+    private static ResultSet resultSet(List<Map<String, Object>> rows) {
+        return FakeResultSet.rows(rows).resultSet();
+    }
+
+    private static Map<String, Object> row(Object... keyValues) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (int i = 0; i < keyValues.length; i += 2) {
+            row.put((String) keyValues[i], keyValues[i + 1]);
+        }
+        return row;
+    }
+
+    @AfterAll
+    static void restore() {
+        SqlBuilder.setDialect(new MySqlDialect());
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("1. 单实例复用，每行覆盖映射列")
+    void test01_singleInstance() throws Exception {
+        ResultSet rs = resultSet(List.of(row("user_id", 1L, "hits", 10), row("user_id", null, "hits", 20)));
+        ReusingRowMapper<ColumnReaderTest.MetricVO> mapper =
+                new ReusingRowMapper<>(new MyBeanPropertyRowMapper<>(ColumnReaderTest.MetricVO.class), 1);
+        assertTrue(rs.next());
+        ColumnReaderTest.MetricVO first = mapper.mapRow(rs, 0);
+        assertEquals(1L, first.getUserId());
+        assertTrue(rs.next());
+        ColumnReaderTest.MetricVO second = mapper.mapRow(rs, 1);
+        assertSame(first, second, "复用同一实例");
+        assertNull(second.getUserId(), "null 覆盖上一行的值");
+        assertEquals(20, second.getHits());
+        assertThrows(IllegalArgumentException.class, () -> new ReusingRowMapper<>(new MyBeanPropertyRowMapper<>(TestUser.class), 0));
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("2. 基本类型 null 写入默认值，多实例轮换")
+    void test02_primitiveAndRing() throws Exception {
+        ResultSet rs = resultSet(List.of(row("hits", 5), row("hits", null), row("hits", 7)));
+        MyBeanPropertyRowMapper<ColumnReaderTest.MetricVO> delegate = new MyBeanPropertyRowMapper<>(ColumnReaderTest.MetricVO.class);
+        delegate.setPrimitivesDefaultedForNullValue(true);
+        ReusingRowMapper<ColumnReaderTest.MetricVO> mapper = new ReusingRowMapper<>(delegate, 2);
+        List<ColumnReaderTest.MetricVO> seen = new ArrayList<>();
+        List<Integer> hits = new ArrayList<>();
+        for (int i = 0; rs.next(); i++) {
+            ColumnReaderTest.MetricVO vo = mapper.mapRow(rs, i);
+            seen.add(vo);
+            hits.add(vo.getHits());
+        }
+        assertEquals(List.of(5, 0, 7), hits, "null 行写入默认值而不是保留上一行");
+        assertNotSame(seen.get(0), seen.get(1), "相邻两行使用不同实例");
+        assertSame(seen.get(0), seen.get(2), "第 n 行与第 n + instances 行复用同一实例");
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("3. record 每行新建")
+    void test03_record() throws Exception {
+        ResultSet rs = resultSet(List.of(row("x", 1, "y", 2), row("x", 3, "y", 4)));
+        ReusingRowMapper<Point> mapper = new ReusingRowMapper<>(new MyBeanPropertyRowMapper<>(Point.class), 1);
+        assertTrue(rs.next());
+        Point first = mapper.mapRow(rs, 0);
+        assertTrue(rs.next());
+        Point second = mapper.mapRow(rs, 1);
+        assertEquals(new Point(1, 2), first);
+        assertEquals(new Point(3, 4), second);
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("4. BaseDaoImpl 与 LambdaQueryWrapper 复用回调")
+    void test04_dao() {
+        TableCacheManager.clearCache();
+        TableCacheManager.initCache("io.github.mocanjie.base.myjpa.test.entity");
+        SqlBuilder.setDialect(new MySqlDialect());
+        StreamingQueryTest.RecordingDataSource db = new StreamingQueryTest.RecordingDataSource();
+        db.rows.add(new Object[]{1L, "a"});
+        db.rows.add(new Object[]{2L, "b"});
+        NamedParameterJdbcTemplate template = new NamedParameterJdbcTemplate(new JdbcTemplate(db.dataSource()));
+        BaseDaoImpl dao = new BaseDaoImpl() {
+            {
+                namedParameterJdbcTemplate = template;
+            }
+        };
+
+        List<TestUser> instances = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        dao.queryForEachReusingForSql("select id, username from user", (Object) null, TestUser.class, 1, u -> {
+            instances.add(u);
+            names.add(u.getUsername());
+        });
+        assertEquals(List.of("a", "b"), names);
+        assertSame(instances.get(0), instances.get(1));
+        assertTrue(db.preparedSql.contains("delete_flag"), "经过逻辑删除条件注入");
+        assertTrue(db.calls.contains("connection.close"));
+
+        List<Long> ids = new ArrayList<>();
+        new LambdaQueryWrapper<>(TestUser.class, TestUser.class, dao).forEachReusing(2, u -> ids.add(u.getId()));
+        assertEquals(List.of(1L, 2L), ids);
+    }
+}
@@ -0,0 +1,148 @@
+package io.github.mocanjie.base.myjpa.test;
+
+import io.github.mocanjie.base.myjpa.cache.SqlRewriteCache;
+import io.github.mocanjie.base.myjpa.cache.SqlRewriteCacheStore;
+import io.github.mocanjie.base.myjpa.cache.TableCacheManager;
+import io.github.mocanjie.base.myjpa.parser.JSqlDynamicSqlParser;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * SQL 改写缓存持久化测试
+ *
+ * 覆盖范围：
+ *  - 保存后重新加载，请求直接命中缓存
+ *  - 租户路径条目保持 key 区分
+ *  - 注册表指纹不一致时丢弃并删除文件
+ *  - 文件损坏/不存在时安全返回
+ *  - 改写配置（拼接式改写开关）变化时丢弃文件
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("SQL 改写缓存持久化测试")
+class SqlRewriteCacheStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void setup() {
+        SqlRewriteCache.enabled = true;
+        TableCacheManager.clearCache();
+        TableCacheManager.initCache("io.github.mocanjie.base.myjpa.test.entity");
+        JSqlDynamicSqlParser.tenantEnabled = false;
+        SqlRewriteCache.resetStats();
+    }
+
+    @AfterAll
+    static void teardown() {
+        JSqlDynamicSqlParser.tenantEnabled = false;
+        JSqlDynamicSqlParser.spliceRewriteEnabled = true;
+        TableCacheManager.clearCache();
+        TableCacheManager.initCache("io.github.mocanjie.base.myjpa.test.entity");
+    }
+
+    /** 模拟重启：清空注册表与缓存后按相同配置重新初始化 */
+    private void restart() {
+        TableCacheManager.clearCache();
+        TableCacheManager.initCache("io.github.mocanjie.base.myjpa.test.entity");
+        SqlRewriteCache.resetStats();
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("1. 保存后重新加载命中缓存")
+    void test01_roundTrip() {
+        Path file = tempDir.resolve("cache/sql-rewrite.bin");
+        String sql = "SELECT * FROM user WHERE age > 18";
+        String expected = JSqlDynamicSqlParser.appendDeleteCondition(sql);
+        JSqlDynamicSqlParser.appendDeleteCondition("SELECT * FROM role");
+
+        assertEquals(2, SqlRewriteCacheStore.save(file));
+        assertTrue(Files.exists(file));
+
+        restart();
+        assertEquals(0, SqlRewriteCache.size());
+        assertEquals(2, SqlRewriteCacheStore.load(file));
+
+        assertEquals(expected, JSqlDynamicSqlParser.appendDeleteCondition(sql));
+        assertEquals(1, SqlRewriteCache.getHitCount());
+        assertEquals(0, SqlRewriteCache.getMissCount());
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("2. 租户路径条目按 key 区分")
+    void test02_tenantEntries() {
+        Path file = tempDir.resolve("sql-rewrite.bin");
+        JSqlDynamicSqlParser.tenantEnabled = true;
+        TableCacheManager.registerTenantTable("user");
+        String sql = "SELECT * FROM user";
+        String deleteOnly = JSqlDynamicSqlParser.appendDeleteCondition(sql);
+        String withTenant = JSqlDynamicSqlParser.appendConditions(sql);
+        assertNotEquals(deleteOnly, withTenant);
+        assertEquals(2, SqlRewriteCacheStore.save(file));
+
+        restart();
+        TableCacheManager.registerTenantTable("user");
+        assertEquals(2, SqlRewriteCacheStore.load(file));
+        assertEquals(withTenant, JSqlDynamicSqlParser.appendConditions(sql));
+        assertEquals(deleteOnly, JSqlDynamicSqlParser.appendDeleteCondition(sql));
+        assertEquals(2, SqlRewriteCache.getHitCount());
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("3. 注册表指纹不一致时丢弃文件")
+    void test03_fingerprintMismatch() {
+        Path file = tempDir.resolve("sql-rewrite.bin");
+        JSqlDynamicSqlParser.appendDeleteCondition("SELECT * FROM user");
+        assertEquals(1, SqlRewriteCacheStore.save(file));
+
+        restart();
+        TableCacheManager.markDeleteFieldAsInvalid("user");
+        assertEquals(0, SqlRewriteCacheStore.load(file));
+        assertFalse(Files.exists(file), "指纹不一致的文件应被删除");
+        assertEquals(0, SqlRewriteCache.size());
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("4. 文件损坏或不存在时安全返回")
+    void test04_corruptedOrMissing() throws Exception {
+        assertEquals(0, SqlRewriteCacheStore.load(tempDir.resolve("missing.bin")));
+
+        Path file = tempDir.resolve("sql-rewrite.bin");
+        JSqlDynamicSqlParser.appendDeleteCondition("SELECT * FROM user");
+        SqlRewriteCacheStore.save(file);
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, java.util.Arrays.copyOf(bytes, bytes.length - 5));
+
+        restart();
+        assertEquals(0, SqlRewriteCacheStore.load(file));
+        assertFalse(Files.exists(file));
+        assertEquals(0, SqlRewriteCache.size());
+    }
+
+    @Test
+    @Order(5)
+    @DisplayName("5. 拼接式改写开关变化时丢弃文件")
+    void test05_rewriteEnvironmentChanged() {
+        Path file = tempDir.resolve("sql-rewrite.bin");
+        JSqlDynamicSqlParser.appendDeleteCondition("SELECT * FROM user");
+        assertEquals(1, SqlRewriteCacheStore.save(file));
+
+        restart();
+        JSqlDynamicSqlParser.spliceRewriteEnabled = false;
+        try {
+            assertEquals(0, SqlRewriteCacheStore.load(file), "AST 改写的结果与拼接式不同，不能复用");
+            assertFalse(Files.exists(file));
+        } finally {
+            JSqlDynamicSqlParser.spliceRewriteEnabled = true;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package io.github.mocanjie.base.myjpa.test;
+
+import io.github.mocanjie.base.myjpa.cache.SqlRewriteCache;
+import io.github.mocanjie.base.myjpa.cache.TableCacheManager;
+import io.github.mocanjie.base.myjpa.parser.JSqlDynamicSqlParser;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * SQL 改写缓存测试
+ *
+ * 覆盖范围：
+ *  - 相同 SQL 第二次调用命中缓存，结果一致
+ *  - 删除路径与合并路径互不串用
+ *  - 注册表变化（registerTenantTable / markDeleteFieldAsInvalid / clearCache）后缓存失效
+ *  - 超出容量时按 LRU 淘汰并计数
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("SQL 改写缓存测试")
+class SqlRewriteCacheTest {
+
+    @BeforeEach
+    void setup() {
+        SqlRewriteCache.enabled = true;
+        SqlRewriteCache.setMaxSize(SqlRewriteCache.DEFAULT_MAX_SIZE);
+        TableCacheManager.clearCache();
+        TableCacheManager.initCache("io.github.mocanjie.base.myjpa.test.entity");
+        JSqlDynamicSqlParser.tenantEnabled = false;
+        SqlRewriteCache.resetStats();
+    }
+
+    @AfterAll
+    static void teardown() {
+        SqlRewriteCache.setMaxSize(SqlRewriteCache.DEFAULT_MAX_SIZE);
+        JSqlDynamicSqlParser.tenantEnabled = false;
+        TableCacheManager.clearCache();
+        TableCacheManager.initCache("io.github.mocanjie.base.myjpa.test.entity");
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("1. 相同 SQL 第二次命中缓存")
+    void test01_hitOnSecondCall() {
+        String sql = "SELECT * FROM user WHERE age > 18";
+        String first = JSqlDynamicSqlParser.appendDeleteCondition(sql);
+        String second = JSqlDynamicSqlParser.appendDeleteCondition(sql);
+
+        assertEquals(first, second, "缓存结果应与首次改写一致");
+        assertTrue(first.contains("user.delete_flag = 0"));
+        assertEquals(1, SqlRewriteCache.getMissCount());
+        assertEquals(1, SqlRewriteCache.getHitCount());
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("2. 删除路径与合并路径分别缓存")
+    void test02_pathsCachedSeparately() {
+        JSqlDynamicSqlParser.tenantEnabled = true;
+        TableCacheManager.registerTenantTable("user");
+        String sql = "SELECT * FROM user";
+
+        String deleteOnly = JSqlDynamicSqlParser.appendDeleteCondition(sql);
+        String both = JSqlDynamicSqlParser.appendConditions(sql);
+
+        assertFalse(deleteOnly.contains(":myjpaTenantId"), "删除路径不应带租户条件");
+        assertTrue(both.contains(":myjpaTenantId"), "合并路径应带租户条件");
+        assertEquals(2, SqlRewriteCache.getMissCount());
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("3. registerTenantTable 后缓存失效")
+    void test03_invalidateOnTenantRegistration() {
+        JSqlDynamicSqlParser.tenantEnabled = true;
+        String sql = "SELECT * FROM role";
+
+        assertFalse(JSqlDynamicSqlParser.appendConditions(sql).contains(":myjpaTenantId"));
+        TableCacheManager.registerTenantTable("role");
+        assertTrue(JSqlDynamicSqlParser.appendConditions(sql).contains(":myjpaTenantId"),
+                "注册租户表后应重新改写");
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("4. markDeleteFieldAsInvalid 后缓存失效")
+    void test04_invalidateOnDeleteFieldInvalid() {
+        String sql = "SELECT * FROM user";
+
+        assertTrue(JSqlDynamicSqlParser.appendDeleteCondition(sql).contains("delete_flag"));
+        TableCacheManager.markDeleteFieldAsInvalid("user");
+        assertEquals(sql, JSqlDynamicSqlParser.appendDeleteCondition(sql),
+                "删除字段无效后不应再注入删除条件");
+    }
+
+    @Test
+    @Order(5)
+    @DisplayName("5. clearCache 后缓存失效")
+    void test05_invalidateOnClear() {
+        String sql = "SELECT * FROM user";
+
+        assertTrue(JSqlDynamicSqlParser.appendDeleteCondition(sql).contains("delete_flag"));
+        TableCacheManager.clearCache();
+        assertEquals(0, SqlRewriteCache.size());
+        assertEquals(sql, JSqlDynamicSqlParser.appendDeleteCondition(sql));
+    }
+
+    @Test
+    @Order(6)
+    @DisplayName("6. 超出容量时淘汰并计数")
+    void test06_evictionCounted() {
+        SqlRewriteCache.setMaxSize(16);
+        for (int i = 0; i < 200; i++) {
+            JSqlDynamicSqlParser.appendDeleteCondition("SELECT * FROM user WHERE id = " + i);
+        }
+        assertTrue(SqlRewriteCache.size() <= 16, "缓存条目数不应超过容量");
+        assertTrue(SqlRewriteCache.getEvictionCount() > 0, "应记录淘汰次数");
+    }
+
+    @Test
+    @Order(7)
+    @DisplayName("7. 关闭缓存时每次都重新解析")
+    void test07_disabled() {
+        SqlRewriteCache.enabled = false;
+        try {
+            String sql = "SELECT * FROM user";
+            JSqlDynamicSqlParser.appendDeleteCondition(sql);
+            JSqlDynamicSqlParser.appendDeleteCondition(sql);
+            assertEquals(0, SqlRewriteCache.getHitCount());
+            assertEquals(0, SqlRewriteCache.size());
+        } finally {
+            SqlRewriteCache.enabled = true;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package io.github.mocanjie.base.myjpa.test;
+
+import io.github.mocanjie.base.myjpa.cache.TableCacheManager;
+import io.github.mocanjie.base.myjpa.parser.JSqlDynamicSqlParser;
+import net.sf.jsqlparser.parser.CCJSqlParserUtil;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 拼接式改写测试
+ *
+ * 覆盖范围：
+ *  - 原始 SQL 文本（大小写、换行、空白）保持不变，仅在插入点追加条件
+ *  - 无 WHERE 时 WHERE 插在 GROUP BY / ORDER BY / LIMIT 之前
+ *  - 顶层 OR 条件追加 AND 时自动加括号
+ *  - LEFT JOIN 条件追加到 ON，子查询 / UNION 各自注入
+ *  - 改写结果可被重新解析
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("拼接式改写测试")
+class SqlRewritePlanTest {
+
+    @BeforeAll
+    static void setup() {
+        TableCacheManager.clearCache();
+        TableCacheManager.initCache("io.github.mocanjie.base.myjpa.test.entity");
+        JSqlDynamicSqlParser.tenantEnabled = false;
+        JSqlDynamicSqlParser.tenantColumn = "tenant_id";
+    }
+
+    @AfterAll
+    static void teardown() {
+        JSqlDynamicSqlParser.tenantEnabled = false;
+        JSqlDynamicSqlParser.spliceRewriteEnabled = true;
+    }
+
+    private static String rewrite(String sql) throws Exception {
+        String result = JSqlDynamicSqlParser.appendDeleteCondition(sql);
+        assertNotNull(CCJSqlParserUtil.parse(result), "改写结果应可重新解析: " + result);
+        return result;
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("1. 已有 WHERE 时在末尾追加，原文保持不变")
+    void test01_appendToExistingWhere() throws Exception {
+        assertEquals("select u.id\n  from user u\n where u.age>18 AND u.delete_flag = 0",
+                rewrite("select u.id\n  from user u\n where u.age>18"));
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("2. 无 WHERE 时插在 ORDER BY / LIMIT 之前")
+    void test02_insertWhereBeforeOrderBy() throws Exception {
+        assertEquals("select * from user WHERE user.delete_flag = 0 order by id limit 10",
+                rewrite("select * from user order by id limit 10"));
+        assertEquals("SELECT count(*) FROM user u WHERE u.delete_flag = 0 GROUP BY u.age HAVING count(*) > 1",
+                rewrite("SELECT count(*) FROM user u GROUP BY u.age HAVING count(*) > 1"));
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("3. 顶层 OR 条件加括号")
+    void test03_wrapOrCondition() throws Exception {
+        assertEquals("SELECT * FROM user WHERE (age > 18 OR age < 5) AND user.delete_flag = 0",
+                rewrite("SELECT * FROM user WHERE age > 18 OR age < 5"));
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("4. LEFT JOIN 条件追加到 ON")
+    void test04_leftJoinOn() throws Exception {
+        assertEquals("SELECT u.id, r.role_name FROM user u LEFT JOIN role r ON u.role_id = r.id AND r.is_deleted = 0"
+                        + " WHERE u.delete_flag = 0",
+                rewrite("SELECT u.id, r.role_name FROM user u LEFT JOIN role r ON u.role_id = r.id"));
+    }
+
+    @Test
+    @Order(5)
+    @DisplayName("5. 子查询与 UNION 分别注入")
+    void test05_subQueryAndUnion() throws Exception {
+        assertEquals("SELECT * FROM user WHERE id IN (SELECT user_id FROM role WHERE role.is_deleted = 0)"
+                        + " AND user.delete_flag = 0",
+                rewrite("SELECT * FROM user WHERE id IN (SELECT user_id FROM role)"));
+        assertEquals("SELECT id FROM user WHERE user.delete_flag = 0 UNION ALL SELECT id FROM role WHERE role.is_deleted = 0",
+                rewrite("SELECT id FROM user UNION ALL SELECT id FROM role"));
+    }
+
+    @Test
+    @Order(6)
+    @DisplayName("6. FROM 子查询的 WHERE 插在右括号之前")
+    void test06_derivedTable() throws Exception {
+        assertEquals("SELECT t.* FROM (SELECT * FROM user WHERE user.delete_flag = 0) t",
+                rewrite("SELECT t.* FROM (SELECT * FROM user) t"));
+    }
+
+    @Test
+    @Order(7)
+    @DisplayName("7. 租户条件与删除条件同时注入")
+    void test07_unified() throws Exception {
+        JSqlDynamicSqlParser.tenantEnabled = true;
+        TableCacheManager.registerTenantTable("user");
+        try {
+            assertEquals("SELECT * FROM user u WHERE u.delete_flag = 0 AND u.tenant_id = :myjpaTenantId",
+                    JSqlDynamicSqlParser.appendConditions("SELECT * FROM user u"));
+        } finally {
+            JSqlDynamicSqlParser.tenantEnabled = false;
+            TableCacheManager.clearCache();
+            TableCacheManager.initCache("io.github.mocanjie.base.myjpa.test.entity");
+        }
+    }
+
+    @Test
+    @Order(8)
+    @DisplayName("8. 关闭拼接时回退到 AST 序列化")
+    void test08_fallbackToAst() throws Exception {
+        JSqlDynamicSqlParser.spliceRewriteEnabled = false;
+        try {
+            String result = rewrite("select * from user where age>18");
+            assertTrue(result.startsWith("SELECT"), "AST 序列化会规范化关键字大小写");
+            assertTrue(result.contains("user.delete_flag = 0"));
+        } finally {
+            JSqlDynamicSqlParser.spliceRewriteEnabled = true;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package io.github.mocanjie.base.myjpa.test;
+
+import io.github.mocanjie.base.myjpa.cache.SqlRewriteCache;
+import io.github.mocanjie.base.myjpa.cache.TableCacheManager;
+import io.github.mocanjie.base.myjpa.metadata.TableInfo;
+import io.github.mocanjie.base.myjpa.parser.JSqlDynamicSqlParser;
+import io.github.mocanjie.base.myjpa.parser.SqlRewriteWarmer;
+import io.github.mocanjie.base.myjpa.test.entity.TestUser;
+import io.github.mocanjie.base.myjpa.test.warmup.TestQueries;
+import org.junit.jupiter.api.*;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * SQL 改写预热测试
+ *
+ * 覆盖范围：
+ *  - 扫描 @MyQuery static String 常量，忽略非 static 字段和未标注字段
+ *  - 生成实体 selectById SQL
+ *  - 并行预热后请求直接命中缓存
+ *  - 开启租户时同时预热两种改写路径
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("SQL 改写预热测试")
+class SqlRewriteWarmerTest {
+
+    @BeforeEach
+    void setup() {
+        SqlRewriteCache.enabled = true;
+        TableCacheManager.clearCache();
+        TableCacheManager.initCache("io.github.mocanjie.base.myjpa.test.entity");
+        JSqlDynamicSqlParser.tenantEnabled = false;
+        SqlRewriteCache.resetStats();
+    }
+
+    @AfterAll
+    static void teardown() {
+        JSqlDynamicSqlParser.tenantEnabled = false;
+        TableCacheManager.clearCache();
+        TableCacheManager.initCache("io.github.mocanjie.base.myjpa.test.entity");
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("1. 扫描 @MyQuery 常量")
+    void test01_collectAnnotatedSql() {
+        Set<String> sqls = SqlRewriteWarmer.collectAnnotatedSql("io.github.mocanjie.base.myjpa.test.warmup");
+        assertEquals(Set.of(TestQueries.ACTIVE_USERS,
+                "SELECT u.id, r.id FROM user u LEFT JOIN role r ON r.user_id = u.id",
+                TestQueries.NO_REGISTERED_TABLE), sqls);
+
+        assertTrue(SqlRewriteWarmer.collectAnnotatedSql("io.github.mocanjie.base.myjpa.test.entity").isEmpty());
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("2. 生成实体 selectById SQL")
+    void test02_collectCrudSql() {
+        TableInfo tableInfo = new TableInfo()
+                .setTableName("user")
+                .setClazz(TestUser.class)
+                .setPkColumnName("id")
+                .setPkFieldName("id");
+        assertEquals(Set.of("SELECT * FROM user WHERE id=:id"), SqlRewriteWarmer.collectCrudSql(List.of(tableInfo)));
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("3. 预热后请求命中缓存")
+    void test03_warmUp() {
+        Set<String> sqls = SqlRewriteWarmer.collectAnnotatedSql("io.github.mocanjie.base.myjpa.test.warmup");
+        SqlRewriteWarmer.Result result = SqlRewriteWarmer.warmUp(sqls, 2);
+
+        assertEquals(3, result.statements());
+        assertEquals(2, result.rewritten(), "audit_log 未注册，不需要改写");
+        assertEquals(2, result.cached());
+        assertEquals(0, result.failed());
+        assertEquals(2, SqlRewriteCache.size(), "未引用注册表的 SQL 不进入缓存");
+
+        SqlRewriteCache.resetStats();
+        String rewritten = JSqlDynamicSqlParser.appendDeleteCondition(TestQueries.ACTIVE_USERS);
+        assertEquals("SELECT * FROM user WHERE age > 18 AND user.delete_flag = 0", rewritten);
+        assertEquals(1, SqlRewriteCache.getHitCount());
+        assertEquals(0, SqlRewriteCache.getMissCount());
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("4. 开启租户时预热两种改写路径")
+    void test04_warmUpWithTenant() {
+        JSqlDynamicSqlParser.tenantEnabled = true;
+        TableCacheManager.registerTenantTable("user");
+
+        SqlRewriteWarmer.Result result = SqlRewriteWarmer.warmUp(List.of(TestQueries.ACTIVE_USERS), 0);
+        assertEquals(1, result.rewritten());
+        assertEquals(2, result.cached());
+        assertEquals(2, SqlRewriteCache.size());
+
+        SqlRewriteCache.resetStats();
+        JSqlDynamicSqlParser.appendDeleteCondition(TestQueries.ACTIVE_USERS);
+        JSqlDynamicSqlParser.appendConditions(TestQueries.ACTIVE_USERS);
+        assertEquals(2, SqlRewriteCache.getHitCount());
+    }
+}
@@ -0,0 +1,95 @@
+package io.github.mocanjie.base.myjpa.test;
+
+import io.github.mocanjie.base.myjpa.cache.SqlRewriteCache;
+import io.github.mocanjie.base.myjpa.cache.TableCacheManager;
+import io.github.mocanjie.base.myjpa.parser.JSqlDynamicSqlParser;
+import io.github.mocanjie.base.myjpa.parser.SqlStatementParser;
+import net.sf.jsqlparser.JSQLParserException;
+import net.sf.jsqlparser.statement.Statement;
+import net.sf.jsqlparser.statement.select.Select;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * SQL 解析入口测试
+ *
+ * 覆盖范围：
+ *  - 短 SQL 内联解析，长 SQL 走共享 executor，两种方式结果一致
+ *  - 需要复杂解析的 SQL 可以正常解析
+ *  - 语法错误抛出 JSQLParserException，改写入口原样返回；复杂解析受超时保护
+ *  - 切换平台线程池后仍可正常解析
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("SQL 解析入口测试")
+class SqlStatementParserTest {
+
+    @BeforeEach
+    void setup() {
+        SqlRewriteCache.enabled = false;
+        SqlStatementParser.inlineThreshold = SqlStatementParser.DEFAULT_INLINE_THRESHOLD;
+        SqlStatementParser.timeoutMillis = SqlStatementParser.DEFAULT_TIMEOUT_MILLIS;
+        SqlStatementParser.resetStats();
+        TableCacheManager.clearCache();
+        TableCacheManager.initCache("io.github.mocanjie.base.myjpa.test.entity");
+        JSqlDynamicSqlParser.tenantEnabled = false;
+    }
+
+    @AfterAll
+    static void teardown() {
+        SqlRewriteCache.enabled = true;
+        SqlStatementParser.inlineThreshold = SqlStatementParser.DEFAULT_INLINE_THRESHOLD;
+        SqlStatementParser.useVirtualThreads(true);
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("1. 短 SQL 内联解析，长 SQL 走 executor，结果一致")
+    void test01_inlineAndExecutor() {
+        String sql = "SELECT * FROM user u WHERE u.age > 18";
+        String inline = JSqlDynamicSqlParser.appendDeleteCondition(sql);
+        assertEquals(1, SqlStatementParser.getInlineCount());
+        assertEquals(0, SqlStatementParser.getExecutorCount());
+
+        SqlStatementParser.inlineThreshold = 0;
+        String pooled = JSqlDynamicSqlParser.appendDeleteCondition(sql);
+        assertEquals(1, SqlStatementParser.getExecutorCount());
+
+        assertEquals(inline, pooled);
+        assertEquals("SELECT * FROM user u WHERE u.age > 18 AND u.delete_flag = 0", inline);
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("2. 简单解析失败时回退复杂解析")
+    void test02_complexParsingInline() throws JSQLParserException {
+        String sql = "SELECT * FROM user WHERE id IN (SELECT user_id FROM role WHERE "
+                + "CASE WHEN (SELECT COUNT(*) FROM role r2 WHERE r2.id = role.id) > 0 THEN 1 ELSE 0 END = 1)";
+        Statement statement = SqlStatementParser.parse(sql);
+        assertInstanceOf(Select.class, statement);
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("3. 语法错误抛出 JSQLParserException，改写入口原样返回")
+    void test03_invalidSql() {
+        SqlStatementParser.timeoutMillis = 500;
+        assertThrows(JSQLParserException.class, () -> SqlStatementParser.parse("SELECT * FROM user WHERE ((("));
+        SqlStatementParser.inlineThreshold = 0;
+        assertThrows(JSQLParserException.class, () -> SqlStatementParser.parse("SELECT * FROM user WHERE ((("));
+
+        String invalid = "SELECT * FROM user WHERE (((";
+        assertEquals(invalid, JSqlDynamicSqlParser.appendDeleteCondition(invalid));
+        assertNull(assertDoesNotThrow(() -> SqlStatementParser.parse("")));
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("4. 切换平台线程池后正常解析")
+    void test04_platformExecutor() throws JSQLParserException {
+        SqlStatementParser.useVirtualThreads(false);
+        SqlStatementParser.inlineThreshold = 0;
+        assertInstanceOf(Select.class, SqlStatementParser.parse("SELECT id FROM role"));
+        assertEquals(1, SqlStatementParser.getExecutorCount());
+    }
+}
@@ -0,0 +1,187 @@
+package io.github.mocanjie.base.myjpa.test;
+
+import io.github.mocanjie.base.myjpa.builder.SqlBuilder;
+import io.github.mocanjie.base.myjpa.cache.TableCacheManager;
+import io.github.mocanjie.base.myjpa.dao.impl.BaseDaoImpl;
+import io.github.mocanjie.base.myjpa.dialect.MySqlDialect;
+import io.github.mocanjie.base.myjpa.dialect.PostgreSqlDialect;
+import io.github.mocanjie.base.myjpa.lambda.LambdaQueryWrapper;
+import io.github.mocanjie.base.myjpa.test.entity.TestUser;
+import org.junit.jupiter.api.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 流式查询测试
+ * 用记录 JDBC 调用的 Connection / PreparedStatement / ResultSet 替身代替数据库
+ *
+ * 覆盖范围：
+ *  - 只进、只读结果集，MySQL 使用 Integer.MIN_VALUE fetch size（useCursorFetch 时按配置），逐行惰性映射，SQL 经过逻辑删除条件注入
+ *  - PostgreSQL 临时关闭自动提交，关闭流时回滚并恢复
+ *  - 回调形式在方法返回（含回调抛出异常）时关闭游标与连接
+ *  - LambdaQueryWrapper.stream() / forEach()
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("流式查询测试")
+class StreamingQueryTest {
+
+    /** 记录 JDBC 调用的数据源替身，默认两列 id / username */
+    static class RecordingDataSource {
+        final List<String> columns = new ArrayList<>(List.of("id", "username"));
+        final List<String> calls = new CopyOnWriteArrayList<>();
+        final List<Object[]> rows = new ArrayList<>();
+        boolean autoCommit = true;
+        String preparedSql;
+
+        DataSource dataSource() {
+            return FakeResultSet.proxy(DataSource.class, (method, args) -> method.getName().equals("getConnection") ? connection() : null);
+        }
+
+        private Connection connection() {
+            return FakeResultSet.proxy(Connection.class, (method, args) -> switch (method.getName()) {
+                case "getAutoCommit" -> autoCommit;
+                case "setAutoCommit" -> {
+                    autoCommit = (boolean) args[0];
+                    calls.add("autoCommit=" + autoCommit);
+                    yield null;
+                }
+                case "prepareStatement" -> {
+                    preparedSql = (String) args[0];
+                    calls.add("prepare:" + (args.length == 3 ? args[1] + "/" + args[2] : "default"));
+                    yield statement();
+                }
+                case "rollback", "close" -> {
+                    calls.add("connection." + method.getName());
+                    yield null;
+                }
+                default -> null;
+            });
+        }
+
+        private PreparedStatement statement() {
+            return FakeResultSet.proxy(PreparedStatement.class, (method, args) -> switch (method.getName()) {
+                case "setFetchSize" -> {
+                    calls.add("fetchSize=" + args[0]);
+                    yield null;
+                }
+                case "executeQuery" -> resultSet();
+                case "close" -> {
+                    calls.add("statement.close");
+                    yield null;
+                }
+                default -> null;
+            });
+        }
+
+        private ResultSet resultSet() {
+            return FakeResultSet.of(columns, rows)
+                    .events(event -> calls.add(event.equals("close") ? "resultSet.close" : event))
+                    .resultSet();
+        }
+    }
+
+    private RecordingDataSource db;
+    private BaseDaoImpl dao;
+
+    @BeforeEach
+    void setup() {
+        TableCacheManager.clearCache();
+        TableCacheManager.initCache("io.github.mocanjie.base.myjpa.test.entity");
+        SqlBuilder.setDialect(new MySqlDialect());
+        db = new RecordingDataSource();
+        db.rows.add(new Object[]{1L, "a"});
+        db.rows.add(new Object[]{2L, "b"});
+        db.rows.add(new Object[]{3L, "c"});
+        NamedParameterJdbcTemplate template = new NamedParameterJdbcTemplate(new JdbcTemplate(db.dataSource()));
+        dao = new BaseDaoImpl() {
+            {
+                namedParameterJdbcTemplate = template;
+            }
+        };
+    }
+
+    @AfterAll
+    static void restore() {
+        SqlBuilder.setDialect(new MySqlDialect());
+        BaseDaoImpl.streamFetchSize = 1000;
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("1. MySQL：只进只读游标，逐行惰性映射")
+    void test01_mysql() {
+        try (Stream<TestUser> stream = dao.queryStreamForSql("select id, username from user where username like :name",
+                Map.of("name", "%"), TestUser.class)) {
+            assertTrue(db.preparedSql.contains("delete_flag"), "经过逻辑删除条件注入：" + db.preparedSql);
+            // 未指定结果集类型，JDBC 默认即只进、只读
+            assertEquals(List.of("prepare:default", "fetchSize=" + Integer.MIN_VALUE), db.calls);
+
+            List<TestUser> first = stream.limit(1).collect(Collectors.toList());
+            assertEquals("a", first.get(0).getUsername());
+            assertEquals(1, db.calls.stream().filter("next"::equals).count(), "只读取了消费的行");
+        }
+        assertTrue(db.calls.containsAll(List.of("resultSet.close", "statement.close", "connection.close")));
+        assertFalse(db.calls.contains("autoCommit=false"), "MySQL 不需要关闭自动提交");
+
+        assertEquals(1000, new MySqlDialect(true, true).streamFetchSize(1000), "useCursorFetch=true 时按配置分批读取");
+        assertEquals(Integer.MIN_VALUE, new MySqlDialect(true, true).streamFetchSize(0));
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("2. PostgreSQL：临时关闭自动提交")
+    void test02_postgres() {
+        SqlBuilder.setDialect(new PostgreSqlDialect());
+        BaseDaoImpl.streamFetchSize = 50;
+        try (Stream<TestUser> users = dao.queryStreamForSql("select id, username from user", (Object) null, TestUser.class)) {
+            assertEquals(List.of(1L, 2L, 3L), users.map(TestUser::getId).toList());
+            assertFalse(db.autoCommit);
+        }
+        assertTrue(db.autoCommit, "关闭流后恢复自动提交");
+        assertEquals(List.of("autoCommit=false", "fetchSize=50", "connection.rollback", "autoCommit=true", "connection.close"),
+                db.calls.stream().filter(c -> c.startsWith("autoCommit") || c.startsWith("fetchSize") || c.startsWith("connection")).toList());
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("3. 回调形式结束时关闭游标")
+    void test03_forEach() {
+        List<String> names = new ArrayList<>();
+        dao.queryForEachForSql("select id, username from user", (Map<String, Object>) null, TestUser.class, u -> names.add(u.getUsername()));
+        assertEquals(List.of("a", "b", "c"), names);
+        assertTrue(db.calls.contains("connection.close"));
+
+        db.calls.clear();
+        assertThrows(IllegalStateException.class, () -> dao.queryForEachForSql("select id, username from user", (Object) null,
+                TestUser.class, u -> { throw new IllegalStateException("stop"); }));
+        assertTrue(db.calls.containsAll(List.of("resultSet.close", "connection.close")), "回调异常时同样关闭");
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("4. LambdaQueryWrapper 流式终结方法")
+    void test04_lambda() {
+        LambdaQueryWrapper<TestUser, TestUser> wrapper = new LambdaQueryWrapper<>(TestUser.class, TestUser.class, dao)
+                .eq(TestUser::getUsername, "a");
+        try (Stream<TestUser> stream = wrapper.stream()) {
+            assertEquals(3, stream.count());
+        }
+        assertTrue(db.preparedSql.contains("delete_flag"));
+        List<Long> ids = new ArrayList<>();
+        wrapper.forEach(u -> ids.add(u.getId()));
+        assertEquals(List.of(1L, 2L, 3L), ids);
+    }
+}
@@ -0,0 +1,111 @@
+package io.github.mocanjie.base.myjpa.test;
+
+import io.github.mocanjie.base.myjpa.cache.SqlRewriteCache;
+import io.github.mocanjie.base.myjpa.cache.TableCacheManager;
+import io.github.mocanjie.base.myjpa.cache.TableNameMatcher;
+import io.github.mocanjie.base.myjpa.parser.JSqlDynamicSqlParser;
+import org.junit.jupiter.api.*;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 表名预扫描测试
+ *
+ * 覆盖范围：
+ *  - 标识符边界（user 不匹配 user_log / sys_user）
+ *  - 忽略大小写、反引号/双引号/schema 前缀
+ *  - 共享前缀、互为后缀的多个表名
+ *  - 未引用已注册表的 SQL 直接返回，不解析也不进入改写缓存
+ *  - registerTenantTable 后匹配器重建
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("表名预扫描测试")
+class TableNameMatcherTest {
+
+    @BeforeEach
+    void setup() {
+        SqlRewriteCache.enabled = true;
+        TableCacheManager.clearCache();
+        TableCacheManager.initCache("io.github.mocanjie.base.myjpa.test.entity");
+        JSqlDynamicSqlParser.tenantEnabled = false;
+        SqlRewriteCache.resetStats();
+    }
+
+    @AfterAll
+    static void teardown() {
+        JSqlDynamicSqlParser.tenantEnabled = false;
+        TableCacheManager.clearCache();
+        TableCacheManager.initCache("io.github.mocanjie.base.myjpa.test.entity");
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("1. 标识符边界")
+    void test01_identifierBoundary() {
+        TableNameMatcher matcher = TableNameMatcher.of(List.of("user"));
+        assertTrue(matcher.matches("select * from user"));
+        assertTrue(matcher.matches("select * from user u where u.id = 1"));
+        assertTrue(matcher.matches("select * from user,role"));
+        assertFalse(matcher.matches("select * from user_log"));
+        assertFalse(matcher.matches("select * from sys_user"));
+        assertFalse(matcher.matches("select * from user2"));
+        assertFalse(matcher.matches("select * from $user"));
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("2. 忽略大小写与引号/schema 前缀")
+    void test02_caseAndQuoting() {
+        TableNameMatcher matcher = TableNameMatcher.of(List.of("User"));
+        assertTrue(matcher.matches("SELECT * FROM USER"));
+        assertTrue(matcher.matches("select * from `user`"));
+        assertTrue(matcher.matches("select * from \"User\""));
+        assertTrue(matcher.matches("select * from public.user"));
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("3. 共享前缀与互为后缀的表名")
+    void test03_overlappingNames() {
+        TableNameMatcher matcher = TableNameMatcher.of(List.of("user_role", "role", "user"));
+        assertTrue(matcher.matches("select * from sys_role, user_role"));
+        assertTrue(matcher.matches("select * from x_user_rolex, role"));
+        assertTrue(matcher.matches("select * from user_rol join user on 1=1"));
+        assertFalse(matcher.matches("select * from user_rolex"));
+        assertFalse(matcher.matches("select * from sys_user_role_log"));
+        assertFalse(TableNameMatcher.of(List.of()).matches("select * from user"));
+        assertTrue(TableNameMatcher.of(List.of()).isEmpty());
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("4. 未引用注册表的 SQL 不解析、不进缓存")
+    void test04_bypassParse() {
+        String sql = "select * from  user_log  where  id = 1";
+        assertSame(sql, JSqlDynamicSqlParser.appendDeleteCondition(sql));
+        assertSame(sql, JSqlDynamicSqlParser.appendConditions(sql));
+        assertEquals(0, SqlRewriteCache.getMissCount());
+        assertEquals(0, SqlRewriteCache.size());
+
+        // 无法解析的 SQL 同样原样返回
+        String invalid = "this is not sql";
+        assertSame(invalid, JSqlDynamicSqlParser.appendDeleteCondition(invalid));
+    }
+
+    @Test
+    @Order(5)
+    @DisplayName("5. 注册租户表后匹配器重建")
+    void test05_rebuildOnRegister() {
+        JSqlDynamicSqlParser.tenantEnabled = true;
+        String sql = "SELECT * FROM tenant_only WHERE id = 1";
+        assertFalse(TableCacheManager.mayReferenceRegisteredTable(sql));
+
+        TableCacheManager.registerTenantTable("tenant_only");
+        assertTrue(TableCacheManager.mayReferenceRegisteredTable(sql));
+
+        TableCacheManager.clearCache();
+        assertFalse(TableCacheManager.mayReferenceRegisteredTable("SELECT * FROM user"));
+    }
+}
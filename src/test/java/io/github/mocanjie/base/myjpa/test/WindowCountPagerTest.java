@@ -0,0 +1,178 @@
+package io.github.mocanjie.base.myjpa.test;
+
+import io.github.mocanjie.base.mycommon.pager.Pager;
+import io.github.mocanjie.base.myjpa.builder.SqlBuilder;
+import io.github.mocanjie.base.myjpa.cache.TableCacheManager;
+import io.github.mocanjie.base.myjpa.dao.impl.BaseDaoImpl;
+import io.github.mocanjie.base.myjpa.dialect.DialectResolver;
+import io.github.mocanjie.base.myjpa.dialect.MySqlDialect;
+import io.github.mocanjie.base.myjpa.dialect.PostgreSqlDialect;
+import io.github.mocanjie.base.myjpa.test.entity.TestUser;
+import org.junit.jupiter.api.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 窗口函数分页测试（count(*) over() 单次查询返回分页数据与总数）
+ * 用内存结果集替身代替数据库
+ *
+ * 覆盖范围：
+ *  - 数据库类型与版本识别
+ *  - MySQL / PostgreSQL 分页 SQL
+ *  - 从结果中剥离总数、页码越界时回退 count、单列结果与关闭时保持原方式
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("窗口函数分页测试")
+class WindowCountPagerTest {
+
+    /** 记录执行的 SQL，分页查询返回预置行（按列名取值） */
+    static class FakeTemplate extends NamedParameterJdbcTemplate {
+        final List<String> sqls = new ArrayList<>();
+        List<Map<String, Object>> rows = List.of();
+
+        FakeTemplate() {
+            super(new JdbcTemplate());
+        }
+
+        @Override
+        public <T> T queryForObject(String sql, SqlParameterSource paramSource, RowMapper<T> rowMapper) {
+            sqls.add(sql);
+            @SuppressWarnings("unchecked")
+            T result = (T) Long.valueOf(42L);
+            return result;
+        }
+
+        @Override
+        public <T> List<T> query(String sql, SqlParameterSource paramSource, RowMapper<T> rowMapper) {
+            sqls.add(sql);
+            List<T> result = new ArrayList<>();
+            try {
+                for (int i = 0; i < rows.size(); i++) {
+                    result.add(rowMapper.mapRow(resultSet(rows.get(i)), i));
+                }
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+            return result;
+        }
+    }
+
+    private static ResultSet resultSet(Map<String, Object> row) {
+        return FakeResultSet.row(row);
+    }
+
+    private static Map<String, Object> row(long id, String username, long total) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("id", id);
+        row.put("username", username);
+        row.put(SqlBuilder.TOTAL_ROWS_COLUMN, total);
+        return row;
+    }
+
+    private FakeTemplate template;
+    private BaseDaoImpl dao;
+
+    @BeforeEach
+    void setup() {
+        SqlBuilder.setDialect(new MySqlDialect(true));
+        SqlBuilder.windowCountEnabled = true;
+        TableCacheManager.clearCache();
+        TableCacheManager.initCache("io.github.mocanjie.base.myjpa.test.entity");
+        template = new FakeTemplate();
+        dao = new BaseDaoImpl() {
+            {
+                namedParameterJdbcTemplate = template;
+            }
+        };
+    }
+
+    @AfterAll
+    static void teardown() {
+        SqlBuilder.setDialect(new MySqlDialect());
+        SqlBuilder.windowCountEnabled = false;
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("1. 按数据库类型与版本识别窗口函数支持")
+    void test01_detect() {
+        assertTrue(DialectResolver.resolve("mysql", 8, "8.0.33").supportsWindowFunction());
+        assertFalse(DialectResolver.resolve("mysql", 5, "5.7.44-log").supportsWindowFunction());
+        assertTrue(DialectResolver.resolve("mysql", 5, "5.5.5-10.6.12-mariadb").supportsWindowFunction());
+        assertFalse(DialectResolver.resolve("mysql", 5, "5.5.5-10.1.48-mariadb").supportsWindowFunction(), "MariaDB 10.2 起才支持");
+        assertFalse(DialectResolver.resolve("mariadb", 10, "10.1.48-mariadb").supportsWindowFunction());
+        assertTrue(DialectResolver.resolve("mariadb", 10, "10.2.44-mariadb").supportsWindowFunction());
+        assertTrue(DialectResolver.resolve("mariadb", 11, "11.4.2").supportsWindowFunction());
+        assertFalse(DialectResolver.resolve("mariadb", 10, "").supportsWindowFunction(), "无法确认次版本时关闭");
+        assertTrue(DialectResolver.resolve("postgresql", 16, "16.1").supportsWindowFunction());
+        assertFalse(DialectResolver.resolve("oracle", 19, "19c").supportsWindowFunction());
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("2. MySQL / PostgreSQL 分页 SQL")
+    void test02_sql() {
+        Pager<TestUser> pager = new Pager<>(2, 10);
+        pager.setSort("createTime");
+        pager.setOrder("desc");
+        assertEquals(" select _mysqltb_.*, count(*) over() as myjpa_total_rows from ( SELECT * FROM user )"
+                        + " as _mysqltb_  order by create_time desc limit 10,10",
+                SqlBuilder.buildWindowPagerSql("SELECT * FROM user", pager));
+        SqlBuilder.setDialect(new PostgreSqlDialect());
+        assertEquals(" select _pgsqltb_.*, count(*) over() as myjpa_total_rows from ( SELECT * FROM user )"
+                        + " as _pgsqltb_  order by create_time desc OFFSET 10 LIMIT 10",
+                SqlBuilder.buildWindowPagerSql("SELECT * FROM user", pager));
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("3. 单次查询返回数据与总数")
+    void test03_single() {
+        template.rows = List.of(row(1L, "a", 25L), row(2L, "b", 25L));
+        Pager<TestUser> pager = dao.queryPageForSql("SELECT * FROM user", Map.of(), new Pager<>(1, 2), TestUser.class);
+        assertEquals(25L, pager.getTotalRows());
+        assertEquals(2, pager.getPageData().size());
+        assertEquals("b", pager.getPageData().get(1).getUsername());
+        assertEquals(1, template.sqls.size());
+        assertTrue(template.sqls.get(0).contains("count(*) over()"));
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("4. 第一页为空总数为 0，页码越界时回退 count")
+    void test04_empty() {
+        Pager<TestUser> first = dao.queryPageForSql("SELECT * FROM user", Map.of(), new Pager<>(1, 10), TestUser.class);
+        assertEquals(0L, first.getTotalRows());
+        assertEquals(1, template.sqls.size());
+
+        Pager<TestUser> beyond = dao.queryPageForSql("SELECT * FROM user", Map.of(), new Pager<>(9, 10), TestUser.class);
+        assertEquals(42L, beyond.getTotalRows());
+        assertEquals(3, template.sqls.size());
+        assertTrue(template.sqls.get(2).startsWith("SELECT count(*)"), template.sqls.get(2));
+    }
+
+    @Test
+    @Order(5)
+    @DisplayName("5. 单列结果、关闭开关或数据库不支持时保持 count + 分页")
+    void test05_fallback() {
+        dao.queryPageForSql("SELECT id FROM user", Map.of(), new Pager<>(1, 10), Long.class);
+        SqlBuilder.windowCountEnabled = false;
+        dao.queryPageForSql("SELECT * FROM user", Map.of(), new Pager<>(1, 10), TestUser.class);
+        SqlBuilder.windowCountEnabled = true;
+        SqlBuilder.setDialect(new MySqlDialect(false));
+        dao.queryPageForSql("SELECT * FROM user", Map.of(), new Pager<>(1, 10), TestUser.class);
+        assertEquals(6, template.sqls.size(), template.sqls.toString());
+        assertTrue(template.sqls.stream().noneMatch(sql -> sql.contains("over()")));
+    }
+}
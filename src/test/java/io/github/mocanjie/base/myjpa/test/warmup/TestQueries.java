@@ -0,0 +1,21 @@
+package io.github.mocanjie.base.myjpa.test.warmup;
+
+import io.github.mocanjie.base.myjpa.annotation.MyQuery;
+
+public class TestQueries {
+
+    @MyQuery
+    public static final String ACTIVE_USERS = "SELECT * FROM user WHERE age > 18";
+
+    @MyQuery
+    static final String USER_ROLES = "SELECT u.id, r.id FROM user u LEFT JOIN role r ON r.user_id = u.id";
+
+    @MyQuery
+    public static final String NO_REGISTERED_TABLE = "SELECT * FROM audit_log";
+
+    /** 非 static 字段不参与预热 */
+    @MyQuery
+    public final String instanceSql = "SELECT * FROM role";
+
+    public static final String NOT_ANNOTATED = "SELECT * FROM role WHERE id = 1";
+}